@@ -0,0 +1,67 @@
+package benchmarks;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
+import missionmodel.gnc.blackbird.interfaces.Observer;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.gnc.blackbird.interfaces.Target;
+import missionmodel.gnc.blackbird.mmgenerator.GenerateAttitudeModel;
+import missionmodel.gnc.blackbird.mmgenerator.GenerateNoRateMatchAttitudeModel;
+import missionmodel.gnc.blackbird.mmgenerator.GenerateRateMatchAttitudeModel;
+import missionmodel.gnc.blackbird.observers.CustomObserver;
+import missionmodel.gnc.blackbird.targets.primary.BodyCenterPrimaryTarget;
+import missionmodel.gnc.blackbird.targets.secondary.BodyCenterSecondaryTarget;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Attitude generation for MRO pointing +X at Mars with +Z towards the Sun, as PointToTargetBody does: the steady-state
+ * orientation at one epoch, and a turn into that pointing from the identity orientation with each turn model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttitudeBenchmark {
+  @Param({"RateMatch", "NoRateMatch"})
+  public String turnModel;
+
+  private GenerateAttitudeModel model;
+  private final Observer primaryObserver = new CustomObserver(Vector3D.PLUS_I);
+  private final Observer secondaryObserver = new CustomObserver(Vector3D.PLUS_K);
+  private Target primaryTarget;
+  private Target secondaryTarget;
+  private final Orientation from = new Orientation(Rotation.IDENTITY, Vector3D.ZERO);
+  private final Duration override = Duration.fromHours(2);
+
+  @Setup(Level.Trial)
+  public void setUp(KernelState kernels) {
+    Vector3D velocityLimit = new Vector3D(5e-4, 5e-4, 5e-4);
+    Vector3D accelerationLimit = new Vector3D(5e-6, 5e-6, 5e-6);
+    Duration stepSize = Duration.fromSeconds(1);
+    Duration sampleRate = Duration.fromSeconds(10);
+    model = turnModel.equals("RateMatch")
+      ? new GenerateRateMatchAttitudeModel(velocityLimit, accelerationLimit, stepSize, sampleRate)
+      : new GenerateNoRateMatchAttitudeModel(velocityLimit, accelerationLimit, stepSize, sampleRate);
+    primaryTarget = new BodyCenterPrimaryTarget("MARS", KernelState.SPACECRAFT, "J2000");
+    secondaryTarget = new BodyCenterSecondaryTarget("SUN", KernelState.SPACECRAFT, "J2000", primaryTarget);
+  }
+
+  @Benchmark
+  public Orientation getOrientation() {
+    return model.getOrientation(KernelState.START, primaryObserver, primaryTarget, secondaryObserver, secondaryTarget);
+  }
+
+  @Benchmark
+  public SortedMap<Time, Orientation> getOrientations() throws AttitudeNotAvailableException {
+    return model.getOrientations(KernelState.START, from, primaryObserver, primaryTarget, secondaryObserver,
+      secondaryTarget, override);
+  }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Window;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpiceDirectEventGenerator searches over one day of MRO's orbit: Mars eclipses of the Sun with partials resolved,
+ * and periapses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventSearchBenchmark {
+  private SpiceDirectEventGenerator generator;
+  private final Time end = KernelState.START.add(Duration.fromDays(1));
+
+  @Setup(Level.Trial)
+  public void setUp(KernelState kernels) {
+    generator = kernels.context.newEventGenerator();
+  }
+
+  @Benchmark
+  public List<Window> getOccultations() throws GeometryInformationNotAvailableException {
+    return generator.getOccultations(KernelState.START, end, Duration.fromMinutes(1), KernelState.SPACECRAFT,
+      "SUN", "MARS", "CN", false, false, false);
+  }
+
+  @Benchmark
+  public List<Time> getPeriapses() throws GeometryInformationNotAvailableException {
+    return generator.getPeriapses(KernelState.START, end, Duration.fromMinutes(5), KernelState.SPACECRAFT,
+      "MARS", 10000, "CN");
+  }
+}
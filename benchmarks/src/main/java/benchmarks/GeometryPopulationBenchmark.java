@@ -0,0 +1,46 @@
+package benchmarks;
+
+import gov.nasa.jpl.aerie.merlin.driver.DirectiveTypeRegistry;
+import gov.nasa.jpl.aerie.merlin.driver.MissionModel;
+import gov.nasa.jpl.aerie.merlin.driver.MissionModelBuilder;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import missionmodel.Configuration;
+import missionmodel.generated.GeneratedModelType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.HOURS;
+
+/**
+ * GenericGeometryCalculator.calculateGeometry for every body of the geometry config, as driven by the
+ * BodyGeometryGenerators over an empty plan. calculateGeometry sets Merlin resources, so it only runs inside a
+ * simulation; each invocation is one simulation, model construction included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeometryPopulationBenchmark {
+  @Param({"24"})
+  public int hours;
+
+  private final Instant start = Instant.parse("2024-01-02T00:00:00Z");
+
+  @Benchmark
+  public SimulationResults simulateEmptyPlan() {
+    final var config = Configuration.defaultConfiguration();
+    final var duration = Duration.of(hours, HOURS);
+    final var builder = new MissionModelBuilder();
+    final var factory = new GeneratedModelType();
+    final var registry = DirectiveTypeRegistry.extract(factory);
+    final MissionModel<?> model = builder.build(factory.instantiate(start, config, builder), registry);
+    return SimulationDriver.simulate(model, Map.of(), start, duration, start, duration, () -> false);
+  }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Mission;
+import missionmodel.geometry.spiceinterpolation.GeometryContext;
+import missionmodel.spice.SerializedSpiceBackend;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import spice.basic.SpiceErrorException;
+
+/**
+ * The bundled MRO kernels and the bodies of the geometry config, loaded once per benchmark run. The kernels cover MRO
+ * from 2024-01-01T00:01:10 to 2024-05-06T10:40:00, so benchmarks work inside the days after START.
+ */
+@State(Scope.Benchmark)
+public class KernelState {
+  public static final Time START = new Time("2024-01-02T00:00:00");
+  public static final String SPACECRAFT = "-74"; // MRO
+  public static final String ABCORR = "LT+S";
+
+  public GeometryContext context;
+
+  @Setup(Level.Trial)
+  public void load() throws SpiceErrorException {
+    SerializedSpiceBackend spice = new SerializedSpiceBackend(Mission.NAIF_META_KERNEL_PATH);
+    spice.initialize();
+    context = GeometryContext.load(spice);
+  }
+
+  /**
+   * @return count epochs from START, step apart
+   */
+  public static Time[] epochs(int count, Duration step) {
+    Time[] epochs = new Time[count];
+    for (int i = 0; i < count; i++) {
+      epochs[i] = START.add(step.multiply(i));
+    }
+    return epochs;
+  }
+}
@@ -0,0 +1,210 @@
+package benchmarks;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import gov.nasa.jpl.aerie.merlin.driver.DirectiveTypeRegistry;
+import gov.nasa.jpl.aerie.merlin.driver.MissionModel;
+import gov.nasa.jpl.aerie.merlin.driver.MissionModelBuilder;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationDriver;
+import gov.nasa.jpl.aerie.merlin.driver.SimulationResults;
+import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.aerie.types.ActivityDirective;
+import gov.nasa.jpl.aerie.types.ActivityDirectiveId;
+import missionmodel.Configuration;
+import missionmodel.generated.GeneratedModelType;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceInstrumentation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.HOURS;
+import static gov.nasa.jpl.aerie.merlin.protocol.types.Duration.MICROSECONDS;
+
+/**
+ * Runs whole simulations headless, as GncTest does, over every combination of plan length, geometry body set and
+ * pointing activity density given, and records for each what sizing simulation workers needs: wall time, simulated
+ * days per second, peak heap, allocation, SPICE calls and the profile segments of every resource.
+ *
+ * Options, each a comma separated list:
+ *   --days=1,7,30,365            plan lengths in days
+ *   --bodies=all;MARS;SUN,MARS   body sets, separated by semicolons, "all" for every body of the geometry config
+ *   --activities-per-day=0,24    PointToTargetBody activities per day, evenly spaced
+ *   --start=2024-01-02T00:00:00Z plan start
+ *   --activity-end=2024-05-06T00:00:00Z no activities are scheduled after this, where the bundled kernels end
+ *   --warmup=1                   simulations of the first scenario run before measuring, to warm up the JIT
+ *   --spice-instrumentation      also time every SPICE call (see SpiceInstrumentation) and print a summary per run
+ *   --out=results.csv            results file; JSON if it ends in .json, otherwise CSV, with the per-resource segment
+ *                                counts next to it in a .segments.csv file
+ *
+ * Runs from the repository root, where the meta-kernel's relative paths resolve. The bundled MRO kernels only cover
+ * January to May 2024, so geometry stops being stepped where the geometry config's calculation periods end; point the
+ * meta-kernel and config at longer kernels to size year-long plans.
+ */
+public class SimulationHarness {
+
+  public record Scenario(int days, List<String> bodies, int activitiesPerDay) {}
+
+  private final Instant start;
+  private final Instant activityEnd;
+
+  public SimulationHarness(Instant start, Instant activityEnd) {
+    this.start = start;
+    this.activityEnd = activityEnd;
+  }
+
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+      options.put(parts[0], parts.length > 1 ? parts[1] : "");
+    }
+
+    List<Integer> days = ints(options.getOrDefault("days", "1,7,30,365"));
+    List<Integer> densities = ints(options.getOrDefault("activities-per-day", "0,24"));
+    List<List<String>> bodySets = new ArrayList<>();
+    for (String set : options.getOrDefault("bodies", "all").split(";")) {
+      bodySets.add(set.equals("all") ? List.of() : Arrays.asList(set.split(",")));
+    }
+    List<Scenario> scenarios = new ArrayList<>();
+    for (int d : days) {
+      for (List<String> bodies : bodySets) {
+        for (int density : densities) {
+          scenarios.add(new Scenario(d, bodies, density));
+        }
+      }
+    }
+
+    SimulationHarness harness = new SimulationHarness(
+      Instant.parse(options.getOrDefault("start", "2024-01-02T00:00:00Z")),
+      Instant.parse(options.getOrDefault("activity-end", "2024-05-06T00:00:00Z")));
+    int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+    boolean instrumented = options.containsKey("spice-instrumentation");
+    for (int i = 0; i < warmup && !scenarios.isEmpty(); i++) {
+      harness.run(scenarios.get(0));
+    }
+
+    List<SimulationMeasurement> measurements = new ArrayList<>();
+    System.out.println(SimulationMeasurement.CSV_HEADER);
+    SpiceInstrumentation.setEnabled(instrumented);
+    for (Scenario scenario : scenarios) {
+      SpiceInstrumentation.reset();
+      SimulationMeasurement measurement = harness.run(scenario);
+      System.out.println(measurement.toCsvRow());
+      if (instrumented) {
+        System.out.print(SpiceInstrumentation.summary());
+      }
+      measurements.add(measurement);
+    }
+    write(Path.of(options.getOrDefault("out", "build/results/simulation/results.csv")), measurements);
+  }
+
+  /**
+   * Simulates the scenario once, in this thread, and measures it
+   */
+  public SimulationMeasurement run(Scenario scenario) {
+    Configuration defaults = Configuration.defaultConfiguration();
+    Configuration config = new Configuration(defaults.spacecraftId(), defaults.spacecraftIdString(), defaults.geometryPath(),
+      defaults.gncAngularVelocityLimit(), defaults.gncAngularAccelerationLimit(), defaults.gncRateMatching(),
+      defaults.additionalSpacecraftIds(), scenario.bodies(), defaults.analyticGeometry(), defaults.analyticCentralBody(),
+      defaults.analyticOrbitElements(), defaults.analyticDrag(), defaults.fidelity(), defaults.keepOutZones());
+    Duration duration = Duration.of(scenario.days() * 24L, HOURS);
+    Map<ActivityDirectiveId, ActivityDirective> schedule = schedule(scenario, duration);
+
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+    long callsBefore = SerializedSpiceBackend.totalCalls();
+    long began = System.nanoTime();
+
+    SimulationResults results = SimulationDriver.simulate(missionModel(config), schedule, start, duration, start,
+      duration, () -> false);
+
+    double wallSeconds = (System.nanoTime() - began) / 1e9;
+    long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+    long spiceCalls = SerializedSpiceBackend.totalCalls() - callsBefore;
+    long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+    Map<String, Integer> segments = new TreeMap<>();
+    results.realProfiles.forEach((name, profile) -> segments.put(name, profile.segments().size()));
+    results.discreteProfiles.forEach((name, profile) -> segments.put(name, profile.segments().size()));
+
+    return new SimulationMeasurement(scenario.days(), scenario.bodies(), scenario.activitiesPerDay(), schedule.size(),
+      wallSeconds, peakHeap, allocated, spiceCalls, segments);
+  }
+
+  /**
+   * @return PointToTargetBody activities evenly spaced over the plan, alternating between pointing at Mars with the
+   * Sun as secondary and at the Sun with Earth as secondary, so each one slews
+   */
+  private Map<ActivityDirectiveId, ActivityDirective> schedule(Scenario scenario, Duration duration) {
+    Map<ActivityDirectiveId, ActivityDirective> schedule = new HashMap<>();
+    long count = (long) scenario.days() * scenario.activitiesPerDay();
+    if (count == 0) {
+      return schedule;
+    }
+    long spacing = duration.in(MICROSECONDS) / count;
+    long lastOffset = java.time.Duration.between(start, activityEnd).toNanos() / 1000;
+    for (long i = 0; i < count && i * spacing < lastOffset; i++) {
+      boolean towardsMars = i % 2 == 0;
+      schedule.put(new ActivityDirectiveId(i + 1), new ActivityDirective(
+        Duration.of(i * spacing, MICROSECONDS),
+        "PointToTargetBody",
+        Map.of("primaryTargetBodyName", SerializedValue.of(towardsMars ? "MARS" : "SUN"),
+               "secondaryTargetBodyName", SerializedValue.of(towardsMars ? "SUN" : "EARTH"),
+               "primaryObserverString", SerializedValue.of("X"),
+               "secondaryObserverString", SerializedValue.of("Z")),
+        null,
+        true
+      ));
+    }
+    return schedule;
+  }
+
+  private MissionModel<?> missionModel(Configuration config) {
+    final var builder = new MissionModelBuilder();
+    final var factory = new GeneratedModelType();
+    final var registry = DirectiveTypeRegistry.extract(factory);
+    final var model = factory.instantiate(start, config, builder);
+    return builder.build(model, registry);
+  }
+
+  private static void write(Path out, List<SimulationMeasurement> measurements) throws IOException {
+    if (out.getParent() != null) {
+      Files.createDirectories(out.getParent());
+    }
+    if (out.toString().endsWith(".json")) {
+      JsonArray array = new JsonArray();
+      measurements.forEach(m -> array.add(m.toJson()));
+      Files.writeString(out, new GsonBuilder().setPrettyPrinting().create().toJson(array));
+      return;
+    }
+    StringBuilder csv = new StringBuilder(SimulationMeasurement.CSV_HEADER).append('\n');
+    StringBuilder segmentCsv = new StringBuilder("days,bodies,activitiesPerDay,resource,segments\n");
+    for (SimulationMeasurement m : measurements) {
+      csv.append(m.toCsvRow()).append('\n');
+      segmentCsv.append(m.toSegmentCsvRows()).append('\n');
+    }
+    Files.writeString(out, csv);
+    Files.writeString(out.resolveSibling(out.getFileName().toString().replaceFirst("\\.csv$", "") + ".segments.csv"), segmentCsv);
+  }
+
+  private static List<Integer> ints(String list) {
+    return Arrays.stream(list.split(",")).map(String::trim).map(Integer::parseInt).toList();
+  }
+}
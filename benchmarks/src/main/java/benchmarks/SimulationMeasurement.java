@@ -0,0 +1,81 @@
+package benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * What one harness run of a scenario cost.
+ * @param days Length of the simulated plan
+ * @param bodies Bodies geometry was stepped for, empty for every body of the geometry config
+ * @param activitiesPerDay Pointing activities scheduled per simulated day
+ * @param activities Pointing activities actually scheduled, which stop where the kernels do
+ * @param wallSeconds Wall time of the simulation, model construction included
+ * @param peakHeapBytes Sum of the peak usage of the heap's memory pools during the run
+ * @param allocatedBytes Bytes allocated by all threads during the run
+ * @param spiceCalls Calls made through the SPICE backend during the run
+ * @param segments Number of profile segments of each resource, real and discrete
+ */
+public record SimulationMeasurement(int days, List<String> bodies, int activitiesPerDay, int activities,
+                                    double wallSeconds, long peakHeapBytes, long allocatedBytes, long spiceCalls,
+                                    Map<String, Integer> segments) {
+  public static final String CSV_HEADER = "days,bodies,activitiesPerDay,activities,wallSeconds,simulatedDaysPerSecond,"
+    + "peakHeapMB,allocatedMB,allocationMBPerSecond,spiceCalls,resources,segments";
+
+  public double simulatedDaysPerSecond() {
+    return days / wallSeconds;
+  }
+
+  public double allocationBytesPerSecond() {
+    return allocatedBytes / wallSeconds;
+  }
+
+  public long totalSegments() {
+    return segments.values().stream().mapToLong(Integer::longValue).sum();
+  }
+
+  public String bodiesLabel() {
+    return bodies.isEmpty() ? "all" : String.join(";", bodies);
+  }
+
+  /**
+   * @return row under CSV_HEADER, with segments summed over resources (see toSegmentCsvRows for them one by one)
+   */
+  public String toCsvRow() {
+    return String.format("%d,%s,%d,%d,%.3f,%.3f,%.1f,%.1f,%.1f,%d,%d,%d", days, bodiesLabel(), activitiesPerDay,
+      activities, wallSeconds, simulatedDaysPerSecond(), peakHeapBytes / 1e6, allocatedBytes / 1e6,
+      allocationBytesPerSecond() / 1e6, spiceCalls, segments.size(), totalSegments());
+  }
+
+  /**
+   * @return one "days,bodies,activitiesPerDay,resource,segments" row per resource
+   */
+  public String toSegmentCsvRows() {
+    return segments.entrySet().stream()
+      .map(e -> days + "," + bodiesLabel() + "," + activitiesPerDay + "," + e.getKey() + "," + e.getValue())
+      .collect(Collectors.joining("\n"));
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.addProperty("days", days);
+    JsonArray bodyArray = new JsonArray();
+    bodies.forEach(bodyArray::add);
+    json.add("bodies", bodyArray);
+    json.addProperty("activitiesPerDay", activitiesPerDay);
+    json.addProperty("activities", activities);
+    json.addProperty("wallSeconds", wallSeconds);
+    json.addProperty("simulatedDaysPerSecond", simulatedDaysPerSecond());
+    json.addProperty("peakHeapBytes", peakHeapBytes);
+    json.addProperty("allocatedBytes", allocatedBytes);
+    json.addProperty("allocationBytesPerSecond", allocationBytesPerSecond());
+    json.addProperty("spiceCalls", spiceCalls);
+    JsonObject segmentObject = new JsonObject();
+    segments.forEach(segmentObject::addProperty);
+    json.add("segments", segmentObject);
+    return json;
+  }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpiceDirectTimeDependentStateCalculator.getState, with its cache on and off: asked repeatedly at one epoch, as the
+ * geometry calculator does within a step, and swept through a day of minutes, as it does across steps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateCalculatorBenchmark {
+  private static final int EPOCHS = 1440;
+
+  @Param({"true", "false"})
+  public boolean caching;
+
+  private SpiceDirectTimeDependentStateCalculator calc;
+  private Time[] epochs;
+  private int next = 0;
+
+  @Setup(Level.Trial)
+  public void setUp(KernelState kernels) {
+    calc = kernels.context.newStateCalculator(caching);
+    epochs = KernelState.epochs(EPOCHS, Duration.fromMinutes(1));
+  }
+
+  @Benchmark
+  public Vector3D[] getStateSameEpoch() throws GeometryInformationNotAvailableException {
+    return calc.getState(epochs[0], KernelState.SPACECRAFT, "MARS", KernelState.ABCORR);
+  }
+
+  @Benchmark
+  public Vector3D[] getStateSweep() throws GeometryInformationNotAvailableException {
+    Time t = epochs[next];
+    next = (next + 1) % EPOCHS;
+    return calc.getState(t, KernelState.SPACECRAFT, "MARS", KernelState.ABCORR);
+  }
+}
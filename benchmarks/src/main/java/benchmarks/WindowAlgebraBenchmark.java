@@ -0,0 +1,66 @@
+package benchmarks;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Window;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Window.and, or and merge on inputs of random windows up to half an hour long, one per hour on average, so that
+ * about a quarter of each input's span is covered and the results stay close to the inputs in size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowAlgebraBenchmark {
+  @Param({"1000", "100000"})
+  public int size;
+
+  private Window[] first;
+  private Window[] second;
+  private Window[] sorted;
+  private final Duration threshold = Duration.fromMinutes(30);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    first = randomWindows(random, size);
+    second = randomWindows(random, size);
+    sorted = first.clone();
+    Arrays.sort(sorted);
+  }
+
+  private static Window[] randomWindows(Random random, int count) {
+    long span = Duration.fromHours(1).multiply(count).getTics();
+    long maxLength = Duration.fromMinutes(30).getTics();
+    long start = KernelState.START.getTics();
+    Window[] windows = new Window[count];
+    for (int i = 0; i < count; i++) {
+      long begin = start + (long) (random.nextDouble() * span);
+      windows[i] = new Window(Time.fromTics(begin), Time.fromTics(begin + (long) (random.nextDouble() * maxLength)));
+    }
+    return windows;
+  }
+
+  @Benchmark
+  public Window[] and() {
+    return Window.and(first, second);
+  }
+
+  @Benchmark
+  public Window[] or() {
+    return Window.or(first, second);
+  }
+
+  @Benchmark
+  public Window[] merge() {
+    return Window.merge(sorted, threshold);
+  }
+}
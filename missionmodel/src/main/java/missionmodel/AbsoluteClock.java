@@ -5,19 +5,66 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.time.Time;
 
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 
+/**
+ * Wall clock of the simulation: plan start plus elapsed simulation time. The current time in each form is computed
+ * once per simulation instant however many times it is asked for, with the microsecond precision of simulation time,
+ * and converted to jplTime and ET with arithmetic (see JPLTimeConvertUtility).
+ */
 public class AbsoluteClock {
 
-  private Instant startTime;
+  private final Instant startTime;
+  private Time startJplTime = null;
+
+  // the last instant asked for, replaced as a whole so readers on other threads see a consistent one
+  private volatile Now now = null;
+
+  private record Now(long elapsedMicros, Instant instant, Time jplTime, double et) {}
 
   public AbsoluteClock(final Instant startTime) {
     this.startTime = startTime;
   }
 
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public Time getStartJplTime() {
+    if (startJplTime == null) {
+      startJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(startTime);
+    }
+    return startJplTime;
+  }
+
   public Instant now() {
-    return startTime.plusMillis(Resources.currentTime().in(Duration.MILLISECONDS));
+    return current().instant();
   }
 
+  public Time nowJplTime() {
+    return current().jplTime();
+  }
+
+  /**
+   * @return ET of the current simulation time
+   */
+  public double nowET() {
+    Now current = current();
+    if (Double.isNaN(current.et())) {
+      // ET needs a leapseconds kernel, so it is only worked out when asked for
+      current = new Now(current.elapsedMicros(), current.instant(), current.jplTime(), JPLTimeConvertUtility.toET(current.jplTime()));
+      now = current;
+    }
+    return current.et();
+  }
+
+  private Now current() {
+    long elapsedMicros = Resources.currentTime().in(Duration.MICROSECONDS);
+    Now current = now;
+    if (current == null || current.elapsedMicros() != elapsedMicros) {
+      Instant instant = startTime.plusNanos(elapsedMicros * 1000);
+      current = new Now(elapsedMicros, instant, JPLTimeConvertUtility.jplTimeFromUTCInstant(instant), Double.NaN);
+      now = current;
+    }
+    return current;
+  }
 }
@@ -12,15 +12,50 @@ public record Configuration(int spacecraftId,
                             Path geometryPath,
                             List<Double> gncAngularVelocityLimit,
                             List<Double> gncAngularAccelerationLimit,
-                            boolean gncRateMatching
+                            boolean gncRateMatching,
+                            List<Integer> additionalSpacecraftIds,
+                            List<String> geometryBodies,
+                            boolean analyticGeometry,
+                            String analyticCentralBody,
+                            List<Double> analyticOrbitElements,
+                            List<Double> analyticDrag,
+                            FidelityTier fidelity,
+                            List<String> keepOutZones
                            ) {
+  public Configuration {
+    if (!analyticDrag.isEmpty() && analyticDrag.size() != 4) {
+      throw new IllegalArgumentException("analyticDrag needs a ballistic coefficient, reference density, reference altitude"
+        + " and scale height, or none for no drag, but has " + analyticDrag.size() + " values");
+    }
+  }
+
   public static int DEFAULT_SPICE_SCID = -74;
   public static String DEFAULT_SPICE_SCID_STR = "MRO";
   public static Path DEFAULT_GEOM_PATH = Path.of("src/test/resources/default_geometry_config.json");
   public static List<Double> ANGULAR_VELOCITY_LIMIT = List.of(5e-4, 5e-4, 5e-4);
   public static List<Double> ANGULAR_ACCELERATION_LIMIT = List.of(5e-6, 5e-6, 5e-6);
+  // SPICE IDs of spacecraft flown alongside the primary one, e.g. a relay orbiter, whose geometry is also computed
+  public static List<Integer> ADDITIONAL_SPACECRAFT_IDS = List.of();
+  // Bodies of the geometry config to step geometry for, or empty for all of them
+  public static List<String> GEOMETRY_BODIES = List.of();
+  // With analyticGeometry, states come from built-in series and the orbit below instead of kernels (see
+  // GeometryContext.analytic); the primary spacecraft is the only one then
+  public static String ANALYTIC_CENTRAL_BODY = "MARS";
+  // Perifocal distance, eccentricity, inclination, node, argument of periapsis, mean anomaly, epoch (ET) and GM, in km
+  // and radians, in the central body's mean equator frame: a low, near-polar orbit like MRO's
+  public static List<Double> ANALYTIC_ORBIT_ELEMENTS = List.of(3651.0, 0.0088, 1.6162, 0.0, 4.7124, 0.0, 757425669.184, 42828.375816);
+  // Ballistic coefficient (m^2/kg), reference density (kg/m^3), reference altitude (km) and scale height (km), or
+  // empty for no drag
+  public static List<Double> ANALYTIC_DRAG = List.of();
+  // Aberration correction, step bounds, surface quantities, slew sampling and event-search steps (see FidelityTier)
+  public static FidelityTier FIDELITY = FidelityTier.STANDARD;
+  // Zones slews are checked against, each as KeepOutZone.parse reads them, ex. "SunExclusion_PLUS_Z SUN 0 0 1 30" or
+  // "MarsLimbExclusion_PLUS_Z MARS 0 0 1 5 LIMB"; none by default, as the model has no mission's flight rules
+  public static List<String> KEEP_OUT_ZONES = List.of();
   public static @Template Configuration defaultConfiguration() {
     return new Configuration(DEFAULT_SPICE_SCID, DEFAULT_SPICE_SCID_STR, DEFAULT_GEOM_PATH,
-      ANGULAR_VELOCITY_LIMIT, ANGULAR_ACCELERATION_LIMIT, false);
+      ANGULAR_VELOCITY_LIMIT, ANGULAR_ACCELERATION_LIMIT, false, ADDITIONAL_SPACECRAFT_IDS, GEOMETRY_BODIES,
+      false, ANALYTIC_CENTRAL_BODY, ANALYTIC_ORBIT_ELEMENTS, ANALYTIC_DRAG, FIDELITY,
+      KEEP_OUT_ZONES);
   }
 }
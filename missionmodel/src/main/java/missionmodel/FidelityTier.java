@@ -0,0 +1,105 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+
+/**
+ * How closely a simulation models geometry, attitude and events, picked per simulation with Configuration.fidelity so
+ * one setting changes all of them consistently. STANDARD is how the model has always run. QUICK_LOOK is for iterating
+ * on a plan in seconds: no light time corrections, geometry stepped ten times coarser, no sub-point, illumination,
+ * altitude or LST quantities, and coarse slews and event searches. FINAL is for the run before uplink: stellar
+ * aberration on converged light time, half the steps and fine slew sampling. STANDARD and FINAL find surface quantities
+ * with SPICE (sincpt, ilumin, et2lst); only QUICK_LOOK would use EllipsoidSurfaceGeometry for them.
+ */
+public enum FidelityTier {
+  QUICK_LOOK("NONE", "NONE", 10.0, 4.0, Duration.fromSeconds(60), false, true, true),
+  STANDARD("LT+S", "CN", 1.0, 1.0, Duration.fromSeconds(10), true, false, false),
+  FINAL("CN+S", "CN", 0.5, 0.5, Duration.fromSeconds(2), true, false, false);
+
+  private final String abcorr;
+  private final String eventAbcorr;
+  private final double stepScale;
+  private final double eventStepScale;
+  private final Duration slewSampleRate;
+  private final boolean surfaceQuantities;
+  private final boolean javaBodyRotations;
+  private final boolean ellipsoidKernel;
+
+  FidelityTier(String abcorr, String eventAbcorr, double stepScale, double eventStepScale, Duration slewSampleRate,
+               boolean surfaceQuantities, boolean javaBodyRotations, boolean ellipsoidKernel) {
+    this.abcorr = abcorr;
+    this.eventAbcorr = eventAbcorr;
+    this.stepScale = stepScale;
+    this.eventStepScale = eventStepScale;
+    this.slewSampleRate = slewSampleRate;
+    this.surfaceQuantities = surfaceQuantities;
+    this.javaBodyRotations = javaBodyRotations;
+    this.ellipsoidKernel = ellipsoidKernel;
+  }
+
+  /**
+   * @return aberration correction the spacecraft's geometry is calculated with
+   */
+  public String abcorr() {
+    return abcorr;
+  }
+
+  /**
+   * @return aberration correction of eclipse and occultation searches. Apsides are always searched without one.
+   */
+  public String eventAbcorr() {
+    return eventAbcorr;
+  }
+
+  /**
+   * @return factor the minimum and maximum time steps and the relative error threshold of the geometry config's
+   * calculation periods are multiplied by
+   */
+  public double stepScale() {
+    return stepScale;
+  }
+
+  /**
+   * @return the time step of a geometry calculation period, scaled for the tier
+   */
+  public Duration step(Duration configured) {
+    return stepScale == 1.0 ? configured : configured.multiply(stepScale);
+  }
+
+  /**
+   * @return the step of an event search, scaled for the tier
+   */
+  public Duration eventStep(Duration configured) {
+    return eventStepScale == 1.0 ? configured : configured.multiply(eventStepScale);
+  }
+
+  /**
+   * @return time between the orientations a slew is sampled at
+   */
+  public Duration slewSampleRate() {
+    return slewSampleRate;
+  }
+
+  /**
+   * @return whether the bodies' sub-spacecraft points, altitudes, illumination angles, sub-solar points and LST are
+   * calculated where the geometry config asks for them
+   */
+  public boolean surfaceQuantities() {
+    return surfaceQuantities;
+  }
+
+  /**
+   * @return whether rotations into text-PCK body-fixed frames are evaluated in Java (see
+   * SpiceDirectTimeDependentStateCalculator.setJavaBodyRotations)
+   */
+  public boolean javaBodyRotations() {
+    return javaBodyRotations;
+  }
+
+  /**
+   * @return whether sub-points, illumination angles and LST of bodies without a DSK are calculated in Java (see
+   * SpiceDirectTimeDependentStateCalculator.setEllipsoidKernel)
+   */
+  public boolean ellipsoidKernel() {
+    return ellipsoidKernel;
+  }
+}
@@ -0,0 +1,546 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set of time intervals stored as one sorted long[] of tics, [start0, end0, start1, end1, ...], with intervals disjoint
+ * and in order. Set operations are single O(n+m) sweeps over the arrays, with no Time or Window objects involved, so
+ * they stay cheap for tens of thousands of intervals. Convert to and from Windows at the edges with fromWindows and
+ * asWindows.
+ *
+ * Intervals are closed like Windows, and intervals that touch or overlap are merged. Zero length intervals (instants,
+ * such as the results of a LOCMIN search) are kept, and an intersection only yields an instant where one of the inputs
+ * was an instant, not where two intervals merely touch.
+ *
+ * The methods named like the Window operations (and, or, xor, not, merge) return new sets. Their InPlace variants replace
+ * this set's contents instead, reusing its arrays, so a set that is repeatedly combined stops allocating once its
+ * arrays are big enough.
+ */
+public class IntervalSet {
+  private long[] bounds;
+  private int size;
+  // the other buffer of the pair the in-place operations swap between
+  private long[] spare;
+
+  public IntervalSet() {
+    this(new long[8], 0);
+  }
+
+  private IntervalSet(long[] bounds, int size) {
+    this.bounds = bounds;
+    this.size = size;
+    this.spare = null;
+  }
+
+  public static IntervalSet of(long start, long end) {
+    IntervalSet set = new IntervalSet();
+    set.add(start, end);
+    return set;
+  }
+
+  public static IntervalSet of(Time start, Time end) {
+    return of(start.getTics(), end.getTics());
+  }
+
+  /**
+   * @param bounds Start and end tics of each interval, in any order and possibly overlapping
+   */
+  public static IntervalSet fromBounds(long[] bounds) {
+    if (bounds.length % 2 != 0) {
+      throw new IllegalArgumentException("Interval bounds must come in start, end pairs");
+    }
+    int n = bounds.length / 2;
+    long[] starts = new long[n];
+    long[] ends = new long[n];
+    for (int i = 0; i < n; i++) {
+      starts[i] = bounds[2 * i];
+      ends[i] = bounds[2 * i + 1];
+      if (ends[i] < starts[i]) {
+        throw new IllegalArgumentException("Interval end " + ends[i] + " is before its start " + starts[i]);
+      }
+    }
+    // the union doesn't depend on which start goes with which end, so the two can be sorted on their own and swept
+    // keeping a count of open intervals, starts first on ties so touching intervals merge
+    Arrays.sort(starts);
+    Arrays.sort(ends);
+    IntervalSet set = new IntervalSet(new long[Math.max(8, bounds.length)], 0);
+    int open = 0;
+    int i = 0;
+    int j = 0;
+    long start = 0;
+    while (j < n) {
+      if (i < n && starts[i] <= ends[j]) {
+        if (open++ == 0) {
+          start = starts[i];
+        }
+        i++;
+      } else {
+        if (--open == 0) {
+          set.size = append(set.bounds, set.size, start, ends[j]);
+        }
+        j++;
+      }
+    }
+    return set;
+  }
+
+  /**
+   * @param spiceWindow SPICE window as returned by the geometry finder, [start0, end0, start1, end1, ...] in ET
+   */
+  public static IntervalSet fromET(double[] spiceWindow) {
+    long[] bounds = new long[spiceWindow.length];
+    for (int i = 0; i < spiceWindow.length; i++) {
+      bounds[i] = JPLTimeConvertUtility.fromET(spiceWindow[i]).getTics();
+    }
+    return fromBounds(bounds);
+  }
+
+  public static IntervalSet fromWindows(Collection<Window> windows) {
+    long[] bounds = new long[2 * windows.size()];
+    int i = 0;
+    for (Window w : windows) {
+      bounds[i++] = w.getStart().getTics();
+      bounds[i++] = w.getEnd().getTics();
+    }
+    return fromBounds(bounds);
+  }
+
+  public static IntervalSet fromWindows(Window[] windows) {
+    return fromWindows(Arrays.asList(windows));
+  }
+
+  /**
+   * Adds an interval, merging it with any it touches. Appending intervals in order is O(1) each.
+   */
+  public void add(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("Interval end " + end + " is before its start " + start);
+    }
+    if (size == 0 || start > bounds[2 * size - 1]) {
+      ensureCapacity(size + 1);
+      bounds[2 * size] = start;
+      bounds[2 * size + 1] = end;
+      size++;
+    } else if (start >= bounds[2 * size - 2]) {
+      // overlaps or touches the last interval
+      bounds[2 * size - 1] = Math.max(end, bounds[2 * size - 1]);
+    } else {
+      orInPlace(of(start, end));
+    }
+  }
+
+  public void add(Time start, Time end) {
+    add(start.getTics(), end.getTics());
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  //<editor-fold desc="Accessors">
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public long startTics(int i) {
+    return bounds[2 * i];
+  }
+
+  public long endTics(int i) {
+    return bounds[2 * i + 1];
+  }
+
+  public Time getStart(int i) {
+    return Time.fromTics(bounds[2 * i]);
+  }
+
+  public Time getEnd(int i) {
+    return Time.fromTics(bounds[2 * i + 1]);
+  }
+
+  /**
+   * @return copy of the bounds, [start0, end0, start1, end1, ...]
+   */
+  public long[] toBounds() {
+    return Arrays.copyOf(bounds, 2 * size);
+  }
+
+  public long totalTics() {
+    long total = 0;
+    for (int i = 0; i < size; i++) {
+      total += bounds[2 * i + 1] - bounds[2 * i];
+    }
+    return total;
+  }
+
+  /**
+   * @return sum of the durations of all intervals, like Window.sum
+   */
+  public Duration getDuration() {
+    return Duration.fromTics(totalTics());
+  }
+
+  /**
+   * @return index of the interval containing the time (inclusive), or -1 if none does
+   */
+  public int indexOf(long t) {
+    // last interval starting at or before t
+    int lo = 0;
+    int hi = size - 1;
+    int found = -1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (bounds[2 * mid] <= t) {
+        found = mid;
+        lo = mid + 1;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return found >= 0 && t <= bounds[2 * found + 1] ? found : -1;
+  }
+
+  public boolean contains(long t) {
+    return indexOf(t) >= 0;
+  }
+
+  public boolean contains(Time t) {
+    return contains(t.getTics());
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Conversion to Windows">
+  /**
+   * @return read-only live view of the intervals as Windows, each made when it is asked for
+   */
+  public List<Window> asWindows() {
+    return asWindows(null);
+  }
+
+  /**
+   * @param type Type given to every Window in the view
+   */
+  public List<Window> asWindows(String type) {
+    return new AbstractList<>() {
+      @Override
+      public Window get(int i) {
+        if (i < 0 || i >= size) {
+          throw new IndexOutOfBoundsException(i);
+        }
+        return new Window(Time.fromTics(bounds[2 * i]), Time.fromTics(bounds[2 * i + 1]), type);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  public Window[] toWindowArray() {
+    return asWindows().toArray(new Window[0]);
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Set operations">
+  /**
+   * @return times in both sets
+   */
+  public IntervalSet and(IntervalSet other) {
+    IntervalSet result = new IntervalSet(new long[Math.max(8, 2 * (size + other.size))], 0);
+    result.size = and(bounds, size, other.bounds, other.size, result.bounds);
+    return result;
+  }
+
+  /**
+   * @return times in either set
+   */
+  public IntervalSet or(IntervalSet other) {
+    IntervalSet result = new IntervalSet(new long[Math.max(8, 2 * (size + other.size))], 0);
+    result.size = or(bounds, size, other.bounds, other.size, result.bounds);
+    return result;
+  }
+
+  /**
+   * @return times in this set but not the other. Instants on the other set's boundaries are not removed.
+   */
+  public IntervalSet minus(IntervalSet other) {
+    IntervalSet result = new IntervalSet(new long[Math.max(8, 2 * (size + other.size))], 0);
+    result.size = minus(bounds, size, other.bounds, other.size, result.bounds);
+    return result;
+  }
+
+  /**
+   * @return times in exactly one of the sets, without zero length pieces
+   */
+  public IntervalSet xor(IntervalSet other) {
+    IntervalSet result = minus(other).or(other.minus(this));
+    result.removeInstants();
+    return result;
+  }
+
+  /**
+   * @return times in [from, to] not in this set, without zero length pieces
+   */
+  public IntervalSet not(long from, long to) {
+    IntervalSet result = new IntervalSet(new long[Math.max(8, 2 * (size + 1))], 0);
+    result.size = not(bounds, size, from, to, result.bounds);
+    return result;
+  }
+
+  public IntervalSet not(Time from, Time to) {
+    return not(from.getTics(), to.getTics());
+  }
+
+  /**
+   * @return this set with gaps of at most maxGap tics filled in, like Window.merge
+   */
+  public IntervalSet merge(long maxGap) {
+    IntervalSet result = new IntervalSet(Arrays.copyOf(bounds, Math.max(8, 2 * size)), size);
+    result.mergeInPlace(maxGap);
+    return result;
+  }
+
+  public IntervalSet merge(Duration maxGap) {
+    return merge(maxGap.getTics());
+  }
+
+  /**
+   * @return this set with every interval grown by startPad before and endPad after (negative values shrink), dropping
+   * intervals that shrink to nothing and merging ones that grow together
+   */
+  public IntervalSet pad(long startPad, long endPad) {
+    IntervalSet result = new IntervalSet(new long[Math.max(8, 2 * size)], 0);
+    for (int i = 0; i < size; i++) {
+      long start = bounds[2 * i] - startPad;
+      long end = bounds[2 * i + 1] + endPad;
+      if (start <= end) {
+        result.add(start, end);
+      }
+    }
+    return result;
+  }
+
+  public void andInPlace(IntervalSet other) {
+    long[] out = spareFor(size + other.size);
+    int n = and(bounds, size, other.bounds, other.size, out);
+    swap(out, n);
+  }
+
+  public void orInPlace(IntervalSet other) {
+    long[] out = spareFor(size + other.size);
+    int n = or(bounds, size, other.bounds, other.size, out);
+    swap(out, n);
+  }
+
+  public void minusInPlace(IntervalSet other) {
+    long[] out = spareFor(size + other.size);
+    int n = minus(bounds, size, other.bounds, other.size, out);
+    swap(out, n);
+  }
+
+  public void notInPlace(long from, long to) {
+    long[] out = spareFor(size + 1);
+    int n = not(bounds, size, from, to, out);
+    swap(out, n);
+  }
+
+  public void mergeInPlace(long maxGap) {
+    if (size == 0) {
+      return;
+    }
+    // the write index never passes the read index, so this compacts within the array
+    int n = 0;
+    for (int i = 1; i < size; i++) {
+      if (bounds[2 * i] - bounds[2 * n + 1] <= maxGap) {
+        bounds[2 * n + 1] = Math.max(bounds[2 * n + 1], bounds[2 * i + 1]);
+      } else {
+        n++;
+        bounds[2 * n] = bounds[2 * i];
+        bounds[2 * n + 1] = bounds[2 * i + 1];
+      }
+    }
+    size = n + 1;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Sweeps over raw bounds arrays, each returns the number of intervals written to out">
+  private static int and(long[] a, int na, long[] b, int nb, long[] out) {
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < na && j < nb) {
+      long as = a[2 * i], ae = a[2 * i + 1];
+      long bs = b[2 * j], be = b[2 * j + 1];
+      long lo = Math.max(as, bs);
+      long hi = Math.min(ae, be);
+      if (lo < hi || (lo == hi && (as == ae || bs == be))) {
+        n = append(out, n, lo, hi);
+      }
+      if (ae < be) {
+        i++;
+      } else if (be < ae) {
+        j++;
+      } else {
+        i++;
+        j++;
+      }
+    }
+    return n;
+  }
+
+  private static int or(long[] a, int na, long[] b, int nb, long[] out) {
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < na || j < nb) {
+      long s, e;
+      if (j >= nb || (i < na && a[2 * i] <= b[2 * j])) {
+        s = a[2 * i];
+        e = a[2 * i + 1];
+        i++;
+      } else {
+        s = b[2 * j];
+        e = b[2 * j + 1];
+        j++;
+      }
+      if (n > 0 && s <= out[2 * n - 1]) {
+        out[2 * n - 1] = Math.max(out[2 * n - 1], e);
+      } else {
+        n = append(out, n, s, e);
+      }
+    }
+    return n;
+  }
+
+  private static int minus(long[] a, int na, long[] b, int nb, long[] out) {
+    int n = 0;
+    int j = 0;
+    for (int i = 0; i < na; i++) {
+      long s = a[2 * i];
+      long e = a[2 * i + 1];
+      // intervals of b ending before this one starts can't affect this or any later one
+      while (j < nb && b[2 * j + 1] < s) {
+        j++;
+      }
+      int k = j;
+      boolean removed = false;
+      while (k < nb && b[2 * k] <= e && !removed) {
+        long bs = b[2 * k];
+        long be = b[2 * k + 1];
+        if (bs == be && bs > s && bs < e) {
+          // removing an instant from inside an interval leaves it whole, as sets of closed intervals
+          k++;
+          continue;
+        }
+        if (bs > s) {
+          n = append(out, n, s, bs);
+        }
+        if (be >= e) {
+          removed = true;
+        } else {
+          s = Math.max(s, be);
+          k++;
+        }
+      }
+      if (!removed) {
+        n = append(out, n, s, e);
+      }
+    }
+    return n;
+  }
+
+  private static int not(long[] a, int na, long from, long to, long[] out) {
+    int n = 0;
+    long cursor = from;
+    for (int i = 0; i < na && cursor < to; i++) {
+      long s = a[2 * i];
+      long e = a[2 * i + 1];
+      if (e < cursor) {
+        continue;
+      }
+      if (s > cursor) {
+        n = append(out, n, cursor, Math.min(s, to));
+      }
+      cursor = Math.max(cursor, e);
+    }
+    if (cursor < to) {
+      n = append(out, n, cursor, to);
+    }
+    return n;
+  }
+
+  private static int append(long[] out, int n, long start, long end) {
+    out[2 * n] = start;
+    out[2 * n + 1] = end;
+    return n + 1;
+  }
+  //</editor-fold>
+
+  private void removeInstants() {
+    int n = 0;
+    for (int i = 0; i < size; i++) {
+      if (bounds[2 * i] != bounds[2 * i + 1]) {
+        bounds[2 * n] = bounds[2 * i];
+        bounds[2 * n + 1] = bounds[2 * i + 1];
+        n++;
+      }
+    }
+    size = n;
+  }
+
+  private void ensureCapacity(int intervals) {
+    if (bounds.length < 2 * intervals) {
+      bounds = Arrays.copyOf(bounds, Math.max(2 * intervals, 2 * bounds.length));
+    }
+  }
+
+  private long[] spareFor(int intervals) {
+    if (spare == null || spare.length < 2 * intervals) {
+      spare = new long[Math.max(8, 2 * intervals)];
+    }
+    return spare;
+  }
+
+  private void swap(long[] out, int n) {
+    spare = bounds;
+    bounds = out;
+    size = n;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof IntervalSet other) || other.size != size) {
+      return false;
+    }
+    return Arrays.equals(bounds, 0, 2 * size, other.bounds, 0, 2 * size);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = size;
+    for (int i = 0; i < 2 * size; i++) {
+      hash = 31 * hash + Long.hashCode(bounds[i]);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      s.append(i == 0 ? "" : ", ").append('[').append(bounds[2 * i]).append(", ").append(bounds[2 * i + 1]).append(']');
+    }
+    return s.append('}').toString();
+  }
+}
@@ -2,18 +2,78 @@ package missionmodel;
 
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import gov.nasa.jpl.time.Time;
+import missionmodel.spice.LeapSeconds;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+/**
+ * Conversions between Aerie/java.time types, jplTime and ET. With jplTime's default math (no SPICE), a Time counts tics
+ * of UTC past J2000 without leap seconds, so Instants convert with arithmetic at microsecond precision (what
+ * Time.fromTimezone keeps), and ET is that UTC plus the loaded leapseconds kernel's offset (see LeapSeconds; naif0012's
+ * if none is loaded) rather than a SPICE string round trip. If Time is set to use SPICE for its math the conversions go
+ * through Time as before.
+ */
 public class JPLTimeConvertUtility {
+  private static final Instant J2000_UTC = Instant.parse("2000-01-01T12:00:00Z");
+  private static final long TICS_PER_MICROSECOND = gov.nasa.jpl.time.Duration.ONE_MICROSECOND;
+  private static final long TICS_PER_SECOND = gov.nasa.jpl.time.Duration.ONE_SECOND;
+  private static final long MICROSECONDS_PER_SECOND = 1_000_000;
+
+  // whether Time's tics are leap second free UTC past J2000, checked on first use
+  private static volatile Boolean utcTics = null;
+
   public static Time nowJplTime(AbsoluteClock absClock) {
-    return Time.fromTimezone(ZonedDateTime.ofInstant(absClock.now(), ZoneId.of("UTC")));
+    return absClock.nowJplTime();
   }
 
   public static Time jplTimeFromUTCInstant( Instant time ) {
-    return Time.fromTimezone(ZonedDateTime.ofInstant(time, ZoneId.of("UTC")));
+    if (!hasUtcTics()) {
+      return slowJplTimeFromUTCInstant(time);
+    }
+    return Time.fromTics(microsPastJ2000(time) * TICS_PER_MICROSECOND);
+  }
+
+  public static Instant utcInstantFromJplTime(Time time) {
+    if (!hasUtcTics()) {
+      return time.toTimezone("UTC").toInstant();
+    }
+    long tics = time.getTics();
+    return J2000_UTC.plusSeconds(Math.floorDiv(tics, TICS_PER_SECOND))
+      .plusNanos(Math.floorMod(tics, TICS_PER_SECOND) * (1_000_000_000 / TICS_PER_SECOND));
+  }
+
+  /**
+   * @return ET of the time, as Time.toET gives, without a SPICE call
+   */
+  public static double toET(Time time) {
+    LeapSeconds leapSeconds = leapSeconds();
+    if (leapSeconds == null) {
+      return time.toET();
+    }
+    long tics = time.getTics();
+    long wholeSeconds = Math.floorDiv(tics, TICS_PER_SECOND);
+    double utc = wholeSeconds + (double) (tics - wholeSeconds * TICS_PER_SECOND) / TICS_PER_SECOND;
+    return utc + leapSeconds.etMinusUtc(utc);
+  }
+
+  /**
+   * @return Time of the ET, rounded to the microsecond, as Time.fromET gives without a SPICE call
+   */
+  public static Time fromET(double et) {
+    LeapSeconds leapSeconds = leapSeconds();
+    if (leapSeconds == null) {
+      return Time.fromET(et);
+    }
+    double utc = leapSeconds.etToUtc(et);
+    double wholeSeconds = Math.floor(utc);
+    long micros = (long) wholeSeconds * MICROSECONDS_PER_SECOND + Math.round((utc - wholeSeconds) * MICROSECONDS_PER_SECOND);
+    return Time.fromTics(micros * TICS_PER_MICROSECOND);
+  }
+
+  public static double etFromUTCInstant(Instant time) {
+    return toET(jplTimeFromUTCInstant(time));
   }
 
   public static Duration getDuration( gov.nasa.jpl.time.Duration jplTimeDur ) {
@@ -21,7 +81,41 @@ public class JPLTimeConvertUtility {
   }
 
   public static gov.nasa.jpl.time.Duration getJplTimeDur( Duration aerieDur) {
-    return gov.nasa.jpl.time.Duration.fromMilliseconds(aerieDur.ratioOver(Duration.MILLISECONDS));
+    return gov.nasa.jpl.time.Duration.fromTics(aerieDur.in(Duration.MICROSECONDS) * TICS_PER_MICROSECOND);
+  }
+
+  private static long microsPastJ2000(Instant time) {
+    return (time.getEpochSecond() - J2000_UTC.getEpochSecond()) * MICROSECONDS_PER_SECOND + time.getNano() / 1000;
   }
 
+  private static Time slowJplTimeFromUTCInstant(Instant time) {
+    return Time.fromTimezone(ZonedDateTime.ofInstant(time, ZoneId.of("UTC")));
+  }
+
+  /**
+   * @return the loaded leap second table (naif0012's if no leapseconds kernel is loaded), or null if Time uses SPICE
+   * for its math, in which case callers fall back to Time
+   */
+  private static LeapSeconds leapSeconds() {
+    if (!hasUtcTics()) {
+      return null;
+    }
+    return LeapSeconds.getOrBuiltIn();
+  }
+
+  private static boolean hasUtcTics() {
+    Boolean known = utcTics;
+    if (known == null) {
+      // across a leap second, so SPICE's TAI based tics would differ from the arithmetic
+      Instant probe = Instant.parse("2017-01-01T00:00:00.123456Z");
+      try {
+        known = slowJplTimeFromUTCInstant(J2000_UTC).getTics() == 0
+          && slowJplTimeFromUTCInstant(probe).getTics() == microsPastJ2000(probe) * TICS_PER_MICROSECOND;
+      } catch (RuntimeException e) {
+        known = false;
+      }
+      utcTics = known;
+    }
+    return known;
+  }
 }
@@ -1,19 +1,35 @@
 package missionmodel;
 
 
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.EnumValueMapper;
 import gov.nasa.jpl.aerie.contrib.streamline.core.Resources;
 import gov.nasa.jpl.aerie.contrib.streamline.debugging.Logging;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
 import gov.nasa.jpl.time.Duration;
+import missionmodel.geometry.analytic.AnalyticBodies;
+import missionmodel.geometry.analytic.KeplerJ2Propagator;
 import missionmodel.geometry.resources.GenericGeometryResources;
+import missionmodel.geometry.spiceinterpolation.Bodies;
+import missionmodel.geometry.spiceinterpolation.BodyCatalog;
+import missionmodel.geometry.spiceinterpolation.ConstellationGeometryCalculator;
 import missionmodel.geometry.spiceinterpolation.GenericGeometryCalculator;
+import missionmodel.geometry.spiceinterpolation.GeometryContext;
 import missionmodel.geometry.spiceinterpolation.SpiceResourcePopulater;
 import missionmodel.gnc.GncDataModel;
-import missionmodel.spice.Spice;
+import missionmodel.gnc.instruments.Instrument;
+import missionmodel.gnc.instruments.InstrumentGeometryResources;
+import missionmodel.gnc.keepout.KeepOutZone;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 import spice.basic.SpiceErrorException;
 
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource.resource;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete.discrete;
 
 /**
  * Top-level Mission Model Class
@@ -30,14 +46,23 @@ public final class Mission {
 
   public final AbsoluteClock absoluteClock;
 
+  // Bodies and SPICE access of this mission; geometry code gets them from here rather than from static state
+  public final GeometryContext geometryContext;
+
   public final GenericGeometryCalculator geometryCalculator;
 
+  // Geometry of the primary spacecraft (geometryCalculator) and any additional ones from the configuration
+  public final ConstellationGeometryCalculator constellation;
+
   public final SpiceResourcePopulater spiceResPop;
 
   public final GenericGeometryResources geometryResources;
 
   public static final Integer SPICE_SCID = -74; // MRO
 
+  // Resource holding the configured fidelity tier, so scheduling goals search events at the tier the plan simulates at
+  public static final String FIDELITY_RESOURCE = "Fidelity";
+
   public static final Path VERSIONED_KERNELS_ROOT_DIRECTORY = Path.of(System.getenv().getOrDefault("SPICE_DIRECTORY", "spice/kernels"));
 
   public static final String NAIF_META_KERNEL_PATH = VERSIONED_KERNELS_ROOT_DIRECTORY + "/latest_meta_kernel.tm";
@@ -47,28 +72,81 @@ public final class Mission {
   // GNC Model Variables
   public GncDataModel gncDataModel;
 
+  // Instrument geometry derived from the GNC attitude and the geometry resources
+  public InstrumentGeometryResources instrumentGeometry;
+
   public Mission(final gov.nasa.jpl.aerie.merlin.framework.Registrar registrar, final Instant planStart, final Configuration config) {
+    this(registrar, planStart, config, new SerializedSpiceBackend(NAIF_META_KERNEL_PATH));
+  }
+
+  /**
+   * @param spice Backend the mission's SPICE calls go through, e.g. one shared by a service running many plans at once
+   */
+  public Mission(final gov.nasa.jpl.aerie.merlin.framework.Registrar registrar, final Instant planStart, final Configuration config, final SpiceBackend spice) {
     Logging.LOGGER = null;
     this.configuration = config;
     this.errorRegistrar = new Registrar(registrar, Registrar.ErrorBehavior.Log);
     this.absoluteClock = new AbsoluteClock(planStart);
-
-    try {
-      Spice.initialize(NAIF_META_KERNEL_PATH);
-    }
-    catch (SpiceErrorException e) {
-      System.out.println(e.getMessage());
+    this.errorRegistrar.discrete(FIDELITY_RESOURCE, resource(discrete(config.fidelity())), new EnumValueMapper<>(FidelityTier.class));
+
+    GeometryContext context;
+    if (config.analyticGeometry()) {
+      // bodies straight from the config, with radii and GM from AnalyticBodies, so no kernels are needed
+      context = GeometryContext.analytic(new Bodies(BodyCatalog.withoutKernels()), spice, SPICE_SCID, analyticOrbit(config));
+    } else {
+      try {
+        spice.initialize();
+        context = GeometryContext.load(spice);
+      }
+      catch (SpiceErrorException e) {
+        System.out.println(e.getMessage());
+        context = new GeometryContext(new Bodies(), spice);
+      }
     }
+    this.geometryContext = context.withFidelity(config.fidelity());
 
     // Initialize Geometry Model
-    this.geometryCalculator = new GenericGeometryCalculator(this.absoluteClock, SPICE_SCID, "LT+S", this.errorRegistrar);
+    String abcorr = config.fidelity().abcorr();
+    this.geometryCalculator = new GenericGeometryCalculator(this.absoluteClock, SPICE_SCID, abcorr, this.errorRegistrar);
+    List<GenericGeometryCalculator> spacecraft = new ArrayList<>();
+    spacecraft.add(this.geometryCalculator);
+    // an analytic context only has the primary spacecraft's orbit
+    for (int scId : context.isAnalytic() ? List.<Integer>of() : config.additionalSpacecraftIds()) {
+      spacecraft.add(new GenericGeometryCalculator(this.absoluteClock, scId, abcorr, this.errorRegistrar,
+        ConstellationGeometryCalculator.resourcePrefix(scId)));
+    }
+    this.constellation = new ConstellationGeometryCalculator(spacecraft);
     // Assume no gaps in SPICE data for now
-    this.spiceResPop = new SpiceResourcePopulater(this.geometryCalculator, this.absoluteClock, new Window[]{}, Duration.ZERO_DURATION );
+    this.spiceResPop = new SpiceResourcePopulater(this.constellation, this.geometryContext, this.absoluteClock, new Window[]{}, Duration.ZERO_DURATION );
     this.geometryResources = this.geometryCalculator.getResources();
-    this.spiceResPop.calculateTimeDependentInformation();
+    if (config.geometryBodies().isEmpty()) {
+      this.spiceResPop.calculateTimeDependentInformation();
+    } else {
+      this.spiceResPop.calculateTimeDependentInformation(config.geometryBodies());
+    }
 
     // --------------------------------
     // GNC Model Integration
-    this.gncDataModel = new GncDataModel(this.errorRegistrar);
+    this.gncDataModel = new GncDataModel(this.errorRegistrar,
+      config.keepOutZones().stream().map(KeepOutZone::parse).toList());
+    // MRO orbits Mars, so off-nadir angles are measured from the direction to Mars
+    this.instrumentGeometry = new InstrumentGeometryResources(this.errorRegistrar, this.gncDataModel, this.geometryResources,
+      Instrument.DEFAULT_INSTRUMENTS, "MARS");
+  }
+
+  /**
+   * @return the primary spacecraft's orbit, from the configuration's analytic elements and drag
+   */
+  private static KeplerJ2Propagator analyticOrbit(Configuration config) {
+    Integer centerId = AnalyticBodies.idOf(config.analyticCentralBody());
+    AnalyticBodies.Constants center = centerId == null ? null : AnalyticBodies.forId(centerId);
+    if (center == null) {
+      throw new IllegalArgumentException("No built-in constants for analytic central body " + config.analyticCentralBody());
+    }
+    double[] elements = config.analyticOrbitElements().stream().mapToDouble(Double::doubleValue).toArray();
+    List<Double> drag = config.analyticDrag();
+    KeplerJ2Propagator.Drag orbitDrag = drag.isEmpty() ? null
+      : new KeplerJ2Propagator.Drag(drag.get(0), drag.get(1), drag.get(2), drag.get(3));
+    return new KeplerJ2Propagator(centerId, elements, center.j2(), center.radii()[0], center.equator(), orbitDrag);
   }
 }
@@ -6,8 +6,8 @@ import gov.nasa.jpl.time.Duration;
 import gov.nasa.jpl.time.Time;
 
 public class Window implements Comparable<Window>{
-  private Time begin;
-  private Time end;
+  private final Time begin;
+  private final Time end;
   private String type;
 
   public Window(Time begin, Time end) {
@@ -279,7 +279,10 @@ public class Window implements Comparable<Window>{
    * @param windowsToCheck Windows to check for intersections with win - ASSUMPTION is that no windows in windowsToCheck overlap
    * @return the intersecting original Window object, or null if there are no intersections. If multiple windows in windowsToCheck
    *         intersect this/self, the first one is returned
+   * @deprecated only checks the neighbours of this window, so it can miss intersections when windowsToCheck overlap. Use
+   *             WindowIndex.firstIntersecting, which handles overlapping windows in O(log n)
    */
+  @Deprecated
   public Window getIntersectingWindowInList(NavigableSet<Window> windowsToCheck){
     Window priorKeepout = windowsToCheck.floor(this);
     if(priorKeepout != null && priorKeepout.intersects(this)){
@@ -292,167 +295,23 @@ public class Window implements Comparable<Window>{
     return null;
   }
 
+  // The set operations below run on IntervalSet: inputs don't need to be sorted or disjoint, and result windows carry no
+  // type. Use IntervalSet directly to avoid converting on every call.
+
   public static Window[] and(Window[] win1, Window[] win2) {
-    ArrayList<Window> windows = new ArrayList<>();
-    int i = 0, j = 0;
-    boolean inWin1 = false, inWin2 = false;
-    Time nextTimeForWin1, nextTimeForWin2;
-    if (win1.length == 0 || win2.length == 0) {
-      return new Window[0];
-    }
-    while (i < win1.length && j < win2.length) {
-      nextTimeForWin1 = (inWin1) ? win1[i].getEnd() : win1[i].getStart();
-      nextTimeForWin2 = (inWin2) ? win2[j].getEnd() : win2[j].getStart();
-      if (nextTimeForWin1.lessThan(nextTimeForWin2)) {
-        if (!inWin1) {
-          inWin1 = true;
-          if (inWin2) {
-            windows.add(new Window(win1[i].getStart(), null));
-          }
-        }
-        else {
-          if (!windows.isEmpty() && inWin2) windows.get(windows.size() - 1).end = win1[i].getEnd();
-          inWin1 = false;
-          i++;
-        }
-      }
-      else {
-        if (!inWin2) {
-          inWin2 = true;
-          if (inWin1) {
-            windows.add(new Window(win2[j].getStart(), null));
-          }
-        }
-        else {
-          if (!windows.isEmpty() && inWin1) windows.get(windows.size() - 1).end = win2[j].getEnd();
-          inWin2 = false;
-          j++;
-        }
-      }
-    }
-    return windows.toArray(new Window[windows.size()]);
+    return IntervalSet.fromWindows(win1).and(IntervalSet.fromWindows(win2)).toWindowArray();
   }
 
   public static Window[] or(Window[] win1, Window[] win2) {
-    ArrayList<Window> windows = new ArrayList<>();
-    int i = 0, j = 0;
-    boolean inWin1 = false, inWin2 = false;
-    Time nextTimeForWin1, nextTimeForWin2;
-    if (win1.length == 0 && win2.length == 0) {
-      return new Window[0];
-    }
-    while (i < win1.length || j < win2.length) {
-      nextTimeForWin1 = (i < win1.length) ? ((inWin1) ? win1[i].getEnd() : win1[i].getStart()) : null;
-      nextTimeForWin2 = (j < win2.length) ? ((inWin2) ? win2[j].getEnd() : win2[j].getStart()) : null;
-      if (nextTimeForWin2 == null || (nextTimeForWin1 != null && nextTimeForWin1.lessThan(nextTimeForWin2))) {
-        if (!inWin1) {
-          inWin1 = true;
-          if (!inWin2) {
-            windows.add(new Window(win1[i].getStart(), null));
-          }
-        }
-        else {
-          if (!windows.isEmpty() && !inWin2) windows.get(windows.size() - 1).end = win1[i].getEnd();
-          inWin1 = false;
-          i++;
-        }
-      }
-      else {
-        if (!inWin2) {
-          inWin2 = true;
-          if (!inWin1) {
-            windows.add(new Window(win2[j].getStart(), null));
-          }
-        }
-        else {
-          if (!windows.isEmpty() && !inWin1) windows.get(windows.size() - 1).end = win2[j].getEnd();
-          inWin2 = false;
-          j++;
-        }
-      }
-    }
-    return windows.toArray(new Window[windows.size()]);
+    return IntervalSet.fromWindows(win1).or(IntervalSet.fromWindows(win2)).toWindowArray();
   }
 
   public static Window[] xor(Window[] win1, Window[] win2) {
-    ArrayList<Window> windows = new ArrayList<>();
-    int i = 0, j = 0;
-    boolean inWin1 = false, inWin2 = false;
-    Time nextTimeForWin1, nextTimeForWin2;
-    if (win1.length == 0 && win2.length == 0) {
-      return new Window[0];
-    }
-    while (i < win1.length || j < win2.length) {
-      nextTimeForWin1 = (i < win1.length) ? ((inWin1) ? win1[i].getEnd() : win1[i].getStart()) : null;
-      nextTimeForWin2 = (j < win2.length) ? ((inWin2) ? win2[j].getEnd() : win2[j].getStart()) : null;
-      if (nextTimeForWin2 == null || (nextTimeForWin1 != null && nextTimeForWin1.lessThan(nextTimeForWin2))) {
-        if (!inWin1) {
-          inWin1 = true;
-          if (!inWin2) {
-            windows.add(new Window(win1[i].getStart(), null));
-          }
-          else {
-            if (!windows.isEmpty()) windows.get(windows.size() - 1).end = win1[i].getStart();
-          }
-        }
-        else {
-          if (inWin2) {
-            windows.add(new Window(win1[i].getEnd(), null));
-          }
-          else {
-            if (!windows.isEmpty()) windows.get(windows.size() - 1).end = win1[i].getEnd();
-          }
-          inWin1 = false;
-          i++;
-        }
-      }
-      else {
-        if (!inWin2) {
-          inWin2 = true;
-          if (!inWin1) {
-            windows.add(new Window(win2[j].getStart(), null));
-          }
-          else {
-            if (!windows.isEmpty()) windows.get(windows.size() - 1).end = win2[j].getStart();
-          }
-        }
-        else {
-          if (inWin1) {
-            windows.add(new Window(win2[j].getEnd(), null));
-          }
-          else {
-            if (!windows.isEmpty()) windows.get(windows.size() - 1).end = win2[j].getEnd();
-          }
-          inWin2 = false;
-          j++;
-        }
-      }
-    }
-
-    // this algorithm can result in zero duration windows being added if two windows start at the same time, so here we remove all empty windows
-    int k = 0;
-    while (k < windows.size()) {
-      if (windows.get(k).hasLengthZero()) {
-        windows.remove(k);
-      }
-      else {
-        k++;
-      }
-    }
-    return windows.toArray(new Window[windows.size()]);
+    return IntervalSet.fromWindows(win1).xor(IntervalSet.fromWindows(win2)).toWindowArray();
   }
 
   public static Window[] not(Window[] win1, Time queryBegin, Time queryEnd) {
-    ArrayList<Window> windows = new ArrayList<>();
-    Window[] unfilteredWindows = xor(win1, new Window[]{new Window(queryBegin, queryEnd)});
-
-    for (int i = 0; i < unfilteredWindows.length; i++) {
-      if (!unfilteredWindows[i].getStart().lessThan(queryBegin) && !unfilteredWindows[i].getEnd().greaterThan(queryEnd)) {
-        windows.add(unfilteredWindows[i]);
-      }
-    }
-
-    return windows.toArray(new Window[windows.size()]);
+    return IntervalSet.fromWindows(win1).not(queryBegin, queryEnd).toWindowArray();
   }
 
   /**
@@ -462,22 +321,7 @@ public class Window implements Comparable<Window>{
    * @return A new Window array containing the merged list
    */
   public static Window[] merge(Window[] toBeMerged, Duration threshold){
-    List<Window> toReturn = new ArrayList<>();
-
-    int i = 0;
-    while(i < toBeMerged.length){
-      // every time we get to this line in the loop, it is the beginning of a merged window
-      Time thisStart = toBeMerged[i].getStart();
-      Time thisEnd = toBeMerged[i].getEnd();
-      while(i < toBeMerged.length-1 && thisEnd.add(threshold).greaterThanOrEqualTo(toBeMerged[i+1].getStart())){
-        thisEnd = toBeMerged[i+1].getEnd();
-        i++;
-      }
-      toReturn.add(new Window(thisStart, thisEnd));
-      i++;
-    }
-
-    return toReturn.toArray(new Window[toReturn.size()]);
+    return IntervalSet.fromWindows(toBeMerged).merge(threshold).toWindowArray();
   }
 
   private static Time timeResourceCrossesLimit(Time begin, Time end, Double beginVal, Double endVal, Double limit) {
@@ -0,0 +1,220 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable index over a list of Windows, which may overlap, for overlap and point queries. The windows are sorted by
+ * start into a primitive array that doubles as an implicit balanced search tree: the node for a range of the array is
+ * its middle element, and maxEnd holds the latest end in each node's subtree. A query descends only into subtrees that
+ * can hold a match, so it costs O(log n + k) for k results. A second array of ends, sorted on its own, answers the
+ * nearest window query.
+ *
+ * Build it once from an event generator's output (of) and query it as often as needed. The original Window objects,
+ * types included, are what the queries return, in start order.
+ */
+public class WindowIndex {
+  private final Window[] windows;
+  private final long[] starts;
+  private final long[] ends;
+  private final long[] maxEnd;
+  // ends sorted on their own, with the index of the window each belongs to
+  private final long[] sortedEnds;
+  private final int[] sortedEndOwners;
+
+  private WindowIndex(Window[] windows) {
+    this.windows = windows;
+    int n = windows.length;
+    starts = new long[n];
+    ends = new long[n];
+    for (int i = 0; i < n; i++) {
+      starts[i] = windows[i].getStart().getTics();
+      ends[i] = windows[i].getEnd().getTics();
+    }
+    maxEnd = new long[n];
+    buildMaxEnd(0, n);
+
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> ends[i]));
+    sortedEnds = new long[n];
+    sortedEndOwners = new int[n];
+    for (int i = 0; i < n; i++) {
+      sortedEnds[i] = ends[order[i]];
+      sortedEndOwners[i] = order[i];
+    }
+  }
+
+  /**
+   * @param windows Windows in any order, typically straight from an event generator
+   */
+  public static WindowIndex of(Collection<Window> windows) {
+    Window[] sorted = windows.toArray(new Window[0]);
+    // generator output is nearly always sorted already, so only sort when it isn't
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i - 1].compareTo(sorted[i]) > 0) {
+        Arrays.sort(sorted);
+        break;
+      }
+    }
+    return new WindowIndex(sorted);
+  }
+
+  public static WindowIndex of(Window[] windows) {
+    return of(Arrays.asList(windows));
+  }
+
+  /**
+   * @param type Type given to every window
+   */
+  public static WindowIndex of(IntervalSet intervals, String type) {
+    return new WindowIndex(intervals.asWindows(type).toArray(new Window[0]));
+  }
+
+  public int size() {
+    return windows.length;
+  }
+
+  public boolean isEmpty() {
+    return windows.length == 0;
+  }
+
+  /**
+   * @return all windows in start order
+   */
+  public List<Window> getWindows() {
+    return List.of(windows);
+  }
+
+  /**
+   * @return windows sharing at least one instant with [start, end] (windows are closed, so touching counts), in start order
+   */
+  public List<Window> intersecting(Time start, Time end) {
+    List<Window> found = new ArrayList<>();
+    collect(0, windows.length, start.getTics(), end.getTics(), found);
+    return found;
+  }
+
+  public List<Window> intersecting(Window window) {
+    return intersecting(window.getStart(), window.getEnd());
+  }
+
+  /**
+   * @return windows containing the time, inclusive of their ends, in start order
+   */
+  public List<Window> containing(Time t) {
+    return intersecting(t, t);
+  }
+
+  /**
+   * @return the earliest starting window intersecting [start, end], or null if there is none
+   */
+  public Window firstIntersecting(Time start, Time end) {
+    int i = first(0, windows.length, start.getTics(), end.getTics());
+    return i < 0 ? null : windows[i];
+  }
+
+  public boolean anyIntersecting(Time start, Time end) {
+    return first(0, windows.length, start.getTics(), end.getTics()) >= 0;
+  }
+
+  /**
+   * @return a window containing the time if there is one (the earliest starting), otherwise the window with the bound
+   * closest to it, or null if the index is empty. Ties go to the window that ended before the time.
+   */
+  public Window nearest(Time t) {
+    long tics = t.getTics();
+    int containing = first(0, windows.length, tics, tics);
+    if (containing >= 0) {
+      return windows[containing];
+    }
+    // latest end before t, and earliest start after t
+    int before = upperBound(sortedEnds, tics) - 1;
+    int after = upperBound(starts, tics);
+    if (before < 0 && after >= windows.length) {
+      return null;
+    }
+    if (before < 0) {
+      return windows[after];
+    }
+    if (after >= windows.length) {
+      return windows[sortedEndOwners[before]];
+    }
+    return tics - sortedEnds[before] <= starts[after] - tics ? windows[sortedEndOwners[before]] : windows[after];
+  }
+
+  private long buildMaxEnd(int lo, int hi) {
+    if (lo >= hi) {
+      return Long.MIN_VALUE;
+    }
+    int mid = (lo + hi) >>> 1;
+    long max = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+    maxEnd[mid] = max;
+    return max;
+  }
+
+  private void collect(int lo, int hi, long qStart, long qEnd, List<Window> found) {
+    if (lo >= hi) {
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    if (maxEnd[mid] < qStart) {
+      // nothing in this subtree ends late enough
+      return;
+    }
+    collect(lo, mid, qStart, qEnd, found);
+    if (starts[mid] > qEnd) {
+      // this window and everything to its right start too late
+      return;
+    }
+    if (ends[mid] >= qStart) {
+      found.add(windows[mid]);
+    }
+    collect(mid + 1, hi, qStart, qEnd, found);
+  }
+
+  private int first(int lo, int hi, long qStart, long qEnd) {
+    if (lo >= hi) {
+      return -1;
+    }
+    int mid = (lo + hi) >>> 1;
+    if (maxEnd[mid] < qStart) {
+      return -1;
+    }
+    int left = first(lo, mid, qStart, qEnd);
+    if (left >= 0) {
+      return left;
+    }
+    if (starts[mid] > qEnd) {
+      return -1;
+    }
+    if (ends[mid] >= qStart) {
+      return mid;
+    }
+    return first(mid + 1, hi, qStart, qEnd);
+  }
+
+  /**
+   * @return index of the first value greater than key
+   */
+  private static int upperBound(long[] values, long key) {
+    int lo = 0;
+    int hi = values.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (values[mid] <= key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
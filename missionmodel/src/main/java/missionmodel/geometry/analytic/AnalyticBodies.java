@@ -0,0 +1,95 @@
+package missionmodel.geometry.analytic;
+
+import missionmodel.spice.BodyRotation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Built-in constants of the Sun, planets and Moon for geometry without kernels: GM and radii as pck00011 and DE440 give
+ * them, J2 for propagating orbits around the body, and the IAU rotation model without its nutation and precession
+ * terms (which for the Moon leaves the prime meridian a few degrees off; the planets are within a small fraction of one).
+ *
+ * Planets are listed under both their own NAIF ID and their barycenter's, and AnalyticEphemeris puts the two at the
+ * same place.
+ */
+public class AnalyticBodies {
+
+  /**
+   * @param gm km^3/s^2
+   * @param radii km, as the RADII kernel variable
+   * @param j2 Unnormalized, for the equatorial radius radii[0]
+   * @param rotation From J2000 to the body-fixed frame
+   * @param equator From J2000 to the body's mean equator, with the x axis at its ascending node on the J2000 equator:
+   *                the body-fixed frame without the prime meridian's turn
+   */
+  public record Constants(int naifId, String name, double gm, double[] radii, double j2, BodyRotation rotation,
+                          BodyRotation equator) {
+  }
+
+  private static final Map<Integer, Constants> byId = new HashMap<>();
+  private static final Map<String, Integer> idsByName = new HashMap<>();
+
+  static {
+    add(10, "SUN", 132712440041.279419, 695700.0, 695700.0, 695700.0, 2.198e-7,
+      286.13, 0, 63.87, 0, 84.176, 14.1844000);
+    add(199, "MERCURY", 22031.868551, 2440.53, 2440.53, 2438.26, 5.0287e-5,
+      281.0103, -0.0328, 61.4155, -0.0049, 329.5988, 6.1385108);
+    add(299, "VENUS", 324858.592000, 6051.8, 6051.8, 6051.8, 4.458e-6,
+      272.76, 0, 67.16, 0, 160.20, -1.4813688);
+    add(399, "EARTH", 398600.435507, 6378.1366, 6378.1366, 6356.7519, 1.08262668e-3,
+      0.00, -0.641, 90.00, -0.557, 190.147, 360.9856235);
+    add(301, "MOON", 4902.800118, 1737.4, 1737.4, 1737.4, 2.0321568e-4,
+      269.9949, 0.0031, 66.5392, 0.0130, 38.3213, 13.17635815);
+    add(499, "MARS", 42828.375816, 3396.19, 3396.19, 3376.20, 1.96045e-3,
+      317.269202, -0.10927547, 54.432516, -0.05827105, 176.049863, 350.891982443297);
+    add(599, "JUPITER", 126686531.900000, 71492.0, 71492.0, 66854.0, 1.4696572e-2,
+      268.056595, -0.006499, 64.495303, 0.002413, 284.95, 870.5360000);
+    add(699, "SATURN", 37931206.234000, 60268.0, 60268.0, 54364.0, 1.6290573e-2,
+      40.589, -0.036, 83.537, -0.004, 38.90, 810.7939024);
+    add(799, "URANUS", 5793951.256000, 25559.0, 25559.0, 24973.0, 3.34343e-3,
+      257.311, 0, -15.175, 0, 203.81, -501.1600928);
+    add(899, "NEPTUNE", 6835099.970000, 24764.0, 24764.0, 24341.0, 3.411e-3,
+      299.36, 0, 43.46, 0, 249.978, 541.1397757);
+
+    idsByName.put("SSB", 0);
+    idsByName.put("SOLAR SYSTEM BARYCENTER", 0);
+    idsByName.put("EMB", 3);
+    idsByName.put("EARTH-MOON BARYCENTER", 3);
+    idsByName.put("EARTH BARYCENTER", 3);
+    String[] planets = new String[]{"MERCURY", "VENUS", "EARTH", "MARS", "JUPITER", "SATURN", "URANUS", "NEPTUNE"};
+    for (int i = 0; i < planets.length; i++) {
+      if (i != 2) {
+        idsByName.put(planets[i] + " BARYCENTER", i + 1);
+      }
+    }
+  }
+
+  private static void add(int naifId, String name, double gm, double r1, double r2, double r3, double j2,
+                          double ra, double raRate, double dec, double decRate, double pm, double pmRate) {
+    double[] poleRa = new double[]{ra, raRate, 0};
+    double[] poleDec = new double[]{dec, decRate, 0};
+    Constants constants = new Constants(naifId, name, gm, new double[]{r1, r2, r3}, j2,
+      new BodyRotation(poleRa, poleDec, new double[]{pm, pmRate, 0}, new double[0], 1, new double[0], new double[0], new double[0]),
+      new BodyRotation(poleRa, poleDec, new double[3], new double[0], 1, new double[0], new double[0], new double[0]));
+    byId.put(naifId, constants);
+    idsByName.put(name, naifId);
+  }
+
+  /**
+   * @return constants of the body or of the planet whose barycenter the ID is, or null if there are none built in
+   */
+  public static Constants forId(int naifId) {
+    if (naifId >= 1 && naifId <= 9) {
+      naifId = naifId * 100 + 99;
+    }
+    return byId.get(naifId);
+  }
+
+  /**
+   * @return NAIF ID of a body or barycenter known here by name, or null
+   */
+  public static Integer idOf(String name) {
+    return idsByName.get(name.trim().toUpperCase());
+  }
+}
@@ -0,0 +1,219 @@
+package missionmodel.geometry.analytic;
+
+/**
+ * Positions of the Sun, planets and Moon from low-order series instead of SPKs. The planets (barycenters) follow
+ * Standish's mean Keplerian elements for 1800-2050 ("Approximate Positions of the Planets", JPL), good to a few
+ * hundredths of a degree for the inner planets and a few tenths for the outer ones over that span. The Moon follows the
+ * Astronomical Almanac's low-precision series, good to about 0.3 degrees and 0.2 Earth radii. The Sun is placed from
+ * the planets' masses so the solar system barycenter stays at the origin.
+ *
+ * States are in J2000, km and km/s, relative to the solar system barycenter; velocities come from differencing the
+ * series. A planet's own center and its barycenter get the same state. The states of one epoch are kept, so asking
+ * for several bodies at the same epoch evaluates the series once; an instance therefore must not be shared between
+ * threads.
+ */
+public class AnalyticEphemeris {
+  public static final double AU = 149597870.7; // km
+  private static final double SECONDS_PER_CENTURY = 86400.0 * 36525.0;
+  private static final double OBLIQUITY = Math.toRadians(23.43928);
+  // seconds either side of the epoch the velocities are differenced over
+  private static final double DIFFERENCE_STEP = 60.0;
+
+  // a (AU), e, I, L, longitude of perihelion, longitude of the ascending node (degrees), then their rates per century,
+  // for the barycenters of Mercury through Neptune with the Earth-Moon barycenter third
+  private static final double[][] ELEMENTS = new double[][]{
+    {0.38709927, 0.20563593, 7.00497902, 252.25032350, 77.45779628, 48.33076593,
+      0.00000037, 0.00001906, -0.00594749, 149472.67411175, 0.16047689, -0.12534081},
+    {0.72333566, 0.00677672, 3.39467605, 181.97909950, 131.60246718, 76.67984255,
+      0.00000390, -0.00004107, -0.00078890, 58517.81538729, 0.00268329, -0.27769418},
+    {1.00000261, 0.01671123, -0.00001531, 100.46457166, 102.93768193, 0.0,
+      0.00000562, -0.00004392, -0.01294668, 35999.37244981, 0.32327364, 0.0},
+    {1.52371034, 0.09339410, 1.84969142, -4.55343205, -23.94362959, 49.55953891,
+      0.00001847, 0.00007882, -0.00813131, 19140.30268499, 0.44441088, -0.29257343},
+    {5.20288700, 0.04838624, 1.30439695, 34.39644051, 14.72847983, 100.47390909,
+      -0.00011607, -0.00013253, -0.00183714, 3034.74612775, 0.21252668, 0.20469106},
+    {9.53667594, 0.05386179, 2.48599187, 49.95424423, 92.59887831, 113.66242448,
+      -0.00125060, -0.00050991, 0.00193609, 1222.49362201, -0.41897216, -0.28867794},
+    {19.18916464, 0.04725744, 0.77263783, 313.23810451, 170.95427630, 74.01692503,
+      -0.00196176, -0.00004397, -0.00242939, 428.48202785, 0.40805281, 0.04240589},
+    {30.06992276, 0.00859048, 1.77004347, -55.12002969, 44.96476227, 131.78422574,
+      0.00026291, 0.00005105, 0.00035372, 218.45945325, -0.32241464, -0.00508664}};
+  // GM of each barycenter's system, km^3/s^2, in the order of ELEMENTS
+  private static final double[] SYSTEM_GM = new double[]{22031.868551, 324858.592, 403503.235502, 42828.375816,
+    126712764.1, 37940584.8418, 5794556.4, 6836527.10058};
+  private static final double SUN_GM = 132712440041.279419;
+  private static final double EARTH_GM = 398600.435507;
+  private static final double MOON_GM = 4902.800118;
+  private static final double EARTH_RADIUS = 6378.14;
+
+  // where each body's state is kept: the Sun, the barycenters by NAIF ID, then the Earth and Moon
+  private static final int SUN = 0;
+  private static final int EARTH = 9;
+  private static final int MOON = 10;
+  private static final int SSB = 11;
+
+  private double cachedEt = Double.NaN;
+  // the states of the epoch, six elements each
+  private final double[] states = new double[11 * 6];
+  // positions either side of the epoch, three elements each
+  private final double[] before = new double[11 * 3];
+  private final double[] after = new double[11 * 3];
+  private final double[] position = new double[3];
+
+  /**
+   * @param state Set to the body's state relative to the solar system barycenter
+   * @return whether the series cover the body: the solar system barycenter, the Sun, the planets and their barycenters,
+   * and the Moon
+   */
+  public boolean state(int naifId, double et, double[] state) {
+    int index = index(naifId);
+    if (index < 0) {
+      return false;
+    }
+    if (index == SSB) {
+      for (int i = 0; i < 6; i++) {
+        state[i] = 0;
+      }
+      return true;
+    }
+    if (et != cachedEt) {
+      evaluate(et);
+    }
+    System.arraycopy(states, 6 * index, state, 0, 6);
+    return true;
+  }
+
+  /**
+   * @return whether state can place the body
+   */
+  public static boolean covers(int naifId) {
+    return index(naifId) >= 0;
+  }
+
+  private static int index(int naifId) {
+    if (naifId == 0) {
+      return SSB;
+    } else if (naifId == 10) {
+      return SUN;
+    } else if (naifId == 399) {
+      return EARTH;
+    } else if (naifId == 301) {
+      return MOON;
+    } else if (naifId >= 1 && naifId <= 8) {
+      return naifId;
+    } else if (naifId >= 199 && naifId <= 899 && naifId % 100 == 99 && naifId != 399) {
+      return naifId / 100;
+    }
+    return -1;
+  }
+
+  private void evaluate(double et) {
+    positions(et, states, 6);
+    positions(et - DIFFERENCE_STEP, before, 3);
+    positions(et + DIFFERENCE_STEP, after, 3);
+    for (int body = 0; body < 11; body++) {
+      for (int i = 0; i < 3; i++) {
+        states[6 * body + 3 + i] = (after[3 * body + i] - before[3 * body + i]) / (2 * DIFFERENCE_STEP);
+      }
+    }
+    cachedEt = et;
+  }
+
+  // positions relative to the barycenter at et, in the order of states, starting every stride elements of out
+  private void positions(double et, double[] out, int stride) {
+    double t = et / SECONDS_PER_CENTURY;
+
+    // barycenters relative to the Sun first, weighing each to find the Sun relative to the solar system barycenter
+    double sunX = 0, sunY = 0, sunZ = 0;
+    double totalGm = SUN_GM;
+    for (int p = 0; p < ELEMENTS.length; p++) {
+      heliocentric(ELEMENTS[p], t, position);
+      out[stride * (p + 1)] = position[0];
+      out[stride * (p + 1) + 1] = position[1];
+      out[stride * (p + 1) + 2] = position[2];
+      sunX -= SYSTEM_GM[p] * position[0];
+      sunY -= SYSTEM_GM[p] * position[1];
+      sunZ -= SYSTEM_GM[p] * position[2];
+      totalGm += SYSTEM_GM[p];
+    }
+    sunX /= totalGm;
+    sunY /= totalGm;
+    sunZ /= totalGm;
+    out[0] = sunX;
+    out[1] = sunY;
+    out[2] = sunZ;
+    for (int p = 1; p <= ELEMENTS.length; p++) {
+      out[stride * p] += sunX;
+      out[stride * p + 1] += sunY;
+      out[stride * p + 2] += sunZ;
+    }
+
+    // the Earth and Moon about their barycenter
+    geocentricMoon(t, position);
+    double earthShare = MOON_GM / (EARTH_GM + MOON_GM);
+    for (int i = 0; i < 3; i++) {
+      out[stride * EARTH + i] = out[stride * 3 + i] - earthShare * position[i];
+      out[stride * MOON + i] = out[stride * EARTH + i] + position[i];
+    }
+  }
+
+  // position relative to the Sun, in km, of the barycenter with the given elements, t centuries past J2000
+  private static void heliocentric(double[] elements, double t, double[] out) {
+    double a = (elements[0] + elements[6] * t) * AU;
+    double e = elements[1] + elements[7] * t;
+    double inclination = Math.toRadians(elements[2] + elements[8] * t);
+    double meanLongitude = elements[3] + elements[9] * t;
+    double perihelion = elements[4] + elements[10] * t;
+    double node = elements[5] + elements[11] * t;
+    double argument = Math.toRadians(perihelion - node);
+    double meanAnomaly = Math.toRadians(Math.IEEEremainder(meanLongitude - perihelion, 360.0));
+    node = Math.toRadians(node);
+
+    double eccentricAnomaly = KeplerJ2Propagator.eccentricAnomaly(meanAnomaly, e);
+    double xOrbit = a * (Math.cos(eccentricAnomaly) - e);
+    double yOrbit = a * Math.sqrt(1 - e * e) * Math.sin(eccentricAnomaly);
+
+    double cw = Math.cos(argument), sw = Math.sin(argument);
+    double cn = Math.cos(node), sn = Math.sin(node);
+    double ci = Math.cos(inclination), si = Math.sin(inclination);
+    double x = (cw * cn - sw * sn * ci) * xOrbit + (-sw * cn - cw * sn * ci) * yOrbit;
+    double y = (cw * sn + sw * cn * ci) * xOrbit + (-sw * sn + cw * cn * ci) * yOrbit;
+    double z = (sw * si) * xOrbit + (cw * si) * yOrbit;
+    eclipticToEquatorial(x, y, z, out);
+  }
+
+  // the Moon relative to the Earth, in km, t centuries past J2000
+  private static void geocentricMoon(double t, double[] out) {
+    double longitude = 218.32 + 481267.881 * t
+      + 6.29 * sinDegrees(135.0 + 477198.87 * t) - 1.27 * sinDegrees(259.3 - 413335.36 * t)
+      + 0.66 * sinDegrees(235.7 + 890534.22 * t) + 0.21 * sinDegrees(269.9 + 954397.74 * t)
+      - 0.19 * sinDegrees(357.5 + 35999.05 * t) - 0.11 * sinDegrees(186.5 + 966404.03 * t);
+    double latitude = 5.13 * sinDegrees(93.3 + 483202.02 * t) + 0.28 * sinDegrees(228.2 + 960400.89 * t)
+      - 0.28 * sinDegrees(318.3 + 6003.15 * t) - 0.17 * sinDegrees(217.6 - 407332.21 * t);
+    double parallax = 0.9508 + 0.0518 * cosDegrees(135.0 + 477198.87 * t) + 0.0095 * cosDegrees(259.3 - 413335.36 * t)
+      + 0.0078 * cosDegrees(235.7 + 890534.22 * t) + 0.0028 * cosDegrees(269.9 + 954397.74 * t);
+    // the series give the longitude from the equinox of date; take out the precession since J2000
+    longitude -= 1.396971 * t;
+
+    double distance = EARTH_RADIUS / sinDegrees(parallax);
+    double lambda = Math.toRadians(longitude);
+    double beta = Math.toRadians(latitude);
+    eclipticToEquatorial(distance * Math.cos(beta) * Math.cos(lambda), distance * Math.cos(beta) * Math.sin(lambda),
+      distance * Math.sin(beta), out);
+  }
+
+  private static void eclipticToEquatorial(double x, double y, double z, double[] out) {
+    double ce = Math.cos(OBLIQUITY), se = Math.sin(OBLIQUITY);
+    out[0] = x;
+    out[1] = ce * y - se * z;
+    out[2] = se * y + ce * z;
+  }
+
+  private static double sinDegrees(double degrees) {
+    return Math.sin(Math.toRadians(degrees));
+  }
+
+  private static double cosDegrees(double degrees) {
+    return Math.cos(Math.toRadians(degrees));
+  }
+}
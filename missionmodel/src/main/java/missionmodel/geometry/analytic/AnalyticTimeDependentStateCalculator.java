@@ -0,0 +1,313 @@
+package missionmodel.geometry.analytic;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.geometry.ellipsoid.EllipsoidSurfaceGeometry;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.geometry.returnedobjects.GeometryScratch;
+import missionmodel.geometry.returnedobjects.IlluminationAngles;
+import missionmodel.geometry.returnedobjects.LatLonCoord;
+import missionmodel.geometry.returnedobjects.OrbitConicElements;
+import missionmodel.geometry.returnedobjects.RADec;
+import missionmodel.geometry.returnedobjects.SubPointInformation;
+import missionmodel.geometry.spiceinterpolation.Body;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geometry without kernels: the natural bodies from AnalyticEphemeris, one spacecraft from a KeplerJ2Propagator around
+ * its center body, and body-fixed frames, radii and GM from AnalyticBodies (or the bodies' own radii and GM, where the
+ * kernels gave them). Surfaces are ellipsoids, as with EllipsoidSurfaceGeometry.
+ *
+ * States are geometric whatever aberration correction is asked for: the series are coarser than light time and stellar
+ * aberration would correct. DSKs aren't used. Like AnalyticEphemeris, an instance keeps scratch state and must not be
+ * shared between threads.
+ */
+public class AnalyticTimeDependentStateCalculator implements TimeDependentStateCalculator {
+  private final Map<String, Body> bodiesMap;
+  private final String spacecraftIdString;
+  private final KeplerJ2Propagator orbit;
+  private final AnalyticEphemeris ephemeris = new AnalyticEphemeris();
+  private final Map<String, EllipsoidSurfaceGeometry> ellipsoids = new HashMap<>();
+
+  private final double[] observerState = new double[6];
+  private final double[] targetState = new double[6];
+  private final double[] orbitState = new double[6];
+  private final double[] scratchState = new double[6];
+  private final double[] sunState = new double[6];
+  private final double[] targetVelocity = new double[3];
+  private final double[] surfacePoint = new double[3];
+  private final double[] surfaceVector = new double[3];
+  private final double[] vector = new double[3];
+
+  /**
+   * @param spacecraftId The spacecraft's NAIF ID, by which (as a string) it's asked for
+   * @param orbit The spacecraft's orbit
+   */
+  public AnalyticTimeDependentStateCalculator(Map<String, Body> bodiesMap, int spacecraftId, KeplerJ2Propagator orbit) {
+    this.bodiesMap = bodiesMap;
+    this.spacecraftIdString = Integer.toString(spacecraftId);
+    this.orbit = orbit;
+  }
+
+  public Map<String, Body> getBodiesMap() {
+    return bodiesMap;
+  }
+
+  public KeplerJ2Propagator getOrbit() {
+    return orbit;
+  }
+
+  @Override
+  public Vector3D[] getState(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    double[] state = new double[6];
+    getState(et, observer, target, abcorr, state);
+    return new Vector3D[]{new Vector3D(state[0], state[1], state[2]), new Vector3D(state[3], state[4], state[5])};
+  }
+
+  @Override
+  public void getState(Time et, String observer, String target, String abcorr, double[] state) throws GeometryInformationNotAvailableException {
+    double etSeconds = JPLTimeConvertUtility.toET(et);
+    barycentricState(observer, etSeconds, observerState);
+    barycentricState(target, etSeconds, targetState);
+    for (int i = 0; i < 6; i++) {
+      state[i] = targetState[i] - observerState[i];
+    }
+  }
+
+  @Override
+  public double getRange(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    getState(et, observer, target, abcorr, scratchState);
+    return GeometryScratch.norm(scratchState, 0);
+  }
+
+  @Override
+  public double getSpeed(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    getState(et, observer, target, abcorr, scratchState);
+    return GeometryScratch.norm(scratchState, 3);
+  }
+
+  @Override
+  public double getSpacecraftAltitude(Time et, String spacecraft, String body, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    double range = getRange(et, spacecraft, body, abcorr);
+    getSubPointInformation(et, spacecraft, body, abcorr, useDSK, surfacePoint, surfaceVector);
+    return range - GeometryScratch.norm(surfacePoint, 0);
+  }
+
+  @Override
+  public double getSunBodySpacecraftAngle(Time et, String spacecraft, String body, String abcorr) throws GeometryInformationNotAvailableException {
+    return angleBetween(et, "SUN", body, spacecraft);
+  }
+
+  @Override
+  public double getSunSpacecraftBodyAngle(Time et, String spacecraft, String body, String abcorr) throws GeometryInformationNotAvailableException {
+    return angleBetween(et, "SUN", spacecraft, body);
+  }
+
+  @Override
+  public double getEarthSpacecraftBodyAngle(Time et, String spacecraft, String body, String abcorr) throws GeometryInformationNotAvailableException {
+    return angleBetween(et, "EARTH", spacecraft, body);
+  }
+
+  @Override
+  public double getEarthSunProbeAngle(Time et, String spacecraft, String abcorr) throws GeometryInformationNotAvailableException {
+    return angleBetween(et, "EARTH", "SUN", spacecraft);
+  }
+
+  @Override
+  public SubPointInformation getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    double[] spoint = new double[3];
+    double[] srfvec = new double[3];
+    double trgepc = subPoint(et, observer, target, spoint, srfvec);
+    return new SubPointInformation(new Vector3D(spoint), new Vector3D(srfvec), trgepc, !Double.isNaN(trgepc));
+  }
+
+  @Override
+  public boolean getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK, double[] spoint, double[] srfvec) throws GeometryInformationNotAvailableException {
+    return !Double.isNaN(subPoint(et, observer, target, spoint, srfvec));
+  }
+
+  @Override
+  public IlluminationAngles getIlluminationAngles(Time et, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    double[] illumination = new double[3];
+    getIlluminationAngles(et, observer, target, abcorr, useDSK, illumination);
+    return new IlluminationAngles(illumination[0], illumination[1], illumination[2]);
+  }
+
+  @Override
+  public void getIlluminationAngles(Time et, String observer, String target, String abcorr, boolean useDSK, double[] angles) throws GeometryInformationNotAvailableException {
+    // subPoint leaves the target's state relative to the observer and to the barycenter in scratchState and
+    // targetVelocity
+    subPoint(et, observer, target, surfacePoint, surfaceVector);
+    getState(et, target, "SUN", "NONE", sunState);
+    double[][] toBodyFixed = toBodyFixed(target, JPLTimeConvertUtility.toET(et));
+    ellipsoidFor(target).illuminationAngles(scratchState, targetVelocity, toBodyFixed, sunState, "NONE", surfacePoint,
+      surfaceVector, angles);
+    angles[0] = Math.toDegrees(angles[0]);
+    angles[1] = Math.toDegrees(angles[1]);
+    angles[2] = Math.toDegrees(angles[2]);
+  }
+
+  @Override
+  public OrbitConicElements getOrbitConicElements(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    double[] orbitElements = new double[8];
+    getOrbitConicElements(et, observer, target, abcorr, orbitElements);
+    return new OrbitConicElements(orbitElements[0], orbitElements[1], orbitElements[2], orbitElements[3],
+      orbitElements[4], orbitElements[5], orbitElements[6], orbitElements[7]);
+  }
+
+  @Override
+  public void getOrbitConicElements(Time et, String observer, String target, String abcorr, double[] elements) throws GeometryInformationNotAvailableException {
+    // in the body's frame at et, as the SPICE calculator gives them
+    double etSeconds = JPLTimeConvertUtility.toET(et);
+    getState(et, observer, target, abcorr, scratchState);
+    double[][] toFrame = toBodyFixed(target, etSeconds);
+    for (int i = 0; i < 3; i++) {
+      orbitState[i] = toFrame[i][0] * scratchState[0] + toFrame[i][1] * scratchState[1] + toFrame[i][2] * scratchState[2];
+      orbitState[i + 3] = toFrame[i][0] * scratchState[3] + toFrame[i][1] * scratchState[4] + toFrame[i][2] * scratchState[5];
+    }
+    KeplerJ2Propagator.elements(orbitState, etSeconds, mu(target), elements);
+  }
+
+  @Override
+  public double getBetaAngle(Time et, String observer, String body, String abcorr) throws GeometryInformationNotAvailableException {
+    getState(et, observer, body, abcorr, scratchState);
+    getState(et, body, "SUN", abcorr, sunState);
+    double[] normal = vector;
+    normal[0] = scratchState[1] * scratchState[5] - scratchState[2] * scratchState[4];
+    normal[1] = scratchState[2] * scratchState[3] - scratchState[0] * scratchState[5];
+    normal[2] = scratchState[0] * scratchState[4] - scratchState[1] * scratchState[3];
+    for (int i = 0; i < 3; i++) {
+      sunState[i] = -sunState[i];
+    }
+    return GeometryScratch.angle(normal, 0, sunState, 0) * (180.0 / Math.PI) - 90;
+  }
+
+  @Override
+  public double getBodyHalfAngleSize(Time et, String spacecraft, String body, String abcorr) throws GeometryInformationNotAvailableException {
+    double[] radii = radii(body);
+    return Math.asin((radii[0] + radii[1]) / 2 / getRange(et, spacecraft, body, abcorr)) * (180.0 / Math.PI);
+  }
+
+  @Override
+  public RADec getRADec(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    getState(et, observer, target, abcorr, scratchState);
+    return new RADec(new Vector3D(scratchState[0], scratchState[1], scratchState[2]), Vector3D.ZERO);
+  }
+
+  @Override
+  public double getLST(Time et, String spacecraft, String body, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    getSubPointInformation(et, spacecraft, body, abcorr, useDSK, surfacePoint, surfaceVector);
+    return getLocalSolarTimeHours(et, naifId(body), new LatLonCoord(surfacePoint).getLongitude());
+  }
+
+  @Override
+  public double getUplegSeconds(Time et, int spacecraftId, int bodyId) throws GeometryInformationNotAvailableException {
+    return getRange(et, Integer.toString(bodyId), Integer.toString(spacecraftId), "NONE") / EllipsoidSurfaceGeometry.SPEED_OF_LIGHT;
+  }
+
+  @Override
+  public double getDownlegSeconds(Time et, int spacecraftId, int bodyId) throws GeometryInformationNotAvailableException {
+    return getUplegSeconds(et, spacecraftId, bodyId);
+  }
+
+  @Override
+  public double getLocalSolarTimeHours(Time et, int bodyId, double longitude) throws GeometryInformationNotAvailableException {
+    String body = Integer.toString(bodyId);
+    getState(et, body, "SUN", "NONE", sunState);
+    double[][] toBodyFixed = toBodyFixed(body, JPLTimeConvertUtility.toET(et));
+    for (int i = 0; i < 3; i++) {
+      vector[i] = toBodyFixed[i][0] * sunState[0] + toBodyFixed[i][1] * sunState[1] + toBodyFixed[i][2] * sunState[2];
+    }
+    return EllipsoidSurfaceGeometry.localSolarTimeHours(longitude, vector);
+  }
+
+  /**
+   * @return target epoch of the sub-point, or NaN if there is none
+   */
+  private double subPoint(Time et, String observer, String target, double[] spoint, double[] srfvec) throws GeometryInformationNotAvailableException {
+    double etSeconds = JPLTimeConvertUtility.toET(et);
+    getState(et, observer, target, "NONE", scratchState);
+    barycentricState(target, etSeconds, targetState);
+    System.arraycopy(targetState, 3, targetVelocity, 0, 3);
+    return ellipsoidFor(target).subPoint(etSeconds, scratchState, targetVelocity, toBodyFixed(target, etSeconds), "NONE",
+      spoint, srfvec);
+  }
+
+  // angle at the vertex between the other two, in degrees
+  private double angleBetween(Time et, String one, String vertex, String two) throws GeometryInformationNotAvailableException {
+    getState(et, vertex, one, "NONE", scratchState);
+    getState(et, vertex, two, "NONE", sunState);
+    return GeometryScratch.angle(scratchState, 0, sunState, 0) * (180.0 / Math.PI);
+  }
+
+  private void barycentricState(String name, double et, double[] state) throws GeometryInformationNotAvailableException {
+    if (isSpacecraft(name)) {
+      if (!orbit.state(et, orbitState)) {
+        throw new GeometryInformationNotAvailableException("The analytic orbit of " + name + " has decayed by ET " + et);
+      }
+      ephemeris.state(orbit.getCenterId(), et, state);
+      for (int i = 0; i < 6; i++) {
+        state[i] += orbitState[i];
+      }
+      return;
+    }
+    if (!ephemeris.state(naifId(name), et, state)) {
+      throw new GeometryInformationNotAvailableException("No analytic ephemeris for body: " + name);
+    }
+  }
+
+  private boolean isSpacecraft(String name) {
+    return name.equals(spacecraftIdString);
+  }
+
+  private int naifId(String name) throws GeometryInformationNotAvailableException {
+    Body body = bodiesMap.get(name);
+    if (body != null) {
+      return body.getNAIFID();
+    }
+    Integer id = AnalyticBodies.idOf(name);
+    if (id != null) {
+      return id;
+    }
+    try {
+      return Integer.parseInt(name.trim());
+    } catch (NumberFormatException e) {
+      throw new GeometryInformationNotAvailableException("No analytic ephemeris for body: " + name);
+    }
+  }
+
+  private AnalyticBodies.Constants constants(String name) throws GeometryInformationNotAvailableException {
+    AnalyticBodies.Constants constants = AnalyticBodies.forId(naifId(name));
+    if (constants == null) {
+      throw new GeometryInformationNotAvailableException("No built-in constants for body: " + name);
+    }
+    return constants;
+  }
+
+  private double[][] toBodyFixed(String name, double et) throws GeometryInformationNotAvailableException {
+    return constants(name).rotation().rotation(et);
+  }
+
+  private double[] radii(String name) throws GeometryInformationNotAvailableException {
+    Body body = bodiesMap.get(name);
+    return body != null && body.getRadii() != null ? body.getRadii() : constants(name).radii();
+  }
+
+  private double mu(String name) throws GeometryInformationNotAvailableException {
+    Body body = bodiesMap.get(name);
+    return body != null && body.hasMu() ? body.getMu() : constants(name).gm();
+  }
+
+  private EllipsoidSurfaceGeometry ellipsoidFor(String name) throws GeometryInformationNotAvailableException {
+    EllipsoidSurfaceGeometry ellipsoid = ellipsoids.get(name);
+    if (ellipsoid == null) {
+      ellipsoid = new EllipsoidSurfaceGeometry(radii(name));
+      ellipsoids.put(name, ellipsoid);
+    }
+    return ellipsoid;
+  }
+}
@@ -0,0 +1,256 @@
+package missionmodel.geometry.analytic;
+
+import missionmodel.spice.BodyRotation;
+
+/**
+ * Propagates an orbit from osculating elements at an epoch with a two-body model plus the secular effects of the center
+ * body's J2 (regression of the node, rotation of the line of apsides and the change in mean motion), and optionally
+ * the decay drag causes. Meant for trades before there is an SPK: over days the J2 secular terms stand in well for
+ * the real gravity field, but nothing periodic is modeled, so positions along track drift by kilometers.
+ *
+ * Elements are in the order of OrbitConicElements and oscelt (perifocal distance, eccentricity, inclination, longitude
+ * of the ascending node, argument of periapsis, mean anomaly at epoch, epoch, GM; km, rad, ET seconds, km^3/s^2), but
+ * measured in the center body's mean equator frame (see AnalyticBodies.Constants.equator) so J2 acts about its z axis.
+ * States are relative to the center body in J2000. Only closed orbits can be propagated. Instances are immutable.
+ */
+public class KeplerJ2Propagator {
+  private static final int KEPLER_ITERATIONS = 20;
+
+  /**
+   * Drag for an exponential atmosphere, applied as the decay rate of the semi-major axis at the epoch's periapsis
+   * altitude, held for the whole propagation. Eccentricity isn't changed.
+   * @param ballisticCoefficient Cd A / m, in m^2/kg
+   * @param referenceDensity kg/m^3 at referenceAltitude
+   * @param referenceAltitude km
+   * @param scaleHeight km
+   */
+  public record Drag(double ballisticCoefficient, double referenceDensity, double referenceAltitude, double scaleHeight) {
+    public double density(double altitude) {
+      return referenceDensity * Math.exp(-(altitude - referenceAltitude) / scaleHeight);
+    }
+  }
+
+  private final int centerId;
+  private final double radius;
+  private final double semiMajorAxis;
+  private final double eccentricity;
+  private final double inclination;
+  private final double node;
+  private final double argumentOfPeriapsis;
+  private final double meanAnomaly;
+  private final double epoch;
+  private final double mu;
+  // rad/s, km/s
+  private final double nodeRate;
+  private final double argumentOfPeriapsisRate;
+  private final double meanAnomalyRate;
+  private final double semiMajorAxisRate;
+  // from the center body's equator frame to J2000, row-major
+  private final double[] toJ2000 = new double[9];
+
+  /**
+   * @param centerId NAIF ID of the body the elements are relative to
+   * @param elements Eight elements, as above
+   * @param j2 The center body's J2, or 0 for a two-body orbit
+   * @param radius The center body's equatorial radius, in km, that J2 is for
+   * @param equator Rotation from J2000 to the frame the elements are in, or null if they're in J2000
+   * @param drag Or null for none
+   */
+  public KeplerJ2Propagator(int centerId, double[] elements, double j2, double radius, BodyRotation equator, Drag drag) {
+    if (elements.length != 8) {
+      throw new IllegalArgumentException("Expected 8 orbit elements, got " + elements.length);
+    }
+    if (elements[1] < 0 || elements[1] >= 1 || elements[0] <= 0) {
+      throw new IllegalArgumentException("Only closed orbits can be propagated; eccentricity was " + elements[1]);
+    }
+    this.centerId = centerId;
+    this.radius = radius;
+    this.eccentricity = elements[1];
+    this.semiMajorAxis = elements[0] / (1 - eccentricity);
+    this.inclination = elements[2];
+    this.node = elements[3];
+    this.argumentOfPeriapsis = elements[4];
+    this.meanAnomaly = elements[5];
+    this.epoch = elements[6];
+    this.mu = elements[7];
+
+    double meanMotion = Math.sqrt(mu / (semiMajorAxis * semiMajorAxis * semiMajorAxis));
+    double semiLatusRectum = semiMajorAxis * (1 - eccentricity * eccentricity);
+    double j2Factor = 1.5 * meanMotion * j2 * (radius / semiLatusRectum) * (radius / semiLatusRectum);
+    double sin2 = Math.sin(inclination) * Math.sin(inclination);
+    this.nodeRate = -j2Factor * Math.cos(inclination);
+    this.argumentOfPeriapsisRate = j2Factor * (2 - 2.5 * sin2);
+    this.meanAnomalyRate = j2Factor * Math.sqrt(1 - eccentricity * eccentricity) * (1 - 1.5 * sin2);
+    if (drag == null) {
+      this.semiMajorAxisRate = 0;
+    } else {
+      // da/dt = -(Cd A / m) rho sqrt(mu a), with the area in km^2 and the density in kg/km^3
+      double density = drag.density(elements[0] - radius) * 1.0e9;
+      this.semiMajorAxisRate = -drag.ballisticCoefficient() * 1.0e-6 * density * Math.sqrt(mu * semiMajorAxis);
+    }
+
+    if (equator == null) {
+      toJ2000[0] = toJ2000[4] = toJ2000[8] = 1;
+    } else {
+      double[] fromJ2000 = new double[9];
+      equator.rotation(epoch, fromJ2000, 0, null, 0);
+      for (int i = 0; i < 3; i++) {
+        for (int j = 0; j < 3; j++) {
+          toJ2000[3 * i + j] = fromJ2000[3 * j + i];
+        }
+      }
+    }
+  }
+
+  public int getCenterId() {
+    return centerId;
+  }
+
+  public double getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * @param state Set to the position (km) and velocity (km/s) relative to the center body, in J2000
+   * @return false, leaving state alone, if drag has brought periapsis below the center body's equatorial radius by et
+   */
+  public boolean state(double et, double[] state) {
+    double dt = et - epoch;
+    double a = semiMajorAxis + semiMajorAxisRate * dt;
+    if (a * (1 - eccentricity) <= radius) {
+      return false;
+    }
+    // the mean motion integrated over a semi-major axis decaying linearly
+    double keplerAnomaly;
+    if (semiMajorAxisRate == 0) {
+      keplerAnomaly = Math.sqrt(mu / (a * a * a)) * dt;
+    } else {
+      keplerAnomaly = Math.sqrt(mu) * (-2 / semiMajorAxisRate) * (1 / Math.sqrt(a) - 1 / Math.sqrt(semiMajorAxis));
+    }
+    double m = Math.IEEEremainder(meanAnomaly + keplerAnomaly + meanAnomalyRate * dt, 2 * Math.PI);
+
+    double e = eccentricity;
+    double eccentricAnomaly = eccentricAnomaly(m, e);
+    double cosE = Math.cos(eccentricAnomaly);
+    double sinE = Math.sin(eccentricAnomaly);
+    double root = Math.sqrt(1 - e * e);
+    double r = a * (1 - e * cosE);
+    double x = a * (cosE - e);
+    double y = a * root * sinE;
+    double vx = -Math.sqrt(mu * a) / r * sinE;
+    double vy = Math.sqrt(mu * a) / r * root * cosE;
+
+    double w = argumentOfPeriapsis + argumentOfPeriapsisRate * dt;
+    double n = node + nodeRate * dt;
+    double cw = Math.cos(w), sw = Math.sin(w);
+    double cn = Math.cos(n), sn = Math.sin(n);
+    double ci = Math.cos(inclination), si = Math.sin(inclination);
+    // periapsis and the direction 90 degrees ahead of it, in the equator frame
+    double px = cn * cw - sn * sw * ci, py = sn * cw + cn * sw * ci, pz = sw * si;
+    double qx = -cn * sw - sn * cw * ci, qy = -sn * sw + cn * cw * ci, qz = cw * si;
+
+    double ex = x * px + y * qx, ey = x * py + y * qy, ez = x * pz + y * qz;
+    double evx = vx * px + vy * qx, evy = vx * py + vy * qy, evz = vx * pz + vy * qz;
+    for (int i = 0; i < 3; i++) {
+      state[i] = toJ2000[3 * i] * ex + toJ2000[3 * i + 1] * ey + toJ2000[3 * i + 2] * ez;
+      state[i + 3] = toJ2000[3 * i] * evx + toJ2000[3 * i + 1] * evy + toJ2000[3 * i + 2] * evz;
+    }
+    return true;
+  }
+
+  /**
+   * @return E solving Kepler's equation M = E - e sin E, for e < 1
+   */
+  public static double eccentricAnomaly(double meanAnomaly, double e) {
+    double eccentricAnomaly = e < 0.8 ? meanAnomaly : Math.PI * Math.signum(meanAnomaly);
+    for (int i = 0; i < KEPLER_ITERATIONS; i++) {
+      double step = (eccentricAnomaly - e * Math.sin(eccentricAnomaly) - meanAnomaly) / (1 - e * Math.cos(eccentricAnomaly));
+      eccentricAnomaly -= step;
+      if (Math.abs(step) < 1e-15) {
+        break;
+      }
+    }
+    return eccentricAnomaly;
+  }
+
+  /**
+   * Osculating elements of a state, as oscelt computes them, without SPICE
+   * @param state Position and velocity relative to the center body, in the frame the elements should be measured in
+   * @param et Epoch of the state, in ET seconds
+   * @param elements Set to the eight elements, in oscelt's order
+   */
+  public static void elements(double[] state, double et, double mu, double[] elements) {
+    double rx = state[0], ry = state[1], rz = state[2];
+    double vx = state[3], vy = state[4], vz = state[5];
+    double r = Math.sqrt(rx * rx + ry * ry + rz * rz);
+    double v2 = vx * vx + vy * vy + vz * vz;
+    double rv = rx * vx + ry * vy + rz * vz;
+
+    double hx = ry * vz - rz * vy, hy = rz * vx - rx * vz, hz = rx * vy - ry * vx;
+    double h = Math.sqrt(hx * hx + hy * hy + hz * hz);
+    hx /= h;
+    hy /= h;
+    hz /= h;
+
+    double ex = ((v2 - mu / r) * rx - rv * vx) / mu;
+    double ey = ((v2 - mu / r) * ry - rv * vy) / mu;
+    double ez = ((v2 - mu / r) * rz - rv * vz) / mu;
+    double e = Math.sqrt(ex * ex + ey * ey + ez * ez);
+
+    // the ascending node, or the x axis for an equatorial orbit
+    double nx = -hy, ny = hx;
+    double n = Math.sqrt(nx * nx + ny * ny);
+    double node = 0;
+    if (n > 1e-12) {
+      nx /= n;
+      ny /= n;
+      node = normalize(Math.atan2(ny, nx));
+    } else {
+      nx = 1;
+      ny = 0;
+    }
+
+    // periapsis, or the node for a circular orbit
+    double dx = nx, dy = ny, dz = 0;
+    double argument = 0;
+    if (e > 1e-11) {
+      dx = ex / e;
+      dy = ey / e;
+      dz = ez / e;
+      double sin = (ny * dz) * hx - (nx * dz) * hy + (nx * dy - ny * dx) * hz;
+      argument = normalize(Math.atan2(sin, nx * dx + ny * dy));
+    }
+    double trueSin = ((dy * rz - dz * ry) * hx + (dz * rx - dx * rz) * hy + (dx * ry - dy * rx) * hz) / r;
+    double trueCos = (dx * rx + dy * ry + dz * rz) / r;
+    double trueAnomaly = Math.atan2(trueSin, trueCos);
+
+    double meanAnomaly;
+    if (e < 1) {
+      double eccentricAnomaly = 2 * Math.atan2(Math.sqrt(1 - e) * Math.sin(trueAnomaly / 2), Math.sqrt(1 + e) * Math.cos(trueAnomaly / 2));
+      meanAnomaly = normalize(eccentricAnomaly - e * Math.sin(eccentricAnomaly));
+    } else if (e > 1) {
+      double hyperbolicAnomaly = 2 * atanh(Math.sqrt((e - 1) / (e + 1)) * Math.tan(trueAnomaly / 2));
+      meanAnomaly = e * Math.sinh(hyperbolicAnomaly) - hyperbolicAnomaly;
+    } else {
+      double d = Math.tan(trueAnomaly / 2);
+      meanAnomaly = d + d * d * d / 3;
+    }
+
+    elements[0] = h * h / mu / (1 + e);
+    elements[1] = e;
+    elements[2] = Math.acos(Math.max(-1, Math.min(1, hz)));
+    elements[3] = node;
+    elements[4] = argument;
+    elements[5] = meanAnomaly;
+    elements[6] = et;
+    elements[7] = mu;
+  }
+
+  private static double normalize(double angle) {
+    return angle < 0 ? angle + 2 * Math.PI : angle;
+  }
+
+  private static double atanh(double x) {
+    return 0.5 * Math.log((1 + x) / (1 - x));
+  }
+}
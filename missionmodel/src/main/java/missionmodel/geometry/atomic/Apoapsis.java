@@ -5,7 +5,6 @@ import gov.nasa.jpl.aerie.merlin.framework.annotations.Export.Parameter;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import missionmodel.Mission;
 
-import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.DiscreteEffects.set;
 import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
 
 /**
@@ -26,8 +25,8 @@ public class Apoapsis {
 
   @ActivityType.EffectModel
   public void run(Mission model) {
-    set(model.geometryResources.Apoapsis.get(body), true);
+    model.geometryResources.setApoapsis(body, true);
     delay(Duration.SECOND);
-    set(model.geometryResources.Apoapsis.get(body), false);
+    model.geometryResources.setApoapsis(body, false);
   }
 }
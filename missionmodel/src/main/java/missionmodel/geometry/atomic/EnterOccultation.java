@@ -28,6 +28,6 @@ public class EnterOccultation {
     //setGroup("OccultationEvents");
     // setName("EnterOccultation_" + body + "_SeenFrom_" + station);
     DiscreteEffects.increment(model.geometryResources.Occultation, 1);
-    DiscreteEffects.turnOn(model.geometryResources.SpacecraftOccultationByBodyAndStation.get(body).get(station));
+    model.geometryResources.setOccultation(body, station, true);
   }
 }
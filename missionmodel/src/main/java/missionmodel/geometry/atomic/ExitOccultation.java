@@ -28,6 +28,6 @@ public class ExitOccultation {
     //setGroup("OccultationEvents");
     // setName("EnterOccultation_" + body + "_SeenFrom_" + station);
     DiscreteEffects.decrement(model.geometryResources.Occultation, 1);
-    DiscreteEffects.turnOff(model.geometryResources.SpacecraftOccultationByBodyAndStation.get(body).get(station));
+    model.geometryResources.setOccultation(body, station, false);
   }
 }
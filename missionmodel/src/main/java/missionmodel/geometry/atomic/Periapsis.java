@@ -6,7 +6,6 @@ import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import missionmodel.Mission;
 import spice.basic.CSPICE;
 
-import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.DiscreteEffects.set;
 import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
 
 /**
@@ -27,8 +26,8 @@ public class Periapsis {
 
   @ActivityType.EffectModel
   public void run(Mission model) {
-    set(model.geometryResources.Periapsis.get(body), true);
+    model.geometryResources.setPeriapsis(body, true);
     delay(Duration.SECOND);
-    set(model.geometryResources.Periapsis.get(body), false);
+    model.geometryResources.setPeriapsis(body, false);
   }
 }
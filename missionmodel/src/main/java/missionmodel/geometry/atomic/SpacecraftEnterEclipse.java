@@ -5,7 +5,6 @@ import gov.nasa.jpl.aerie.merlin.framework.annotations.Export.Parameter;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
 import missionmodel.Mission;
 import missionmodel.geometry.resources.EclipseTypes;
-import missionmodel.geometry.resources.GenericGeometryResources;
 import missionmodel.geometry.spiceinterpolation.Body;
 
 import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
@@ -33,7 +32,7 @@ public class SpacecraftEnterEclipse {
   @ActivityType.EffectModel
   public void run(Mission model){
     EclipseTypes priorType = currentValue(model.geometryResources.SpacecraftEclipseByBody.get(body));
-    set(model.geometryResources.SpacecraftEclipseByBody.get(body), type);
+    model.geometryResources.setEclipse(body, type);
 
     EclipseTypes worstOverallEclipseType = getWorstEclipseFromAllBodies(model);
     set(model.geometryResources.AnySpacecraftEclipse, type);
@@ -69,7 +68,7 @@ public class SpacecraftEnterEclipse {
 
   static EclipseTypes getWorstEclipseFromAllBodies(Mission model){
     EclipseTypes worstEclipse = EclipseTypes.NONE;
-    for(Body body: GenericGeometryResources.getBodies().values()){
+    for(Body body: model.geometryResources.getBodies().values()){
       EclipseTypes thisBodysWorstEclipse = currentValue(model.geometryResources.SpacecraftEclipseByBody.get(body.getName()));
       if(!thisBodysWorstEclipse.equals(EclipseTypes.NONE)){
         if(worstEclipse.equals(EclipseTypes.NONE)){
@@ -24,7 +24,7 @@ public class SpacecraftExitEclipse {
 
   @ActivityType.EffectModel
   public void run(Mission model){
-    set(model.geometryResources.SpacecraftEclipseByBody.get(body), EclipseTypes.NONE);
+    model.geometryResources.setEclipse(body, EclipseTypes.NONE);
 
     EclipseTypes worstOverallEclipseType = getWorstEclipseFromAllBodies(model);
     set(model.geometryResources.AnySpacecraftEclipse, worstOverallEclipseType);
@@ -1,13 +1,18 @@
 package missionmodel.geometry.directspicecalls;
 
+import missionmodel.JPLTimeConvertUtility;
 import missionmodel.geometry.spiceinterpolation.Body;
 import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.interfaces.FunctionWithGeometricException;
 import missionmodel.geometry.interfaces.GeometricEventGenerator;
 
+import missionmodel.IntervalSet;
 import missionmodel.Window;
+import missionmodel.WindowIndex;
 import missionmodel.geometry.returnedobjects.IlluminationAngles;
-import spice.basic.CSPICE;
+import missionmodel.jfr.EventSearchEvent;
+import missionmodel.spice.SpiceBackend;
+import missionmodel.spice.SpiceCalls;
 import gov.nasa.jpl.time.Duration;
 import gov.nasa.jpl.time.Time;
 import spice.basic.SpiceErrorException;
@@ -19,20 +24,32 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
   private Map<String, Body> bodiesMap;
   private SpiceDirectTimeDependentStateCalculator stateCalculator;
+  private final SpiceBackend spice;
 
-  public SpiceDirectEventGenerator() {
-    this.stateCalculator = new SpiceDirectTimeDependentStateCalculator(false);
-    this.bodiesMap = this.stateCalculator.getBodiesMap();
+  /**
+   * Event generator that searches against whatever kernels are loaded
+   */
+  public SpiceDirectEventGenerator(Map<String, Body> bodies) {
+    this(new SpiceDirectTimeDependentStateCalculator(bodies, false));
   }
 
-  public SpiceDirectEventGenerator(Map<String, Body> bodies) {
-    this.stateCalculator = new SpiceDirectTimeDependentStateCalculator(bodies, false);
-    this.bodiesMap = bodies;
+  public SpiceDirectEventGenerator(Map<String, Body> bodies, SpiceBackend spice) {
+    this(new SpiceDirectTimeDependentStateCalculator(bodies, false, spice));
+  }
+
+  private SpiceDirectEventGenerator(SpiceDirectTimeDependentStateCalculator stateCalculator) {
+    this.stateCalculator = stateCalculator;
+    this.bodiesMap = stateCalculator.getBodiesMap();
+    this.spice = stateCalculator.getSpiceBackend();
   }
 
   //<editor-fold desc="Methods to fulfill interface">
   @Override
   public List<Window> getOccultations(Time start, Time endTime, Duration stepSize, String observer, String target, String occultingBody, String abcorr, boolean mergePartials, boolean isTargetAPoint, boolean useDSK) throws GeometryInformationNotAvailableException {
+    return recorded("getOccultations", start, endTime, stepSize, observer, target, () -> findOccultations(start, endTime, stepSize, observer, target, occultingBody, abcorr, mergePartials, isTargetAPoint, useDSK));
+  }
+
+  private List<Window> findOccultations(Time start, Time endTime, Duration stepSize, String observer, String target, String occultingBody, String abcorr, boolean mergePartials, boolean isTargetAPoint, boolean useDSK) throws GeometryInformationNotAvailableException {
     Body occultingObject = this.bodiesMap.get(occultingBody);
     Body targetObject = this.bodiesMap.get(target);
     String targetFrame = isTargetAPoint ? "   " : targetObject.getNAIFBodyFrame();
@@ -42,7 +59,7 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
     if(useDSK) {
       // with DSK, you're only allowed to pick a point backing object, which means you can only find full eclipses
       try {
-        fullEclipseList.addAll(geometryFinderOccultations("ANY", occultingObject.getName(), "DSK/UNPRIORITIZED", occultingObject.getNAIFBodyFrame(),
+        fullEclipseList.addAll(occultations("ANY", occultingObject.getName(), "DSK/UNPRIORITIZED", occultingObject.getNAIFBodyFrame(),
           target, "POINT", targetFrame, abcorr,
           observer, stepSize, start, endTime));
       } catch (SpiceErrorException e) {
@@ -51,7 +68,7 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
     }
     else if(mergePartials){
       try {
-        fullEclipseList.addAll(geometryFinderOccultations("ANY", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+        fullEclipseList.addAll(occultations("ANY", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
           target, targetType, targetFrame, abcorr,
           observer, stepSize, start, endTime));
       } catch (SpiceErrorException e) {
@@ -61,7 +78,7 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
     else{
       // first we need to get the lists of full, annular, and partial eclipses from SPICE
       try {
-        fullEclipseList.addAll(geometryFinderOccultations("FULL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+        fullEclipseList.addAll(occultations("FULL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
           target, targetType, targetFrame, abcorr,
           observer, stepSize, start, endTime));
       } catch (SpiceErrorException e) {
@@ -69,7 +86,7 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
       }
 
       try {
-        fullEclipseList.addAll(geometryFinderOccultations("ANNULAR", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+        fullEclipseList.addAll(occultations("ANNULAR", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
           target, targetType, targetFrame, abcorr,
           observer, stepSize, start, endTime));
       } catch (SpiceErrorException e) {
@@ -77,7 +94,7 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
       }
 
       try {
-        fullEclipseList.addAll(geometryFinderOccultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+        fullEclipseList.addAll(occultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
           target, targetType, targetFrame, abcorr,
           observer, stepSize, start, endTime));
       } catch (SpiceErrorException e) {
@@ -86,17 +103,17 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
       Collections.sort(fullEclipseList);
       int numEclipsesBeforeProcessing = fullEclipseList.size();
+      // look partials up by time rather than by list neighbour, since an annular eclipse can sit between them
+      WindowIndex partialEclipses = WindowIndex.of(fullEclipseList.stream().filter(w -> w.getType().equals("PARTIAL")).toList());
 
       // now that we've sorted the eclipse windows, we have to process them to deal with eclipse types
       // transitioning to each other, and use smaller step sizes to grab partial eclipses we missed before around full eclipses
       for (int i = 0; i < numEclipsesBeforeProcessing; i++) {
         if (fullEclipseList.get(i).getType().equals("FULL")) {
           // check that this full eclipse has a partial eclipse entry
-          if (i == 0 ||
-            !(fullEclipseList.get(i - 1).getType().equals("PARTIAL") &&
-              fullEclipseList.get(i).getStart().absoluteDifference(fullEclipseList.get(i - 1).getEnd()).lessThan(new Duration("00:00:01")))) {
+          if (!hasPartialEndingNear(partialEclipses, fullEclipseList.get(i).getStart())) {
             try {
-              List<Window> foundPartialEclipses = geometryFinderOccultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+              List<Window> foundPartialEclipses = occultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
                 target, targetType, targetFrame, abcorr,
                 observer, new Duration("00:00:00.5"), fullEclipseList.get(i).getStart().subtract(new Duration("00:05:00")), fullEclipseList.get(i).getStart().add(new Duration("00:00:01")));
               if (foundPartialEclipses.isEmpty()) {
@@ -113,11 +130,9 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
           }
 
           // check that this full eclipse has a partial eclipse exit
-          if (i == numEclipsesBeforeProcessing - 1 ||
-            !(fullEclipseList.get(i + 1).getType().equals("PARTIAL") &&
-              fullEclipseList.get(i).getEnd().absoluteDifference(fullEclipseList.get(i + 1).getStart()).lessThan(new Duration("00:00:01")))) {
+          if (!hasPartialStartingNear(partialEclipses, fullEclipseList.get(i).getEnd())) {
             try {
-              List<Window> foundPartialEclipses = geometryFinderOccultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
+              List<Window> foundPartialEclipses = occultations("PARTIAL", occultingObject.getName(), "ellipsoid", occultingObject.getNAIFBodyFrame(),
                 target, targetType, targetFrame, abcorr,
                 observer, new Duration("00:00:00.5"), fullEclipseList.get(i).getEnd().subtract(new Duration("00:00:01")), fullEclipseList.get(i).getEnd().add(new Duration("00:05:00")));
               if (foundPartialEclipses.isEmpty()) {
@@ -142,8 +157,32 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
   }
 
+  private static boolean hasPartialEndingNear(WindowIndex partials, Time t) {
+    Duration tolerance = new Duration("00:00:01");
+    for (Window partial : partials.intersecting(t.subtract(tolerance), t.add(tolerance))) {
+      if (t.absoluteDifference(partial.getEnd()).lessThan(tolerance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasPartialStartingNear(WindowIndex partials, Time t) {
+    Duration tolerance = new Duration("00:00:01");
+    for (Window partial : partials.intersecting(t.subtract(tolerance), t.add(tolerance))) {
+      if (t.absoluteDifference(partial.getStart()).lessThan(tolerance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public List<Time> getPeriapses(Time start, Time endTime, Duration stepSize, String observer, String target, double maxDistanceFilter, String abcorr) throws GeometryInformationNotAvailableException {
+    return recorded("getPeriapses", start, endTime, stepSize, observer, target, () -> findPeriapses(start, endTime, stepSize, observer, target, maxDistanceFilter, abcorr));
+  }
+
+  private List<Time> findPeriapses(Time start, Time endTime, Duration stepSize, String observer, String target, double maxDistanceFilter, String abcorr) throws GeometryInformationNotAvailableException {
     Body targetObject = this.bodiesMap.get(target);
     if (targetObject == null) { // if target body is not in bodies map, return empty array list
       return new ArrayList<>();
@@ -151,11 +190,12 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
     List<Time> periapsisList = new ArrayList<>();
     try {
       // get each window of times that match the condition where the distance from the observer (spacecraft) to target (object) is a minimum
-      List<Window> periapsisWindows = geometryFinderDistance(targetObject.getName(), abcorr, observer, "LOCMIN", 0.0, 0.0, stepSize, start, endTime);
-      for (Window periapsisWindow : periapsisWindows) {
+      IntervalSet periapsisWindows = distanceIntervals(targetObject.getName(), abcorr, observer, "LOCMIN", 0.0, 0.0, stepSize, start, endTime);
+      for (int i = 0; i < periapsisWindows.size(); i++) {
+        Time periapsisTime = periapsisWindows.getStart(i);
         // if the body at the periapsis point is closer to the target body than the max distance filter, add the time
-        if (this.stateCalculator.getRange(periapsisWindow.getStart(), observer, target, abcorr) <= maxDistanceFilter) {
-          periapsisList.add(periapsisWindow.getStart());
+        if (this.stateCalculator.getRange(periapsisTime, observer, target, abcorr) <= maxDistanceFilter) {
+          periapsisList.add(periapsisTime);
         }
       }
     } catch (SpiceErrorException e) {
@@ -166,6 +206,10 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
   @Override
   public List<Time> getApoapses(Time start, Time endTime, Duration stepSize, String observer, String target, double minDistanceFilter, String abcorr) throws GeometryInformationNotAvailableException {
+    return recorded("getApoapses", start, endTime, stepSize, observer, target, () -> findApoapses(start, endTime, stepSize, observer, target, minDistanceFilter, abcorr));
+  }
+
+  private List<Time> findApoapses(Time start, Time endTime, Duration stepSize, String observer, String target, double minDistanceFilter, String abcorr) throws GeometryInformationNotAvailableException {
     Body targetObject = this.bodiesMap.get(target);
     if (targetObject == null) { // if target body is not in bodies map, return empty array list
       return new ArrayList<>();
@@ -173,11 +217,12 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
     List<Time> apoapsisList = new ArrayList<>();
     try {
       // get each window of times that match the condition where the distance from the observer (spacecraft) to target (object) is a maximum
-      List<Window> apoapsisWindows = geometryFinderDistance(targetObject.getName(), abcorr, observer, "LOCMAX", 0.0, 0.0, stepSize, start, endTime);
-      for (Window apoapsisWindow : apoapsisWindows) {
+      IntervalSet apoapsisWindows = distanceIntervals(targetObject.getName(), abcorr, observer, "LOCMAX", 0.0, 0.0, stepSize, start, endTime);
+      for (int i = 0; i < apoapsisWindows.size(); i++) {
+        Time apoapsisTime = apoapsisWindows.getStart(i);
         // if the body at the apoapsis point is farther from the target body than the min distance filter, add the time
-        if (this.stateCalculator.getRange(apoapsisWindow.getStart(), observer, target, abcorr) >= minDistanceFilter) {
-          apoapsisList.add(apoapsisWindow.getStart());
+        if (this.stateCalculator.getRange(apoapsisTime, observer, target, abcorr) >= minDistanceFilter) {
+          apoapsisList.add(apoapsisTime);
         }
       }
     } catch (SpiceErrorException e) {
@@ -188,16 +233,19 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
   @Override
   public List<Window> getConjunctions(Time start, Time endTime, Duration stepSize, String observer, String target, String conjunctingBody, String abcorr, double maxConjunctionAngle) throws GeometryInformationNotAvailableException {
+    return recorded("getConjunctions", start, endTime, stepSize, observer, target, () -> findConjunctions(start, endTime, stepSize, observer, target, conjunctingBody, abcorr, maxConjunctionAngle));
+  }
+
+  private List<Window> findConjunctions(Time start, Time endTime, Duration stepSize, String observer, String target, String conjunctingBody, String abcorr, double maxConjunctionAngle) throws GeometryInformationNotAvailableException {
     List<Window> fullConjunctionList = new ArrayList<>();
     String conjunctingBodyFrame = this.bodiesMap.containsKey(conjunctingBody) ? this.bodiesMap.get(conjunctingBody).getNAIFBodyFrame() : "NULL";
     String targetBodyFrame      = this.bodiesMap.containsKey(target) ? this.bodiesMap.get(target).getNAIFBodyFrame() : "NULL";
-    double[] cnfine = new double[]{start.toET(), endTime.toET()}; // define search window in a format gfsep can take
+    double[] cnfine = new double[]{JPLTimeConvertUtility.toET(start), JPLTimeConvertUtility.toET(endTime)}; // define search window in a format gfsep can take
     int nintvls = 2 + (int)Math.ceil(endTime.subtract(start).totalSeconds() / stepSize.totalSeconds());
     try {
-      double[] angleResults = CSPICE.gfsep(conjunctingBody, "POINT", conjunctingBodyFrame, target, "POINT", targetBodyFrame, abcorr, observer, "<", maxConjunctionAngle * (Math.PI/180), 0.0, stepSize.totalSeconds(), nintvls, cnfine);
-      for(int i = 0; i < angleResults.length; i += 2) { // result is in the format of: start1, end1, start2, end2, ....
-        fullConjunctionList.add(new Window(Time.fromET(angleResults[i]), Time.fromET(angleResults[i + 1])));
-      }
+      double[] angleResults = spice.call(() -> SpiceCalls.gfsep(conjunctingBody, "POINT", conjunctingBodyFrame, target, "POINT", targetBodyFrame, abcorr, observer, "<", maxConjunctionAngle * (Math.PI/180), 0.0, stepSize.totalSeconds(), nintvls, cnfine));
+      // result is in the format of: start1, end1, start2, end2, ....
+      fullConjunctionList.addAll(IntervalSet.fromET(angleResults).asWindows());
       return fullConjunctionList;
     } catch (SpiceErrorException e) {
       throw new GeometryInformationNotAvailableException(e.getMessage());
@@ -206,6 +254,10 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
 
   @Override
   public List<Window> getTerminatorCrossings(Time start, Time endTime, Duration stepSize, Duration refinementTime, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    return recorded("getTerminatorCrossings", start, endTime, stepSize, observer, target, () -> findTerminatorCrossings(start, endTime, stepSize, refinementTime, observer, target, abcorr, useDSK));
+  }
+
+  private List<Window> findTerminatorCrossings(Time start, Time endTime, Duration stepSize, Duration refinementTime, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
     List<Window> terminatorCrossings = new ArrayList<>();
     Body targetObject = this.bodiesMap.get(target);
     if (targetObject == null) { // if target body is not in bodies map, return empty array list
@@ -260,6 +312,31 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
   //</editor-fold>
 
   //<editor-fold desc="Helper methods for interface-fulfilling methods, or other useful public utility methods">
+  private interface Search<T> {
+    List<T> find() throws GeometryInformationNotAvailableException;
+  }
+
+  /**
+   * Runs the search, recording it as an EventSearchEvent when JFR is recording them
+   */
+  private static <T> List<T> recorded(String method, Time start, Time endTime, Duration stepSize, String observer, String target, Search<T> search) throws GeometryInformationNotAvailableException {
+    EventSearchEvent event = new EventSearchEvent();
+    event.begin();
+    List<T> found = search.find();
+    event.end();
+    if (event.shouldCommit()) {
+      event.method = method;
+      event.observer = observer;
+      event.target = target;
+      event.spanStart = start.toString();
+      event.span = (long) (endTime.subtract(start).totalSeconds() * 1e9);
+      event.step = (long) (stepSize.totalSeconds() * 1e9);
+      event.found = found.size();
+      event.commit();
+    }
+    return found;
+  }
+
   public List<Window> getWindowsWhenConditionMet(Time start, Time endTime, Duration stepSize, Duration refinementTime, FunctionWithGeometricException<Object[], Object> geometricFunction, Function<Object, Boolean> conditionFunction, Object... otherParameters) throws GeometryInformationNotAvailableException {
     List<Window> eventWindow = new ArrayList<>();
     Object[] parameterList = new Object[otherParameters.length + 1];
@@ -329,54 +406,58 @@ public class SpiceDirectEventGenerator implements GeometricEventGenerator {
   //</editor-fold>
 
   //<editor-fold desc="Lower-level geometry finder access functions">
-  public static List<Window> geometryFinderDistance(String targetBody, String abcorr, String observer, String relationalOperator, double referenceValue, double adjust, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
-    int nintvls = 2 + (int)Math.ceil(endSearch.subtract(startSearch).totalSeconds() / stepSize.totalSeconds());
-    double[] cnfine = new double[]{startSearch.toET(), endSearch.toET()};
-    double[] distanceResults = CSPICE.gfdist(targetBody, abcorr, observer, relationalOperator, referenceValue, adjust, stepSize.totalSeconds(), nintvls, cnfine);
-    List<Window> toReturn = new ArrayList<>();
+  // the searches this generator runs go through its SPICE backend; the static finders below call CSPICE directly
+  private List<Window> occultations(String occultationType, String occultingBody, String frontBodyShape, String frontFrame,
+                                    String targetBody, String backBodyShape, String backBodyFrame, String abcorr,
+                                    String observer, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
+    return spice.call(() -> geometryFinderOccultations(occultationType, occultingBody, frontBodyShape, frontFrame, targetBody,
+      backBodyShape, backBodyFrame, abcorr, observer, stepSize, startSearch, endSearch));
+  }
 
-    for(int i = 0; i < distanceResults.length; i += 2) {
-      toReturn.add(new Window(Time.fromET(distanceResults[i]), Time.fromET(distanceResults[i + 1])));
-    }
+  private IntervalSet distanceIntervals(String targetBody, String abcorr, String observer, String relationalOperator, double referenceValue, double adjust, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
+    return spice.call(() -> geometryFinderDistanceIntervals(targetBody, abcorr, observer, relationalOperator, referenceValue, adjust, stepSize, startSearch, endSearch));
+  }
 
-    return toReturn;
+  public static List<Window> geometryFinderDistance(String targetBody, String abcorr, String observer, String relationalOperator, double referenceValue, double adjust, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
+    return new ArrayList<>(geometryFinderDistanceIntervals(targetBody, abcorr, observer, relationalOperator, referenceValue, adjust, stepSize, startSearch, endSearch).asWindows());
+  }
+
+  public static IntervalSet geometryFinderDistanceIntervals(String targetBody, String abcorr, String observer, String relationalOperator, double referenceValue, double adjust, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
+    int nintvls = 2 + (int)Math.ceil(endSearch.subtract(startSearch).totalSeconds() / stepSize.totalSeconds());
+    double[] cnfine = new double[]{JPLTimeConvertUtility.toET(startSearch), JPLTimeConvertUtility.toET(endSearch)};
+    return IntervalSet.fromET(SpiceCalls.gfdist(targetBody, abcorr, observer, relationalOperator, referenceValue, adjust, stepSize.totalSeconds(), nintvls, cnfine));
   }
 
   public static List<Window> geometryFinderOccultations(String occultationType, String occultingBody, String frontBodyShape, String frontFrame,
                                                         String targetBody, String backBodyShape, String backBodyFrame, String abcorr,
                                                         String observer, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
+    return new ArrayList<>(geometryFinderOccultationIntervals(occultationType, occultingBody, frontBodyShape, frontFrame, targetBody,
+      backBodyShape, backBodyFrame, abcorr, observer, stepSize, startSearch, endSearch).asWindows(occultationType));
+  }
 
-    int nintvls = 2 + (int)Math.ceil((endSearch.subtract(startSearch).totalSeconds())/stepSize.totalSeconds());
-    double[] cnfine = new double[]{startSearch.toET(), endSearch.toET()};
+  public static IntervalSet geometryFinderOccultationIntervals(String occultationType, String occultingBody, String frontBodyShape, String frontFrame,
+                                                               String targetBody, String backBodyShape, String backBodyFrame, String abcorr,
+                                                               String observer, Duration stepSize, Time startSearch, Time endSearch) throws SpiceErrorException {
 
-    double[] occultationResults = CSPICE.gfoclt(occultationType, occultingBody, frontBodyShape, frontFrame, targetBody,
-      backBodyShape, backBodyFrame, abcorr, observer, stepSize.totalSeconds(), nintvls, cnfine);
+    int nintvls = 2 + (int)Math.ceil((endSearch.subtract(startSearch).totalSeconds())/stepSize.totalSeconds());
+    double[] cnfine = new double[]{JPLTimeConvertUtility.toET(startSearch), JPLTimeConvertUtility.toET(endSearch)};
 
-    List<Window> toReturn = new ArrayList<>();
-    for(int i = 0; i < occultationResults.length; i+=2){
-      toReturn.add(new Window(Time.fromET(occultationResults[i]), Time.fromET(occultationResults[i+1]), occultationType));
-    }
-    return toReturn;
+    return IntervalSet.fromET(SpiceCalls.gfoclt(occultationType, occultingBody, frontBodyShape, frontFrame, targetBody,
+      backBodyShape, backBodyFrame, abcorr, observer, stepSize.totalSeconds(), nintvls, cnfine));
   }
 
-
   public static List<Window> geometryFinderPositionVector(String targetBody, String frame, String abcorr, String observer,
                                                           String coordinateSystem, String coordinateOfInterest, String relationalOperator,
                                                           double referenceValue, double adjust, Duration stepSize,
                                                           Time startSearch, Time endSearch) throws SpiceErrorException {
 
     int nintvls = 2 + (int)Math.ceil((endSearch.subtract(startSearch).totalSeconds())/stepSize.totalSeconds());
-    double[] cnfine = new double[]{startSearch.toET(), endSearch.toET()};
+    double[] cnfine = new double[]{JPLTimeConvertUtility.toET(startSearch), JPLTimeConvertUtility.toET(endSearch)};
 
-    double[] windowResults = CSPICE.gfposc(targetBody, frame, abcorr, observer, coordinateSystem, coordinateOfInterest,
+    double[] windowResults = SpiceCalls.gfposc(targetBody, frame, abcorr, observer, coordinateSystem, coordinateOfInterest,
       relationalOperator, referenceValue, adjust, stepSize.totalSeconds(), nintvls, cnfine);
 
-    List<Window> toReturn = new ArrayList<>();
-    for(int i = 0; i < windowResults.length; i+=2){
-      toReturn.add(new Window(Time.fromET(windowResults[i]), Time.fromET(windowResults[i+1])));
-    }
-    return toReturn;
-
+    return new ArrayList<>(IntervalSet.fromET(windowResults).asWindows());
   }
   //</editor-fold>
 }
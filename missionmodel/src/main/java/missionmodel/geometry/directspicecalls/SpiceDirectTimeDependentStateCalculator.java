@@ -1,15 +1,21 @@
 package missionmodel.geometry.directspicecalls;
 
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.geometry.ellipsoid.EllipsoidSurfaceGeometry;
 import missionmodel.geometry.spiceinterpolation.Body;
-import missionmodel.geometry.resources.GenericGeometryResources;
 import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
 import missionmodel.geometry.returnedobjects.*;
+import missionmodel.spice.BodyRotation;
+import missionmodel.spice.BodyRotations;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import missionmodel.spice.SpiceCalls;
+import missionmodel.spice.SpiceInstrumentation;
 
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
 import spice.basic.SpiceErrorException;
 
 import java.util.Map;
@@ -19,7 +25,6 @@ import java.util.TreeMap;
 import java.util.HashMap;
 import java.util.function.Function;
 
-import static gov.nasa.jpl.time.Duration.*;
 
 public class SpiceDirectTimeDependentStateCalculator implements TimeDependentStateCalculator {
 
@@ -29,28 +34,109 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
   // The inner List<Object> has a list of each set of qualifying parameters and then the corresponding return val
   // Ex. List<Object> -> [observer1, target1, abcorr1, state1, observer2, target2, abcorr2, state2, observer3, target3....]
   // Therefore, if a search matches an observer, target, and abcorr for the case above (or the list of parameters in general), then the state in the case above (or the return val) will be returned
-  private Map<Time, Map<String, List<Object>>> spiceInfoMap;
+  private TreeMap<Time, Map<String, List<Object>>> spiceInfoMap;
+  // epochs kept in spiceInfoMap; a simulation steps forward, so the earliest are dropped past this. Each body's
+  // generator steps at its own epochs, so asks for the bodies' epochs arrive interleaved; 16 keeps the last few steps
+  // of every body the geometry config steps (three by default) while bounding the cache over a long simulation
+  public static final int MAX_CACHED_EPOCHS = 16;
+  // states kept for the array variants, in slots allocated once so a lookup allocates nothing; the oldest is replaced
+  // first. A geometry step asks for up to ten states, some of them again in the other bodies' steps at the same epoch
+  public static final int CACHED_STATES = 32;
   boolean caching;
-
-  public SpiceDirectTimeDependentStateCalculator(boolean cachingOn) {
-    this(GenericGeometryResources.getBodies(), cachingOn);
+  private final SpiceBackend spice;
+  // whether sub-points, illumination angles and LST of bodies without a DSK are calculated in Java
+  private boolean ellipsoidKernel = false;
+  private boolean javaBodyRotations = false;
+  private final Map<String, EllipsoidSurfaceGeometry> ellipsoids = new HashMap<>();
+
+  // scratch for the variants that fill caller arrays
+  private final double[] lightTime = new double[1];
+  private final double[] targetEpoch = new double[1];
+  private final boolean[] found = new boolean[1];
+  private final double[] scratchState = new double[6];
+  private final double[] inertialState = new double[6];
+  private final double[] direction = new double[3];
+  private final double[] surfacePoint = new double[3];
+  private final double[] surfaceVector = new double[3];
+  private final double[] ellipsoidState = new double[6];
+  private final double[] ellipsoidVelocity = new double[3];
+  private final double[] barycentricState = new double[6];
+
+  // the array variants' cache when caching: states by epoch, observer, target and aberration correction, and the last
+  // sub-point, which getIlluminationAngles asks for again right after the step did
+  private final Time[] stateEpochs = new Time[CACHED_STATES];
+  private final String[] stateObservers = new String[CACHED_STATES];
+  private final String[] stateTargets = new String[CACHED_STATES];
+  private final String[] stateCorrections = new String[CACHED_STATES];
+  private final double[][] cachedStates = new double[CACHED_STATES][6];
+  private int nextStateSlot = 0;
+  private Time subPointEpoch = null;
+  private String subPointObserver;
+  private String subPointTarget;
+  private String subPointCorrection;
+  private boolean subPointDSK;
+  private boolean subPointFound;
+  private final double[] cachedSpoint = new double[3];
+  private final double[] cachedSrfvec = new double[3];
+
+  /**
+   * Calculator that calls SPICE against whatever kernels are loaded
+   */
+  public SpiceDirectTimeDependentStateCalculator(Map<String, Body> bodiesMap, boolean cachingOn){
+    this(bodiesMap, cachingOn, SerializedSpiceBackend.currentKernels());
   }
 
-  public SpiceDirectTimeDependentStateCalculator(Map<String, Body> bodiesMap, boolean cachingOn){
+  public SpiceDirectTimeDependentStateCalculator(Map<String, Body> bodiesMap, boolean cachingOn, SpiceBackend spice){
     this.bodiesMap = bodiesMap;
     this.spiceInfoMap = new TreeMap<>();
     this.caching = cachingOn;
+    this.spice = spice;
   }
 
   public Map<String, Body> getBodiesMap() {
     return this.bodiesMap;
   }
 
+  public SpiceBackend getSpiceBackend() {
+    return this.spice;
+  }
+
+  /**
+   * Calculate the sub-points, illumination angles and LST of bodies that don't use a DSK with EllipsoidSurfaceGeometry,
+   * from states, the body-fixed rotation and the bodies' radii, instead of with sincpt, ilumin and et2lst
+   */
+  public void setEllipsoidKernel(boolean ellipsoidKernel) {
+    this.ellipsoidKernel = ellipsoidKernel;
+  }
+
+  public boolean isEllipsoidKernel() {
+    return ellipsoidKernel;
+  }
+
+  /**
+   * Evaluate rotations into body-fixed frames defined by text PCK constants with BodyRotation instead of pxform
+   */
+  public void setJavaBodyRotations(boolean javaBodyRotations) {
+    this.javaBodyRotations = javaBodyRotations;
+  }
+
+  public boolean isJavaBodyRotations() {
+    return javaBodyRotations;
+  }
+
   public Map<Time, Map<String, List<Object>>> getSpiceInfoMap() {
     return this.spiceInfoMap;
   }
 
   public Object getSpiceInfoValue(Time et, String infoType, Object[] expectedParameters) {
+    Object value = lookUpSpiceInfoValue(et, infoType, expectedParameters);
+    if (SpiceInstrumentation.isEnabled()) {
+      SpiceInstrumentation.cacheLookup("StateCalculator." + infoType, value != null);
+    }
+    return value;
+  }
+
+  private Object lookUpSpiceInfoValue(Time et, String infoType, Object[] expectedParameters) {
     if (this.spiceInfoMap.containsKey(et)) { // check that values have been cached for this time
       Map<String, List<Object>> spiceInfoAtTime = this.spiceInfoMap.get(et); // get the map of information at that time
       if (spiceInfoAtTime.containsKey(infoType)) { // check if the the provided type of info (Ex. state, range, etc...) has been cached for this time
@@ -95,6 +181,9 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     listOfInfo.add(valueToSet);
     spiceInfoAtTime.put(infoType, listOfInfo);
     this.spiceInfoMap.put(et, spiceInfoAtTime);
+    if (this.spiceInfoMap.size() > MAX_CACHED_EPOCHS) {
+      this.spiceInfoMap.pollFirstEntry();
+    }
   }
 
   @Override
@@ -110,7 +199,11 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     try {
       double[] state = new double[6];
       double[] lt = new double[1];
-      CSPICE.spkezr(target, et.toET(), "J2000", abcorr, observer, state, lt);
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      spice.call(() -> {
+        SpiceCalls.spkezr(target, etSeconds, "J2000", abcorr, observer, state, lt);
+        return null;
+      });
       returnState[0] = new Vector3D(state[0], state[1], state[2]);
       returnState[1] = new Vector3D(state[3], state[4], state[5]);
       if (this.caching) {
@@ -122,6 +215,51 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     return returnState; // units are kilometers for distance and kilometers per second for velocity
   }
 
+  @Override
+  public void getState(Time et, String observer, String target, String abcorr, double[] state) throws GeometryInformationNotAvailableException {
+    if (this.caching) {
+      int slot = cachedStateSlot(et, observer, target, abcorr);
+      if (SpiceInstrumentation.isEnabled()) {
+        SpiceInstrumentation.cacheLookup("StateCalculator.stateArray", slot >= 0);
+      }
+      if (slot >= 0) {
+        System.arraycopy(cachedStates[slot], 0, state, 0, 6);
+        return;
+      }
+    }
+    try {
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      spice.call(() -> {
+        SpiceCalls.spkezr(target, etSeconds, "J2000", abcorr, observer, state, lightTime);
+        return null;
+      });
+    } catch (SpiceErrorException e) {
+      throw new GeometryInformationNotAvailableException(e.getMessage());
+    }
+    if (this.caching) {
+      int slot = nextStateSlot;
+      nextStateSlot = (nextStateSlot + 1) % CACHED_STATES;
+      stateEpochs[slot] = et;
+      stateObservers[slot] = observer;
+      stateTargets[slot] = target;
+      stateCorrections[slot] = abcorr;
+      System.arraycopy(state, 0, cachedStates[slot], 0, 6);
+    }
+  }
+
+  /**
+   * @return slot of the array variants' cache holding the state, or -1
+   */
+  private int cachedStateSlot(Time et, String observer, String target, String abcorr) {
+    for (int i = 0; i < CACHED_STATES; i++) {
+      if (stateEpochs[i] != null && stateEpochs[i].equals(et) && stateTargets[i].equals(target)
+        && stateObservers[i].equals(observer) && stateCorrections[i].equals(abcorr)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   @Override
   public double getRange(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
     Vector3D positionVector = getState(et, observer, target, abcorr)[0];
@@ -196,14 +334,20 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     }
     try {
       String fixref = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
-
-      // getState always returns in J2000 so it matches ref frame below
-      Vector3D dvec = getState(et, observer, target, abcorr)[0];
-
-      if (useDSK) {
-        returnSubPoint = new SubPointInformation("DSK/UNPRIORITIZED", target, et, fixref, abcorr, observer, "J2000", dvec);
+      EllipsoidSurfaceGeometry ellipsoid = ellipsoidFor(target, abcorr, useDSK);
+      if (ellipsoid != null) {
+        EllipsoidInputs inputs = ellipsoidInputs(et, observer, target, fixref);
+        double[] spoint = new double[3];
+        double[] srfvec = new double[3];
+        double trgepc = ellipsoid.subPoint(JPLTimeConvertUtility.toET(et), inputs.targetState(), inputs.targetVelocity(),
+          inputs.toBodyFixed(), abcorr, spoint, srfvec);
+        returnSubPoint = new SubPointInformation(new Vector3D(spoint), new Vector3D(srfvec), trgepc, !Double.isNaN(trgepc));
       } else {
-        returnSubPoint = new SubPointInformation("Ellipsoid", target, et, fixref, abcorr, observer, "J2000", dvec);
+        // getState always returns in J2000 so it matches ref frame below
+        Vector3D dvec = getState(et, observer, target, abcorr)[0];
+
+        String method = useDSK ? "DSK/UNPRIORITIZED" : "Ellipsoid";
+        returnSubPoint = spice.call(() -> new SubPointInformation(method, target, et, fixref, abcorr, observer, "J2000", dvec));
       }
       if (this.caching) {
         setSpiceInfoValue(et, "SubSpacecraftInformation", parameters, returnSubPoint);
@@ -218,6 +362,48 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     return getSubPointInformation((Time) parameters[0], (String) parameters[1], (String) parameters[2], (String) parameters[3], (boolean) parameters[4]);
   }
 
+  @Override
+  public boolean getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK, double[] spoint, double[] srfvec) throws GeometryInformationNotAvailableException {
+    if (this.caching && et.equals(subPointEpoch) && target.equals(subPointTarget) && observer.equals(subPointObserver)
+      && abcorr.equals(subPointCorrection) && useDSK == subPointDSK) {
+      System.arraycopy(cachedSpoint, 0, spoint, 0, 3);
+      System.arraycopy(cachedSrfvec, 0, srfvec, 0, 3);
+      return subPointFound;
+    }
+    boolean subPointExists;
+    try {
+      String fixref = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      EllipsoidSurfaceGeometry ellipsoid = ellipsoidFor(target, abcorr, useDSK);
+      if (ellipsoid != null) {
+        double[][] toBodyFixed = fillEllipsoidInputs(et, observer, target, fixref);
+        subPointExists = !Double.isNaN(ellipsoid.subPoint(etSeconds, ellipsoidState, ellipsoidVelocity, toBodyFixed, abcorr, spoint, srfvec));
+      } else {
+        getState(et, observer, target, abcorr, scratchState);
+        System.arraycopy(scratchState, 0, direction, 0, 3);
+        String method = useDSK ? "DSK/UNPRIORITIZED" : "Ellipsoid";
+        spice.call(() -> {
+          SubPointInformation.compute(method, target, etSeconds, fixref, abcorr, observer, "J2000", direction, spoint, targetEpoch, srfvec, found);
+          return null;
+        });
+        subPointExists = found[0];
+      }
+    } catch (SpiceErrorException e) {
+      throw new GeometryInformationNotAvailableException(e.getMessage());
+    }
+    if (this.caching) {
+      subPointEpoch = et;
+      subPointObserver = observer;
+      subPointTarget = target;
+      subPointCorrection = abcorr;
+      subPointDSK = useDSK;
+      subPointFound = subPointExists;
+      System.arraycopy(spoint, 0, cachedSpoint, 0, 3);
+      System.arraycopy(srfvec, 0, cachedSrfvec, 0, 3);
+    }
+    return subPointExists;
+  }
+
   @Override
   public IlluminationAngles getIlluminationAngles(Time et, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
     IlluminationAngles returnIlluminationAngles;
@@ -231,12 +417,20 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     try {
       String fixref = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
 
-      Vector3D spoint = getSubPointInformation(et, observer, target, abcorr, useDSK).getSpoint();
-
-      if (useDSK) {
-        returnIlluminationAngles = new IlluminationAngles("DSK/UNPRIORITIZED", target, et, fixref, abcorr, observer, spoint);
+      SubPointInformation subPoint = getSubPointInformation(et, observer, target, abcorr, useDSK);
+      Vector3D spoint = subPoint.getSpoint();
+
+      EllipsoidSurfaceGeometry ellipsoid = ellipsoidFor(target, abcorr, useDSK);
+      if (ellipsoid != null) {
+        EllipsoidInputs inputs = ellipsoidInputs(et, observer, target, fixref);
+        double[] sunPosition = getState(et, target, "SUN", abcorr)[0].toArray();
+        double[] angles = new double[3];
+        ellipsoid.illuminationAngles(inputs.targetState(), inputs.targetVelocity(), inputs.toBodyFixed(), sunPosition,
+          abcorr, spoint.toArray(), subPoint.getSrfvec().toArray(), angles);
+        returnIlluminationAngles = new IlluminationAngles(Math.toDegrees(angles[0]), Math.toDegrees(angles[1]), Math.toDegrees(angles[2]));
       } else {
-        returnIlluminationAngles = new IlluminationAngles("Ellipsoid", target, et, fixref, abcorr, observer, spoint);
+        String method = useDSK ? "DSK/UNPRIORITIZED" : "Ellipsoid";
+        returnIlluminationAngles = spice.call(() -> new IlluminationAngles(method, target, et, fixref, abcorr, observer, spoint));
       }
       if (this.caching) {
         setSpiceInfoValue(et, "IlluminationAngles", parameters, returnIlluminationAngles);
@@ -251,6 +445,34 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     return getIlluminationAngles((Time) parameters[0], (String) parameters[1], (String) parameters[2], (String) parameters[3], (boolean) parameters[4]);
   }
 
+  @Override
+  public void getIlluminationAngles(Time et, String observer, String target, String abcorr, boolean useDSK, double[] angles) throws GeometryInformationNotAvailableException {
+    try {
+      String fixref = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      getSubPointInformation(et, observer, target, abcorr, useDSK, surfacePoint, surfaceVector);
+
+      EllipsoidSurfaceGeometry ellipsoid = ellipsoidFor(target, abcorr, useDSK);
+      if (ellipsoid != null) {
+        double[][] toBodyFixed = fillEllipsoidInputs(et, observer, target, fixref);
+        getState(et, target, "SUN", abcorr, scratchState);
+        ellipsoid.illuminationAngles(ellipsoidState, ellipsoidVelocity, toBodyFixed, scratchState,
+          abcorr, surfacePoint, surfaceVector, angles);
+        angles[0] = Math.toDegrees(angles[0]);
+        angles[1] = Math.toDegrees(angles[1]);
+        angles[2] = Math.toDegrees(angles[2]);
+      } else {
+        String method = useDSK ? "DSK/UNPRIORITIZED" : "Ellipsoid";
+        spice.call(() -> {
+          IlluminationAngles.compute(method, target, etSeconds, fixref, abcorr, observer, surfacePoint, targetEpoch, surfaceVector, angles);
+          return null;
+        });
+      }
+    } catch (SpiceErrorException e) {
+      throw new GeometryInformationNotAvailableException(e.getMessage());
+    }
+  }
+
   @Override
   public OrbitConicElements getOrbitConicElements(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
     double mu = getDoubleFromBodiesMap(target, Body::getMu);
@@ -265,7 +487,7 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
       }
     }
     try {
-      returnOrbitConicElements = new OrbitConicElements(stateVector[0], stateVector[1], et, mu);
+      returnOrbitConicElements = spice.call(() -> new OrbitConicElements(stateVector[0], stateVector[1], et, mu));
       if (this.caching) {
         setSpiceInfoValue(et, "OrbitConicElements", parameters, returnOrbitConicElements);
       }
@@ -279,6 +501,28 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     return getOrbitConicElements((Time) parameters[0], (String) parameters[1], (String) parameters[2], (String) parameters[3]);
   }
 
+  @Override
+  public void getOrbitConicElements(Time et, String observer, String target, String abcorr, double[] elements) throws GeometryInformationNotAvailableException {
+    double mu = getDoubleFromBodiesMap(target, Body::getMu);
+    try {
+      // the state in the body's frame at et, as getInertialState gives it
+      String frame = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      getState(et, observer, target, abcorr, scratchState);
+      double[][] toFrame = bodyFixedRotation(etSeconds, frame);
+      for (int i = 0; i < 3; i++) {
+        inertialState[i] = toFrame[i][0] * scratchState[0] + toFrame[i][1] * scratchState[1] + toFrame[i][2] * scratchState[2];
+        inertialState[i + 3] = toFrame[i][0] * scratchState[3] + toFrame[i][1] * scratchState[4] + toFrame[i][2] * scratchState[5];
+      }
+      spice.call(() -> {
+        OrbitConicElements.compute(inertialState, etSeconds, mu, elements);
+        return null;
+      });
+    } catch (SpiceErrorException e) {
+      throw new GeometryInformationNotAvailableException(e.getMessage());
+    }
+  }
+
   @Override
   public double getBetaAngle(Time et, String spacecraft, String body, String abcorr) throws GeometryInformationNotAvailableException {
     Vector3D[] positionAndVelocityVector = getState(et, spacecraft, body, abcorr);
@@ -330,7 +574,19 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     try {
       SubPointInformation sp_sc = getSubPointInformation(et, spacecraft, body, abcorr, useDSK);
       LatLonCoord latLonSurfaceData = new LatLonCoord(sp_sc.getSpoint());
-      return et2LSTHours(et, getIntFromBodiesMap(body, Body::getNAIFID), latLonSurfaceData.getLongitude());
+      if (ellipsoidFor(body, abcorr, useDSK) != null) {
+        // et2lst always places the Sun with LT+S, at et
+        String frame = getStringFromBodiesMap(body, Body::getNAIFBodyFrame);
+        double[] sunBodyFixed = new double[3];
+        Vector3D sun = getState(et, body, "SUN", "LT+S")[0];
+        double[][] toBodyFixed = bodyFixedRotation(JPLTimeConvertUtility.toET(et), frame);
+        for (int i = 0; i < 3; i++) {
+          sunBodyFixed[i] = toBodyFixed[i][0] * sun.getX() + toBodyFixed[i][1] * sun.getY() + toBodyFixed[i][2] * sun.getZ();
+        }
+        return EllipsoidSurfaceGeometry.localSolarTimeHours(latLonSurfaceData.getLongitude(), sunBodyFixed);
+      }
+      int bodyID = getIntFromBodiesMap(body, Body::getNAIFID);
+      return spice.call(() -> et2LSTHours(et, bodyID, latLonSurfaceData.getLongitude()));
     } catch (SpiceErrorException e) {
       throw new GeometryInformationNotAvailableException(e.getMessage());
     }
@@ -340,15 +596,61 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
     return getLST((Time) parameters[0], (String) parameters[1], (String) parameters[2], (String) parameters[3], (boolean) parameters[4]);
   }
 
+  /**
+   * @see LocalSolarTime#hours
+   */
   public static double et2LSTHours(Time et, int bodyID, double longitude) throws SpiceErrorException {
-    int[] hr = new int[1];
-    int[] min = new int[1];
-    int[] sec = new int[1];
-    String[] time = new String[1];
-    String[] ampm = new String[1];
-    CSPICE.et2lst(et.toET(), bodyID, longitude, "PLANETOCENTRIC", hr, min, sec, time, ampm);
-    return hr[0] + (MINUTE_DURATION.div(HOUR_DURATION)*min[0]) + (SECOND_DURATION.div(HOUR_DURATION)*sec[0]);
+    return LocalSolarTime.hours(et, bodyID, longitude);
+  }
 
+  // what EllipsoidSurfaceGeometry needs to stand in for sincpt and ilumin
+  private record EllipsoidInputs(double[] targetState, double[] targetVelocity, double[][] toBodyFixed) {}
+
+  /**
+   * @return the calculator for target's ellipsoid if it should be used, or null if SPICE should
+   */
+  private EllipsoidSurfaceGeometry ellipsoidFor(String target, String abcorr, boolean useDSK) {
+    if (!ellipsoidKernel || useDSK || !EllipsoidSurfaceGeometry.supports(abcorr)) {
+      return null;
+    }
+    Body body = bodiesMap.get(target);
+    if (body == null || body.getRadii() == null) {
+      return null;
+    }
+    return ellipsoids.computeIfAbsent(target, t -> new EllipsoidSurfaceGeometry(body.getRadii()));
+  }
+
+  private EllipsoidInputs ellipsoidInputs(Time et, String observer, String target, String fixref) throws GeometryInformationNotAvailableException, SpiceErrorException {
+    Vector3D[] geometric = getState(et, observer, target, "NONE");
+    double[] targetState = new double[]{geometric[0].getX(), geometric[0].getY(), geometric[0].getZ(),
+      geometric[1].getX(), geometric[1].getY(), geometric[1].getZ()};
+    double[] targetVelocity = getState(et, "SSB", target, "NONE")[1].toArray();
+    double targetEpoch = JPLTimeConvertUtility.toET(et) - EllipsoidSurfaceGeometry.lightTime(targetState, targetVelocity);
+    return new EllipsoidInputs(targetState, targetVelocity, bodyFixedRotation(targetEpoch, fixref));
+  }
+
+  /**
+   * Like ellipsoidInputs, for the array variants: fills ellipsoidState and ellipsoidVelocity through the array state
+   * cache rather than allocating them
+   * @return the rotation into the body-fixed frame
+   */
+  private double[][] fillEllipsoidInputs(Time et, String observer, String target, String fixref) throws GeometryInformationNotAvailableException, SpiceErrorException {
+    getState(et, observer, target, "NONE", ellipsoidState);
+    getState(et, "SSB", target, "NONE", barycentricState);
+    System.arraycopy(barycentricState, 3, ellipsoidVelocity, 0, 3);
+    double targetEpoch = JPLTimeConvertUtility.toET(et) - EllipsoidSurfaceGeometry.lightTime(ellipsoidState, ellipsoidVelocity);
+    return bodyFixedRotation(targetEpoch, fixref);
+  }
+
+  private double[][] bodyFixedRotation(double etSeconds, String frame) throws SpiceErrorException {
+    if (javaBodyRotations) {
+      // only the first rotation into each frame needs SPICE, to read the frame's constants
+      BodyRotation model = BodyRotations.isLoaded(frame) ? BodyRotations.forFrame(frame) : spice.call(() -> BodyRotations.forFrame(frame));
+      if (model != null) {
+        return model.rotation(etSeconds);
+      }
+    }
+    return spice.call(() -> SpiceCalls.pxform("J2000", frame, etSeconds));
   }
 
   public Vector3D[] getInertialState(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
@@ -361,7 +663,9 @@ public class SpiceDirectTimeDependentStateCalculator implements TimeDependentSta
       }
     }
     try {
-      Rotation J2000ToFrame = new Rotation(CSPICE.pxform("J2000", getStringFromBodiesMap(target, Body::getNAIFBodyFrame), et.toET()), 1);
+      String frame = getStringFromBodiesMap(target, Body::getNAIFBodyFrame);
+      double etSeconds = JPLTimeConvertUtility.toET(et);
+      Rotation J2000ToFrame = new Rotation(bodyFixedRotation(etSeconds, frame), 1);
       Vector3D[] stateVector = getState(et, observer, target, abcorr);
       Vector3D inertialSpacecraftPosition = J2000ToFrame.applyTo(stateVector[0]);
       Vector3D inertialSpacecraftVelocity = J2000ToFrame.applyTo(stateVector[1]);
@@ -0,0 +1,221 @@
+package missionmodel.geometry.ellipsoid;
+
+/**
+ * What sincpt (with the "Ellipsoid" method), ilumin and et2lst compute, in Java, from state vectors, the rotation into
+ * the body-fixed frame and the body's radii rather than from the kernels. Light time and stellar aberration are
+ * corrected for with SPICE's Newtonian formulations, from the target's velocity relative to the solar system barycenter.
+ *
+ * Doesn't allocate, so it keeps scratch arrays and an instance must not be shared between threads. Vectors are in km
+ * and km/s, inertial ones in J2000; a rotation is a 3x3 matrix taking J2000 vectors to the body-fixed frame, as pxform
+ * returns it.
+ */
+public class EllipsoidSurfaceGeometry {
+  public static final double SPEED_OF_LIGHT = 299792.458; // km/s
+  // light time iterations, well past where a Newtonian light time stops changing
+  private static final int LIGHT_TIME_ITERATIONS = 3;
+
+  private final TriaxialEllipsoid ellipsoid;
+
+  private final double[] center = new double[3];
+  private final double[] direction = new double[3];
+  private final double[] observer = new double[3];
+  private final double[] scratch = new double[3];
+  private final double[] apparent = new double[3];
+  private final double[] observerVelocity = new double[3];
+  private final double[] normal = new double[3];
+  private final double[] toObserver = new double[3];
+  private final double[] toSun = new double[3];
+
+  public EllipsoidSurfaceGeometry(double[] radii) {
+    this.ellipsoid = new TriaxialEllipsoid(radii);
+  }
+
+  public TriaxialEllipsoid getEllipsoid() {
+    return ellipsoid;
+  }
+
+  /**
+   * Whether the aberration correction can be computed here: none, or light time with or without stellar aberration.
+   * Transmission corrections ("X" prefixed) can't.
+   */
+  public static boolean supports(String abcorr) {
+    String correction = abcorr.trim().toUpperCase();
+    return correction.equals("NONE") || correction.equals("LT") || correction.equals("LT+S")
+      || correction.equals("CN") || correction.equals("CN+S");
+  }
+
+  /**
+   * The surface intercept of the ray from the observer towards the target's center, as sincpt finds it when handed the
+   * target's apparent position as the ray direction
+   * @param et Observation epoch in ET seconds
+   * @param targetState Geometric state of the target relative to the observer at et
+   * @param targetVelocity Velocity of the target relative to the solar system barycenter at et
+   * @param toBodyFixed Rotation into the body-fixed frame at about the target epoch, et less the light time to the target
+   * @param spoint Set to the intercept, body-fixed
+   * @param srfvec Set to the vector from the observer to the intercept, body-fixed
+   * @return Target epoch, et less the light time from the intercept, or NaN if the ray misses the body
+   */
+  public double subPoint(double et, double[] targetState, double[] targetVelocity, double[][] toBodyFixed, String abcorr,
+                         double[] spoint, double[] srfvec) {
+    boolean lightTime = usesLightTime(abcorr);
+
+    // the ray runs towards where the target's center was when the light arriving at et left it; stellar aberration
+    // bends the apparent direction, and sincpt takes it back out, so it doesn't move the intercept
+    double tau = lightTime ? lightTime(targetState, targetVelocity) : 0;
+    position(targetState, targetVelocity, tau, center);
+    rotate(toBodyFixed, center, direction);
+
+    // light time from the intercept rather than the center places the body
+    for (int i = 0; i < (lightTime ? LIGHT_TIME_ITERATIONS : 1); i++) {
+      position(targetState, targetVelocity, tau, center);
+      rotate(toBodyFixed, center, observer);
+      observer[0] = -observer[0];
+      observer[1] = -observer[1];
+      observer[2] = -observer[2];
+      if (!ellipsoid.intercept(observer, direction, spoint)) {
+        spoint[0] = spoint[1] = spoint[2] = 0;
+        srfvec[0] = srfvec[1] = srfvec[2] = 0;
+        return Double.NaN;
+      }
+      srfvec[0] = spoint[0] - observer[0];
+      srfvec[1] = spoint[1] - observer[1];
+      srfvec[2] = spoint[2] - observer[2];
+      if (lightTime) {
+        tau = norm(srfvec) / SPEED_OF_LIGHT;
+      }
+    }
+    return et - tau;
+  }
+
+  /**
+   * Phase, incidence and emission angles at a surface point, as ilumin computes them
+   * @param targetState Geometric state of the target relative to the observer, as given to subPoint
+   * @param targetVelocity Velocity of the target relative to the solar system barycenter, as given to subPoint
+   * @param toBodyFixed Rotation into the body-fixed frame, as given to subPoint
+   * @param sunPosition Position of the Sun relative to the target's center, corrected with abcorr
+   * @param spoint Surface point, body-fixed
+   * @param srfvec Vector from the observer to spoint, body-fixed, as subPoint sets it
+   * @param angles Set to the phase, incidence and emission angles
+   */
+  public void illuminationAngles(double[] targetState, double[] targetVelocity, double[][] toBodyFixed,
+                                 double[] sunPosition, String abcorr, double[] spoint, double[] srfvec, double[] angles) {
+    if (usesStellarAberration(abcorr)) {
+      // the observer sees the point where stellar aberration for its velocity relative to the barycenter puts it
+      rotateBack(toBodyFixed, srfvec, scratch);
+      observerVelocity[0] = targetVelocity[0] - targetState[3];
+      observerVelocity[1] = targetVelocity[1] - targetState[4];
+      observerVelocity[2] = targetVelocity[2] - targetState[5];
+      stellarAberration(scratch, observerVelocity, apparent);
+      rotate(toBodyFixed, apparent, toObserver);
+    } else {
+      toObserver[0] = srfvec[0];
+      toObserver[1] = srfvec[1];
+      toObserver[2] = srfvec[2];
+    }
+    toObserver[0] = -toObserver[0];
+    toObserver[1] = -toObserver[1];
+    toObserver[2] = -toObserver[2];
+
+    rotate(toBodyFixed, sunPosition, toSun);
+    toSun[0] -= spoint[0];
+    toSun[1] -= spoint[1];
+    toSun[2] -= spoint[2];
+
+    ellipsoid.normal(spoint, normal);
+    angles[0] = TriaxialEllipsoid.angle(toSun, toObserver);
+    angles[1] = TriaxialEllipsoid.angle(normal, toSun);
+    angles[2] = TriaxialEllipsoid.angle(normal, toObserver);
+  }
+
+  /**
+   * Local solar time at a planetocentric longitude, as et2lst computes it: the hour angle of the Sun, with 12 at noon
+   * @param sunBodyFixed Position of the Sun relative to the body's center, body-fixed
+   * @return Hours in [0, 24)
+   */
+  public static double localSolarTimeHours(double longitude, double[] sunBodyFixed) {
+    double hourAngle = longitude - Math.atan2(sunBodyFixed[1], sunBodyFixed[0]) + Math.PI;
+    hourAngle %= 2 * Math.PI;
+    if (hourAngle < 0) {
+      hourAngle += 2 * Math.PI;
+    }
+    return hourAngle * 12 / Math.PI;
+  }
+
+  /**
+   * One-way light time from the target to the observer, solving tau = |p - v tau| / c
+   */
+  public static double lightTime(double[] targetState, double[] targetVelocity) {
+    double tau = 0;
+    for (int i = 0; i < LIGHT_TIME_ITERATIONS; i++) {
+      double x = targetState[0] - targetVelocity[0] * tau;
+      double y = targetState[1] - targetVelocity[1] * tau;
+      double z = targetState[2] - targetVelocity[2] * tau;
+      tau = Math.sqrt(x * x + y * y + z * z) / SPEED_OF_LIGHT;
+    }
+    return tau;
+  }
+
+  /**
+   * Rotates position by the stellar aberration an observer moving at velocity sees, as stelab does
+   * @param apparent Set to the apparent position
+   */
+  public static void stellarAberration(double[] position, double[] velocity, double[] apparent) {
+    double n = norm(position);
+    double ux = position[0] / n, uy = position[1] / n, uz = position[2] / n;
+    double vx = velocity[0] / SPEED_OF_LIGHT, vy = velocity[1] / SPEED_OF_LIGHT, vz = velocity[2] / SPEED_OF_LIGHT;
+    // rotate about u x v/c by the angle whose sine is its length
+    double hx = uy * vz - uz * vy, hy = uz * vx - ux * vz, hz = ux * vy - uy * vx;
+    double sin = Math.sqrt(hx * hx + hy * hy + hz * hz);
+    if (sin == 0) {
+      apparent[0] = position[0];
+      apparent[1] = position[1];
+      apparent[2] = position[2];
+      return;
+    }
+    hx /= sin;
+    hy /= sin;
+    hz /= sin;
+    double cos = Math.cos(Math.asin(sin));
+    double dot = hx * position[0] + hy * position[1] + hz * position[2];
+    double cx = hy * position[2] - hz * position[1];
+    double cy = hz * position[0] - hx * position[2];
+    double cz = hx * position[1] - hy * position[0];
+    apparent[0] = position[0] * cos + cx * sin + hx * dot * (1 - cos);
+    apparent[1] = position[1] * cos + cy * sin + hy * dot * (1 - cos);
+    apparent[2] = position[2] * cos + cz * sin + hz * dot * (1 - cos);
+  }
+
+  public static boolean usesLightTime(String abcorr) {
+    String correction = abcorr.trim().toUpperCase();
+    return correction.startsWith("LT") || correction.startsWith("CN");
+  }
+
+  public static boolean usesStellarAberration(String abcorr) {
+    return abcorr.trim().toUpperCase().endsWith("+S");
+  }
+
+  // the target's position relative to the observer at et, with the target where it was tau earlier
+  private static void position(double[] targetState, double[] targetVelocity, double tau, double[] out) {
+    out[0] = targetState[0] - targetVelocity[0] * tau;
+    out[1] = targetState[1] - targetVelocity[1] * tau;
+    out[2] = targetState[2] - targetVelocity[2] * tau;
+  }
+
+  private static void rotate(double[][] m, double[] v, double[] out) {
+    double x = v[0], y = v[1], z = v[2];
+    out[0] = m[0][0] * x + m[0][1] * y + m[0][2] * z;
+    out[1] = m[1][0] * x + m[1][1] * y + m[1][2] * z;
+    out[2] = m[2][0] * x + m[2][1] * y + m[2][2] * z;
+  }
+
+  private static void rotateBack(double[][] m, double[] v, double[] out) {
+    double x = v[0], y = v[1], z = v[2];
+    out[0] = m[0][0] * x + m[1][0] * y + m[2][0] * z;
+    out[1] = m[0][1] * x + m[1][1] * y + m[2][1] * z;
+    out[2] = m[0][2] * x + m[1][2] * y + m[2][2] * z;
+  }
+
+  private static double norm(double[] v) {
+    return Math.sqrt(v[0] * v[0] + v[1] * v[1] + v[2] * v[2]);
+  }
+}
@@ -0,0 +1,160 @@
+package missionmodel.geometry.ellipsoid;
+
+import missionmodel.geometry.returnedobjects.LatLonCoord;
+
+/**
+ * Surface geometry of a body modelled as a triaxial ellipsoid centred on the origin of its body-fixed frame, with its
+ * axes along the frame's: what SPICE's surfpt, surfnm, nearpt and reclat compute, in Java. Every method works on
+ * arrays the caller provides and allocates nothing. Lengths are in the units of the radii, angles in radians.
+ */
+public class TriaxialEllipsoid {
+  private static final int MAX_ITERATIONS = 100;
+
+  private final double a;
+  private final double b;
+  private final double c;
+
+  /**
+   * @param radii Radii along the x, y and z axes, as in the RADII of a body in a PCK
+   */
+  public TriaxialEllipsoid(double[] radii) {
+    if (radii == null || radii.length != 3 || !(radii[0] > 0) || !(radii[1] > 0) || !(radii[2] > 0)) {
+      throw new IllegalArgumentException("An ellipsoid needs three positive radii");
+    }
+    this.a = radii[0];
+    this.b = radii[1];
+    this.c = radii[2];
+  }
+
+  /**
+   * Where the ray from vertex along direction first meets the surface: the entry point if the vertex is outside, the
+   * exit point if it's inside
+   * @param point Set to the intercept if there is one
+   * @return Whether the ray meets the surface
+   */
+  public boolean intercept(double[] vertex, double[] direction, double[] point) {
+    // in coordinates scaled to the unit sphere, solve |x + t d|^2 = 1 for t
+    double x = vertex[0] / a, y = vertex[1] / b, z = vertex[2] / c;
+    double dx = direction[0] / a, dy = direction[1] / b, dz = direction[2] / c;
+    double qa = dx * dx + dy * dy + dz * dz;
+    if (qa == 0) {
+      return false;
+    }
+    double qb = 2 * (x * dx + y * dy + z * dz);
+    double qc = x * x + y * y + z * z - 1;
+    double discriminant = qb * qb - 4 * qa * qc;
+    if (discriminant < 0) {
+      return false;
+    }
+    // the two roots without cancellation
+    double q = -0.5 * (qb + Math.copySign(Math.sqrt(discriminant), qb));
+    double t1 = q / qa;
+    double t2 = q == 0 ? 0 : qc / q;
+    double near = Math.min(t1, t2);
+    double far = Math.max(t1, t2);
+    double t;
+    if (qc > 0) {
+      // outside, so both roots are ahead of the vertex or neither is
+      if (near < 0) {
+        return false;
+      }
+      t = near;
+    } else {
+      t = far;
+    }
+    point[0] = vertex[0] + t * direction[0];
+    point[1] = vertex[1] + t * direction[1];
+    point[2] = vertex[2] + t * direction[2];
+    return true;
+  }
+
+  /**
+   * @param normal Set to the outward unit normal at point, which should be on the surface
+   */
+  public void normal(double[] point, double[] normal) {
+    double nx = point[0] / (a * a), ny = point[1] / (b * b), nz = point[2] / (c * c);
+    double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+    normal[0] = nx / norm;
+    normal[1] = ny / norm;
+    normal[2] = nz / norm;
+  }
+
+  /**
+   * The nearest point on the surface to position, found as the root of the Lagrange condition for it
+   * @param point Set to the near point
+   * @return Distance from the surface to position, negative if position is inside
+   */
+  public double nearPoint(double[] position, double[] point) {
+    // scaled so the largest radius is 1
+    double scale = Math.max(a, Math.max(b, c));
+    double a2 = (a / scale) * (a / scale), b2 = (b / scale) * (b / scale), c2 = (c / scale) * (c / scale);
+    double x = position[0] / scale, y = position[1] / scale, z = position[2] / scale;
+    double ax = a / scale * x, by = b / scale * y, cz = c / scale * z;
+
+    // the near point is (a2 x, b2 y, c2 z) / (r2 + lambda) for the lambda where it's on the surface, and the surface
+    // condition f(lambda) is decreasing and convex above -min(a2, b2, c2), so Newton's method, kept in a bracket,
+    // converges on it
+    double level = x * x / a2 + y * y / b2 + z * z / c2 - 1;
+    boolean outside = level > 0;
+    double low = outside ? 0 : -Math.min(a2, Math.min(b2, c2));
+    double high = outside ? Math.sqrt(x * x + y * y + z * z) : 0;
+    double lambda = outside ? 0 : high;
+    if (level != 0) {
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+        double ea = a2 + lambda, eb = b2 + lambda, ec = c2 + lambda;
+        double f = ax * ax / (ea * ea) + by * by / (eb * eb) + cz * cz / (ec * ec) - 1;
+        if (f == 0) {
+          break;
+        }
+        if (f > 0) {
+          low = lambda;
+        } else {
+          high = lambda;
+        }
+        double slope = -2 * (ax * ax / (ea * ea * ea) + by * by / (eb * eb * eb) + cz * cz / (ec * ec * ec));
+        double next = slope == 0 ? Double.NaN : lambda - f / slope;
+        if (!(next > low && next < high)) {
+          next = 0.5 * (low + high);
+        }
+        if (Math.abs(next - lambda) <= 1e-16 * Math.max(1, Math.abs(lambda))) {
+          lambda = next;
+          break;
+        }
+        lambda = next;
+      }
+    }
+    point[0] = scale * a2 * x / (a2 + lambda);
+    point[1] = scale * b2 * y / (b2 + lambda);
+    point[2] = scale * c2 * z / (c2 + lambda);
+    double dx = position[0] - point[0], dy = position[1] - point[1], dz = position[2] - point[2];
+    double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+    return outside ? distance : -distance;
+  }
+
+  /**
+   * Planetocentric coordinates of a point, as reclat and LatLonCoord compute them
+   * @param radiusLonLat Set to the point's radius, longitude and latitude
+   */
+  public static void latitudinal(double[] point, double[] radiusLonLat) {
+    LatLonCoord.latitudinal(point, radiusLonLat);
+  }
+
+  /**
+   * Angle between two vectors, accurate near 0 and pi, as vsep computes it
+   */
+  public static double angle(double[] u, double[] v) {
+    double nu = Math.sqrt(u[0] * u[0] + u[1] * u[1] + u[2] * u[2]);
+    double nv = Math.sqrt(v[0] * v[0] + v[1] * v[1] + v[2] * v[2]);
+    if (nu == 0 || nv == 0) {
+      return 0;
+    }
+    double ux = u[0] / nu, uy = u[1] / nu, uz = u[2] / nu;
+    double vx = v[0] / nv, vy = v[1] / nv, vz = v[2] / nv;
+    if (ux * vx + uy * vy + uz * vz > 0) {
+      double dx = ux - vx, dy = uy - vy, dz = uz - vz;
+      return 2 * Math.asin(0.5 * Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+    double sx = ux + vx, sy = uy + vy, sz = uz + vz;
+    return Math.PI - 2 * Math.asin(0.5 * Math.sqrt(sx * sx + sy * sy + sz * sz));
+  }
+}
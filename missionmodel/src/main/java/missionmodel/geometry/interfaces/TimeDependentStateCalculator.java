@@ -2,10 +2,12 @@ package missionmodel.geometry.interfaces;
 
 import missionmodel.geometry.returnedobjects.RADec;
 import missionmodel.geometry.returnedobjects.IlluminationAngles;
+import missionmodel.geometry.returnedobjects.LocalSolarTime;
 import missionmodel.geometry.returnedobjects.OrbitConicElements;
 import missionmodel.geometry.returnedobjects.SubPointInformation;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import spice.basic.SpiceErrorException;
 
 public interface TimeDependentStateCalculator {
 
@@ -177,4 +179,105 @@ public interface TimeDependentStateCalculator {
    */
   double getLST(Time et, String spacecraft, String body, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException;
 
+  /**
+   *
+   * @param et The time at which the desired information is requested
+   * @param spacecraftId NAIF ID of the spacecraft
+   * @param bodyId NAIF ID of the body the signal is sent from
+   * @return The one-way light time of a signal from the body to the spacecraft, in seconds
+   * @throws GeometryInformationNotAvailableException
+   */
+  default double getUplegSeconds(Time et, int spacecraftId, int bodyId) throws GeometryInformationNotAvailableException {
+    return Time.upleg(et, spacecraftId, bodyId).totalSeconds();
+  }
+
+  /**
+   *
+   * @param et The time at which the desired information is requested
+   * @param spacecraftId NAIF ID of the spacecraft
+   * @param bodyId NAIF ID of the body the signal is received at
+   * @return The one-way light time of a signal from the spacecraft to the body, in seconds
+   * @throws GeometryInformationNotAvailableException
+   */
+  default double getDownlegSeconds(Time et, int spacecraftId, int bodyId) throws GeometryInformationNotAvailableException {
+    return Time.downleg(et, spacecraftId, bodyId).totalSeconds();
+  }
+
+  /**
+   *
+   * @param et The time at which the desired information is requested
+   * @param bodyId NAIF ID of the body
+   * @param longitude Planetocentric longitude on the body, in radians
+   * @return The local solar time-of-day at the longitude, in hours past local midnight
+   * @throws GeometryInformationNotAvailableException
+   */
+  default double getLocalSolarTimeHours(Time et, int bodyId, double longitude) throws GeometryInformationNotAvailableException {
+    try {
+      return LocalSolarTime.hours(et, bodyId, longitude);
+    } catch (SpiceErrorException e) {
+      throw new GeometryInformationNotAvailableException(e.getMessage());
+    }
+  }
+
+  // Variants of the above that fill arrays the caller provides, so a geometry step needn't allocate the returned
+  // objects. Implementations that can compute into the arrays directly should override these.
+
+  /**
+   * Like getState
+   * @param state Set to the position (km) then the velocity (km/s) of the target relative to the observer
+   */
+  default void getState(Time et, String observer, String target, String abcorr, double[] state) throws GeometryInformationNotAvailableException {
+    Vector3D[] vectors = getState(et, observer, target, abcorr);
+    state[0] = vectors[0].getX();
+    state[1] = vectors[0].getY();
+    state[2] = vectors[0].getZ();
+    state[3] = vectors[1].getX();
+    state[4] = vectors[1].getY();
+    state[5] = vectors[1].getZ();
+  }
+
+  /**
+   * Like getSubPointInformation
+   * @param spoint Set to the sub-point, body-fixed
+   * @param srfvec Set to the vector from the observer to the sub-point, body-fixed
+   * @return Whether there is a sub-point
+   */
+  default boolean getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK, double[] spoint, double[] srfvec) throws GeometryInformationNotAvailableException {
+    SubPointInformation subPoint = getSubPointInformation(et, observer, target, abcorr, useDSK);
+    spoint[0] = subPoint.getSpoint().getX();
+    spoint[1] = subPoint.getSpoint().getY();
+    spoint[2] = subPoint.getSpoint().getZ();
+    srfvec[0] = subPoint.getSrfvec().getX();
+    srfvec[1] = subPoint.getSrfvec().getY();
+    srfvec[2] = subPoint.getSrfvec().getZ();
+    return subPoint.isFound();
+  }
+
+  /**
+   * Like getIlluminationAngles
+   * @param angles Set to the phase, incidence and emission angles, in degrees
+   */
+  default void getIlluminationAngles(Time et, String observer, String target, String abcorr, boolean useDSK, double[] angles) throws GeometryInformationNotAvailableException {
+    IlluminationAngles illuminationAngles = getIlluminationAngles(et, observer, target, abcorr, useDSK);
+    angles[0] = illuminationAngles.getPhaseAngle();
+    angles[1] = illuminationAngles.getIncidenceAngle();
+    angles[2] = illuminationAngles.getEmissionAngle();
+  }
+
+  /**
+   * Like getOrbitConicElements
+   * @param elements Set to the eight elements, in the order of OrbitConicElements' getters
+   */
+  default void getOrbitConicElements(Time et, String observer, String target, String abcorr, double[] elements) throws GeometryInformationNotAvailableException {
+    OrbitConicElements orbit = getOrbitConicElements(et, observer, target, abcorr);
+    elements[0] = orbit.getPerifocalDistance();
+    elements[1] = orbit.getEccentricity();
+    elements[2] = orbit.getInclination();
+    elements[3] = orbit.getLongitudeOfAscendingNode();
+    elements[4] = orbit.getArgumentOfPeriapsis();
+    elements[5] = orbit.getMeanAnomalyAtEpoch();
+    elements[6] = orbit.getEpoch();
+    elements[7] = orbit.getMu();
+  }
+
 }
@@ -0,0 +1,41 @@
+package missionmodel.geometry.resources;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The event flags the geometry activities raise for one body, in one cell per body. Each with* method changes one
+ * flag, so activities changing different flags of a body at the same instant commute.
+ *
+ * @param occultedStations Stations (e.g. DSS-24) the body currently hides the spacecraft from
+ */
+public record BodyEvents(boolean periapsis, boolean apoapsis, EclipseTypes eclipse, Set<String> occultedStations) {
+
+  public static final BodyEvents NONE = new BodyEvents(false, false, EclipseTypes.NONE, Set.of());
+
+  public BodyEvents {
+    occultedStations = Set.copyOf(occultedStations);
+  }
+
+  public BodyEvents withPeriapsis(boolean periapsis) {
+    return new BodyEvents(periapsis, apoapsis, eclipse, occultedStations);
+  }
+
+  public BodyEvents withApoapsis(boolean apoapsis) {
+    return new BodyEvents(periapsis, apoapsis, eclipse, occultedStations);
+  }
+
+  public BodyEvents withEclipse(EclipseTypes eclipse) {
+    return new BodyEvents(periapsis, apoapsis, eclipse, occultedStations);
+  }
+
+  public BodyEvents withOccultation(String station, boolean occulted) {
+    Set<String> stations = new HashSet<>(occultedStations);
+    if (occulted) {
+      stations.add(station);
+    } else {
+      stations.remove(station);
+    }
+    return new BodyEvents(periapsis, apoapsis, eclipse, stations);
+  }
+}
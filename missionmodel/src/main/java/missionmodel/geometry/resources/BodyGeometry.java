@@ -0,0 +1,41 @@
+package missionmodel.geometry.resources;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+/**
+ * Everything GenericGeometryCalculator computes for one body at one step, held in a single cell per body so a step
+ * emits one effect per body. Quantities the body isn't configured for, or that couldn't be computed this step (e.g. no
+ * sub-spacecraft point), keep the value of the previous snapshot.
+ *
+ * @param position Body relative to the spacecraft, in km
+ * @param velocity Body relative to the spacecraft, in km/s
+ * @param subSolarPoint Latitude and longitude in degrees, then radius in km
+ */
+public record BodyGeometry(Vector3D position,
+                           Vector3D velocity,
+                           double range,
+                           double speed,
+                           double halfAngleSize,
+                           double sunSpacecraftBodyAngle,
+                           double sunBodySpacecraftAngle,
+                           double earthSpacecraftAngle,
+                           double betaAngle,
+                           double altitude,
+                           double phase,
+                           double incidence,
+                           double emission,
+                           double earthRa,
+                           double earthDec,
+                           double earthRaDeltaWithSC,
+                           Vector3D subSolarPoint,
+                           double subSCDistance,
+                           double subSCLatitude,
+                           double subSCLongitude,
+                           double subSCRadius,
+                           double subSCLST,
+                           double orbitInclination,
+                           double orbitPeriod) {
+
+  public static final BodyGeometry NONE = new BodyGeometry(Vector3D.ZERO, Vector3D.ZERO, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+    0, 0, 0, Vector3D.ZERO, 0, 0, 0, 0, 0, 0, 0);
+}
@@ -15,21 +15,23 @@ import java.util.*;
 import static gov.nasa.jpl.aerie.contrib.metadata.UnitRegistrar.withUnit;
 import static gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource.resource;
 import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete.discrete;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.monads.DiscreteDynamicsMonad.effect;
 import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.monads.DiscreteResourceMonad.map;
 
 public class GenericGeometryResources {
 
   public static final double FLOAT_EPSILON = 0.0001;
-  private static Map<String, Body> bodyObjects;
-  private static String[] bodies;
-  private static List<String> earthSpacecraftBodies;
-  private static List<String> altitudeBodies;
-  private static List<String> illuminationBodies;
-  private static List<String> raDecBodies;
-  private static List<String> subSolarBodies;
-  private static List<String> subSCBodies;
-  private static List<String> betaAngleBodies;
-  private static List<String> orbitParameterBodies;
+  private final String prefix;
+  private final Map<String, Body> bodyObjects;
+  private final String[] bodies;
+  private final List<String> earthSpacecraftBodies;
+  private final List<String> altitudeBodies;
+  private final List<String> illuminationBodies;
+  private final List<String> raDecBodies;
+  private final List<String> subSolarBodies;
+  private final List<String> subSCBodies;
+  private final List<String> betaAngleBodies;
+  private final List<String> orbitParameterBodies;
 
   //private static String[] cartesian = new String[]{"x","y","z"};
   private static String[] illumAngles = new String[]{"phase","incidence","emission"};
@@ -48,51 +50,64 @@ public class GenericGeometryResources {
   public MutableResource<Discrete<Double>> downleg_time;
   public MutableResource<Discrete<Double>> spacecraftDeclination;
   public MutableResource<Discrete<Double>> spacecraftRightAscension;
-  public Map<String, MutableResource<Discrete<Vector3D>>> BODY_POS_ICRF;
-  public Map<String, MutableResource<Discrete<Vector3D>>> BODY_VEL_ICRF;
-  public Map<String, MutableResource<Discrete<Double>>> SpacecraftBodyRange;
-  public Map<String, MutableResource<Discrete<Double>>> SpacecraftBodySpeed;
-  public Map<String, MutableResource<Discrete<Double>>> SunSpacecraftBodyAngle;
-  public Map<String, MutableResource<Discrete<Double>>> SunBodySpacecraftAngle;
-  public Map<String, MutableResource<Discrete<Double>>> BodyHalfAngleSize;
 
-  public Map<String, MutableResource<Discrete<Double>>> BetaAngleByBody;
+  // the only per-body cells; every per-body resource below is a view of one of these
+  public Map<String, MutableResource<Discrete<BodyGeometry>>> BodyGeometryByBody;
+  public Map<String, MutableResource<Discrete<BodyEvents>>> BodyEventsByBody;
 
-  public Map<String, MutableResource<Discrete<Double>>> EarthSpacecraftBodyAngle;
+  public Map<String, Resource<Discrete<Vector3D>>> BODY_POS_ICRF;
+  public Map<String, Resource<Discrete<Vector3D>>> BODY_VEL_ICRF;
+  public Map<String, Resource<Discrete<Double>>> SpacecraftBodyRange;
+  public Map<String, Resource<Discrete<Double>>> SpacecraftBodySpeed;
+  public Map<String, Resource<Discrete<Double>>> SunSpacecraftBodyAngle;
+  public Map<String, Resource<Discrete<Double>>> SunBodySpacecraftAngle;
+  public Map<String, Resource<Discrete<Double>>> BodyHalfAngleSize;
+
+  public Map<String, Resource<Discrete<Double>>> BetaAngleByBody;
+
+  public Map<String, Resource<Discrete<Double>>> EarthSpacecraftBodyAngle;
 
   public MutableResource<Discrete<Double>> EarthSunProbeAngle;
 
-  public Map<String, MutableResource<Discrete<Double>>> SpacecraftAltitude;
+  public Map<String, Resource<Discrete<Double>>> SpacecraftAltitude;
 
-  public Map<String, Map<String, MutableResource<Discrete<Double>>>> IlluminationAnglesByBody;
+  public Map<String, Map<String, Resource<Discrete<Double>>>> IlluminationAnglesByBody;
 
-  public Map<String, Map<String, MutableResource<Discrete<Double>>>> EarthRaDecByBody;
+  public Map<String, Map<String, Resource<Discrete<Double>>>> EarthRaDecByBody;
 
-  public Map<String, MutableResource<Discrete<Double>>> EarthRaDeltaWithSCByBody;
+  public Map<String, Resource<Discrete<Double>>> EarthRaDeltaWithSCByBody;
 
-  public Map<String, MutableResource<Discrete<Vector3D>>> BodySubSolarPoint;
-  public Map<String, Map<String, MutableResource<Discrete<Double>>>> BodySubSCPoint;
+  public Map<String, Resource<Discrete<Vector3D>>> BodySubSolarPoint;
+  public Map<String, Map<String, Resource<Discrete<Double>>>> BodySubSCPoint;
 
-  public Map<String, MutableResource<Discrete<EclipseTypes>>> SpacecraftEclipseByBody;
+  public Map<String, Resource<Discrete<EclipseTypes>>> SpacecraftEclipseByBody;
   public MutableResource<Discrete<EclipseTypes>> AnySpacecraftEclipse;
 
-  public Map<String, Map<String, MutableResource<Discrete<Boolean>>>> SpacecraftOccultationByBodyAndStation;
+  public Map<String, Map<String, Resource<Discrete<Boolean>>>> SpacecraftOccultationByBodyAndStation;
   public MutableResource<Discrete<Integer>> Occultation;
   public MutableResource<Discrete<Double>> FractionOfSunNotInEclipse;
   public MutableResource<Discrete<Integer>> LitOrDarkSide;
 
-  public Map<String, MutableResource<Discrete<Double>>> orbitInclinationByBody;
-  public Map<String, MutableResource<Discrete<Double>>> orbitPeriodByBody;
+  public Map<String, Resource<Discrete<Double>>> orbitInclinationByBody;
+  public Map<String, Resource<Discrete<Double>>> orbitPeriodByBody;
 
 
-  public Map<String, MutableResource<Discrete<Boolean>>> Periapsis;
-  public Map<String, MutableResource<Discrete<Boolean>>> Apoapsis;
+  public Map<String, Resource<Discrete<Boolean>>> Periapsis;
+  public Map<String, Resource<Discrete<Boolean>>> Apoapsis;
 
   public static DoubleValueMapper dvm = new DoubleValueMapper();
   public static BooleanValueMapper bvm = new BooleanValueMapper();
   public static IntegerValueMapper ivm = new IntegerValueMapper();
 
   public GenericGeometryResources(Registrar registrar, Map<String, Body> allBodies) {
+    this(registrar, allBodies, "");
+  }
+
+  /**
+   * @param prefix Put in front of every resource name, so each spacecraft of a constellation registers its own set
+   */
+  public GenericGeometryResources(Registrar registrar, Map<String, Body> allBodies, String prefix) {
+    this.prefix = prefix;
     bodyObjects = allBodies;
     bodies = Body.getNamesOfBodies(allBodies);
     earthSpacecraftBodies =  Body.getEarthSCBodies(allBodies);
@@ -105,6 +120,8 @@ public class GenericGeometryResources {
     orbitParameterBodies = Body.getOrbitParameterBodies(allBodies);
 
     // Initialize resources
+    BodyGeometryByBody = new HashMap<>();
+    BodyEventsByBody = new HashMap<>();
     BODY_POS_ICRF = new HashMap<>();
     BODY_VEL_ICRF = new HashMap<>();
     SpacecraftBodyRange = new HashMap<>();
@@ -130,140 +147,182 @@ public class GenericGeometryResources {
 
     // Non-arrayed resources
     upleg_time = resource(discrete(0.0));
-    registrar.discrete("upleg_time", upleg_time, dvm);
+    registrar.discrete(prefix + "upleg_time", upleg_time, dvm);
 
     downleg_time = resource(discrete(0.0));
-    registrar.discrete("downleg_time", downleg_time, dvm);
+    registrar.discrete(prefix + "downleg_time", downleg_time, dvm);
 
     spacecraftDeclination = resource(discrete(0.0));
-    registrar.discrete("spacecraftDeclination", spacecraftDeclination, dvm);
+    registrar.discrete(prefix + "spacecraftDeclination", spacecraftDeclination, dvm);
 
     spacecraftRightAscension = resource(discrete(0.0));
-    registrar.discrete("spacecraftRightAscension", spacecraftRightAscension, dvm);
+    registrar.discrete(prefix + "spacecraftRightAscension", spacecraftRightAscension, dvm);
 
     EarthSunProbeAngle = resource(discrete(0.0));
-    registrar.discrete("EarthSunProbeAngle", EarthSunProbeAngle, dvm);
+    registrar.discrete(prefix + "EarthSunProbeAngle", EarthSunProbeAngle, dvm);
 
     AnySpacecraftEclipse = resource(discrete(EclipseTypes.NONE));
-    registrar.discrete("AnySpacecraftEclipse", AnySpacecraftEclipse, new EnumValueMapper(EclipseTypes.class));
+    registrar.discrete(prefix + "AnySpacecraftEclipse", AnySpacecraftEclipse, new EnumValueMapper(EclipseTypes.class));
 
     Occultation = resource(discrete(0));
-    registrar.discrete("Occultation", Occultation, ivm);
+    registrar.discrete(prefix + "Occultation", Occultation, ivm);
 
     FractionOfSunNotInEclipse = resource(discrete(1.0));
-    registrar.discrete("FractionOfSunNotInEclipse", FractionOfSunNotInEclipse, dvm);
+    registrar.discrete(prefix + "FractionOfSunNotInEclipse", FractionOfSunNotInEclipse, dvm);
 
     LitOrDarkSide = resource(discrete(0));
-    registrar.discrete("LitOrDarkSide", LitOrDarkSide, ivm);
+    registrar.discrete(prefix + "LitOrDarkSide", LitOrDarkSide, ivm);
 
-    // loop through bodies to build and register arrayed resources
+    // loop through bodies to build and register arrayed resources, as views of each body's cells made only for the
+    // quantities the body is configured for
     for (String body : bodies) {
-      BODY_POS_ICRF.put(body, resource(discrete( new Vector3D(0.0,0.0,0.0))));
-      registerVector(registrar, "BODY_POS_ICRF_" + body, BODY_POS_ICRF.get(body));
+      MutableResource<Discrete<BodyGeometry>> geometry = resource(discrete(BodyGeometry.NONE));
+      BodyGeometryByBody.put(body, geometry);
 
-      BODY_VEL_ICRF.put(body, resource(discrete( new Vector3D(0.0,0.0,0.0))));
-      registerVector(registrar, "BODY_VEL_ICRF_" + body, BODY_VEL_ICRF.get(body));
+      BODY_POS_ICRF.put(body, map(geometry, BodyGeometry::position));
+      registerVector(registrar, prefix + "BODY_POS_ICRF_" + body, BODY_POS_ICRF.get(body), map(geometry, BodyGeometry::range));
 
-      SpacecraftBodyRange.put(body, resource(discrete(0.0)));
-      registrar.discrete("SpacecraftBodyRange_" + body, SpacecraftBodyRange.get(body), withUnit("km", dvm));
+      BODY_VEL_ICRF.put(body, map(geometry, BodyGeometry::velocity));
+      registerVector(registrar, prefix + "BODY_VEL_ICRF_" + body, BODY_VEL_ICRF.get(body), map(geometry, BodyGeometry::speed));
 
-      SpacecraftBodySpeed.put(body, resource(discrete(0.0)));
-      registrar.discrete("SpacecraftBodySpeed_" + body, SpacecraftBodySpeed.get(body), withUnit("km/s", dvm));
+      SpacecraftBodyRange.put(body, map(geometry, BodyGeometry::range));
+      registrar.discrete(prefix + "SpacecraftBodyRange_" + body, SpacecraftBodyRange.get(body), withUnit("km", dvm));
 
-      SunSpacecraftBodyAngle.put(body, resource(discrete(0.0)));
-      registrar.discrete("SunSpacecraftBodyAngle_" + body, SunSpacecraftBodyAngle.get(body), withUnit("deg", dvm));
+      SpacecraftBodySpeed.put(body, map(geometry, BodyGeometry::speed));
+      registrar.discrete(prefix + "SpacecraftBodySpeed_" + body, SpacecraftBodySpeed.get(body), withUnit("km/s", dvm));
 
-      SunBodySpacecraftAngle.put(body, resource(discrete(0.0)));
-      registrar.discrete("SunBodySpacecraftAngle_" + body, SunBodySpacecraftAngle.get(body), withUnit("deg", dvm));
+      SunSpacecraftBodyAngle.put(body, map(geometry, BodyGeometry::sunSpacecraftBodyAngle));
+      registrar.discrete(prefix + "SunSpacecraftBodyAngle_" + body, SunSpacecraftBodyAngle.get(body), withUnit("deg", dvm));
 
-      BodyHalfAngleSize.put(body, resource(discrete(0.0)));
-      registrar.discrete("BodyHalfAngleSize_" + body, BodyHalfAngleSize.get(body), withUnit("deg", dvm));
+      SunBodySpacecraftAngle.put(body, map(geometry, BodyGeometry::sunBodySpacecraftAngle));
+      registrar.discrete(prefix + "SunBodySpacecraftAngle_" + body, SunBodySpacecraftAngle.get(body), withUnit("deg", dvm));
+
+      BodyHalfAngleSize.put(body, map(geometry, BodyGeometry::halfAngleSize));
+      registrar.discrete(prefix + "BodyHalfAngleSize_" + body, BodyHalfAngleSize.get(body), withUnit("deg", dvm));
 
       if (betaAngleBodies.contains(body)) {
-        BetaAngleByBody.put(body, resource(discrete(0.0)));
-        registrar.discrete("BetaAngle_" + body, BetaAngleByBody.get(body), withUnit("deg", dvm));
+        BetaAngleByBody.put(body, map(geometry, BodyGeometry::betaAngle));
+        registrar.discrete(prefix + "BetaAngle_" + body, BetaAngleByBody.get(body), withUnit("deg", dvm));
       }
 
       if (earthSpacecraftBodies.contains(body)) {
-        EarthSpacecraftBodyAngle.put(body, resource(discrete(0.0)));
-        registrar.discrete("EarthSpacecraftAngle_" + body, EarthSpacecraftBodyAngle.get(body), withUnit("deg", dvm));
+        EarthSpacecraftBodyAngle.put(body, map(geometry, BodyGeometry::earthSpacecraftAngle));
+        registrar.discrete(prefix + "EarthSpacecraftAngle_" + body, EarthSpacecraftBodyAngle.get(body), withUnit("deg", dvm));
       }
 
       if (altitudeBodies.contains(body)) {
-        SpacecraftAltitude.put(body, resource(discrete(0.0)));
-        registrar.discrete("SpacecraftAltitude_" + body, SpacecraftAltitude.get(body), withUnit("km", dvm));
+        SpacecraftAltitude.put(body, map(geometry, BodyGeometry::altitude));
+        registrar.discrete(prefix + "SpacecraftAltitude_" + body, SpacecraftAltitude.get(body), withUnit("km", dvm));
       }
 
       if (illuminationBodies.contains(body)) {
-        Map<String, MutableResource<Discrete<Double>>> illumAnglesMap = new HashMap<>();
+        Map<String, Resource<Discrete<Double>>> illumAnglesMap = new HashMap<>();
+        illumAnglesMap.put("phase", map(geometry, BodyGeometry::phase));
+        illumAnglesMap.put("incidence", map(geometry, BodyGeometry::incidence));
+        illumAnglesMap.put("emission", map(geometry, BodyGeometry::emission));
         for (String angle : illumAngles) {
-          illumAnglesMap.put(angle, resource(discrete(0.0)));
-          registrar.discrete("IlluminationAnglesByBody_" + body + "_" + angle,
+          registrar.discrete(prefix + "IlluminationAnglesByBody_" + body + "_" + angle,
             illumAnglesMap.get(angle), withUnit("deg", dvm));
         }
         IlluminationAnglesByBody.put(body, illumAnglesMap);
       }
 
       if (raDecBodies.contains(body)) {
-        Map<String, MutableResource<Discrete<Double>>> EarthRaDecMap = new HashMap<>();
+        Map<String, Resource<Discrete<Double>>> EarthRaDecMap = new HashMap<>();
+        EarthRaDecMap.put("Ra", map(geometry, BodyGeometry::earthRa));
+        EarthRaDecMap.put("Dec", map(geometry, BodyGeometry::earthDec));
         for (String angle : raDecIndices) {
-          EarthRaDecMap.put(angle, resource(discrete(0.0)));
-          registrar.discrete("EarthRaDecByBody_" + body + "_" + angle,
+          registrar.discrete(prefix + "EarthRaDecByBody_" + body + "_" + angle,
             EarthRaDecMap.get(angle), withUnit("deg", dvm));
         }
         EarthRaDecByBody.put(body, EarthRaDecMap);
-        EarthRaDeltaWithSCByBody.put(body, resource(discrete(0.0)));
-        registrar.discrete("EarthRaDeltaWithSCByBody_" + body, EarthRaDeltaWithSCByBody.get(body), withUnit("deg", dvm));
+        EarthRaDeltaWithSCByBody.put(body, map(geometry, BodyGeometry::earthRaDeltaWithSC));
+        registrar.discrete(prefix + "EarthRaDeltaWithSCByBody_" + body, EarthRaDeltaWithSCByBody.get(body), withUnit("deg", dvm));
       }
 
       if (subSolarBodies.contains(body)) {
-        BodySubSolarPoint.put(body, resource(discrete( new Vector3D(0.0,0.0,0.0))));
-        registerVector(registrar, "BodySubSolarPoint_" + body, BodySubSolarPoint.get(body));
+        BodySubSolarPoint.put(body, map(geometry, BodyGeometry::subSolarPoint));
+        registerVector(registrar, prefix + "BodySubSolarPoint_" + body, BodySubSolarPoint.get(body));
       }
 
       if (subSCBodies.contains(body)) {
-        Map<String, MutableResource<Discrete<Double>>> subSCMap = new HashMap<>();
+        Map<String, Resource<Discrete<Double>>> subSCMap = new HashMap<>();
+        subSCMap.put("dist", map(geometry, BodyGeometry::subSCDistance));
+        subSCMap.put("latitude", map(geometry, BodyGeometry::subSCLatitude));
+        subSCMap.put("longitude", map(geometry, BodyGeometry::subSCLongitude));
+        subSCMap.put("radius", map(geometry, BodyGeometry::subSCRadius));
+        subSCMap.put("LST", map(geometry, BodyGeometry::subSCLST));
         for (String index : subSCIndices) {
-          subSCMap.put(index, resource(discrete(0.0)));
-          registrar.discrete("subSCBodies_" + body + "_" + index,
+          registrar.discrete(prefix + "subSCBodies_" + body + "_" + index,
             subSCMap.get(index), dvm);
         }
         BodySubSCPoint.put(body, subSCMap);
       }
 
-      SpacecraftEclipseByBody.put(body, resource(discrete(EclipseTypes.NONE)));
-      registrar.discrete("SpacecraftEclipseByBody_" + body,
+      if (orbitParameterBodies.contains(body)) {
+        orbitInclinationByBody.put(body, map(geometry, BodyGeometry::orbitInclination));
+        registrar.discrete(prefix + "orbitInclinationByBody_" + body, orbitInclinationByBody.get(body), withUnit("deg", dvm));
+
+        orbitPeriodByBody.put(body, map(geometry, BodyGeometry::orbitPeriod));
+        registrar.discrete(prefix + "orbitPeriodByBody_" + body, orbitPeriodByBody.get(body), withUnit("s", dvm));
+      }
+
+      // event activities can name any body, so every body gets an events cell
+      MutableResource<Discrete<BodyEvents>> events = resource(discrete(BodyEvents.NONE));
+      BodyEventsByBody.put(body, events);
+
+      SpacecraftEclipseByBody.put(body, map(events, BodyEvents::eclipse));
+      registrar.discrete(prefix + "SpacecraftEclipseByBody_" + body,
         SpacecraftEclipseByBody.get(body), new EnumValueMapper<>(EclipseTypes.class));
 
-      Map<String, MutableResource<Discrete<Boolean>>> occultationStationMap = new HashMap<>();
+      Map<String, Resource<Discrete<Boolean>>> occultationStationMap = new HashMap<>();
       for (Map.Entry<String,String> entry : ComplexRepresentativeStation.entrySet()) {
-        occultationStationMap.put(entry.getValue(), resource(discrete(false)));
-        registrar.discrete("IlluminationAnglesByBody_" + body + "_" + entry.getKey(),
-          occultationStationMap.get(entry.getValue()), bvm);
+        String station = entry.getValue();
+        occultationStationMap.put(station, map(events, e -> e.occultedStations().contains(station)));
+        registrar.discrete(prefix + "IlluminationAnglesByBody_" + body + "_" + entry.getKey(),
+          occultationStationMap.get(station), bvm);
       }
       SpacecraftOccultationByBodyAndStation.put(body, occultationStationMap);
 
-      if (orbitParameterBodies.contains(body)) {
-        orbitInclinationByBody.put(body, resource(discrete(0.0)));
-        registrar.discrete("orbitInclinationByBody_" + body, orbitInclinationByBody.get(body), withUnit("deg", dvm));
+      Periapsis.put(body, map(events, BodyEvents::periapsis));
+      registrar.discrete(prefix + "Periapsis_" + body, Periapsis.get(body), bvm);
 
-        orbitPeriodByBody.put(body, resource(discrete(0.0)));
-        registrar.discrete("orbitPeriodByBody_" + body, orbitPeriodByBody.get(body), withUnit("s", dvm));
-      }
+      Apoapsis.put(body, map(events, BodyEvents::apoapsis));
+      registrar.discrete(prefix + "Apoapsis_" + body, Apoapsis.get(body), bvm);
+    }
 
-      Periapsis.put(body, resource(discrete(false)));
-      registrar.discrete("Periapsis_" + body, Periapsis.get(body), bvm);
+  }
 
-      Apoapsis.put(body, resource(discrete(false)));
-      registrar.discrete("Apoapsis_" + body, Apoapsis.get(body), bvm);
-    }
+  public void setPeriapsis(String body, boolean periapsis) {
+    BodyEventsByBody.get(body).emit("Set periapsis " + periapsis, effect(e -> e.withPeriapsis(periapsis)));
+  }
+
+  public void setApoapsis(String body, boolean apoapsis) {
+    BodyEventsByBody.get(body).emit("Set apoapsis " + apoapsis, effect(e -> e.withApoapsis(apoapsis)));
+  }
+
+  public void setEclipse(String body, EclipseTypes eclipse) {
+    BodyEventsByBody.get(body).emit("Set eclipse " + eclipse, effect(e -> e.withEclipse(eclipse)));
+  }
 
+  public void setOccultation(String body, String station, boolean occulted) {
+    BodyEventsByBody.get(body).emit("Set occultation " + station + " " + occulted,
+      effect(e -> e.withOccultation(station, occulted)));
   }
+
   public static void registerVector(Registrar registrar, String name, Resource<Discrete<Vector3D>> r) {
+    registerVector(registrar, name, r, map(r, v -> v == null ? null : Math.sqrt(v.getX() * v.getX() + v.getY() * v.getY() + v.getZ() * v.getZ())));
+  }
+
+  /**
+   * Like registerVector, for vectors whose magnitude is already a resource (e.g. a body's range for its position),
+   * so it isn't computed again from the components
+   */
+  public static void registerVector(Registrar registrar, String name, Resource<Discrete<Vector3D>> r, Resource<Discrete<Double>> magnitude) {
     registrar.discrete(name + "_X", map(r, v -> v == null ? null : v.getX()), dvm);
     registrar.discrete(name + "_Y", map(r, v -> v == null ? null : v.getY()), dvm);
     registrar.discrete(name + "_Z", map(r, v -> v == null ? null : v.getZ()), dvm);
-    registrar.discrete(name + "_magnitude", map(r, v -> v == null ? null : Math.sqrt(v.getX() * v.getX() + v.getY() * v.getY() + v.getZ() * v.getZ())), dvm);
+    registrar.discrete(name + "_magnitude", magnitude, dvm);
   }
 
   public static void registerRotation(Registrar registrar, String name, Resource<Discrete<Rotation>> rotationResource) {
@@ -273,9 +332,13 @@ public class GenericGeometryResources {
       registrar.discrete(name + ".Q3",  DiscreteResourceMonad.map(rotationResource, (r) -> r.getQ3()), dvm);
   }
 
-  public static Map<String, Body> getBodies(){
+  public Map<String, Body> getBodies(){
     return bodyObjects;
   }
 
+  public String getPrefix(){
+    return prefix;
+  }
+
 
 }
@@ -0,0 +1,60 @@
+package missionmodel.geometry.returnedobjects;
+
+/**
+ * Flat arrays a geometry step computes into instead of allocating state vectors and returned objects, one set per
+ * thread. Get them with forCurrentThread; they belong to the step running on that thread until it returns, so nothing
+ * that step calls may use them too (the state calculators keep scratch of their own).
+ *
+ * States are six elements, position in km then velocity in km/s.
+ */
+public class GeometryScratch {
+  private static final ThreadLocal<GeometryScratch> scratch = ThreadLocal.withInitial(GeometryScratch::new);
+
+  // the body relative to the spacecraft, the Sun relative to the body, and another state
+  public final double[] bodyState = new double[6];
+  public final double[] sunState = new double[6];
+  public final double[] otherState = new double[6];
+  public final double[] spoint = new double[3];
+  public final double[] srfvec = new double[3];
+  public final double[] vector = new double[3];
+  public final double[] radiusLonLat = new double[3];
+  public final double[] raDec = new double[2];
+  public final double[] angles = new double[3];
+  public final double[] elements = new double[8];
+
+  private GeometryScratch() {
+  }
+
+  public static GeometryScratch forCurrentThread() {
+    return scratch.get();
+  }
+
+  /**
+   * @return Length of the vector starting at offset
+   */
+  public static double norm(double[] v, int offset) {
+    return Math.sqrt(v[offset] * v[offset] + v[offset + 1] * v[offset + 1] + v[offset + 2] * v[offset + 2]);
+  }
+
+  /**
+   * Angle between two vectors, as Vector3D.angle computes it
+   * @return Radians
+   */
+  public static double angle(double[] u, int uOffset, double[] v, int vOffset) {
+    double normProduct = norm(u, uOffset) * norm(v, vOffset);
+    if (normProduct == 0) {
+      throw new ArithmeticException("Angle with a zero vector");
+    }
+    double ux = u[uOffset], uy = u[uOffset + 1], uz = u[uOffset + 2];
+    double vx = v[vOffset], vy = v[vOffset + 1], vz = v[vOffset + 2];
+    double dot = ux * vx + uy * vy + uz * vz;
+    double threshold = normProduct * 0.9999;
+    if (dot < -threshold || dot > threshold) {
+      // nearly parallel, where the cross product gives the better angle
+      double cx = uy * vz - uz * vy, cy = uz * vx - ux * vz, cz = ux * vy - uy * vx;
+      double sin = Math.sqrt(cx * cx + cy * cy + cz * cz) / normProduct;
+      return dot >= 0 ? Math.asin(sin) : Math.PI - Math.asin(sin);
+    }
+    return Math.acos(dot / normProduct);
+  }
+}
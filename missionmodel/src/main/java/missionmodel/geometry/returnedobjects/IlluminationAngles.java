@@ -1,8 +1,9 @@
 package missionmodel.geometry.returnedobjects;
 
 import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.SpiceErrorException;
 
 public class IlluminationAngles {
@@ -17,10 +18,25 @@ public class IlluminationAngles {
     double[] srfvec = new double[3];
     double[] angles = new double[3];
 
-    CSPICE.ilumin(method, target, et.toET(), fixref, abcorr, observer, spoint.toArray(), trgepc, srfvec, angles);
-    phaseAngle = angles[0]*(180/Math.PI);
-    incidenceAngle = angles[1]*(180/Math.PI);
-    emissionAngle = angles[2]*(180/Math.PI);
+    compute(method, target, JPLTimeConvertUtility.toET(et), fixref, abcorr, observer, spoint.toArray(), trgepc, srfvec, angles);
+    phaseAngle = angles[0];
+    incidenceAngle = angles[1];
+    emissionAngle = angles[2];
+  }
+
+  /**
+   * Like the constructor, filling the given arrays instead of allocating
+   * @param et ET seconds
+   * @param trgepc Set to the target epoch
+   * @param srfvec Set to the vector from the observer to spoint, body-fixed
+   * @param angles Set to the phase, incidence and emission angles, in degrees
+   */
+  public static void compute(String method, String target, double et, String fixref, String abcorr, String observer, double[] spoint,
+                             double[] trgepc, double[] srfvec, double[] angles) throws SpiceErrorException {
+    SpiceCalls.ilumin(method, target, et, fixref, abcorr, observer, spoint, trgepc, srfvec, angles);
+    angles[0] *= 180/Math.PI;
+    angles[1] *= 180/Math.PI;
+    angles[2] *= 180/Math.PI;
   }
 
   /**
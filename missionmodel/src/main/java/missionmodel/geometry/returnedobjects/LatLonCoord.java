@@ -40,6 +40,27 @@ public class LatLonCoord {
     }
   }
 
+  /**
+   * Like the constructor, without allocating
+   * @param rectangular x, y and z
+   * @param radiusLonLat Set to the radius, longitude and latitude (radians)
+   */
+  public static void latitudinal(double[] rectangular, double[] radiusLonLat) {
+    double big = Math.max(Math.max(Math.abs(rectangular[0]), Math.abs(rectangular[1])), Math.abs(rectangular[2]));
+    if (big > 0.) {
+      double x = rectangular[0] / big;
+      double y = rectangular[1] / big;
+      double z = rectangular[2] / big;
+      radiusLonLat[0] = big * Math.sqrt(x * x + y * y + z * z);
+      radiusLonLat[1] = rectangular[0] == 0. && rectangular[1] == 0. ? 0. : Math.atan2(rectangular[1], rectangular[0]);
+      radiusLonLat[2] = Math.atan2(z, Math.sqrt(x * x + y * y));
+    } else {
+      radiusLonLat[0] = 0.;
+      radiusLonLat[1] = 0.;
+      radiusLonLat[2] = 0.;
+    }
+  }
+
   public LatLonCoord(double rad, double lon, double lat) {
     radius = rad;
     longitude = lon;
@@ -0,0 +1,27 @@
+package missionmodel.geometry.returnedobjects;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.spice.SpiceCalls;
+import spice.basic.SpiceErrorException;
+
+import static gov.nasa.jpl.time.Duration.*;
+
+public class LocalSolarTime {
+
+  /**
+   * Local solar time with et2lst, so it needs the body's PCK and the Sun's ephemeris loaded
+   * @param bodyId NAIF ID of the body
+   * @param longitude Planetocentric longitude on the body, in radians
+   * @return Hours past local midnight
+   */
+  public static double hours(Time et, int bodyId, double longitude) throws SpiceErrorException {
+    int[] hr = new int[1];
+    int[] min = new int[1];
+    int[] sec = new int[1];
+    String[] time = new String[1];
+    String[] ampm = new String[1];
+    SpiceCalls.et2lst(JPLTimeConvertUtility.toET(et), bodyId, longitude, "PLANETOCENTRIC", hr, min, sec, time, ampm);
+    return hr[0] + (MINUTE_DURATION.div(HOUR_DURATION)*min[0]) + (SECOND_DURATION.div(HOUR_DURATION)*sec[0]);
+  }
+}
@@ -1,9 +1,10 @@
 package missionmodel.geometry.returnedobjects;
 
 import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.SpiceErrorException;
 
 public class OrbitConicElements {
@@ -17,7 +18,7 @@ public class OrbitConicElements {
   private double mu;
 
   public OrbitConicElements(Vector3D bodyRelativePosition, Vector3D bodyRelativeSpeed, Time et, double mu) throws SpiceErrorException {
-    double[] conicElements = CSPICE.oscelt(ArrayUtils.addAll(bodyRelativePosition.toArray(), bodyRelativeSpeed.toArray()), et.toET(), mu);
+    double[] conicElements = SpiceCalls.oscelt(ArrayUtils.addAll(bodyRelativePosition.toArray(), bodyRelativeSpeed.toArray()), JPLTimeConvertUtility.toET(et), mu);
     this.perifocalDistance = conicElements[0];
     this.eccentricity = conicElements[1];
     this.inclination = conicElements[2];
@@ -28,6 +29,16 @@ public class OrbitConicElements {
     this.mu = conicElements[7];
   }
 
+  /**
+   * Like the constructor, filling the given array instead of allocating objects around it
+   * @param state Position and velocity relative to the center body, in its inertial frame
+   * @param et ET seconds
+   * @param elements Set to the eight elements oscelt returns, in the order of the getters here
+   */
+  public static void compute(double[] state, double et, double mu, double[] elements) throws SpiceErrorException {
+    System.arraycopy(SpiceCalls.oscelt(state, et, mu), 0, elements, 0, 8);
+  }
+
   public OrbitConicElements(double perifocalDistance, double eccentricity, double inclination, double longitudeOfAscendingNode,
                             double argumentOfPeriapsis, double meanAnomalyAtEpoch, double epoch, double mu) {
     this.perifocalDistance = perifocalDistance;
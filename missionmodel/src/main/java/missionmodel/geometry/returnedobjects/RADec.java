@@ -28,6 +28,24 @@ public class RADec {
     }
   }
 
+  /**
+   * Like the constructor with the observer at the origin, without allocating
+   * @param target Position of the target, from offset
+   * @param raDec Set to the right ascension and declination, in degrees
+   */
+  public static void raDec(double[] target, int offset, double[] raDec) {
+    double x = target[offset], y = target[offset + 1], z = target[offset + 2];
+    double norm = Math.sqrt(x * x + y * y + z * z);
+    if (norm > FLOAT_EPSILON) {
+      raDec[0] = Math.atan2(y, x) * (180 / Math.PI);
+      raDec[1] = Math.asin(z / norm) * (180 / Math.PI);
+    }
+    else {
+      raDec[0] = 0.0;
+      raDec[1] = 0.0;
+    }
+  }
+
   // parameters in degrees
   public RADec (Double ra, Double dec) {
     this.RA = ra;
@@ -1,8 +1,9 @@
 package missionmodel.geometry.returnedobjects;
 
 import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.SpiceErrorException;
 
 public class SubPointInformation {
@@ -18,13 +19,26 @@ public class SubPointInformation {
     double[] trgepcdouble = new double[1];
     boolean[] foundArray = new boolean[1];
 
-    CSPICE.sincpt(method, target, et.toET(), fixref, abcorr, observer, dref, dvec.toArray(), spointdoubles, trgepcdouble, srfvecdoubles, foundArray);
+    compute(method, target, JPLTimeConvertUtility.toET(et), fixref, abcorr, observer, dref, dvec.toArray(), spointdoubles, trgepcdouble, srfvecdoubles, foundArray);
     spoint = new Vector3D(spointdoubles);
     srfvec = new Vector3D(srfvecdoubles);
     trgepc = trgepcdouble[0];
     found = foundArray[0];
   }
 
+  /**
+   * Like the constructor, filling the given arrays instead of allocating
+   * @param et ET seconds
+   * @param spoint Set to the sub-point, body-fixed
+   * @param trgepc Set to the target epoch
+   * @param srfvec Set to the vector from the observer to the sub-point, body-fixed
+   * @param found Set to whether the ray hit the target
+   */
+  public static void compute(String method, String target, double et, String fixref, String abcorr, String observer, String dref, double[] dvec,
+                             double[] spoint, double[] trgepc, double[] srfvec, boolean[] found) throws SpiceErrorException {
+    SpiceCalls.sincpt(method, target, et, fixref, abcorr, observer, dref, dvec, spoint, trgepc, srfvec, found);
+  }
+
   public SubPointInformation(Vector3D spoint, Vector3D srfvec, double trgepc, boolean found) {
     this.spoint = spoint;
     this.srfvec = srfvec;
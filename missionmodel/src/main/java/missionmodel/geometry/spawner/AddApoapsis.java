@@ -33,15 +33,15 @@ public class AddApoapsis {
 
   @ActivityType.EffectModel
   public void run(Mission model){
-    SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator();
+    SpiceDirectEventGenerator generator = model.geometryContext.newEventGenerator();
 
     List<Time> apoapsisTimes;
 
     try {
       apoapsisTimes = generator.getApoapses( JPLTimeConvertUtility.nowJplTime(model.absoluteClock),
         JPLTimeConvertUtility.jplTimeFromUTCInstant(
-          model.absoluteClock.now().plusMillis( searchDuration.in(Duration.MILLISECOND) )),
-        JPLTimeConvertUtility.getJplTimeDur(stepSize), body, target, minDistanceFilter, "NONE");
+          model.absoluteClock.now().plusNanos( searchDuration.in(Duration.MICROSECOND) * 1000 )),
+        model.configuration.fidelity().eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), body, target, minDistanceFilter, "NONE");
     } catch (GeometryInformationNotAvailableException e) {
       apoapsisTimes = new ArrayList<>();
     }
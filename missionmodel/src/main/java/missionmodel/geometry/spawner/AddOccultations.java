@@ -37,7 +37,7 @@ public class AddOccultations {
 
   @ActivityType.EffectModel
   public void run(Mission model){
-    SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator();
+    SpiceDirectEventGenerator generator = model.geometryContext.newEventGenerator();
 
     List<Window> occultationTimes;
 
@@ -46,28 +46,32 @@ public class AddOccultations {
       // and so a 'partial' is not meaningful
       occultationTimes = generator.getOccultations( JPLTimeConvertUtility.nowJplTime(model.absoluteClock),
         JPLTimeConvertUtility.jplTimeFromUTCInstant(
-          model.absoluteClock.now().plusMillis( searchDuration.in(Duration.MILLISECOND) )),
-        JPLTimeConvertUtility.getJplTimeDur(stepSize), observer, target, occultingBody,"CN", true, true, useDSK);
+          model.absoluteClock.now().plusNanos( searchDuration.in(Duration.MICROSECOND) * 1000 )),
+        model.configuration.fidelity().eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), observer, target, occultingBody,
+        model.configuration.fidelity().eventAbcorr(), true, true, useDSK);
     } catch (GeometryInformationNotAvailableException e) {
       occultationTimes = new ArrayList<>();
     }
 
     Duration durToSearchEnd = searchDuration;
 
-    // There may be some occultations that are before the start of this activity. Remove them or alter the start time to start
-    // at the start time of the activity
+    // There may be some occultations that are before the start of this activity. Keep only those overlapping the activity,
+    // moving the start of one already in progress to the start of the activity
     Time actStart = JPLTimeConvertUtility.nowJplTime(model.absoluteClock);
-    while (!occultationTimes.isEmpty() && occultationTimes.get(0).getStart().lessThan(actStart)) {
-      if (occultationTimes.get(0).getEnd().lessThanOrEqualTo(actStart)) {
-        occultationTimes.remove(0);
-      } else if (occultationTimes.get(0).getStart().lessThan(actStart)) {
-        occultationTimes.set(0, new Window(actStart, occultationTimes.get(0).getEnd(), occultationTimes.get(0).getType()) );
+    Time searchEnd = actStart.plus(JPLTimeConvertUtility.getJplTimeDur(searchDuration));
+    List<Window> inSearch = new ArrayList<>();
+    // a single pass, since the windows are only looked at once
+    for (Window w : occultationTimes) {
+      if (w.getEnd().lessThanOrEqualTo(actStart) || w.getStart().greaterThan(searchEnd)) {
+        continue;
       }
+      inSearch.add(w.getStart().lessThan(actStart) ? new Window(actStart, w.getEnd(), w.getType()) : w);
     }
+    occultationTimes = inSearch;
 
     for(Window w : occultationTimes){
       // Don't spawn any occultations at or after the end of the search duration
-      if (w.getStart().lessThan(actStart.plus(JPLTimeConvertUtility.getJplTimeDur(searchDuration)))) {
+      if (w.getStart().lessThan(searchEnd)) {
         // Wait until start time of occultation and spawn EnterOccultation
         Duration delayTime = JPLTimeConvertUtility.getDuration(
           w.getStart().minus(JPLTimeConvertUtility.nowJplTime(model.absoluteClock)));
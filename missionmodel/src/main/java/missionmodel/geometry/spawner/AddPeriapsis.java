@@ -33,15 +33,15 @@ public class AddPeriapsis {
 
   @ActivityType.EffectModel
   public void run(Mission model){
-    SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator();
+    SpiceDirectEventGenerator generator = model.geometryContext.newEventGenerator();
 
     List<Time> periapsisTimes;
 
     try {
       periapsisTimes = generator.getPeriapses( JPLTimeConvertUtility.nowJplTime(model.absoluteClock),
         JPLTimeConvertUtility.jplTimeFromUTCInstant(
-          model.absoluteClock.now().plusMillis( searchDuration.in(Duration.MILLISECOND) )),
-        JPLTimeConvertUtility.getJplTimeDur(stepSize), body, target, maxDistanceFilter, "NONE");
+          model.absoluteClock.now().plusNanos( searchDuration.in(Duration.MICROSECOND) * 1000 )),
+        model.configuration.fidelity().eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), body, target, maxDistanceFilter, "NONE");
     } catch (GeometryInformationNotAvailableException e) {
       periapsisTimes = new ArrayList<>();
     }
@@ -38,7 +38,7 @@ public class AddSpacecraftEclipses {
 
   @ActivityType.EffectModel
   public void run(Mission model){
-    SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator();
+    SpiceDirectEventGenerator generator = model.geometryContext.newEventGenerator();
 
     List<Window> eclipses;
 
@@ -47,29 +47,33 @@ public class AddSpacecraftEclipses {
       // and we don't want to merge partials
       eclipses = generator.getOccultations( JPLTimeConvertUtility.nowJplTime(model.absoluteClock),
         JPLTimeConvertUtility.jplTimeFromUTCInstant(
-          model.absoluteClock.now().plusMillis( searchDuration.in(Duration.MILLISECOND) )),
-        JPLTimeConvertUtility.getJplTimeDur(stepSize), observer, target, occultingBody,"CN", false, false, useDSK);
+          model.absoluteClock.now().plusNanos( searchDuration.in(Duration.MICROSECOND) * 1000 )),
+        model.configuration.fidelity().eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), observer, target, occultingBody,
+        model.configuration.fidelity().eventAbcorr(), false, false, useDSK);
     } catch (GeometryInformationNotAvailableException e) {
       eclipses = new ArrayList<>();
     }
 
     Duration durToSearchEnd = searchDuration;
 
-    // There may be some eclipses that are before the start of this activity. Remove them or alter the start time to start
-    // at the start time of the activity
+    // There may be some eclipses that are before the start of this activity. Keep only those overlapping the activity,
+    // moving the start of one already in progress to the start of the activity
     Time actStart = JPLTimeConvertUtility.nowJplTime(model.absoluteClock);
-    while (!eclipses.isEmpty() && eclipses.get(0).getStart().lessThan(actStart)) {
-      if (eclipses.get(0).getEnd().lessThanOrEqualTo(actStart)) {
-        eclipses.remove(0);
-      } else if (eclipses.get(0).getStart().lessThan(actStart)) {
-        eclipses.set(0, new Window(actStart, eclipses.get(0).getEnd(), eclipses.get(0).getType()) );
+    Time searchEnd = actStart.plus(JPLTimeConvertUtility.getJplTimeDur(searchDuration));
+    List<Window> inSearch = new ArrayList<>();
+    // a single pass, since the windows are only looked at once
+    for (Window w : eclipses) {
+      if (w.getEnd().lessThanOrEqualTo(actStart) || w.getStart().greaterThan(searchEnd)) {
+        continue;
       }
+      inSearch.add(w.getStart().lessThan(actStart) ? new Window(actStart, w.getEnd(), w.getType()) : w);
     }
+    eclipses = inSearch;
 
     for(int i = 0; i < eclipses.size(); i++){
       // we assume that this is eclipses of the spacecraft - other body eclipses should be in mission-specific code
       // Don't spawn any eclipses at or after the end of the search duration
-      if (eclipses.get(i).getStart().lessThan(actStart.plus(JPLTimeConvertUtility.getJplTimeDur(searchDuration)))) {
+      if (eclipses.get(i).getStart().lessThan(searchEnd)) {
         Duration delayTime = JPLTimeConvertUtility.getDuration(
           eclipses.get(i).getStart().minus(JPLTimeConvertUtility.nowJplTime(model.absoluteClock)));
         delay(delayTime);
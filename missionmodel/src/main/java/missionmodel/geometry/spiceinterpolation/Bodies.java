@@ -2,45 +2,60 @@ package missionmodel.geometry.spiceinterpolation;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import missionmodel.Mission;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 import static missionmodel.config.ConfigObject.jsonObjHasKey;
 
+/**
+ * The bodies of default_geometry_config.json, taken from the shared BodyCatalog, so constructing one neither parses the
+ * config nor calls SPICE unless the config or loaded kernels changed since the catalog was compiled.
+ */
 public class Bodies {
 
-  private JsonObject bodiesJsonObject;
-  private HashMap<String, Body> bodies;
+  private final BodyCatalog catalog;
+  private final HashMap<String, Body> bodies;
 
   public Bodies() {
-    this.bodiesJsonObject = parseBodiesFromJson();
-    this.bodies = initializeAllBodiesFromJson(this.bodiesJsonObject);
+    this(BodyCatalog.get());
+  }
+
+  /**
+   * @param catalog Catalog to take the bodies from, e.g. BodyCatalog.withoutKernels() when SPICE can't be asked yet
+   */
+  public Bodies(BodyCatalog catalog) {
+    this.catalog = catalog;
+    this.bodies = new HashMap<>(catalog.getBodies());
   }
 
   public HashMap<String, Body> getBodiesMap(){
     return bodies;
   }
 
+  public BodyCatalog getCatalog(){
+    return catalog;
+  }
+
   public JsonObject getBodiesJson(){
-    return bodiesJsonObject;
+    return catalog.getConfig();
   }
 
-  private JsonObject parseBodiesFromJson() {
-    try (
-      var in = Objects.requireNonNull(Mission.class.getResourceAsStream("default_geometry_config.json"), "default_geometry_config.json not found");
-      var reader = new InputStreamReader(in)
-    ) {
-      return JsonParser.parseReader(reader).getAsJsonObject();
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+  /**
+   * @param bodyName Name of the body in the config
+   * @param geometryType Key of the geometry under the body (ex. Trajectory, Periapsis, Occultations)
+   * @param defaultThreshold Threshold for periods that don't give one
+   * @return calculation periods as written in the config, without removing data gaps
+   */
+  public List<CalculationPeriod> getCalculationPeriods(String bodyName, String geometryType, double defaultThreshold) {
+    List<CalculationPeriod> toReturn = new ArrayList<>();
+    for (BodyCatalog.PeriodSpec period : catalog.getPeriods(bodyName, geometryType)) {
+      toReturn.add(period.resolve(defaultThreshold));
     }
+    return toReturn;
   }
 
   public HashMap<String, Body> initializeAllBodiesFromJson(JsonObject bodiesJson){
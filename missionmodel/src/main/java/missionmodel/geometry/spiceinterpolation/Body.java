@@ -1,6 +1,6 @@
 package missionmodel.geometry.spiceinterpolation;
 
-import spice.basic.CSPICE;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.SpiceErrorException;
 
 import java.util.ArrayList;
@@ -52,17 +52,63 @@ public class Body {
 
     // use SPICE to get body information that comes from kernels
     try {
-      radii = CSPICE.bodvcd(NAIFID, "RADII");
+      radii = SpiceCalls.bodvcd(NAIFID, "RADII");
     } catch (SpiceErrorException e) {
       radii = null;
     }
     try{
-      mu = CSPICE.bodvcd(NAIFID, "GM")[0];
+      mu = SpiceCalls.bodvcd(NAIFID, "GM")[0];
     } catch (SpiceErrorException e) {
       mu = null;
     }
   }
 
+  /**
+   * Body with the kernel constants already looked up, as BodyCatalog builds them, so no SPICE call is made
+   * @param radii RADII from the kernels, or null if they don't have them
+   * @param mu GM from the kernels, or null if they don't have it
+   */
+  Body(String name, int NAIFID, String NAIFBodyFrame, Double albedo, boolean calculateAltitude,
+       boolean calculateEarthSpacecraftBodyAngle, boolean calculateSubSCInformation, boolean calculateRaDec,
+       boolean calculateIlluminationAngles, boolean calculateSubSolarInformation, boolean calculateLST, boolean calculateBetaAngle,
+       boolean calculateOrbitParameters, boolean useDSK, double[] radii, Double mu){
+    this.name = name;
+    this.NAIFID = NAIFID;
+    this.NAIFBodyFrame = NAIFBodyFrame;
+    this.albedo = albedo;
+    this.calculateAltitude = calculateAltitude;
+    this.calculateEarthSpacecraftBodyAngle = calculateEarthSpacecraftBodyAngle;
+    this.calculateSubSCInformation = calculateSubSCInformation;
+    this.calculateRaDec = calculateRaDec;
+    this.calculateIlluminationAngles = calculateIlluminationAngles;
+    this.calculateSubSolarInformation = calculateSubSolarInformation;
+    this.calculateLST = calculateLST;
+    this.calculateBetaAngle = calculateBetaAngle;
+    this.calculateOrbitParameters = calculateOrbitParameters;
+    this.useDSK = useDSK;
+    this.radii = radii;
+    this.mu = mu;
+  }
+
+  /**
+   * @return copy of the body with the given radii and GM standing in for the ones the kernels would give
+   */
+  Body withConstants(double[] radii, Double mu) {
+    return new Body(name, NAIFID, NAIFBodyFrame, albedo, calculateAltitude, calculateEarthSpacecraftBodyAngle,
+      calculateSubSCInformation, calculateRaDec, calculateIlluminationAngles, calculateSubSolarInformation, calculateLST,
+      calculateBetaAngle, calculateOrbitParameters, useDSK, radii, mu);
+  }
+
+  /**
+   * @return copy of the body that skips the quantities found on its surface: sub-spacecraft point, altitude,
+   * illumination angles, sub-solar point and LST
+   */
+  Body withoutSurfaceQuantities() {
+    return new Body(name, NAIFID, NAIFBodyFrame, albedo, false, calculateEarthSpacecraftBodyAngle,
+      false, calculateRaDec, false, false, false,
+      calculateBetaAngle, calculateOrbitParameters, useDSK, radii, mu);
+  }
+
   public String getName() {
     return name;
   }
@@ -91,6 +137,10 @@ public class Body {
     return mu;
   }
 
+  public boolean hasMu(){
+    return mu != null;
+  }
+
   public boolean hasAlbeido(){
     return albedo != null;
   }
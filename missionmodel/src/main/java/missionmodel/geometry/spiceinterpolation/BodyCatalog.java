@@ -0,0 +1,368 @@
+package missionmodel.geometry.spiceinterpolation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.EpochRelativeTime;
+import missionmodel.Mission;
+import missionmodel.spice.Spice;
+import missionmodel.spice.SpiceCalls;
+import spice.basic.SpiceErrorException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static missionmodel.config.ConfigObject.jsonObjHasKey;
+
+/**
+ * Everything the geometry code needs to know about the bodies in default_geometry_config.json, compiled once: each
+ * body's IDs, frame, albedo and calculation switches, its calculation periods per geometry type, and its RADII and GM
+ * from the loaded kernels. The catalog is immutable and shared by the whole process (see get), so the Mission
+ * constructor and every scheduling procedure use the same one instead of parsing the config and asking SPICE again.
+ *
+ * A catalog is tied to a digest of the config and the identity of the loaded kernel set (Spice.kernelSetIdentity), and
+ * get builds a new one only when either changes. Set the BODY_CATALOG_SNAPSHOT environment variable to a file path, or
+ * to "true" for body_catalog_snapshot.json next to the model jar, to also keep the catalog on disk between processes.
+ */
+public class BodyCatalog {
+  public static final String CONFIG_RESOURCE = "default_geometry_config.json";
+
+  private static BodyCatalog shared = null;
+
+  private final String configDigest;
+  private final String kernelSetIdentity;
+  private final byte[] configBytes;
+  private final Map<String, Body> bodies;
+  // keyed by body name and geometry type, see periodKey
+  private final Map<String, List<PeriodSpec>> periods;
+
+  /**
+   * A calculation period as written in the config. Begin and end are kept as written since they can be relative to
+   * epochs, and are resolved each time the period is asked for.
+   * @param threshold Threshold from the config, or null to use the caller's default
+   */
+  public record PeriodSpec(String begin, String end, Duration minTimeStep, Duration maxTimeStep, Double threshold) {
+    public CalculationPeriod resolve(double defaultThreshold) {
+      return new CalculationPeriod(EpochRelativeTime.getAbsoluteOrRelativeTime(begin), EpochRelativeTime.getAbsoluteOrRelativeTime(end),
+        minTimeStep, maxTimeStep, threshold == null ? defaultThreshold : threshold);
+    }
+  }
+
+  private BodyCatalog(String configDigest, String kernelSetIdentity, byte[] configBytes, Map<String, Body> bodies, Map<String, List<PeriodSpec>> periods) {
+    this.configDigest = configDigest;
+    this.kernelSetIdentity = kernelSetIdentity;
+    this.configBytes = configBytes;
+    this.bodies = Collections.unmodifiableMap(bodies);
+    this.periods = Collections.unmodifiableMap(periods);
+  }
+
+  /**
+   * @return the catalog for the config in the jar and the kernels loaded now, built only if the last one returned was
+   * for a different config or kernel set
+   */
+  public static BodyCatalog get() {
+    // under the monitor SPICE work holds (see SerializedSpiceBackend), since compiling asks SPICE for radii and GM
+    synchronized (Spice.class) {
+      byte[] configBytes = readConfig();
+      String configDigest = digest(configBytes);
+      String kernelSetIdentity = currentKernelSetIdentity();
+      if (shared != null && shared.configDigest.equals(configDigest) && shared.kernelSetIdentity.equals(kernelSetIdentity)) {
+        return shared;
+      }
+
+      Path snapshot = snapshotPath();
+      if (snapshot != null) {
+        BodyCatalog loaded = readSnapshot(snapshot, configBytes, configDigest, kernelSetIdentity);
+        if (loaded != null) {
+          shared = loaded;
+          return shared;
+        }
+      }
+
+      shared = compile(configBytes, configDigest, kernelSetIdentity, true);
+      if (snapshot != null) {
+        shared.writeSnapshot(snapshot);
+      }
+      return shared;
+    }
+  }
+
+  /**
+   * @return a catalog of the config in the jar compiled without calling SPICE, so with no radii or GM. For reading the
+   * bodies and calculation periods before any kernels are loaded, e.g. to decide which kernels to load. Not shared.
+   */
+  public static BodyCatalog withoutKernels() {
+    byte[] configBytes = readConfig();
+    return compile(configBytes, digest(configBytes), "none", false);
+  }
+
+  /**
+   * Forget the shared catalog, so the next get compiles again
+   */
+  public static void clear() {
+    synchronized (Spice.class) {
+      shared = null;
+    }
+  }
+
+  public Map<String, Body> getBodies() {
+    return bodies;
+  }
+
+  public Body getBody(String name) {
+    return bodies.get(name);
+  }
+
+  /**
+   * @return the config the catalog was compiled from, parsed again on each call so callers can't change the catalog's
+   */
+  public JsonObject getConfig() {
+    return parse(configBytes);
+  }
+
+  /**
+   * @param geometryType Key of the geometry under the body (ex. Trajectory, Periapsis, Occultations)
+   * @return calculation periods of the body for the geometry type, in config order
+   */
+  public List<PeriodSpec> getPeriods(String bodyName, String geometryType) {
+    return periods.getOrDefault(periodKey(bodyName, geometryType), List.of());
+  }
+
+  public String getConfigDigest() {
+    return configDigest;
+  }
+
+  public String getKernelSetIdentity() {
+    return kernelSetIdentity;
+  }
+
+  private static String periodKey(String bodyName, String geometryType) {
+    return bodyName + "|" + geometryType;
+  }
+
+  private static BodyCatalog compile(byte[] configBytes, String configDigest, String kernelSetIdentity, boolean readKernels) {
+    JsonObject config = parse(configBytes);
+    Map<String, Body> bodies = new LinkedHashMap<>();
+    Map<String, List<PeriodSpec>> periods = new LinkedHashMap<>();
+
+    for (Map.Entry<String, JsonElement> entry : config.get("bodies").getAsJsonObject().entrySet()) {
+      String name = entry.getKey();
+      JsonObject body = entry.getValue().getAsJsonObject();
+      int naifId = body.get("NaifID").getAsInt();
+      double[] radii = readKernels ? bodyConstant(naifId, "RADII") : null;
+      double[] gm = readKernels ? bodyConstant(naifId, "GM") : null;
+      Double mu = gm == null ? null : gm[0];
+
+      JsonObject trajectory = jsonObjHasKey(body, "Trajectory") ? body.get("Trajectory").getAsJsonObject() : new JsonObject();
+      bodies.put(name, new Body(name, naifId, body.get("NaifFrame").getAsString(), body.get("Albedo").getAsDouble(),
+        getIfNonNull(trajectory, "calculateAltitude"),
+        getIfNonNull(trajectory, "calculateEarthSpacecraftBodyAngle"),
+        getIfNonNull(trajectory, "calculateSubSCInformation"),
+        getIfNonNull(trajectory, "calculateRaDec"),
+        getIfNonNull(trajectory, "calculateIlluminationAngles"),
+        getIfNonNull(trajectory, "calculateSubSolarInformation"),
+        getIfNonNull(trajectory, "calculateLST"),
+        getIfNonNull(trajectory, "calculateBetaAngle"),
+        getIfNonNull(trajectory, "calculateOrbitParameters"),
+        getIfNonNull(trajectory, "useDSK"),
+        radii, mu));
+
+      for (Map.Entry<String, JsonElement> geometry : body.entrySet()) {
+        if (!geometry.getValue().isJsonObject() || !jsonObjHasKey(geometry.getValue().getAsJsonObject(), "calculationPeriods")) {
+          continue;
+        }
+        List<PeriodSpec> specs = new ArrayList<>();
+        for (JsonElement period : geometry.getValue().getAsJsonObject().get("calculationPeriods").getAsJsonArray()) {
+          JsonObject periodStruct = period.getAsJsonObject();
+          specs.add(new PeriodSpec(
+            periodStruct.get("begin").getAsString(),
+            periodStruct.get("end").getAsString(),
+            jsonObjHasKey(periodStruct, "minTimeStep") ? new Duration(periodStruct.get("minTimeStep").getAsString()) : Duration.SECOND_DURATION,
+            jsonObjHasKey(periodStruct, "maxTimeStep") ? new Duration(periodStruct.get("maxTimeStep").getAsString()) : Duration.DAY_DURATION,
+            jsonObjHasKey(periodStruct, "threshold") ? periodStruct.get("threshold").getAsDouble() : null));
+        }
+        periods.put(periodKey(name, geometry.getKey()), List.copyOf(specs));
+      }
+    }
+    return new BodyCatalog(configDigest, kernelSetIdentity, configBytes, bodies, periods);
+  }
+
+  /**
+   * @return the kernel pool's values for the body, or null if the loaded kernels don't have them
+   */
+  private static double[] bodyConstant(int naifId, String item) {
+    try {
+      return SpiceCalls.bodvcd(naifId, item);
+    } catch (SpiceErrorException e) {
+      return null;
+    }
+  }
+
+  private static boolean getIfNonNull(JsonObject obj, String key) {
+    return obj.get(key) != null && !obj.get(key).isJsonNull() ? obj.get(key).getAsBoolean() : false;
+  }
+
+  private static String currentKernelSetIdentity() {
+    try {
+      return Spice.kernelSetIdentity();
+    } catch (SpiceErrorException e) {
+      return "unknown";
+    }
+  }
+
+  private static byte[] readConfig() {
+    try (InputStream in = Objects.requireNonNull(Mission.class.getResourceAsStream(CONFIG_RESOURCE), CONFIG_RESOURCE + " not found")) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static JsonObject parse(byte[] configBytes) {
+    return JsonParser.parseString(new String(configBytes, StandardCharsets.UTF_8)).getAsJsonObject();
+  }
+
+  private static String digest(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      return Integer.toHexString(java.util.Arrays.hashCode(bytes));
+    }
+  }
+
+  private static Path snapshotPath() {
+    String setting = System.getenv("BODY_CATALOG_SNAPSHOT");
+    if (setting == null || setting.isBlank() || setting.equalsIgnoreCase("false")) {
+      return null;
+    }
+    if (!setting.equalsIgnoreCase("true")) {
+      return Path.of(setting);
+    }
+    try {
+      Path codeSource = Path.of(Mission.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      Path directory = Files.isDirectory(codeSource) ? codeSource : codeSource.getParent();
+      return directory.resolve("body_catalog_snapshot.json");
+    } catch (URISyntaxException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static BodyCatalog readSnapshot(Path snapshot, byte[] configBytes, String configDigest, String kernelSetIdentity) {
+    if (!Files.exists(snapshot)) {
+      return null;
+    }
+    try {
+      JsonObject json = JsonParser.parseReader(new StringReader(Files.readString(snapshot))).getAsJsonObject();
+      if (!json.get("configDigest").getAsString().equals(configDigest) || !json.get("kernelSetIdentity").getAsString().equals(kernelSetIdentity)) {
+        return null;
+      }
+      Map<String, Body> bodies = new LinkedHashMap<>();
+      for (JsonElement element : json.getAsJsonArray("bodies")) {
+        JsonObject b = element.getAsJsonObject();
+        JsonArray flags = b.getAsJsonArray("flags");
+        bodies.put(b.get("name").getAsString(), new Body(b.get("name").getAsString(), b.get("naifId").getAsInt(),
+          b.get("frame").getAsString(), b.get("albedo").getAsDouble(),
+          flags.get(0).getAsBoolean(), flags.get(1).getAsBoolean(), flags.get(2).getAsBoolean(), flags.get(3).getAsBoolean(),
+          flags.get(4).getAsBoolean(), flags.get(5).getAsBoolean(), flags.get(6).getAsBoolean(), flags.get(7).getAsBoolean(),
+          flags.get(8).getAsBoolean(), flags.get(9).getAsBoolean(),
+          b.has("radii") ? toDoubles(b.getAsJsonArray("radii")) : null,
+          b.has("gm") ? b.get("gm").getAsDouble() : null));
+      }
+      Map<String, List<PeriodSpec>> periods = new LinkedHashMap<>();
+      for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("periods").entrySet()) {
+        List<PeriodSpec> specs = new ArrayList<>();
+        for (JsonElement element : entry.getValue().getAsJsonArray()) {
+          JsonObject p = element.getAsJsonObject();
+          specs.add(new PeriodSpec(p.get("begin").getAsString(), p.get("end").getAsString(),
+            Duration.fromTics(p.get("minTimeStep").getAsLong()), Duration.fromTics(p.get("maxTimeStep").getAsLong()),
+            p.has("threshold") ? p.get("threshold").getAsDouble() : null));
+        }
+        periods.put(entry.getKey(), List.copyOf(specs));
+      }
+      return new BodyCatalog(configDigest, kernelSetIdentity, configBytes, bodies, periods);
+    } catch (IOException | RuntimeException e) {
+      System.out.println("Ignoring body catalog snapshot " + snapshot + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void writeSnapshot(Path snapshot) {
+    JsonObject json = new JsonObject();
+    json.addProperty("configDigest", configDigest);
+    json.addProperty("kernelSetIdentity", kernelSetIdentity);
+    JsonArray bodyArray = new JsonArray();
+    for (Body body : bodies.values()) {
+      JsonObject b = new JsonObject();
+      b.addProperty("name", body.getName());
+      b.addProperty("naifId", body.getNAIFID());
+      b.addProperty("frame", body.getNAIFBodyFrame());
+      b.addProperty("albedo", body.getAlbedo());
+      JsonArray flags = new JsonArray();
+      for (boolean flag : new boolean[]{body.doCalculateAltitude(), body.doCalculateEarthSpacecraftBodyAngle(), body.doCalculateSubSCPoint(),
+        body.doCalculateRaDec(), body.doCalculateIlluminationAngles(), body.doCalculateSubSolarInformation(), body.doCalculateLST(),
+        body.doCalculateBetaAngle(), body.doCalculateOrbitParameters(), body.useDSK()}) {
+        flags.add(flag);
+      }
+      b.add("flags", flags);
+      if (body.getRadii() != null) {
+        JsonArray radii = new JsonArray();
+        for (double r : body.getRadii()) {
+          radii.add(r);
+        }
+        b.add("radii", radii);
+      }
+      if (body.hasMu()) {
+        b.addProperty("gm", body.getMu());
+      }
+      bodyArray.add(b);
+    }
+    json.add("bodies", bodyArray);
+    JsonObject periodObject = new JsonObject();
+    for (Map.Entry<String, List<PeriodSpec>> entry : periods.entrySet()) {
+      JsonArray specs = new JsonArray();
+      for (PeriodSpec spec : entry.getValue()) {
+        JsonObject p = new JsonObject();
+        p.addProperty("begin", spec.begin());
+        p.addProperty("end", spec.end());
+        p.addProperty("minTimeStep", spec.minTimeStep().getTics());
+        p.addProperty("maxTimeStep", spec.maxTimeStep().getTics());
+        if (spec.threshold() != null) {
+          p.addProperty("threshold", spec.threshold());
+        }
+        specs.add(p);
+      }
+      periodObject.add(entry.getKey(), specs);
+    }
+    json.add("periods", periodObject);
+
+    try {
+      Files.writeString(snapshot, json.toString());
+    } catch (IOException e) {
+      System.out.println("Could not write body catalog snapshot " + snapshot + ": " + e.getMessage());
+    }
+  }
+
+  private static double[] toDoubles(JsonArray array) {
+    double[] values = new double[array.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = array.get(i).getAsDouble();
+    }
+    return values;
+  }
+}
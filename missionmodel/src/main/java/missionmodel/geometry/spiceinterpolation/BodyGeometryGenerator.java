@@ -7,6 +7,8 @@ import missionmodel.JPLTimeConvertUtility;
 import missionmodel.geometry.interfaces.GeometryCalculator;
 import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.resources.GenericGeometryResources;
+import missionmodel.jfr.GeometryStepEvent;
+import missionmodel.spice.SerializedSpiceBackend;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -26,10 +28,19 @@ public class BodyGeometryGenerator {
   public static PrintWriter pw;
   private FileWriter fileWriter = null;
   private boolean writeTimestepFile;
+  // what geoCalc calculates for the body besides its state, for GeometryStepEvents
+  private final String quantities;
 
   private final AbsoluteClock absoluteClock;
 
   public BodyGeometryGenerator(AbsoluteClock absoluteClock, GenericGeometryResources geometryResources, Time t, String bodyName, double precision, Duration minStep, Duration maxStep, String timestepFile, GeometryCalculator geoCalc, HashMap<String, Body> bodies) {
+    this(absoluteClock, List.of(geometryResources), t, bodyName, precision, minStep, maxStep, timestepFile, geoCalc, bodies);
+  }
+
+  /**
+   * @param geometryResources Resources of every spacecraft geoCalc calculates for, so steps are small enough for all
+   */
+  public BodyGeometryGenerator(AbsoluteClock absoluteClock, List<GenericGeometryResources> geometryResources, Time t, String bodyName, double precision, Duration minStep, Duration maxStep, String timestepFile, GeometryCalculator geoCalc, HashMap<String, Body> bodies) {
     this.absoluteClock = absoluteClock;
     this.bodyName = bodyName;
     this.geoCalc = geoCalc;
@@ -38,6 +49,7 @@ public class BodyGeometryGenerator {
     this.stepGenerator = new VariableTimeStepGenerator(absoluteClock, geometryResources, bodyNames, precision, minStep, maxStep, t);
     this.bodies = bodies;
     this.writeTimestepFile = timestepFile != null && !timestepFile.equals("");
+    this.quantities = quantities(bodies.get(bodyName));
 
 //    if(writeTimestepFile) {
 //      try {
@@ -51,12 +63,26 @@ public class BodyGeometryGenerator {
 
   public void model(){
     while (true) {
+      GeometryStepEvent event = new GeometryStepEvent();
+      event.begin();
+      long callsBefore = event.isEnabled() ? SerializedSpiceBackend.totalCalls() : 0;
       try {
         geoCalc.calculateGeometry(bodies.get(bodyName));
       } catch (GeometryInformationNotAvailableException e) {
+        event.failed = true;
         e.printStackTrace();
       }
       Map.Entry<String, Time> nextTimeAndBody = stepGenerator.nextTimeToJumpToAndItsBody(bodyName);
+      event.end();
+      if (event.shouldCommit()) {
+        Time now = JPLTimeConvertUtility.nowJplTime(absoluteClock);
+        event.body = bodyName;
+        event.epoch = now.toString();
+        event.quantities = quantities;
+        event.spiceCalls = SerializedSpiceBackend.totalCalls() - callsBefore;
+        event.nextStep = (long) (nextTimeAndBody.getValue().minus(now).totalSeconds() * 1e9);
+        event.commit();
+      }
 
 //      if(writeTimestepFile) {
 //        pw.println(nextTimeAndBody.getValue().subtract( JPLTimeConvertUtility.nowJplTime(absoluteClock)).toString());
@@ -75,4 +101,39 @@ public class BodyGeometryGenerator {
 //      }
 //    }
   }
+
+  private static String quantities(Body body) {
+    if (body == null) {
+      return "";
+    }
+    List<String> quantities = new ArrayList<>();
+    if (body.doCalculateAltitude()) {
+      quantities.add("altitude");
+    }
+    if (body.doCalculateEarthSpacecraftBodyAngle()) {
+      quantities.add("earthSpacecraftBodyAngle");
+    }
+    if (body.doCalculateSubSCPoint()) {
+      quantities.add("subSpacecraftPoint");
+    }
+    if (body.doCalculateRaDec()) {
+      quantities.add("raDec");
+    }
+    if (body.doCalculateIlluminationAngles()) {
+      quantities.add("illuminationAngles");
+    }
+    if (body.doCalculateSubSolarInformation()) {
+      quantities.add("subSolarPoint");
+    }
+    if (body.doCalculateLST()) {
+      quantities.add("localSolarTime");
+    }
+    if (body.doCalculateBetaAngle()) {
+      quantities.add("betaAngle");
+    }
+    if (body.doCalculateOrbitParameters()) {
+      quantities.add("orbitParameters");
+    }
+    return String.join(",", quantities);
+  }
 }
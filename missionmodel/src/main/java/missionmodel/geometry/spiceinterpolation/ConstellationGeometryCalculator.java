@@ -0,0 +1,112 @@
+package missionmodel.geometry.spiceinterpolation;
+
+import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator;
+import missionmodel.geometry.interfaces.GeometryCalculator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.resources.GenericGeometryResources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates geometry for several spacecraft at once. Each spacecraft has its own GenericGeometryCalculator and
+ * resources, and all of them take the geometry between bodies from one SharedBodyEphemeris. Since one
+ * BodyGeometryGenerator per body drives every spacecraft at the same instants, that geometry is computed once per
+ * epoch, and each spacecraft past the first only adds its own spacecraft-relative work.
+ */
+public class ConstellationGeometryCalculator implements GeometryCalculator {
+  private final List<GenericGeometryCalculator> spacecraft;
+  private SharedBodyEphemeris bodyEphemeris;
+
+  /**
+   * @param spacecraft Calculator of each spacecraft, the primary one first
+   */
+  public ConstellationGeometryCalculator(List<GenericGeometryCalculator> spacecraft) {
+    if (spacecraft.isEmpty()) {
+      throw new IllegalArgumentException("A constellation needs at least one spacecraft");
+    }
+    this.spacecraft = new ArrayList<>(spacecraft);
+  }
+
+  /**
+   * @return prefix for the resources of a spacecraft other than the primary one, e.g. "SC-76_"
+   */
+  public static String resourcePrefix(int scId) {
+    return "SC" + scId + "_";
+  }
+
+  @Override
+  public void setBodies(Map<String, Body> bodies) {
+    this.bodyEphemeris = new SharedBodyEphemeris(new SpiceDirectTimeDependentStateCalculator(bodies, false));
+    for (GenericGeometryCalculator calculator : spacecraft) {
+      calculator.setBodies(bodies);
+      calculator.setBodyEphemeris(bodyEphemeris);
+    }
+  }
+
+  public void setContext(GeometryContext context) {
+    this.bodyEphemeris = new SharedBodyEphemeris(context.newCalculator(false));
+    for (GenericGeometryCalculator calculator : spacecraft) {
+      calculator.setContext(context);
+      calculator.setBodyEphemeris(bodyEphemeris);
+    }
+  }
+
+  /**
+   * Calculates the body's geometry for every spacecraft. A spacecraft whose geometry isn't available doesn't stop the
+   * others; the first failure is thrown once all have been tried.
+   */
+  @Override
+  public void calculateGeometry(Body body) throws GeometryInformationNotAvailableException {
+    GeometryInformationNotAvailableException failure = null;
+    for (GenericGeometryCalculator calculator : spacecraft) {
+      try {
+        calculator.calculateGeometry(body);
+      } catch (GeometryInformationNotAvailableException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public GenericGeometryCalculator getPrimary() {
+    return spacecraft.get(0);
+  }
+
+  public List<GenericGeometryCalculator> getSpacecraft() {
+    return Collections.unmodifiableList(spacecraft);
+  }
+
+  /**
+   * @return calculator of the spacecraft with that ID, or null if it isn't part of the constellation
+   */
+  public GenericGeometryCalculator getSpacecraft(int scId) {
+    for (GenericGeometryCalculator calculator : spacecraft) {
+      if (calculator.getSpacecraftId() == scId) {
+        return calculator;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return resources of every spacecraft, the primary one first
+   */
+  public List<GenericGeometryResources> getResources() {
+    List<GenericGeometryResources> resources = new ArrayList<>();
+    for (GenericGeometryCalculator calculator : spacecraft) {
+      resources.add(calculator.getResources());
+    }
+    return resources;
+  }
+
+  public SharedBodyEphemeris getBodyEphemeris() {
+    return bodyEphemeris;
+  }
+}
@@ -1,6 +1,8 @@
 package missionmodel.geometry.spiceinterpolation;
 
+import gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
+import gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.DiscreteEffects;
 import missionmodel.AbsoluteClock;
 import missionmodel.JPLTimeConvertUtility;
@@ -8,18 +10,16 @@ import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalcu
 import missionmodel.geometry.interfaces.GeometryCalculator;
 import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.geometry.resources.BodyGeometry;
 import missionmodel.geometry.resources.GenericGeometryResources;
 import missionmodel.geometry.returnedobjects.*;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.SpiceErrorException;
 
 import java.util.Map;
 
-// import static missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator.et2LSTHours;
-import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
+// import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
 import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.DiscreteEffects.set;
-import static missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator.et2LSTHours;
 import static missionmodel.geometry.resources.GenericGeometryResources.*;
 
 public class GenericGeometryCalculator implements GeometryCalculator {
@@ -31,19 +31,72 @@ public class GenericGeometryCalculator implements GeometryCalculator {
 
   private  GenericGeometryResources geomRes;
 
+  private GeometryContext context;
+
   protected  Registrar errorRegistrar;
 
+  private final String resourcePrefix;
+  // the spacecraft's ID as SPICE is asked for it
+  private final String scName;
+  // geometry between bodies, shared with the other spacecraft of a constellation; null to compute it here
+  private SharedBodyEphemeris bodyEphemeris;
+
   public GenericGeometryCalculator(AbsoluteClock absoluteClock, int sc_id, String abcorr, Registrar errorRegistrar){
+    this(absoluteClock, sc_id, abcorr, errorRegistrar, "");
+  }
+
+  /**
+   * @param resourcePrefix Put in front of the names of this spacecraft's resources (see GenericGeometryResources)
+   */
+  public GenericGeometryCalculator(AbsoluteClock absoluteClock, int sc_id, String abcorr, Registrar errorRegistrar, String resourcePrefix){
     this.absClock = absoluteClock;
     this.sc_id = sc_id;
     this.abcorr = abcorr;
     this.errorRegistrar = errorRegistrar;
+    this.resourcePrefix = resourcePrefix;
+    this.scName = Integer.toString(sc_id);
   }
 
   public void setBodies(Map<String, Body> bodies){
     this.bodies = bodies;
     this.calc = new SpiceDirectTimeDependentStateCalculator(bodies, true);
-    this.geomRes = new GenericGeometryResources(errorRegistrar, bodies);
+    this.geomRes = new GenericGeometryResources(errorRegistrar, bodies, resourcePrefix);
+  }
+
+  /**
+   * Like setBodies, taking the bodies from the context and making SPICE calls through its backend. The resources are
+   * only made and registered the first time, so a later context must have the same bodies.
+   */
+  public void setContext(GeometryContext context){
+    if (this.geomRes != null && !this.bodies.keySet().equals(context.getBodies().keySet())) {
+      throw new IllegalArgumentException("Context bodies " + context.getBodies().keySet() + " are not the bodies "
+        + this.bodies.keySet() + " this calculator's resources were registered for");
+    }
+    this.context = context;
+    this.bodies = context.getBodies();
+    this.calc = context.newCalculator(true);
+    if (this.geomRes == null) {
+      this.geomRes = new GenericGeometryResources(errorRegistrar, bodies, resourcePrefix);
+    }
+  }
+
+  /**
+   * @return the context set with setContext, or null if the bodies were set directly
+   */
+  public GeometryContext getContext() {
+    return this.context;
+  }
+
+  /**
+   * Take geometry between bodies, which doesn't depend on the spacecraft, from the given ephemeris instead of
+   * computing it here
+   */
+  public void setBodyEphemeris(SharedBodyEphemeris bodyEphemeris) {
+    this.bodyEphemeris = bodyEphemeris;
+  }
+
+  public int getSpacecraftId() {
+    return this.sc_id;
   }
 
   public GenericGeometryResources getResources() {
@@ -51,125 +104,170 @@ public class GenericGeometryCalculator implements GeometryCalculator {
   }
 
   public void calculateGeometry(Body body) throws GeometryInformationNotAvailableException {
-    Vector3D[] bodyPositionAndVelocityWRTSpacecraft = calc.getState(JPLTimeConvertUtility.nowJplTime(absClock), Integer.toString(sc_id), body.getName(), abcorr);
-    Vector3D[] sunPositionAndVelocityWRTBody = null;
+    // everything is computed into the thread's scratch arrays, then handed to the body's cell as one snapshot; what
+    // isn't computed this step keeps its previous value
+    GeometryScratch scratch = GeometryScratch.forCurrentThread();
+    Time now = JPLTimeConvertUtility.nowJplTime(absClock);
+    String name = body.getName();
+    MutableResource<Discrete<BodyGeometry>> geometry = geomRes.BodyGeometryByBody.get(name);
+    BodyGeometry previous = currentValue(geometry);
+    double[] bodyState = scratch.bodyState;
+    double[] sunState = scratch.sunState;
+    calc.getState(now, scName, name, abcorr, bodyState);
 
     // calculate some quantities for every body
-    set(geomRes.BODY_POS_ICRF.get(body.getName()), bodyPositionAndVelocityWRTSpacecraft[0]);
-    set(geomRes.BODY_VEL_ICRF.get(body.getName()), bodyPositionAndVelocityWRTSpacecraft[1]);
-    set(geomRes.SpacecraftBodyRange.get(body.getName()), bodyPositionAndVelocityWRTSpacecraft[0].getNorm());
-    set(geomRes.SpacecraftBodySpeed.get(body.getName()), bodyPositionAndVelocityWRTSpacecraft[1].getNorm());
-    set(geomRes.BodyHalfAngleSize.get(body.getName()), Math.asin(body.getAverageEquitorialRadius()/bodyPositionAndVelocityWRTSpacecraft[0].getNorm())*(180.0/Math.PI));
+    double range = GeometryScratch.norm(bodyState, 0);
+    double speed = GeometryScratch.norm(bodyState, 3);
+    double halfAngleSize = Math.asin(body.getAverageEquitorialRadius()/range)*(180.0/Math.PI);
+    double sunSpacecraftBodyAngle = previous.sunSpacecraftBodyAngle();
+    double sunBodySpacecraftAngle = previous.sunBodySpacecraftAngle();
+    double earthSpacecraftAngle = previous.earthSpacecraftAngle();
+    double betaAngle = previous.betaAngle();
+    double altitude = previous.altitude();
+    double phase = previous.phase();
+    double incidence = previous.incidence();
+    double emission = previous.emission();
+    double earthRa = previous.earthRa();
+    double earthDec = previous.earthDec();
+    double earthRaDeltaWithSC = previous.earthRaDeltaWithSC();
+    Vector3D subSolarPoint = previous.subSolarPoint();
+    double subSCDistance = previous.subSCDistance();
+    double subSCLatitude = previous.subSCLatitude();
+    double subSCLongitude = previous.subSCLongitude();
+    double subSCRadius = previous.subSCRadius();
+    double subSCLST = previous.subSCLST();
+    double orbitInclination = previous.orbitInclination();
+    double orbitPeriod = previous.orbitPeriod();
 
     // this section is also multi-mission; the Sun can't have an angle from itself
-    if(!body.getName().equals("SUN")){
-      sunPositionAndVelocityWRTBody = calc.getState(JPLTimeConvertUtility.nowJplTime(absClock), body.getName(), "SUN", abcorr);
-      set(geomRes.SunSpacecraftBodyAngle.get(body.getName()), Vector3D.angle(bodyPositionAndVelocityWRTSpacecraft[0].add(sunPositionAndVelocityWRTBody[0]),bodyPositionAndVelocityWRTSpacecraft[0])*(180.0/Math.PI));
-      set(geomRes.SunBodySpacecraftAngle.get(body.getName()), Vector3D.angle(bodyPositionAndVelocityWRTSpacecraft[0].scalarMultiply(-1.0), sunPositionAndVelocityWRTBody[0])*(180.0/Math.PI));
+    if(!name.equals("SUN")){
+      bodyState(now, name, "SUN", sunState);
+      double[] spacecraftToSun = scratch.vector;
+      spacecraftToSun[0] = bodyState[0] + sunState[0];
+      spacecraftToSun[1] = bodyState[1] + sunState[1];
+      spacecraftToSun[2] = bodyState[2] + sunState[2];
+      sunSpacecraftBodyAngle = GeometryScratch.angle(spacecraftToSun, 0, bodyState, 0)*(180.0/Math.PI);
+      double[] bodyToSpacecraft = scratch.otherState;
+      bodyToSpacecraft[0] = -bodyState[0];
+      bodyToSpacecraft[1] = -bodyState[1];
+      bodyToSpacecraft[2] = -bodyState[2];
+      sunBodySpacecraftAngle = GeometryScratch.angle(bodyToSpacecraft, 0, sunState, 0)*(180.0/Math.PI);
     }
 
     // this section is multi-mission because all missions have to communicate with Earth
-    if(body.getName().equals("EARTH")) {
-      set(geomRes.upleg_time, Time.upleg( JPLTimeConvertUtility.nowJplTime(absClock),
-        sc_id, bodies.get("EARTH").getNAIFID()).totalSeconds());
-      set(geomRes.downleg_time, Time.downleg(JPLTimeConvertUtility.nowJplTime(absClock),
-        sc_id, bodies.get("EARTH").getNAIFID()).totalSeconds());
-      RADec scRADec = new RADec(currentValue(geomRes.BODY_POS_ICRF.get("EARTH")).negate() , new Vector3D(0.0, 0.0, 0.0));
-      set(geomRes.spacecraftDeclination, scRADec.getDec());
-      set(geomRes.spacecraftRightAscension, scRADec.getRA());
-      set(geomRes.EarthSunProbeAngle, 180.0 - (currentValue(geomRes.SunBodySpacecraftAngle.get("EARTH")) +
-        currentValue(geomRes.SunSpacecraftBodyAngle.get("EARTH"))));
+    if(name.equals("EARTH")) {
+      set(geomRes.upleg_time, calc.getUplegSeconds(now, sc_id, body.getNAIFID()));
+      set(geomRes.downleg_time, calc.getDownlegSeconds(now, sc_id, body.getNAIFID()));
+      double[] earthToSpacecraft = scratch.otherState;
+      earthToSpacecraft[0] = -bodyState[0];
+      earthToSpacecraft[1] = -bodyState[1];
+      earthToSpacecraft[2] = -bodyState[2];
+      RADec.raDec(earthToSpacecraft, 0, scratch.raDec);
+      set(geomRes.spacecraftDeclination, scratch.raDec[1]);
+      set(geomRes.spacecraftRightAscension, scratch.raDec[0]);
+      set(geomRes.EarthSunProbeAngle, 180.0 - (sunBodySpacecraftAngle + sunSpacecraftBodyAngle));
     }
 
     // then we calculate things depending if the body was initialized to ask for it
     if(body.doCalculateRaDec()){
-      Vector3D[] bodyPositionAndVelocityWRTEarth = calc.getState(JPLTimeConvertUtility.nowJplTime(absClock),
-        "EARTH", body.getName(), abcorr);
-      RADec earthRaDec = new RADec(bodyPositionAndVelocityWRTEarth[0], new Vector3D(0.0,0.0,0.0));
-      set(geomRes.EarthRaDecByBody.get(body.getName()).get("Ra"), earthRaDec.getRA());
-      set(geomRes.EarthRaDecByBody.get(body.getName()).get("Dec"), earthRaDec.getDec());
+      bodyState(now, "EARTH", name, scratch.otherState);
+      RADec.raDec(scratch.otherState, 0, scratch.raDec);
+      earthRa = scratch.raDec[0];
+      earthDec = scratch.raDec[1];
 
       double spacecraftRAFromEarth = currentValue(geomRes.spacecraftRightAscension);
-      double bodyRAFromEarth = earthRaDec.getRA();
-      set(geomRes.EarthRaDeltaWithSCByBody.get(body.getName()),
-        Math.min(Math.min(Math.abs(spacecraftRAFromEarth - bodyRAFromEarth),
-            Math.abs(spacecraftRAFromEarth - bodyRAFromEarth + 360)),
-          Math.abs(spacecraftRAFromEarth - bodyRAFromEarth - 360)));
+      earthRaDeltaWithSC = Math.min(Math.min(Math.abs(spacecraftRAFromEarth - earthRa),
+          Math.abs(spacecraftRAFromEarth - earthRa + 360)),
+        Math.abs(spacecraftRAFromEarth - earthRa - 360));
     }
 
     if(body.doCalculateEarthSpacecraftBodyAngle()){
-      Vector3D[] earthPositionAndVelocityWRTSC = calc.getState(JPLTimeConvertUtility.nowJplTime(absClock),
-        Integer.toString(sc_id), "EARTH", abcorr);
+      calc.getState(now, scName, "EARTH", abcorr, scratch.otherState);
       // this also comes in as radians and we want degrees
-      set(geomRes.EarthSpacecraftBodyAngle.get(body.getName()), Vector3D.angle(earthPositionAndVelocityWRTSC[0],
-        currentValue(geomRes.BODY_POS_ICRF.get(body.getName())))*(180.0/Math.PI));
+      earthSpacecraftAngle = GeometryScratch.angle(scratch.otherState, 0, bodyState, 0)*(180.0/Math.PI);
     }
 
-    if(body.doCalculateBetaAngle() && !body.getName().equals("SUN")){
+    if(body.doCalculateBetaAngle() && !name.equals("SUN")){
       // beta angle is the angle between the vector normal to the orbital plane (sc position x velocity) and the
       // vector from the body to the sun
-      Vector3D orbitPlaneNormal = bodyPositionAndVelocityWRTSpacecraft[0].crossProduct(bodyPositionAndVelocityWRTSpacecraft[1]).normalize();
-      set(geomRes.BetaAngleByBody.get(body.getName()), (Vector3D.angle(orbitPlaneNormal, sunPositionAndVelocityWRTBody[0].negate())*(180.0/Math.PI))-90);
+      double[] orbitPlaneNormal = scratch.vector;
+      orbitPlaneNormal[0] = bodyState[1] * bodyState[5] - bodyState[2] * bodyState[4];
+      orbitPlaneNormal[1] = bodyState[2] * bodyState[3] - bodyState[0] * bodyState[5];
+      orbitPlaneNormal[2] = bodyState[0] * bodyState[4] - bodyState[1] * bodyState[3];
+      double[] sunToBody = scratch.otherState;
+      sunToBody[0] = -sunState[0];
+      sunToBody[1] = -sunState[1];
+      sunToBody[2] = -sunState[2];
+      betaAngle = (GeometryScratch.angle(orbitPlaneNormal, 0, sunToBody, 0)*(180.0/Math.PI))-90;
     }
 
-    if(body.doCalculateSubSolarInformation() && !body.getName().equals("SUN")){
-      SubPointInformation sp_sun = calc.getSubPointInformation(JPLTimeConvertUtility.nowJplTime(absClock),
-        "SUN", body.getName(), abcorr, body.useDSK());
-      LatLonCoord latLonSolarData = new LatLonCoord(sp_sun.getSpoint());
+    if(body.doCalculateSubSolarInformation() && !name.equals("SUN")){
+      if (bodyEphemeris != null) {
+        bodyEphemeris.getSubPointInformation(now, "SUN", name, abcorr, body.useDSK(), scratch.spoint, scratch.srfvec);
+      } else {
+        calc.getSubPointInformation(now, "SUN", name, abcorr, body.useDSK(), scratch.spoint, scratch.srfvec);
+      }
+      LatLonCoord.latitudinal(scratch.spoint, scratch.radiusLonLat);
       // noone talks in radians lat/lon, so we convert to degrees
-      set(geomRes.BodySubSolarPoint.get(body.getName()), new Vector3D(
-        latLonSolarData.getLatitude()*(180.0/Math.PI),
-        latLonSolarData.getLongitude()*(180.0/Math.PI),
-           latLonSolarData.getRadius()));
+      subSolarPoint = new Vector3D(
+        scratch.radiusLonLat[2]*(180.0/Math.PI),
+        scratch.radiusLonLat[1]*(180.0/Math.PI),
+        scratch.radiusLonLat[0]);
     }
 
     if(body.doCalculateSubSCPoint() || body.doCalculateIlluminationAngles() || body.doCalculateAltitude()){
-      SubPointInformation sp_sc = calc.getSubPointInformation(JPLTimeConvertUtility.nowJplTime(absClock),
-        Integer.toString(sc_id), body.getName(), abcorr, body.useDSK());
-      if(sp_sc.isFound()) {
+      boolean found = calc.getSubPointInformation(now, scName, name, abcorr, body.useDSK(), scratch.spoint, scratch.srfvec);
+      if(found) {
         if(body.doCalculateSubSCPoint() || body.doCalculateAltitude()) {
-          LatLonCoord latLonSurfaceData = new LatLonCoord(sp_sc.getSpoint());
-          set(geomRes.BodySubSCPoint.get(body.getName()).get("dist"), sp_sc.getSrfvec().getNorm());
+          LatLonCoord.latitudinal(scratch.spoint, scratch.radiusLonLat);
+          subSCDistance = GeometryScratch.norm(scratch.srfvec, 0);
+          subSCRadius = scratch.radiusLonLat[0];
           // noone talks in radians lat/lon, so we convert to degrees
-          set(geomRes.BodySubSCPoint.get(body.getName()).get("latitude"), latLonSurfaceData.getLatitude()*(180.0/Math.PI));
-          set(geomRes.BodySubSCPoint.get(body.getName()).get("longitude"), latLonSurfaceData.getLongitude()*(180.0/Math.PI));
-          set(geomRes.BodySubSCPoint.get(body.getName()).get("radius"), latLonSurfaceData.getRadius());
+          subSCLatitude = scratch.radiusLonLat[2]*(180.0/Math.PI);
+          subSCLongitude = scratch.radiusLonLat[1]*(180.0/Math.PI);
           if(body.doCalculateAltitude()){
-            set(geomRes.SpacecraftAltitude.get(body.getName()),
-              bodyPositionAndVelocityWRTSpacecraft[0].getNorm()-latLonSurfaceData.getRadius());
+            altitude = range - subSCRadius;
           }
 
           if(body.doCalculateLST()){
-            try {
-              set(geomRes.BodySubSCPoint.get(body.getName()).get("LST"),
-                et2LSTHours(JPLTimeConvertUtility.nowJplTime(absClock), body.getNAIFID(), latLonSurfaceData.getLongitude()));
-            } catch (SpiceErrorException e) {
-              throw new GeometryInformationNotAvailableException(e.getMessage());
-            }
+            subSCLST = calc.getLocalSolarTimeHours(now, body.getNAIFID(), scratch.radiusLonLat[1]);
           }
         }
 
         if (body.doCalculateIlluminationAngles()) {
-          IlluminationAngles illumAngles = calc.getIlluminationAngles(JPLTimeConvertUtility.nowJplTime(absClock),
-            Integer.toString(sc_id), body.getName(), abcorr, body.useDSK());
-          set(geomRes.IlluminationAnglesByBody.get(body.getName()).get("phase"), illumAngles.getPhaseAngle());
-          set(geomRes.IlluminationAnglesByBody.get(body.getName()).get("incidence"), illumAngles.getIncidenceAngle());
-          set(geomRes.IlluminationAnglesByBody.get(body.getName()).get("emission"), illumAngles.getEmissionAngle());
+          calc.getIlluminationAngles(now, scName, name, abcorr, body.useDSK(), scratch.angles);
+          phase = scratch.angles[0];
+          incidence = scratch.angles[1];
+          emission = scratch.angles[2];
         }
       }
     }
 
     if(body.doCalculateOrbitParameters()){
-      OrbitConicElements SCOrbitOfBody = calc.getOrbitConicElements(JPLTimeConvertUtility.nowJplTime(absClock),
-        Integer.toString(sc_id), body.getName(), abcorr);
+      double[] elements = scratch.elements;
+      calc.getOrbitConicElements(now, scName, name, abcorr, elements);
       // we only want to set inclination and orbit period if eccentricity is less than 1, because otherwise we're not actually in orbit and we get NaN for orbit period
-      if(SCOrbitOfBody.getEccentricity() < 1) {
-        double semiMajorAxis = SCOrbitOfBody.getPerifocalDistance() / (1 - SCOrbitOfBody.getEccentricity());
-        set(geomRes.orbitInclinationByBody.get(body.getName()), SCOrbitOfBody.getInclination() * (180.0 / Math.PI));
-        set(geomRes.orbitPeriodByBody.get(body.getName()), 2 * Math.PI * Math.sqrt(Math.pow(semiMajorAxis, 3) / body.getMu()));
+      if(elements[1] < 1) {
+        double semiMajorAxis = elements[0] / (1 - elements[1]);
+        orbitInclination = elements[2] * (180.0 / Math.PI);
+        orbitPeriod = 2 * Math.PI * Math.sqrt(Math.pow(semiMajorAxis, 3) / body.getMu());
       }
     }
 
+    set(geometry, new BodyGeometry(
+      new Vector3D(bodyState[0], bodyState[1], bodyState[2]),
+      new Vector3D(bodyState[3], bodyState[4], bodyState[5]),
+      range, speed, halfAngleSize, sunSpacecraftBodyAngle, sunBodySpacecraftAngle, earthSpacecraftAngle, betaAngle,
+      altitude, phase, incidence, emission, earthRa, earthDec, earthRaDeltaWithSC, subSolarPoint,
+      subSCDistance, subSCLatitude, subSCLongitude, subSCRadius, subSCLST, orbitInclination, orbitPeriod));
+  }
+
+  private void bodyState(Time t, String observer, String target, double[] state) throws GeometryInformationNotAvailableException {
+    if (bodyEphemeris != null) {
+      bodyEphemeris.getState(t, observer, target, abcorr, state);
+    } else {
+      calc.getState(t, observer, target, abcorr, state);
+    }
   }
 
 //  public static Vector3D positionResourceToVector3D(String body) {
@@ -0,0 +1,155 @@
+package missionmodel.geometry.spiceinterpolation;
+
+import missionmodel.FidelityTier;
+import missionmodel.geometry.analytic.AnalyticBodies;
+import missionmodel.geometry.analytic.AnalyticTimeDependentStateCalculator;
+import missionmodel.geometry.analytic.KeplerJ2Propagator;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator;
+import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import spice.basic.SpiceErrorException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The geometry state one simulation works from: its bodies, the catalog they came from, and the SPICE backend its
+ * calculations go through. Each Mission owns one, and state calculators and event generators are made from it rather
+ * than from anything static, so missions with different configs or kernels can run side by side in one JVM.
+ *
+ * An analytic context (see analytic) computes states without kernels instead; its event generators still need them.
+ * A context is for one FidelityTier (see withFidelity), which decides what its bodies calculate.
+ */
+public class GeometryContext {
+  private final SpiceBackend spice;
+  private final BodyCatalog catalog;
+  private final Map<String, Body> bodies;
+  // the bodies at STANDARD, every tier's bodies are derived from these
+  private final Map<String, Body> standardBodies;
+  // the spacecraft's orbit if states are computed analytically, else null
+  private final KeplerJ2Propagator analyticOrbit;
+  private final int spacecraftId;
+  private final FidelityTier fidelity;
+
+  public GeometryContext(Bodies bodies, SpiceBackend spice) {
+    this.spice = spice;
+    this.catalog = bodies.getCatalog();
+    this.bodies = Collections.unmodifiableMap(new LinkedHashMap<>(bodies.getBodiesMap()));
+    this.standardBodies = this.bodies;
+    this.analyticOrbit = null;
+    this.spacecraftId = 0;
+    this.fidelity = FidelityTier.STANDARD;
+  }
+
+  private GeometryContext(Bodies bodies, SpiceBackend spice, int spacecraftId, KeplerJ2Propagator analyticOrbit) {
+    this.spice = spice;
+    this.catalog = bodies.getCatalog();
+    this.analyticOrbit = analyticOrbit;
+    this.spacecraftId = spacecraftId;
+    this.fidelity = FidelityTier.STANDARD;
+    Map<String, Body> withConstants = new LinkedHashMap<>();
+    for (Map.Entry<String, Body> entry : bodies.getBodiesMap().entrySet()) {
+      Body body = entry.getValue();
+      AnalyticBodies.Constants constants = AnalyticBodies.forId(body.getNAIFID());
+      if (constants != null && (body.getRadii() == null || !body.hasMu())) {
+        body = body.withConstants(body.getRadii() != null ? body.getRadii() : constants.radii().clone(),
+          body.hasMu() ? body.getMu() : constants.gm());
+      }
+      withConstants.put(entry.getKey(), body);
+    }
+    this.bodies = Collections.unmodifiableMap(withConstants);
+    this.standardBodies = this.bodies;
+  }
+
+  private GeometryContext(GeometryContext context, FidelityTier fidelity) {
+    this.spice = context.spice;
+    this.catalog = context.catalog;
+    this.analyticOrbit = context.analyticOrbit;
+    this.spacecraftId = context.spacecraftId;
+    this.fidelity = fidelity;
+    this.standardBodies = context.standardBodies;
+    Map<String, Body> tierBodies = new LinkedHashMap<>();
+    for (Map.Entry<String, Body> entry : standardBodies.entrySet()) {
+      tierBodies.put(entry.getKey(), fidelity.surfaceQuantities() ? entry.getValue() : entry.getValue().withoutSurfaceQuantities());
+    }
+    this.bodies = fidelity == FidelityTier.STANDARD ? standardBodies : Collections.unmodifiableMap(tierBodies);
+  }
+
+  /**
+   * @return context with the bodies of the geometry config, looked up against the backend's kernels
+   */
+  public static GeometryContext load(SpiceBackend spice) throws SpiceErrorException {
+    return new GeometryContext(spice.call(Bodies::new), spice);
+  }
+
+  /**
+   * @return context for whatever kernels are loaded, as the single-mission code paths used before contexts
+   */
+  public static GeometryContext forCurrentKernels() {
+    return new GeometryContext(new Bodies(), SerializedSpiceBackend.currentKernels());
+  }
+
+  /**
+   * @return context whose calculators place the natural bodies with AnalyticEphemeris and the spacecraft on the orbit,
+   * for trade studies before there are kernels. Radii and GM the bodies don't have, as with bodies from
+   * BodyCatalog.withoutKernels, come from AnalyticBodies.
+   */
+  public static GeometryContext analytic(Bodies bodies, SpiceBackend spice, int spacecraftId, KeplerJ2Propagator orbit) {
+    return new GeometryContext(bodies, spice, spacecraftId, orbit);
+  }
+
+  /**
+   * @return the same context at a fidelity tier: bodies skip the surface quantities if the tier leaves them out, and
+   * state calculators evaluate rotations and surface quantities as the tier says. Step bounds are scaled where they're
+   * used, by SpiceResourcePopulater. The bodies are always derived from the STANDARD ones the context was made with, so
+   * contexts can move between tiers in any order.
+   */
+  public GeometryContext withFidelity(FidelityTier fidelity) {
+    return fidelity == this.fidelity ? this : new GeometryContext(this, fidelity);
+  }
+
+  public FidelityTier getFidelity() {
+    return fidelity;
+  }
+
+  public boolean isAnalytic() {
+    return analyticOrbit != null;
+  }
+
+  public SpiceBackend getSpice() {
+    return spice;
+  }
+
+  public BodyCatalog getCatalog() {
+    return catalog;
+  }
+
+  public Map<String, Body> getBodies() {
+    return bodies;
+  }
+
+  public SpiceDirectTimeDependentStateCalculator newStateCalculator(boolean cachingOn) {
+    SpiceDirectTimeDependentStateCalculator calculator = new SpiceDirectTimeDependentStateCalculator(bodies, cachingOn, spice);
+    calculator.setJavaBodyRotations(fidelity.javaBodyRotations());
+    calculator.setEllipsoidKernel(fidelity.ellipsoidKernel());
+    return calculator;
+  }
+
+  /**
+   * @return calculator for the context: an AnalyticTimeDependentStateCalculator if the context is analytic, else as
+   * newStateCalculator
+   */
+  public TimeDependentStateCalculator newCalculator(boolean cachingOn) {
+    if (analyticOrbit != null) {
+      return new AnalyticTimeDependentStateCalculator(bodies, spacecraftId, analyticOrbit);
+    }
+    return newStateCalculator(cachingOn);
+  }
+
+  public SpiceDirectEventGenerator newEventGenerator() {
+    return new SpiceDirectEventGenerator(bodies, spice);
+  }
+}
@@ -0,0 +1,110 @@
+package missionmodel.geometry.spiceinterpolation;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.geometry.returnedobjects.SubPointInformation;
+import missionmodel.spice.SpiceInstrumentation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geometry between natural bodies (Sun to Mars, Earth to Mars, the sub-solar point), which is the same whichever
+ * spacecraft asks for it. The spacecraft of a constellation share one, so at each epoch every such quantity is
+ * computed once and the other spacecraft reuse it. Only the values of the latest epoch are kept, since calculators are
+ * called for all spacecraft at the same instant before time moves on.
+ */
+public class SharedBodyEphemeris {
+  private final TimeDependentStateCalculator calc;
+
+  private Time epoch = null;
+  private final Map<String, Object> values = new HashMap<>();
+
+  private long evaluations = 0;
+  private long reuses = 0;
+
+  public SharedBodyEphemeris(TimeDependentStateCalculator calc) {
+    this.calc = calc;
+  }
+
+  public Vector3D[] getState(Time et, String observer, String target, String abcorr) throws GeometryInformationNotAvailableException {
+    String key = "state|" + observer + "|" + target + "|" + abcorr;
+    Object value = lookup(et, key);
+    if (value == null) {
+      value = calc.getState(et, observer, target, abcorr);
+      store(key, value);
+    }
+    return (Vector3D[]) value;
+  }
+
+  public SubPointInformation getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK) throws GeometryInformationNotAvailableException {
+    String key = "subpoint|" + observer + "|" + target + "|" + abcorr + "|" + useDSK;
+    Object value = lookup(et, key);
+    if (value == null) {
+      value = calc.getSubPointInformation(et, observer, target, abcorr, useDSK);
+      store(key, value);
+    }
+    return (SubPointInformation) value;
+  }
+
+  /**
+   * Like getState, copying the shared state into the caller's array
+   */
+  public void getState(Time et, String observer, String target, String abcorr, double[] state) throws GeometryInformationNotAvailableException {
+    Vector3D[] vectors = getState(et, observer, target, abcorr);
+    state[0] = vectors[0].getX();
+    state[1] = vectors[0].getY();
+    state[2] = vectors[0].getZ();
+    state[3] = vectors[1].getX();
+    state[4] = vectors[1].getY();
+    state[5] = vectors[1].getZ();
+  }
+
+  /**
+   * Like getSubPointInformation, copying the shared sub-point into the caller's arrays
+   * @return Whether there is a sub-point
+   */
+  public boolean getSubPointInformation(Time et, String observer, String target, String abcorr, boolean useDSK, double[] spoint, double[] srfvec) throws GeometryInformationNotAvailableException {
+    SubPointInformation subPoint = getSubPointInformation(et, observer, target, abcorr, useDSK);
+    spoint[0] = subPoint.getSpoint().getX();
+    spoint[1] = subPoint.getSpoint().getY();
+    spoint[2] = subPoint.getSpoint().getZ();
+    srfvec[0] = subPoint.getSrfvec().getX();
+    srfvec[1] = subPoint.getSrfvec().getY();
+    srfvec[2] = subPoint.getSrfvec().getZ();
+    return subPoint.isFound();
+  }
+
+  /**
+   * @return number of quantities computed, and number of times one was reused instead
+   */
+  public long getEvaluations() {
+    return evaluations;
+  }
+
+  public long getReuses() {
+    return reuses;
+  }
+
+  private Object lookup(Time et, String key) {
+    if (!et.equals(epoch)) {
+      epoch = et;
+      values.clear();
+      SpiceInstrumentation.cacheLookup("SharedBodyEphemeris", false);
+      return null;
+    }
+    Object value = values.get(key);
+    if (value != null) {
+      reuses++;
+    }
+    SpiceInstrumentation.cacheLookup("SharedBodyEphemeris", value != null);
+    return value;
+  }
+
+  private void store(String key, Object value) {
+    evaluations++;
+    values.put(key, value);
+  }
+}
@@ -1,16 +1,15 @@
 package missionmodel.geometry.spiceinterpolation;
 
-import com.google.gson.*;
-
 //import gov.nasa.jpl.geometrymodel.activities.spawner.AddApoapsis;
 //import gov.nasa.jpl.geometrymodel.activities.spawner.AddOccultations;
 //import gov.nasa.jpl.geometrymodel.activities.spawner.AddPeriapsis;
 //import gov.nasa.jpl.geometrymodel.activities.spawner.AddSpacecraftEclipses;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
 import gov.nasa.jpl.time.Duration;
-import gov.nasa.jpl.time.EpochRelativeTime;
 import gov.nasa.jpl.time.Time;
 import missionmodel.AbsoluteClock;
+import missionmodel.FidelityTier;
+import missionmodel.IntervalSet;
 import missionmodel.JPLTimeConvertUtility;
 import missionmodel.Mission;
 import missionmodel.Window;
@@ -27,8 +26,6 @@ import java.io.InputStreamReader;
 import java.util.*;
 
 import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.spawn;
-import static missionmodel.config.ConfigObject.jsonObjHasKey;
-import static missionmodel.config.RecursiveConfigAccess.getArbitraryJSON;
 
 //import static gov.nasa.jpl.blackbirdconfig.RecursiveConfigAccess.getArbitraryJSON;
 //import static gov.nasa.jpl.geometrymodel.resources.GenericGeometryResources.ComplexRepresentativeStation;
@@ -37,21 +34,33 @@ public class SpiceResourcePopulater {
   //private int sc_id;
   private Window[] dataGaps;
   private Duration paddingAroundDataGaps;
-  private JsonObject bodiesJsonObject;
+  private BodyCatalog catalog;
   private HashMap<String, Body> bodies;
-  private GenericGeometryCalculator geoCalc;
+  private ConstellationGeometryCalculator geoCalc;
+  private FidelityTier fidelity;
 
   private AbsoluteClock absClock;
 
   //public SpiceResourcePopulater(String filename, int sc_id, GeometryCalculator geoCalc, Window[] dataGaps, Duration paddingAroundDataGaps) {
   public SpiceResourcePopulater(GenericGeometryCalculator geoCalc, AbsoluteClock absoluteClock, Window[] dataGaps, Duration paddingAroundDataGaps) {
-    Bodies bodiesObj = new Bodies();
-    this.bodiesJsonObject = bodiesObj.getBodiesJson();
-    this.bodies = bodiesObj.getBodiesMap();
+    this(geoCalc, GeometryContext.forCurrentKernels(), absoluteClock, dataGaps, paddingAroundDataGaps);
+  }
+
+  public SpiceResourcePopulater(GenericGeometryCalculator geoCalc, GeometryContext context, AbsoluteClock absoluteClock, Window[] dataGaps, Duration paddingAroundDataGaps) {
+    this(new ConstellationGeometryCalculator(List.of(geoCalc)), context, absoluteClock, dataGaps, paddingAroundDataGaps);
+  }
+
+  /**
+   * Populates the geometry of every spacecraft of the constellation, stepping each body once for all of them
+   */
+  public SpiceResourcePopulater(ConstellationGeometryCalculator geoCalc, GeometryContext context, AbsoluteClock absoluteClock, Window[] dataGaps, Duration paddingAroundDataGaps) {
+    this.catalog = context.getCatalog();
+    this.bodies = new HashMap<>(context.getBodies());
+    this.fidelity = context.getFidelity();
     //this.sc_id = sc_id;
     this.geoCalc = geoCalc;
     this.absClock = absoluteClock;
-    this.geoCalc.setBodies(this.bodies);
+    this.geoCalc.setContext(context);
     this.dataGaps = dataGaps;
     this.paddingAroundDataGaps = paddingAroundDataGaps;
   }
@@ -62,12 +71,26 @@ public class SpiceResourcePopulater {
   }
 
   public void calculateTimeDependentInformation(){
-    for(Body body : bodies.values()){
-      List<CalculationPeriod> calculationPeriods = getCalculationPeriods(body.getName(), "Trajectory");
+    calculateTimeDependentInformation(bodies.keySet());
+  }
+
+  /**
+   * Steps geometry for the named bodies only. The others stay available to the calculators, e.g. the Sun and Earth for
+   * angles relative to them, but their resources keep their initial values. The step bounds and threshold of each
+   * calculation period are scaled for the context's fidelity tier.
+   */
+  public void calculateTimeDependentInformation(Collection<String> bodyNames){
+    for(String bodyName : bodyNames){
+      Body body = bodies.get(bodyName);
+      if (body == null) {
+        throw new IllegalArgumentException("Body " + bodyName + " is not in the geometry config");
+      }
+      List<CalculationPeriod> calculationPeriods = getScaledCalculationPeriods(body.getName(), "Trajectory");
       for(CalculationPeriod calculationPeriod : calculationPeriods) {
         BodyGeometryGenerator bodyGeoGenerator = new BodyGeometryGenerator(
           absClock, geoCalc.getResources(), JPLTimeConvertUtility.jplTimeFromUTCInstant(absClock.now()), body.getName(),
-          calculationPeriod.getThreshold(), calculationPeriod.getMinTimeStep(), calculationPeriod.getMaxTimeStep(), "", geoCalc, bodies);
+          calculationPeriod.getThreshold(), calculationPeriod.getMinTimeStep(), calculationPeriod.getMaxTimeStep(), "",
+          geoCalc, bodies);
         spawn(bodyGeoGenerator::model);
       }
     }
@@ -132,32 +155,48 @@ public class SpiceResourcePopulater {
 
   private static Window[] getWindowsWithData(Time begin, Time end, Window[] gaps, Duration paddingAroundDataGaps){
     // potentially need to splice up calculation window into multiple smaller windows to cut out around periods where SPKs or other input files don't have relevant information
-    List<Window> paddedWindowsWithData = new ArrayList<>();
-    Window[] unpaddedWindowsWithData = Window.and(new Window[]{new Window(begin, end)}, Window.not(gaps, begin, end));
-    for(Window w : unpaddedWindowsWithData){
-      paddedWindowsWithData.add(new Window(
-        w.getStart().equals(begin) ? w.getStart() : w.getStart().add(paddingAroundDataGaps),
-        w.getEnd().equals(end)     ? w.getEnd()   : w.getEnd().subtract(paddingAroundDataGaps)
-      ));
+    IntervalSet unpaddedWindowsWithData = IntervalSet.fromWindows(gaps).not(begin, end);
+    IntervalSet paddedWindowsWithData = new IntervalSet();
+    long padding = paddingAroundDataGaps.getTics();
+    for (int i = 0; i < unpaddedWindowsWithData.size(); i++) {
+      long start = unpaddedWindowsWithData.startTics(i);
+      long stop = unpaddedWindowsWithData.endTics(i);
+      start = start == begin.getTics() ? start : start + padding;
+      stop  = stop == end.getTics()    ? stop  : stop - padding;
+      // a stretch of data shorter than the padding on both sides has nothing left to calculate
+      if (start <= stop) {
+        paddedWindowsWithData.add(start, stop);
+      }
+    }
+    return paddedWindowsWithData.toWindowArray();
+  }
+
+  /**
+   * @return the calculation periods with their step bounds and threshold scaled for the context's fidelity tier
+   */
+  public List<CalculationPeriod> getScaledCalculationPeriods(String bodyname, String geometryType){
+    return scale(getCalculationPeriods(bodyname, geometryType), fidelity);
+  }
+
+  /**
+   * @return the periods with their step bounds and threshold scaled for a fidelity tier
+   */
+  public static List<CalculationPeriod> scale(List<CalculationPeriod> periods, FidelityTier fidelity){
+    List<CalculationPeriod> toReturn = new ArrayList<>();
+    for (CalculationPeriod period : periods) {
+      toReturn.add(new CalculationPeriod(period.getStart(), period.getEnd(), fidelity.step(period.getMinTimeStep()),
+        fidelity.step(period.getMaxTimeStep()), period.getThreshold() * fidelity.stepScale()));
     }
-    return paddedWindowsWithData.toArray(new Window[paddedWindowsWithData.size()]);
+    return toReturn;
   }
 
   public List<CalculationPeriod> getCalculationPeriods(String bodyname, String geometryType){
     List<CalculationPeriod> toReturn = new ArrayList<>();
-    List<String> indices = Arrays.asList("bodies", bodyname, geometryType, "calculationPeriods");
-    JsonElement calculationPeriods = getArbitraryJSON(bodiesJsonObject, indices);
-    if(calculationPeriods != null) {
-      for (JsonElement period : calculationPeriods.getAsJsonArray()) {
-        JsonObject periodStruct = period.getAsJsonObject();
-        for (Window dataWindow : getWindowsWithData(EpochRelativeTime.getAbsoluteOrRelativeTime(periodStruct.get("begin").getAsString()), EpochRelativeTime.getAbsoluteOrRelativeTime(periodStruct.get("end").getAsString()), dataGaps, paddingAroundDataGaps)) {
-          Duration minTimeStep = jsonObjHasKey(periodStruct, "minTimeStep") ? new Duration(periodStruct.get("minTimeStep").getAsString()) : Duration.SECOND_DURATION;
-          Duration maxTimeStep = jsonObjHasKey(periodStruct, "maxTimeStep") ? new Duration(periodStruct.get("maxTimeStep").getAsString()) : Duration.DAY_DURATION;
-          double threshold =     jsonObjHasKey(periodStruct, "threshold")   ? periodStruct.get("threshold").getAsDouble() : 0.0;
-
-          toReturn.add(new CalculationPeriod(new Time(dataWindow.getStart()), new Time(dataWindow.getEnd()),
-            minTimeStep, maxTimeStep, threshold));
-        }
+    for (BodyCatalog.PeriodSpec periodSpec : catalog.getPeriods(bodyname, geometryType)) {
+      CalculationPeriod period = periodSpec.resolve(0.0);
+      for (Window dataWindow : getWindowsWithData(period.getStart(), period.getEnd(), dataGaps, paddingAroundDataGaps)) {
+        toReturn.add(new CalculationPeriod(new Time(dataWindow.getStart()), new Time(dataWindow.getEnd()),
+          period.getMinTimeStep(), period.getMaxTimeStep(), period.getThreshold()));
       }
     }
     return toReturn;
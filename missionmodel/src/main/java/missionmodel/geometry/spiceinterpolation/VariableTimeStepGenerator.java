@@ -15,6 +15,7 @@ import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
 public class VariableTimeStepGenerator {
 
   private Map<String, Time> nextTimeToCalculateBody;
+  // one history per spacecraft resources and body, keyed by historyKey
   private Map<String, ArrayDeque<Map.Entry<Time,Vector3D>>> previousCalculatedValuesPerBody;
   private double eps;
   private Duration minStep;
@@ -22,11 +23,18 @@ public class VariableTimeStepGenerator {
 
   private AbsoluteClock absoluteClock;
 
-  private GenericGeometryResources geomRes;
+  private List<GenericGeometryResources> geomRes;
 
   public VariableTimeStepGenerator(AbsoluteClock absoluteClock, GenericGeometryResources geometryResource, List<String> bodyNames, Double eps, Duration minStep, Duration maxStep, Time startTime){
+    this(absoluteClock, List.of(geometryResource), bodyNames, eps, minStep, maxStep, startTime);
+  }
+
+  /**
+   * Steps for several spacecraft at once: the next time for a body is the soonest any of the spacecraft needs
+   */
+  public VariableTimeStepGenerator(AbsoluteClock absoluteClock, List<GenericGeometryResources> geometryResources, List<String> bodyNames, Double eps, Duration minStep, Duration maxStep, Time startTime){
     this.absoluteClock = absoluteClock;
-    this.geomRes = geometryResource;
+    this.geomRes = geometryResources;
     this.eps = eps;
     this.minStep = minStep;
     this.maxStep = maxStep;
@@ -34,7 +42,9 @@ public class VariableTimeStepGenerator {
     previousCalculatedValuesPerBody = new HashMap<>();
     for(String bodyName : bodyNames){
       nextTimeToCalculateBody.put(bodyName, startTime);
-      previousCalculatedValuesPerBody.put(bodyName, new ArrayDeque<>());
+      for (int i = 0; i < geomRes.size(); i++) {
+        previousCalculatedValuesPerBody.put(historyKey(i, bodyName), new ArrayDeque<>());
+      }
     }
   }
 
@@ -53,18 +63,29 @@ public class VariableTimeStepGenerator {
   }
 
   private void updateInternalHistory(String bodyName){
-    // remove 4 calculations ago from history and add newest calculation
-    previousCalculatedValuesPerBody.get(bodyName).push(new AbstractMap.SimpleEntry<>(
-      JPLTimeConvertUtility.nowJplTime(absoluteClock),
-      currentValue(geomRes.BODY_POS_ICRF.get(bodyName))));
+    Duration timeStep = null;
+    for (int i = 0; i < geomRes.size(); i++) {
+      Duration proposed = stepFor(geomRes.get(i), previousCalculatedValuesPerBody.get(historyKey(i, bodyName)), bodyName);
+      if (timeStep == null || proposed.lessThan(timeStep)) timeStep = proposed;
+    }
+
+    //pw.println(timeStep.totalSeconds() + "," + bodyName);
+    nextTimeToCalculateBody.put(bodyName, JPLTimeConvertUtility.nowJplTime(absoluteClock).add(timeStep));
+  }
 
+  private Duration stepFor(GenericGeometryResources resources, ArrayDeque<Map.Entry<Time,Vector3D>> history, String bodyName){
     Duration timeStep;
 
-    if(previousCalculatedValuesPerBody.get(bodyName).size() > 3) {
-      previousCalculatedValuesPerBody.get(bodyName).removeLast();
+    // remove 4 calculations ago from history and add newest calculation
+    history.push(new AbstractMap.SimpleEntry<>(
+      JPLTimeConvertUtility.nowJplTime(absoluteClock),
+      currentValue(resources.BodyGeometryByBody.get(bodyName)).position()));
+
+    if(history.size() > 3) {
+      history.removeLast();
 
       List<Map.Entry<Time, Vector3D>> priorValues = new ArrayList<>();
-      priorValues.addAll(previousCalculatedValuesPerBody.get(bodyName));
+      priorValues.addAll(history);
 
       // now we need to calculate the min timestep based on each component of the vector position
       timeStep = maxStep;
@@ -88,9 +109,11 @@ public class VariableTimeStepGenerator {
       // if we haven't built up enough history to calculate acceleration yet, just take the minimum timestep
       timeStep = minStep;
     }
+    return timeStep;
+  }
 
-    //pw.println(timeStep.totalSeconds() + "," + bodyName);
-    nextTimeToCalculateBody.put(bodyName, JPLTimeConvertUtility.nowJplTime(absoluteClock).add(timeStep));
+  private static String historyKey(int spacecraftIndex, String bodyName){
+    return spacecraftIndex + "|" + bodyName;
   }
 
   /**
@@ -6,10 +6,13 @@ import gov.nasa.jpl.aerie.contrib.serialization.mappers.StringValueMapper;
 import gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
 import gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete;
+import missionmodel.gnc.keepout.KeepOutZone;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static gov.nasa.jpl.aerie.contrib.streamline.core.MutableResource.resource;
 import static gov.nasa.jpl.aerie.contrib.streamline.core.Resources.currentValue;
@@ -30,12 +33,24 @@ public class GncDataModel {
   public MutableResource<Discrete<Vector3D>> secondaryObserver;
   public MutableResource<Discrete<String>> primaryTarget;
   public MutableResource<Discrete<String>> secondaryTarget;
+  // keep-out zone margins (degrees outside the cone, negative inside) and violation flags, keyed by zone name
+  public final List<KeepOutZone> keepOutZones;
+  public final Map<String, MutableResource<Discrete<Double>>> keepOutMargin = new LinkedHashMap<>();
+  public final Map<String, MutableResource<Discrete<Boolean>>> keepOutViolated = new LinkedHashMap<>();
 
   private static DoubleValueMapper dvm = new DoubleValueMapper();
   private static BooleanValueMapper bvm = new BooleanValueMapper();
   private static StringValueMapper svm = new StringValueMapper();
 
   public GncDataModel(Registrar registrar) {
+    this(registrar, List.of());
+  }
+
+  /**
+   * @param keepOutZones Zones every slew is checked against
+   */
+  public GncDataModel(Registrar registrar, List<KeepOutZone> keepOutZones) {
+    this.keepOutZones = List.copyOf(keepOutZones);
     rotation = resource(discrete(Rotation.IDENTITY));
     registerRotation(registrar, "rotation", rotation);
     PointingAxis = resource(discrete(Z));
@@ -59,6 +74,15 @@ public class GncDataModel {
     registrar.discrete("PrimaryTarget", primaryTarget, svm);
     secondaryTarget = resource(discrete("SUN"));
     registrar.discrete("SecondaryTarget", secondaryTarget, svm);
+
+    for (KeepOutZone zone : keepOutZones) {
+      MutableResource<Discrete<Double>> margin = resource(discrete(180.0));
+      registrar.discrete("KeepOutMargin_" + zone.name(), margin, dvm);
+      keepOutMargin.put(zone.name(), margin);
+      MutableResource<Discrete<Boolean>> violated = resource(discrete(Boolean.FALSE));
+      registrar.discrete("KeepOutViolated_" + zone.name(), violated, bvm);
+      keepOutViolated.put(zone.name(), violated);
+    }
   }
 
   public String currentToString() {
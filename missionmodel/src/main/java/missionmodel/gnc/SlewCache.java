@@ -0,0 +1,237 @@
+package missionmodel.gnc;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Configuration;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.spice.SpiceInstrumentation;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Process-wide cache of slews generated by PointingActivity, so a re-simulation that hands a pointing activity exactly
+ * the same inputs as before (start time, starting orientation, observers, targets, GNC limits and loaded kernels) reuses
+ * the earlier slew instead of running the attitude solver again.
+ *
+ * Entries live in memory for the life of the process, up to MAX_ENTRIES (least recently used are dropped first). If the
+ * SLEW_CACHE_FILE environment variable names a file, entries are also appended to that file as they are computed and
+ * read back the first time the cache is used, so they survive across processes. The file is rewritten with only the
+ * entries held in memory once it has more than twice MAX_ENTRIES, so slews of old kernel sets or configurations don't
+ * pile up in it.
+ */
+public class SlewCache {
+  public static final int MAX_ENTRIES = 5000;
+  private static Path persistenceFile = System.getenv().containsKey("SLEW_CACHE_FILE") ? Path.of(System.getenv("SLEW_CACHE_FILE")) : null;
+
+  private static final Map<String, SortedMap<Time, Orientation>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SortedMap<Time, Orientation>> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+  private static boolean loaded = false;
+  // entries written to the persistence file, including ones since replaced or dropped from memory
+  private static int persistedEntries = 0;
+  private static long hits = 0;
+  private static long misses = 0;
+
+  /**
+   * Builds the cache key for one slew. Doubles are encoded by their exact bits so only identical inputs match.
+   */
+  public static String key(Time start, Orientation startingOrientation, Vector3D primaryObserver, Vector3D secondaryObserver,
+                           String primaryTarget, String secondaryTarget, Duration maxSlewDuration, Configuration config, String kernelSetIdentity) {
+    StringBuilder key = new StringBuilder();
+    key.append(start.getTics()).append('|');
+    Rotation r = startingOrientation.getRotation();
+    append(key, r.getQ0(), r.getQ1(), r.getQ2(), r.getQ3());
+    Vector3D rate = startingOrientation.isRotationRateDefined() ? startingOrientation.getRotationRate() : Vector3D.ZERO;
+    append(key, rate.getX(), rate.getY(), rate.getZ());
+    append(key, primaryObserver.getX(), primaryObserver.getY(), primaryObserver.getZ());
+    append(key, secondaryObserver.getX(), secondaryObserver.getY(), secondaryObserver.getZ());
+    key.append(primaryTarget).append('|').append(secondaryTarget).append('|');
+    key.append(maxSlewDuration.getTics()).append('|');
+    key.append(config.spacecraftIdString()).append('|').append(config.gncRateMatching()).append('|');
+    append(key, config.gncAngularVelocityLimit());
+    append(key, config.gncAngularAccelerationLimit());
+    key.append(config.fidelity()).append('|');
+    key.append(kernelSetIdentity);
+    return key.toString();
+  }
+
+  /**
+   * @return the cached slew for this key, or null if it has not been computed with these inputs
+   */
+  public static synchronized SortedMap<Time, Orientation> get(String key) {
+    loadPersisted();
+    SortedMap<Time, Orientation> slew = cache.get(key);
+    if (slew == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    SpiceInstrumentation.cacheLookup("SlewCache", slew != null);
+    return slew;
+  }
+
+  public static synchronized void put(String key, SortedMap<Time, Orientation> slew) {
+    loadPersisted();
+    SortedMap<Time, Orientation> stored = Collections.unmodifiableSortedMap(new TreeMap<>(slew));
+    cache.put(key, stored);
+    if (persistenceFile != null) {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(persistenceFile.toFile(), true)))) {
+        write(out, key, stored);
+        persistedEntries++;
+      } catch (IOException e) {
+        System.out.println("Could not persist slew to " + persistenceFile + ": " + e.getMessage());
+      }
+      if (persistedEntries > 2 * MAX_ENTRIES) {
+        compact();
+      }
+    }
+  }
+
+  /**
+   * Persists slews to a different file, or to none if null, in place of the one SLEW_CACHE_FILE names. The file's slews
+   * are read the next time the cache is used.
+   */
+  public static synchronized void setPersistenceFile(Path file) {
+    persistenceFile = file;
+    loaded = false;
+    persistedEntries = 0;
+  }
+
+  /**
+   * @return number of slews in the persistence file, counting ones the file has for the same key more than once
+   */
+  public static synchronized int getPersistedEntries() {
+    return persistedEntries;
+  }
+
+  public static synchronized void clear() {
+    cache.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  public static synchronized long getHits() {
+    return hits;
+  }
+
+  public static synchronized long getMisses() {
+    return misses;
+  }
+
+  private static void append(StringBuilder key, double... values) {
+    for (double v : values) {
+      key.append(Long.toHexString(Double.doubleToLongBits(v))).append('|');
+    }
+  }
+
+  private static void append(StringBuilder key, List<Double> values) {
+    for (Double v : values) {
+      append(key, v);
+    }
+  }
+
+  private static void loadPersisted() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    if (persistenceFile == null || !Files.exists(persistenceFile)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(persistenceFile.toFile())))) {
+      while (true) {
+        String key;
+        try {
+          key = in.readUTF();
+        } catch (EOFException e) {
+          break;
+        }
+        cache.put(key, read(in));
+        persistedEntries++;
+      }
+    } catch (IOException e) {
+      // a truncated last entry (ex. the process was killed mid-write) only loses that entry
+      System.out.println("Stopped reading persisted slews from " + persistenceFile + ": " + e.getMessage());
+    }
+    if (persistedEntries > cache.size()) {
+      compact();
+    }
+  }
+
+  /**
+   * Replaces the persistence file with the entries in memory, least recently used first so reading it back keeps their
+   * order
+   */
+  private static void compact() {
+    Path directory = persistenceFile.toAbsolutePath().getParent();
+    try {
+      Path rewritten = Files.createTempFile(directory, persistenceFile.getFileName().toString(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rewritten.toFile())))) {
+        for (Map.Entry<String, SortedMap<Time, Orientation>> entry : cache.entrySet()) {
+          write(out, entry.getKey(), entry.getValue());
+        }
+      }
+      Files.move(rewritten, persistenceFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      persistedEntries = cache.size();
+    } catch (IOException e) {
+      System.out.println("Could not compact persisted slews in " + persistenceFile + ": " + e.getMessage());
+    }
+  }
+
+  private static void write(DataOutputStream out, String key, SortedMap<Time, Orientation> slew) throws IOException {
+    out.writeUTF(key);
+    out.writeInt(slew.size());
+    for (Map.Entry<Time, Orientation> entry : slew.entrySet()) {
+      out.writeLong(entry.getKey().getTics());
+      Rotation r = entry.getValue().getRotation();
+      out.writeDouble(r.getQ0());
+      out.writeDouble(r.getQ1());
+      out.writeDouble(r.getQ2());
+      out.writeDouble(r.getQ3());
+      boolean hasRate = entry.getValue().isRotationRateDefined();
+      out.writeBoolean(hasRate);
+      if (hasRate) {
+        Vector3D rate = entry.getValue().getRotationRate();
+        out.writeDouble(rate.getX());
+        out.writeDouble(rate.getY());
+        out.writeDouble(rate.getZ());
+      }
+    }
+  }
+
+  private static SortedMap<Time, Orientation> read(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    TreeMap<Time, Orientation> slew = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      Time t = Time.fromTics(in.readLong());
+      Rotation r = new Rotation(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), false);
+      if (in.readBoolean()) {
+        slew.put(t, new Orientation(r, new Vector3D(in.readDouble(), in.readDouble(), in.readDouble())));
+      } else {
+        slew.put(t, new Orientation(r));
+      }
+    }
+    return Collections.unmodifiableSortedMap(slew);
+  }
+}
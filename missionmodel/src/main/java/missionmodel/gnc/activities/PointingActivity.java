@@ -8,6 +8,7 @@ import gov.nasa.jpl.time.Time;
 import missionmodel.JPLTimeConvertUtility;
 import missionmodel.Mission;
 import missionmodel.gnc.GncDataModel;
+import missionmodel.gnc.SlewCache;
 import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
 import missionmodel.gnc.blackbird.interfaces.Orientation;
 import missionmodel.gnc.blackbird.mmgenerator.GenerateAttitudeModel;
@@ -16,9 +17,12 @@ import missionmodel.gnc.blackbird.mmgenerator.GenerateRateMatchAttitudeModel;
 import missionmodel.gnc.blackbird.observers.CustomObserver;
 import missionmodel.gnc.blackbird.targets.primary.BodyCenterPrimaryTarget;
 import missionmodel.gnc.blackbird.targets.secondary.BodyCenterSecondaryTarget;
+import missionmodel.gnc.keepout.KeepOutZoneChecker;
+import missionmodel.spice.SpiceBackend;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import spice.basic.SpiceErrorException;
 
 import java.util.List;
 import java.util.SortedMap;
@@ -30,6 +34,7 @@ import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
 @ActivityType("PointToTargetBody")
 public class PointingActivity {
   public static boolean debug = false;
+  public static final Duration MAX_SLEW_DURATION = Duration.fromHours(2);   // TODO: Arbitrary max on slew time of 2 hr
   @Export.Parameter
   public String primaryObserverString = "X";
   public Vector3D primaryObserver = GncDataModel.X; // looked up from primaryObserverString
@@ -85,56 +90,50 @@ public class PointingActivity {
     CustomObserver bbSpacecraftObserver = new CustomObserver(primaryObserver);
     CustomObserver bbSpacecraftSecondaryObserver = new CustomObserver(secondaryObserver);
 
+    // Targets query SPICE through the mission's backend, so they see this simulation's kernels
+    SpiceBackend spice = model.geometryContext.getSpice();
+
     // Target body as a BodyCenterPrimaryTarget
     // (breadcrumbs: this is the same calculation as model.geometryResources.BODY_POS_ICRF and .BODY_VEL_ICRF
     BodyCenterPrimaryTarget bbPrimaryTarget = new BodyCenterPrimaryTarget(primaryTargetBodyName,
       model.configuration.spacecraftIdString(),
-      "J2000" // TODO: Are we using J2000?
+      "J2000", // TODO: Are we using J2000?
+      model.configuration.fidelity().abcorr(),
+      spice
     );
 
     // Same for secondary target
     BodyCenterSecondaryTarget bbSecondaryTarget = new BodyCenterSecondaryTarget(secondaryTargetBodyName,
       model.configuration.spacecraftIdString(),
       "J2000", // TODO: Are we using J2000?
-      bbPrimaryTarget
+      bbPrimaryTarget,
+      0,
+      model.configuration.fidelity().abcorr(),
+      spice
     );
 
-    // This uses the simpler BB model that assumes the slew starts/stops at zero velocity and does not match the current rates
-    // TODO: No idea what the appropriate sampling rates and velocities are here - or what the units are
-    GenerateAttitudeModel attitudeModel;
-    if (model.configuration.gncRateMatching()) {
-      attitudeModel = new GenerateRateMatchAttitudeModel(
-        listToVector(model.configuration.gncAngularVelocityLimit()),
-        listToVector(model.configuration.gncAngularAccelerationLimit()),
-        gov.nasa.jpl.time.Duration.fromSeconds(1),  // Step size for the forward differencing calculation - 1 second ???
-        gov.nasa.jpl.time.Duration.fromSeconds(10)//, // Sample rate for the returned values - 10 seconds ???
-//        true,  // whether to throw exception if not enough time for slew
-//        true   // whether to truncate
-      );
-    } else {
-      attitudeModel = new GenerateNoRateMatchAttitudeModel(
-        listToVector(model.configuration.gncAngularVelocityLimit()),
-        listToVector(model.configuration.gncAngularAccelerationLimit()),
-        gov.nasa.jpl.time.Duration.fromSeconds(1),  // Step size for the forward differencing calculation - 1 second ???
-        gov.nasa.jpl.time.Duration.fromSeconds(10)//, // Sample rate for the returned values - 10 seconds ???
-//      true,  // whether to throw exception if not enough time for slew
-//      true   // whether to truncate
-      );
-    }
-
     try {
-      if (debug) System.out.println("Generating Slew");
-
-      // Generate the orientations for this pointing activity
-      SortedMap<Time, Orientation> bbSlewData = attitudeModel.getOrientations(
-        activityStartTime,
-        startingOrientation,
-        bbSpacecraftObserver,
-        bbPrimaryTarget,
-        bbSpacecraftSecondaryObserver,
-        bbSecondaryTarget,
-        Duration.fromHours(2)   // TODO: Arbitrary max on slew time of 1 hr
-      );
+      // Reuse the slew from an earlier simulation if nothing it depends on has changed
+      String slewKey = SlewCache.key(activityStartTime, startingOrientation, primaryObserver, secondaryObserver,
+        primaryTargetBodyName, secondaryTargetBodyName, MAX_SLEW_DURATION, model.configuration, kernelSetIdentity(spice));
+      SortedMap<Time, Orientation> bbSlewData = SlewCache.get(slewKey);
+      if (bbSlewData == null) {
+        if (debug) System.out.println("Generating Slew");
+
+        // Generate the orientations for this pointing activity
+        bbSlewData = buildAttitudeModel(model).getOrientations(
+          activityStartTime,
+          startingOrientation,
+          bbSpacecraftObserver,
+          bbPrimaryTarget,
+          bbSpacecraftSecondaryObserver,
+          bbSecondaryTarget,
+          MAX_SLEW_DURATION
+        );
+        SlewCache.put(slewKey, bbSlewData);
+      } else if (debug) {
+        System.out.println("Reusing cached slew");
+      }
 
       // Spew them out as a series of Aerie DiscreteEffects
       Time endOfActivity = bbSlewData.lastKey();
@@ -147,7 +146,11 @@ public class PointingActivity {
       set(model.gncDataModel.secondaryObserverString, secondaryObserverString);
       set(model.gncDataModel.secondaryTarget, secondaryTargetBodyName);
 
+      // Boresight keep-out margins over the slew, set alongside each orientation below
+      KeepOutZoneChecker.Result keepOut = checkKeepOutZones(model, bbSlewData);
+
       Time previousTime = bbSlewData.firstKey();
+      int sample = 0;
       for (Time t : bbSlewData.keySet()) {
         if (debug) System.out.println(t);
         if (debug) System.out.println(toString(bbSlewData.get(t)));
@@ -160,9 +163,18 @@ public class PointingActivity {
 
         Orientation newOrientation = bbSlewData.get(t);
         Rotation newRotation = newOrientation.getRotation();
+        DiscreteEffects.set(model.gncDataModel.rotation, newRotation);
         DiscreteEffects.set(model.gncDataModel.PointingAxis, newRotation.getAxis(RotationConvention.VECTOR_OPERATOR));
         DiscreteEffects.set(model.gncDataModel.PointingRotationAngle, newRotation.getAngle());
         DiscreteEffects.set(model.gncDataModel.RotationRate, newOrientation.getRotationRate());
+        if (keepOut != null) {
+          for (int z = 0; z < keepOut.getZones().size(); z++) {
+            String zoneName = keepOut.getZones().get(z).name();
+            DiscreteEffects.set(model.gncDataModel.keepOutMargin.get(zoneName), keepOut.getMargin(sample, z));
+            DiscreteEffects.set(model.gncDataModel.keepOutViolated.get(zoneName), keepOut.isViolated(sample, z));
+          }
+        }
+        sample++;
       }
 
       DiscreteEffects.set(model.gncDataModel.IsSlewing, Boolean.FALSE);
@@ -172,6 +184,56 @@ public class PointingActivity {
     }
   }
 
+  // This uses the simpler BB model that assumes the slew starts/stops at zero velocity and does not match the current rates
+  // TODO: No idea what the appropriate sampling rates and velocities are here - or what the units are
+  private static GenerateAttitudeModel buildAttitudeModel(Mission model) {
+    if (model.configuration.gncRateMatching()) {
+      return new GenerateRateMatchAttitudeModel(
+        listToVector(model.configuration.gncAngularVelocityLimit()),
+        listToVector(model.configuration.gncAngularAccelerationLimit()),
+        gov.nasa.jpl.time.Duration.fromSeconds(1),  // Step size for the forward differencing calculation - 1 second ???
+        model.configuration.fidelity().slewSampleRate()//, // Sample rate for the returned values, by fidelity tier
+//        true,  // whether to throw exception if not enough time for slew
+//        true   // whether to truncate
+      );
+    } else {
+      return new GenerateNoRateMatchAttitudeModel(
+        listToVector(model.configuration.gncAngularVelocityLimit()),
+        listToVector(model.configuration.gncAngularAccelerationLimit()),
+        gov.nasa.jpl.time.Duration.fromSeconds(1),  // Step size for the forward differencing calculation - 1 second ???
+        model.configuration.fidelity().slewSampleRate()//, // Sample rate for the returned values, by fidelity tier
+//      true,  // whether to throw exception if not enough time for slew
+//      true   // whether to truncate
+      );
+    }
+  }
+
+  private static KeepOutZoneChecker.Result checkKeepOutZones(Mission model, SortedMap<Time, Orientation> slew) {
+    if (model.gncDataModel.keepOutZones.isEmpty()) {
+      return null;
+    }
+    try {
+      KeepOutZoneChecker.Result result = new KeepOutZoneChecker(model.gncDataModel.keepOutZones,
+        model.configuration.spacecraftIdString(), "J2000", KeepOutZoneChecker.DEFAULT_KNOT_SPACING,
+        model.configuration.fidelity().abcorr(), model.geometryContext.getSpice()).check(slew);
+      if (debug) System.out.println("Keep-out violations: " + result.getAllViolations());
+      return result;
+    } catch (SpiceErrorException e) {
+      // body directions not available over the slew, leave the keep-out resources as they were
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  private static String kernelSetIdentity(SpiceBackend spice) {
+    try {
+      return spice.kernelSetIdentity();
+    } catch (SpiceErrorException e) {
+      // without an identity the slew can still be cached, it just won't notice kernel changes
+      return "unknown";
+    }
+  }
+
   private static Vector3D listToVector(List<Double> list) {
     return new Vector3D(list.get(0), list.get(1), list.get(2));
   }
@@ -1,5 +1,6 @@
 package missionmodel.gnc.blackbird.ck;
 
+import missionmodel.JPLTimeConvertUtility;
 import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
 import missionmodel.gnc.blackbird.interfaces.ADCModel;
 import missionmodel.gnc.blackbird.interfaces.Observer;
@@ -9,56 +10,71 @@ import gov.nasa.jpl.time.Duration;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.IDCodeNotFoundException;
 import spice.basic.SpiceErrorException;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 public class CKAttitudeModel implements ADCModel {
+    // same tolerance getOrientation passes to ckgp
+    private static final double CK_TOLERANCE_TICKS = Duration.MICROSECOND_DURATION.getTics();
+
     private final String scBaseFrame;
     private final String relativeFrame;
     private final Duration sampleRateForTurns;
     private final boolean angularVelocityInCK;
+    private final SpiceBackend spice;
 
     public CKAttitudeModel(String scBaseFrame, String relativeFrame, Duration sampleRateForTurns, boolean angularVelocityInCK){
+        this(scBaseFrame, relativeFrame, sampleRateForTurns, angularVelocityInCK, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the CK files are looked up and queried through, ex. the mission's GeometryContext.getSpice
+     */
+    public CKAttitudeModel(String scBaseFrame, String relativeFrame, Duration sampleRateForTurns, boolean angularVelocityInCK, SpiceBackend spice){
         this.scBaseFrame = scBaseFrame;
         this.relativeFrame = relativeFrame;
         this.sampleRateForTurns = sampleRateForTurns;
         this.angularVelocityInCK = angularVelocityInCK;
+        this.spice = spice;
     }
 
     @Override
     public Orientation getOrientation(Time et, Observer primaryObserver, Target primaryTarget, Observer secondaryObserver, Target secondaryTarget) throws AttitudeNotAvailableException{
-        int scCode;
         double[][] rotationMatrix = new double[3][3];
         double[] angularVelocity = new double[3];
         double[] clkout = new double[1];
         boolean[] found = new boolean[1];
 
         try {
-            scCode = CSPICE.bods2c(scBaseFrame);
+            spice.call(() -> {
+                int scCode = scCode();
+                // continuous ticks, the same conversion getOrientations does with SclkConverter, so both give the same answer
+                double ticks = SpiceCalls.sce2c(scCode / 1000, JPLTimeConvertUtility.toET(et));
 
-            if(angularVelocityInCK){
-                CSPICE.ckgpav(scCode, CSPICE.scencd(scCode/1000, CSPICE.sce2s(scCode/1000, et.toET())), Duration.MICROSECOND_DURATION.getTics(), relativeFrame, rotationMatrix, angularVelocity, clkout, found);
-            } else {
-                CSPICE.ckgp(scCode, CSPICE.scencd(scCode / 1000, CSPICE.sce2s(scCode / 1000, et.toET())), Duration.MICROSECOND_DURATION.getTics(), relativeFrame, rotationMatrix, clkout, found);
-            }
-            Rotation rotation = new Rotation(rotationMatrix,1E-3).revert();
-            // Have the scalar term of the quaternion always be positive
-            if (rotation.getQ0() < 0){
-                rotation = new Rotation(rotation.getQ0()*-1, rotation.getQ1()*-1, rotation.getQ2()*-1, rotation.getQ3()*-1, false);
-            }
-            if(angularVelocityInCK) {
-                return new Orientation(rotation, new Vector3D(angularVelocity));
-            }
-            else{
-                return new Orientation(rotation);
-            }
-        } catch (SpiceErrorException | IDCodeNotFoundException e) {
+                if(angularVelocityInCK){
+                    SpiceCalls.ckgpav(scCode, ticks, CK_TOLERANCE_TICKS, relativeFrame, rotationMatrix, angularVelocity, clkout, found);
+                } else {
+                    SpiceCalls.ckgp(scCode, ticks, CK_TOLERANCE_TICKS, relativeFrame, rotationMatrix, clkout, found);
+                }
+                return null;
+            });
+        } catch (SpiceErrorException e) {
             throw new AttitudeNotAvailableException("Could not transform from " + scBaseFrame + " to " + relativeFrame + " at " + et.toString() + ". Likely this time is outside of the loaded CK bounds. Full error:\n" + e);
         }
+        if(!found[0]){
+            throw new AttitudeNotAvailableException("No pointing for " + scBaseFrame + " relative to " + relativeFrame + " at " + et.toString() + " in the loaded CKs");
+        }
+        return toOrientation(rotationMatrix, angularVelocity);
     }
 
     /**
@@ -69,13 +85,118 @@ public class CKAttitudeModel implements ADCModel {
 
         SortedMap<Time, Orientation> orientations = new TreeMap<>();
 
+        // read loaded CK files directly where possible, only times the reader can't cover go through ckgp
+        List<CKReader.SegmentCursor> cursors = openSegmentCursors();
+        SclkConverter sclkConverter = cursors.isEmpty() ? null : sclkConverter();
+        double[] quaternion = new double[4];
+        double[] angularVelocity = new double[3];
+        double[][] rotationMatrix = new double[3][3];
+
         for(Time t = turnStart; t.lessThanOrEqualTo(turnStart.add(override)); t = t.add(sampleRateForTurns)){
-            orientations.put(t, getOrientation(t, primaryObserver, primaryTarget, secondaryObserver, secondaryTarget));
+            Orientation orientation = null;
+            if(sclkConverter != null){
+                double ticks = sclkConverter.etToTicks(JPLTimeConvertUtility.toET(t));
+                for(CKReader.SegmentCursor cursor : cursors){
+                    if(ticks >= cursor.getSegment().getStartTicks() - CK_TOLERANCE_TICKS && ticks <= cursor.getSegment().getEndTicks() + CK_TOLERANCE_TICKS
+                            && cursor.evaluate(ticks, CK_TOLERANCE_TICKS, quaternion, angularVelocity)){
+                        Quaternions.toMatrix(quaternion, rotationMatrix);
+                        orientation = toOrientation(rotationMatrix, angularVelocity);
+                        break;
+                    }
+                }
+            }
+            if(orientation == null){
+                orientation = getOrientation(t, primaryObserver, primaryTarget, secondaryObserver, secondaryTarget);
+            }
+            orientations.put(t, orientation);
         }
 
         return orientations;
     }
 
+    /**
+     * Finds every segment in the loaded CK files that could answer a ckgp/ckgpav query for this model, ordered by the
+     * same priority SPICE uses (last loaded file first, and within a file the last segment first). Segments that are a
+     * different data type, are relative to another frame, or lack angular velocity when it is needed are left out, and
+     * any times only they cover are answered by SPICE.
+     * @return cursors to evaluate in order, or an empty list if the CK files can't be read directly
+     */
+    private List<CKReader.SegmentCursor> openSegmentCursors(){
+        List<CKReader.SegmentCursor> cursors = new ArrayList<>();
+        try {
+            // codes and loaded files in one call, so they all come from the same kernels
+            int[] codes = new int[2];
+            List<String> files = spice.call(() -> {
+                codes[0] = scCode();
+                codes[1] = SpiceCalls.namfrm(relativeFrame);
+                List<String> loadedFiles = new ArrayList<>();
+                int loaded = SpiceCalls.ktotal("CK");
+                for(int which = loaded - 1; which >= 0; which--){
+                    String[] file = new String[1];
+                    String[] fileType = new String[1];
+                    String[] source = new String[1];
+                    int[] handle = new int[1];
+                    boolean[] found = new boolean[1];
+                    SpiceCalls.kdata(which, "CK", file, fileType, source, handle, found);
+                    if(found[0]){
+                        loadedFiles.add(file[0]);
+                    }
+                }
+                return loadedFiles;
+            });
+            int scCode = codes[0];
+            int frameCode = codes[1];
+            for(String file : files){
+                List<CKReader.Segment> segments = CKReader.open(Path.of(file)).getSegments();
+                for(int i = segments.size() - 1; i >= 0; i--){
+                    CKReader.Segment segment = segments.get(i);
+                    if(segment.getInstrumentId() != scCode || (angularVelocityInCK && !segment.hasAngularVelocity())){
+                        continue;
+                    }
+                    if(!segment.isSupported() || segment.getReferenceFrameId() != frameCode){
+                        // SPICE would use this segment ahead of any lower priority ones, so from here on only SPICE gives the right answer
+                        return cursors;
+                    }
+                    cursors.add(segment.cursor());
+                }
+            }
+            return cursors;
+        } catch (SpiceErrorException | IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private SclkConverter sclkConverter(){
+        try {
+            return spice.call(() -> new SclkConverter(scCode() / 1000));
+        } catch (SpiceErrorException e) {
+            return null;
+        }
+    }
+
+    // call from inside spice.call
+    private int scCode() throws SpiceErrorException {
+        try {
+            return SpiceCalls.bods2c(scBaseFrame);
+        } catch (IDCodeNotFoundException e) {
+            throw new SpiceErrorException(e.getMessage());
+        }
+    }
+
+    private Orientation toOrientation(double[][] rotationMatrix, double[] angularVelocity){
+        Rotation rotation = new Rotation(rotationMatrix,1E-3).revert();
+        // Have the scalar term of the quaternion always be positive
+        if (rotation.getQ0() < 0){
+            rotation = new Rotation(rotation.getQ0()*-1, rotation.getQ1()*-1, rotation.getQ2()*-1, rotation.getQ3()*-1, false);
+        }
+        if(angularVelocityInCK) {
+            return new Orientation(rotation, new Vector3D(angularVelocity));
+        }
+        else{
+            return new Orientation(rotation);
+        }
+    }
+
     @Override
     public void setRateAndAccelLimits(Vector3D angularVelocityLimit, Vector3D angularAccelerationLimit){
     }
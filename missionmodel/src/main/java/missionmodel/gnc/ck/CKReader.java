@@ -0,0 +1,430 @@
+package missionmodel.gnc.blackbird.ck;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memory-mapped reader for type 2 and type 3 segments of binary CK files. The DAF summary records are parsed once when
+ * the file is opened, and each segment's records are read directly out of the mapped file, so evaluating attitude at
+ * many times is a sequential scan through the segment rather than a SPICE call per sample.
+ * <p>
+ * Quaternions and angular velocities are returned in SPICE convention (scalar first, quaternion of the C-matrix that
+ * rotates vectors from the segment's reference frame to the instrument frame). Interpolation follows cke02 and cke03:
+ * type 2 rotates the record quaternion at the record's constant angular velocity, type 3 interpolates the rotation
+ * between adjacent records at a constant rate and interpolates angular velocity linearly.
+ * <p>
+ * Readers are cached per file and reopened only if the file's modification time changes. Files larger than 2 GB are not
+ * supported since they cannot be mapped into a single buffer.
+ */
+public class CKReader {
+    private static final int RECORD_BYTES = 1024;
+    private static final Map<Path, CKReader> openReaders = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final FileTime lastModified;
+    private final MappedByteBuffer buffer;
+    private final List<Segment> segments;
+
+    private CKReader(Path path) throws IOException {
+        this.path = path;
+        this.lastModified = Files.getLastModifiedTime(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        String idWord = readString(0, 8);
+        if (!idWord.startsWith("DAF/CK")) {
+            throw new IOException(path + " is not a binary CK file (ID word was '" + idWord.trim() + "')");
+        }
+        String format = readString(88, 8);
+        if (format.equals("BIG-IEEE")) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        } else if (format.equals("LTL-IEEE")) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            // files written before the format string was added; ND is always 2 for CK so use it to pick the order
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(8) != 2) {
+                buffer.order(ByteOrder.BIG_ENDIAN);
+            }
+        }
+
+        int nd = buffer.getInt(8);
+        int ni = buffer.getInt(12);
+        int summarySize = nd + (ni + 1) / 2;
+        int forward = buffer.getInt(76);
+
+        List<Segment> found = new ArrayList<>();
+        int record = forward;
+        while (record > 0) {
+            int recordStart = (record - 1) * RECORD_BYTES;
+            int next = (int) buffer.getDouble(recordStart);
+            int summariesInRecord = (int) buffer.getDouble(recordStart + 16);
+            for (int i = 0; i < summariesInRecord; i++) {
+                int summaryStart = recordStart + 24 + i * summarySize * 8;
+                int intStart = summaryStart + nd * 8;
+                found.add(new Segment(
+                        buffer.getDouble(summaryStart),
+                        buffer.getDouble(summaryStart + 8),
+                        buffer.getInt(intStart),
+                        buffer.getInt(intStart + 4),
+                        buffer.getInt(intStart + 8),
+                        buffer.getInt(intStart + 12) != 0,
+                        buffer.getInt(intStart + 16),
+                        buffer.getInt(intStart + 20)));
+            }
+            record = next;
+        }
+        this.segments = Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Opens a CK file, reusing an already mapped reader if the file has not changed on disk since it was mapped
+     * @param path Path to a binary CK file
+     * @return reader for that file
+     * @throws IOException if the file cannot be read or is not a CK file
+     */
+    public static CKReader open(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        CKReader cached = openReaders.get(key);
+        if (cached != null && cached.lastModified.equals(Files.getLastModifiedTime(key))) {
+            return cached;
+        }
+        CKReader reader = new CKReader(key);
+        openReaders.put(key, reader);
+        return reader;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return all segments in the file, in the order they appear (later segments take priority over earlier ones)
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private double word(int address) {
+        // DAF addresses are 1-based double precision word indices
+        return buffer.getDouble((address - 1) * 8);
+    }
+
+    /**
+     * Descriptor of one CK segment, taken from its DAF summary
+     */
+    public final class Segment {
+        private final double startTicks;
+        private final double endTicks;
+        private final int instrumentId;
+        private final int referenceFrameId;
+        private final int dataType;
+        private final boolean hasAngularVelocity;
+        private final int beginAddress;
+        private final int endAddress;
+
+        private Segment(double startTicks, double endTicks, int instrumentId, int referenceFrameId, int dataType, boolean hasAngularVelocity, int beginAddress, int endAddress) {
+            this.startTicks = startTicks;
+            this.endTicks = endTicks;
+            this.instrumentId = instrumentId;
+            this.referenceFrameId = referenceFrameId;
+            this.dataType = dataType;
+            this.hasAngularVelocity = hasAngularVelocity;
+            this.beginAddress = beginAddress;
+            this.endAddress = endAddress;
+        }
+
+        public double getStartTicks() {
+            return startTicks;
+        }
+
+        public double getEndTicks() {
+            return endTicks;
+        }
+
+        public int getInstrumentId() {
+            return instrumentId;
+        }
+
+        public int getReferenceFrameId() {
+            return referenceFrameId;
+        }
+
+        public int getDataType() {
+            return dataType;
+        }
+
+        public boolean hasAngularVelocity() {
+            return hasAngularVelocity;
+        }
+
+        /**
+         * @return true if this reader can evaluate the segment's data type
+         */
+        public boolean isSupported() {
+            return dataType == 2 || dataType == 3;
+        }
+
+        /**
+         * @return a new cursor for evaluating this segment at a sequence of times
+         */
+        public SegmentCursor cursor() {
+            if (dataType == 2) {
+                return new Type2Cursor(this);
+            } else if (dataType == 3) {
+                return new Type3Cursor(this);
+            }
+            throw new UnsupportedOperationException("CK data type " + dataType + " in " + path + " is not supported, only types 2 and 3 are");
+        }
+    }
+
+    /**
+     * Evaluates one segment at successive times. The cursor remembers where the last lookup landed, so lookups at
+     * non-decreasing times walk forward through the records instead of searching from scratch; a lookup earlier than
+     * the previous one falls back to a binary search. Cursors are not thread safe.
+     */
+    public abstract class SegmentCursor {
+        protected final Segment segment;
+
+        private SegmentCursor(Segment segment) {
+            this.segment = segment;
+        }
+
+        public Segment getSegment() {
+            return segment;
+        }
+
+        /**
+         * @param ticks encoded SCLK time
+         * @param tolerance encoded SCLK ticks a record may be from the requested time when the time is not covered by an interpolation interval
+         * @param quaternion output, SPICE quaternion of the C-matrix at the requested time
+         * @param angularVelocity output, angular velocity in the segment's reference frame (rad/s); left untouched if the segment has none
+         * @return true if the segment has data for the requested time, false otherwise
+         */
+        public abstract boolean evaluate(double ticks, double tolerance, double[] quaternion, double[] angularVelocity);
+
+        protected double[] record(int address, int size) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = word(address + i);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Type 2: each record covers [start, stop] with a quaternion at start and a constant angular velocity
+     */
+    private final class Type2Cursor extends SegmentCursor {
+        private static final int RECORD_SIZE = 8;
+        private final int records;
+        private final int startsAddress;
+        private final int stopsAddress;
+        private int index = 0;
+
+        private Type2Cursor(Segment segment) {
+            super(segment);
+            int size = segment.endAddress - segment.beginAddress + 1;
+            // size = 10 * N + (N - 1) / 100 (records, start times, stop times, directory)
+            int n = size / 10;
+            while (n > 0 && 10 * n + (n - 1) / 100 > size) {
+                n--;
+            }
+            this.records = n;
+            this.startsAddress = segment.beginAddress + RECORD_SIZE * n;
+            this.stopsAddress = startsAddress + n;
+        }
+
+        @Override
+        public boolean evaluate(double ticks, double tolerance, double[] quaternion, double[] angularVelocity) {
+            if (records == 0) {
+                return false;
+            }
+            index = locate(ticks, startsAddress, records, index);
+
+            // index is the last interval starting at or before ticks, or -1 if ticks is before all of them
+            double start;
+            double requested = ticks;
+            if (index >= 0 && ticks <= word(stopsAddress + index)) {
+                start = word(startsAddress + index);
+            } else {
+                // in a gap, take the closest interval endpoint if it is within tolerance
+                double previousStop = index >= 0 ? word(stopsAddress + index) : Double.NEGATIVE_INFINITY;
+                double nextStart = index + 1 < records ? word(startsAddress + index + 1) : Double.POSITIVE_INFINITY;
+                if (ticks - previousStop <= nextStart - ticks && ticks - previousStop <= tolerance) {
+                    requested = previousStop;
+                    start = word(startsAddress + index);
+                } else if (nextStart - ticks <= tolerance) {
+                    index = index + 1;
+                    requested = nextStart;
+                    start = nextStart;
+                } else {
+                    return false;
+                }
+            }
+
+            int recordAddress = segment.beginAddress + RECORD_SIZE * index;
+            double[] rec = record(recordAddress, RECORD_SIZE);
+            double avx = rec[4];
+            double avy = rec[5];
+            double avz = rec[6];
+            double rate = rec[7];
+            double norm = Math.sqrt(avx * avx + avy * avy + avz * avz);
+            double angle = norm * (requested - start) * rate;
+
+            if (norm == 0.0 || angle == 0.0) {
+                System.arraycopy(rec, 0, quaternion, 0, 4);
+            } else {
+                // C(t) = C0 * transpose(axisar(av, angle)), which in quaternions is q0 * (cos(angle/2), -sin(angle/2) * av/|av|)
+                double s = -Math.sin(angle / 2.0) / norm;
+                Quaternions.multiply(rec[0], rec[1], rec[2], rec[3], Math.cos(angle / 2.0), s * avx, s * avy, s * avz, quaternion);
+            }
+            angularVelocity[0] = avx;
+            angularVelocity[1] = avy;
+            angularVelocity[2] = avz;
+            return true;
+        }
+    }
+
+    /**
+     * Type 3: time-tagged quaternions grouped into interpolation intervals
+     */
+    private final class Type3Cursor extends SegmentCursor {
+        private final int recordSize;
+        private final int records;
+        private final int intervals;
+        private final int timesAddress;
+        private final int intervalStartsAddress;
+        private int recordIndex = 0;
+        private int intervalIndex = 0;
+
+        private Type3Cursor(Segment segment) {
+            super(segment);
+            this.recordSize = segment.hasAngularVelocity ? 7 : 4;
+            this.records = (int) word(segment.endAddress);
+            this.intervals = (int) word(segment.endAddress - 1);
+            this.timesAddress = segment.beginAddress + recordSize * records;
+            int directory = (records - 1) / 100;
+            this.intervalStartsAddress = timesAddress + records + directory;
+        }
+
+        @Override
+        public boolean evaluate(double ticks, double tolerance, double[] quaternion, double[] angularVelocity) {
+            if (records == 0) {
+                return false;
+            }
+            recordIndex = locate(ticks, timesAddress, records, recordIndex);
+
+            // exactly on a record, or before the first / after the last record
+            if (recordIndex >= 0 && word(timesAddress + recordIndex) == ticks) {
+                copyRecord(recordIndex, quaternion, angularVelocity);
+                return true;
+            }
+            if (recordIndex < 0 || recordIndex == records - 1) {
+                int closest = recordIndex < 0 ? 0 : records - 1;
+                if (Math.abs(word(timesAddress + closest) - ticks) <= tolerance) {
+                    copyRecord(closest, quaternion, angularVelocity);
+                    return true;
+                }
+                return false;
+            }
+
+            double before = word(timesAddress + recordIndex);
+            double after = word(timesAddress + recordIndex + 1);
+
+            // interpolate only if both neighbours are in the same interpolation interval
+            intervalIndex = locate(ticks, intervalStartsAddress, intervals, intervalIndex);
+            boolean nextRecordStartsInterval = intervalIndex + 1 < intervals && word(intervalStartsAddress + intervalIndex + 1) == after;
+            if (nextRecordStartsInterval) {
+                double toBefore = ticks - before;
+                double toAfter = after - ticks;
+                if (toBefore <= toAfter && toBefore <= tolerance) {
+                    copyRecord(recordIndex, quaternion, angularVelocity);
+                    return true;
+                } else if (toAfter <= tolerance) {
+                    copyRecord(recordIndex + 1, quaternion, angularVelocity);
+                    return true;
+                }
+                return false;
+            }
+
+            double fraction = (ticks - before) / (after - before);
+            double[] first = record(segment.beginAddress + recordSize * recordIndex, recordSize);
+            double[] second = record(segment.beginAddress + recordSize * (recordIndex + 1), recordSize);
+            Quaternions.interpolate(first, second, fraction, quaternion);
+            if (segment.hasAngularVelocity) {
+                for (int i = 0; i < 3; i++) {
+                    angularVelocity[i] = first[4 + i] + fraction * (second[4 + i] - first[4 + i]);
+                }
+            }
+            return true;
+        }
+
+        private void copyRecord(int index, double[] quaternion, double[] angularVelocity) {
+            int address = segment.beginAddress + recordSize * index;
+            for (int i = 0; i < 4; i++) {
+                quaternion[i] = word(address + i);
+            }
+            if (segment.hasAngularVelocity) {
+                for (int i = 0; i < 3; i++) {
+                    angularVelocity[i] = word(address + 4 + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the last index whose time is less than or equal to ticks in a sorted array of times stored in the file,
+     * starting from a hint and walking forward when possible
+     * @return the index, or -1 if ticks is before the first time
+     */
+    private int locate(double ticks, int address, int count, int hint) {
+        if (hint >= 0 && hint < count && word(address + hint) <= ticks) {
+            int i = hint;
+            // short forward walk covers the common case of monotonically increasing requests
+            for (int steps = 0; steps < 8; steps++) {
+                if (i + 1 >= count || word(address + i + 1) > ticks) {
+                    return i;
+                }
+                i++;
+            }
+            return binarySearch(ticks, address, i, count - 1);
+        }
+        return binarySearch(ticks, address, 0, count - 1);
+    }
+
+    private int binarySearch(double ticks, int address, int low, int high) {
+        int result = low - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (word(address + mid) <= ticks) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+}
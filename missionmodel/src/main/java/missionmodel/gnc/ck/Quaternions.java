@@ -0,0 +1,80 @@
+package missionmodel.gnc.blackbird.ck;
+
+/**
+ * Allocation-free quaternion arithmetic on SPICE-style quaternions (scalar first, q2m(q1 * q2) = q2m(q1) * q2m(q2)).
+ */
+final class Quaternions {
+
+    private Quaternions() {
+    }
+
+    static void multiply(double a0, double a1, double a2, double a3, double b0, double b1, double b2, double b3, double[] out) {
+        out[0] = a0 * b0 - a1 * b1 - a2 * b2 - a3 * b3;
+        out[1] = a0 * b1 + a1 * b0 + a2 * b3 - a3 * b2;
+        out[2] = a0 * b2 - a1 * b3 + a2 * b0 + a3 * b1;
+        out[3] = a0 * b3 + a1 * b2 - a2 * b1 + a3 * b0;
+    }
+
+    /**
+     * Rotates from the first quaternion towards the second at a constant rate, like cke03 does: the rotation
+     * taking C1 to C2 is found, and the fraction of its angle is applied to C1 about the same axis
+     * @param first quaternion at the earlier record (only the first four elements are read)
+     * @param second quaternion at the later record (only the first four elements are read)
+     * @param fraction how far between the records the requested time is, 0 to 1
+     * @param out interpolated unit quaternion
+     */
+    static void interpolate(double[] first, double[] second, double fraction, double[] out) {
+        // delta = conj(first) * second, so that q2m(delta) = transpose(C1) * C2
+        double d0 = first[0] * second[0] + first[1] * second[1] + first[2] * second[2] + first[3] * second[3];
+        double d1 = first[0] * second[1] - first[1] * second[0] - first[2] * second[3] + first[3] * second[2];
+        double d2 = first[0] * second[2] + first[1] * second[3] - first[2] * second[0] - first[3] * second[1];
+        double d3 = first[0] * second[3] - first[1] * second[2] + first[2] * second[1] - first[3] * second[0];
+
+        // take the short way around, raxisa returns an angle between 0 and pi
+        if (d0 < 0) {
+            d0 = -d0;
+            d1 = -d1;
+            d2 = -d2;
+            d3 = -d3;
+        }
+
+        double sinHalfAngle = Math.sqrt(d1 * d1 + d2 * d2 + d3 * d3);
+        if (sinHalfAngle == 0.0) {
+            System.arraycopy(first, 0, out, 0, 4);
+            return;
+        }
+        double partialHalfAngle = fraction * Math.atan2(sinHalfAngle, d0);
+        double scale = Math.sin(partialHalfAngle) / sinHalfAngle;
+        multiply(first[0], first[1], first[2], first[3], Math.cos(partialHalfAngle), scale * d1, scale * d2, scale * d3, out);
+
+        double norm = Math.sqrt(out[0] * out[0] + out[1] * out[1] + out[2] * out[2] + out[3] * out[3]);
+        for (int i = 0; i < 4; i++) {
+            out[i] /= norm;
+        }
+    }
+
+    /**
+     * Same formula as SPICE q2m
+     */
+    static void toMatrix(double[] q, double[][] m) {
+        double q01 = q[0] * q[1];
+        double q02 = q[0] * q[2];
+        double q03 = q[0] * q[3];
+        double q11 = q[1] * q[1];
+        double q12 = q[1] * q[2];
+        double q13 = q[1] * q[3];
+        double q22 = q[2] * q[2];
+        double q23 = q[2] * q[3];
+        double q33 = q[3] * q[3];
+
+        m[0][0] = 1.0 - 2.0 * (q22 + q33);
+        m[0][1] = 2.0 * (q12 - q03);
+        m[0][2] = 2.0 * (q13 + q02);
+        m[1][0] = 2.0 * (q12 + q03);
+        m[1][1] = 1.0 - 2.0 * (q11 + q33);
+        m[1][2] = 2.0 * (q23 - q01);
+        m[2][0] = 2.0 * (q13 - q02);
+        m[2][1] = 2.0 * (q23 + q01);
+        m[2][2] = 1.0 - 2.0 * (q11 + q22);
+    }
+}
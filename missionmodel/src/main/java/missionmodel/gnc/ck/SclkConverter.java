@@ -0,0 +1,118 @@
+package missionmodel.gnc.blackbird.ck;
+
+import missionmodel.spice.SpiceCalls;
+import spice.basic.KernelVarNotFoundException;
+import spice.basic.SpiceErrorException;
+
+import java.util.Arrays;
+
+/**
+ * Pure-Java conversion from ephemeris time to continuous encoded spacecraft clock ticks for type 1 SCLK kernels.
+ * The coefficient table is read out of the kernel pool once at construction, after which every conversion is plain
+ * arithmetic. This is the same conversion that sce2c performs, without a JNI round trip for every sample.
+ */
+public class SclkConverter {
+    private static final int TDB = 1;
+    private static final int TDT = 2;
+
+    private final int clockId;
+    private final double[] encodedTicks;
+    private final double[] parallelTimes;
+    private final double[] ticksPerParallelSecond;
+    private final int timeSystem;
+
+    // constants for the TDB - TDT periodic term, only used when the clock's parallel time system is TDT
+    private final double deltetK;
+    private final double deltetEB;
+    private final double deltetM0;
+    private final double deltetM1;
+
+    /**
+     * @param clockId NAIF clock ID (the spacecraft ID, ex. -74)
+     * @throws SpiceErrorException if the SCLK kernel for this clock is not loaded or is not a type 1 kernel
+     */
+    public SclkConverter(int clockId) throws SpiceErrorException {
+        this.clockId = clockId;
+        String suffix = "_" + (-clockId);
+
+        double[] dataType = readPool("SCLK_DATA_TYPE" + suffix);
+        if (dataType != null && (int) dataType[0] != 1) {
+            throw new SpiceErrorException("SCLK kernel for clock " + clockId + " is type " + (int) dataType[0] + ", only type 1 is supported");
+        }
+
+        double[] moduli = readPool("SCLK01_MODULI" + suffix);
+        double[] coefficients = readPool("SCLK01_COEFFICIENTS" + suffix);
+        if (moduli == null || coefficients == null) {
+            throw new SpiceErrorException("No SCLK kernel loaded for clock " + clockId);
+        }
+
+        // encoded SCLK is counted in ticks of the least significant field, the coefficient rates are per most significant count
+        double ticksPerMostSignificantCount = 1.0;
+        for (int i = 1; i < moduli.length; i++) {
+            ticksPerMostSignificantCount *= moduli[i];
+        }
+
+        int rows = coefficients.length / 3;
+        encodedTicks = new double[rows];
+        parallelTimes = new double[rows];
+        ticksPerParallelSecond = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            encodedTicks[i] = coefficients[3 * i];
+            parallelTimes[i] = coefficients[3 * i + 1];
+            ticksPerParallelSecond[i] = ticksPerMostSignificantCount / coefficients[3 * i + 2];
+        }
+
+        double[] system = readPool("SCLK01_TIME_SYSTEM" + suffix);
+        timeSystem = system == null ? TDB : (int) system[0];
+        if (timeSystem == TDT) {
+            deltetK = readPool("DELTET/K")[0];
+            deltetEB = readPool("DELTET/EB")[0];
+            double[] m = readPool("DELTET/M");
+            deltetM0 = m[0];
+            deltetM1 = m[1];
+        } else {
+            deltetK = deltetEB = deltetM0 = deltetM1 = 0.0;
+        }
+    }
+
+    public int getClockId() {
+        return clockId;
+    }
+
+    /**
+     * @param et ephemeris time in seconds past J2000 TDB
+     * @return continuous encoded SCLK ticks, or NaN if the time is before the start of the clock
+     */
+    public double etToTicks(double et) {
+        double parallelTime = et;
+        if (timeSystem == TDT) {
+            double m = deltetM0 + deltetM1 * et;
+            double e = m + deltetEB * Math.sin(m);
+            parallelTime = et - deltetK * Math.sin(e);
+        }
+
+        int row = Arrays.binarySearch(parallelTimes, parallelTime);
+        if (row < 0) {
+            row = -row - 2;
+        }
+        if (row < 0) {
+            return Double.NaN;
+        }
+        return encodedTicks[row] + (parallelTime - parallelTimes[row]) * ticksPerParallelSecond[row];
+    }
+
+    private static double[] readPool(String name) throws SpiceErrorException {
+        boolean[] found = new boolean[1];
+        int[] n = new int[1];
+        String[] type = new String[1];
+        SpiceCalls.dtpool(name, found, n, type);
+        if (!found[0]) {
+            return null;
+        }
+        try {
+            return SpiceCalls.gdpool(name, 0, n[0]);
+        } catch (KernelVarNotFoundException e) {
+            return null;
+        }
+    }
+}
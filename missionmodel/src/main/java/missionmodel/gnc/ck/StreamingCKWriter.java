@@ -0,0 +1,231 @@
+package missionmodel.gnc.blackbird.ck;
+
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import missionmodel.spice.SpiceCalls;
+import spice.basic.SpiceErrorException;
+
+import java.io.File;
+
+/**
+ * Writes a CK file incrementally as a series of bounded type 3 segments, so that exporting an attitude history of any
+ * length only holds one segment's worth of records in memory. Records are added in time order with {@link #add}; once
+ * the buffer holds maxRecordsPerSegment records it is written out as a segment and reused. Closing the writer flushes
+ * whatever is left and closes the file.
+ * <p>
+ * Interpolation intervals are tracked across segment boundaries. A new interval starts at the first record, after every
+ * call to {@link #breakInterpolation()}, and whenever two consecutive records are further apart than the maximum
+ * interpolation gap (if one is set). When a segment is flushed in the middle of an interval, its last record is carried
+ * over as the first record of the next segment so there is no hole in coverage between them.
+ * <p>
+ * SCLK is converted for the whole buffer at flush time, using a {@link SclkConverter} when the loaded SCLK kernel allows
+ * it and sce2c otherwise.
+ */
+public class StreamingCKWriter implements AutoCloseable {
+    public static final int DEFAULT_MAX_RECORDS_PER_SEGMENT = 10000;
+    private static final String SEGMENT_ID = "Blackbird Generated CKernel";
+
+    private final int scID;
+    private final int instrumentID;
+    private final String referenceFrame;
+    private final boolean shouldAngularVelocityBeWritten;
+    private final Duration maxInterpolationGap;
+    private final int handle;
+    private final SclkConverter sclkConverter;
+
+    // buffers are allocated once and reused for every segment
+    private final double[] ets;
+    private final double[] sclkd;
+    private final double[] q;
+    private final double[] av;
+    private final double[] intervalStarts;
+    private final int[] intervalStartIndices;
+    private int count = 0;
+    private int intervals = 0;
+    // true while the only record in the buffer is the one carried over from the previous segment
+    private boolean carriedOver = false;
+
+    private Time lastTime = null;
+    private boolean breakPending = true;
+    private int segmentsWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * @param fileName Desired filename (including .bc extension). Deletes file with exact name if it exists before writing.
+     * @param scID NAIF integer ID for the spacecraft (just used for time conversion)
+     * @param instrumentID NAIF integer ID for the 'instrument' that the rotation goes to (if spacecraft is desired, multiply scID by 1000)
+     * @param referenceFrame String of the frame that the rotation turns from, that the quaternions are relative to (Ex. J2000)
+     * @param shouldAngularVelocityBeWritten Boolean that determines if angular velocity information is available to be written
+     * @param maxRecordsPerSegment Number of records to buffer before a segment is written, must be at least 2
+     * @param maxInterpolationGap Consecutive records further apart than this start a new interpolation interval; null to only break intervals explicitly
+     * @throws SpiceErrorException if the file cannot be opened
+     */
+    public StreamingCKWriter(String fileName, int scID, int instrumentID, String referenceFrame, boolean shouldAngularVelocityBeWritten, int maxRecordsPerSegment, Duration maxInterpolationGap) throws SpiceErrorException {
+        if (maxRecordsPerSegment < 2) {
+            throw new IllegalArgumentException("CK segments need room for at least 2 records, got " + maxRecordsPerSegment);
+        }
+        this.scID = scID;
+        this.instrumentID = instrumentID;
+        this.referenceFrame = referenceFrame;
+        this.shouldAngularVelocityBeWritten = shouldAngularVelocityBeWritten;
+        this.maxInterpolationGap = maxInterpolationGap;
+
+        this.ets = new double[maxRecordsPerSegment];
+        this.sclkd = new double[maxRecordsPerSegment];
+        this.q = new double[4 * maxRecordsPerSegment];
+        this.av = new double[3 * maxRecordsPerSegment];
+        this.intervalStarts = new double[maxRecordsPerSegment];
+        this.intervalStartIndices = new int[maxRecordsPerSegment];
+
+        SclkConverter converter;
+        try {
+            converter = new SclkConverter(scID);
+        } catch (SpiceErrorException e) {
+            converter = null;
+        }
+        this.sclkConverter = converter;
+
+        new File(fileName).delete();
+        this.handle = SpiceCalls.ckopn(fileName, "CK_file", 5000);
+    }
+
+    /**
+     * Writer with the default segment size that only starts new interpolation intervals when asked to
+     */
+    public StreamingCKWriter(String fileName, int scID, int instrumentID, String referenceFrame, boolean shouldAngularVelocityBeWritten) throws SpiceErrorException {
+        this(fileName, scID, instrumentID, referenceFrame, shouldAngularVelocityBeWritten, DEFAULT_MAX_RECORDS_PER_SEGMENT, null);
+    }
+
+    /**
+     * Adds one attitude record. Records must be added in strictly increasing time order.
+     * @param time Time of the record
+     * @param orientation Orientation at that time
+     * @throws SpiceErrorException if a full segment had to be written and SPICE could not write it
+     */
+    public void add(Time time, Orientation orientation) throws SpiceErrorException {
+        if (closed) {
+            throw new IllegalStateException("CK writer has already been closed");
+        }
+        if (lastTime != null && !time.greaterThan(lastTime)) {
+            throw new IllegalArgumentException("CK records must be added in increasing time order, got " + time + " after " + lastTime);
+        }
+        if (shouldAngularVelocityBeWritten && !orientation.isRotationRateDefined()) {
+            throw new RuntimeException("Flag to write angular velocities to CK is on, but angular velocities not available in orientation at time " + time);
+        }
+        if (lastTime != null && maxInterpolationGap != null && time.subtract(lastTime).greaterThan(maxInterpolationGap)) {
+            breakPending = true;
+        }
+
+        if (count == ets.length) {
+            flushSegment(!breakPending);
+        }
+
+        if (breakPending) {
+            intervalStartIndices[intervals++] = count;
+            breakPending = false;
+        }
+        ets[count] = JPLTimeConvertUtility.toET(time);
+        Rotation quat = orientation.getRotation();
+        q[4 * count] = quat.getQ0();
+        q[4 * count + 1] = quat.getQ1();
+        q[4 * count + 2] = quat.getQ2();
+        q[4 * count + 3] = quat.getQ3();
+        if (shouldAngularVelocityBeWritten) {
+            Vector3D rotationRate = orientation.getRotationRate();
+            av[3 * count] = rotationRate.getX();
+            av[3 * count + 1] = rotationRate.getY();
+            av[3 * count + 2] = rotationRate.getZ();
+        }
+        count++;
+        carriedOver = false;
+        lastTime = time;
+    }
+
+    /**
+     * The next record added will start a new interpolation interval, so the attitude between the last record added and
+     * the next one is left undefined in the CK
+     */
+    public void breakInterpolation() {
+        breakPending = true;
+    }
+
+    /**
+     * @return number of segments written to the file so far
+     */
+    public int getSegmentsWritten() {
+        return segmentsWritten;
+    }
+
+    /**
+     * Writes out any buffered records and closes the file. A single leftover record that only duplicates the end of the
+     * previous segment is not written again.
+     */
+    @Override
+    public void close() throws SpiceErrorException {
+        if (closed) {
+            return;
+        }
+        if (count > 0 && !carriedOver) {
+            flushSegment(false);
+        }
+        SpiceCalls.ckcls(handle);
+        closed = true;
+    }
+
+    /**
+     * Writes the buffered records as one type 3 segment
+     * @param continueInterval if true the interval that is open at the end of this segment carries on into the next one,
+     *                         so the last record is kept as the first record of the next segment
+     */
+    private void flushSegment(boolean continueInterval) throws SpiceErrorException {
+        convertSclk();
+        for (int i = 0; i < intervals; i++) {
+            intervalStarts[i] = sclkd[intervalStartIndices[i]];
+        }
+        SpiceCalls.ckw03(handle, sclkd[0], sclkd[count - 1], instrumentID, referenceFrame, shouldAngularVelocityBeWritten, SEGMENT_ID,
+                count, trimmed(sclkd, count), trimmed(q, 4 * count), trimmed(av, 3 * count), intervals, trimmed(intervalStarts, intervals));
+        segmentsWritten++;
+
+        if (continueInterval) {
+            int last = count - 1;
+            ets[0] = ets[last];
+            System.arraycopy(q, 4 * last, q, 0, 4);
+            System.arraycopy(av, 3 * last, av, 0, 3);
+            count = 1;
+            intervalStartIndices[0] = 0;
+            intervals = 1;
+            carriedOver = true;
+        } else {
+            count = 0;
+            intervals = 0;
+            carriedOver = false;
+        }
+    }
+
+    private void convertSclk() throws SpiceErrorException {
+        double firstTicks = sclkConverter == null ? Double.NaN : sclkConverter.etToTicks(ets[0]);
+        if (Double.isNaN(firstTicks)) {
+            for (int i = 0; i < count; i++) {
+                sclkd[i] = SpiceCalls.sce2c(scID, ets[i]);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sclkd[i] = sclkConverter.etToTicks(ets[i]);
+            }
+        }
+    }
+
+    // ckw03 is given arrays sized exactly to the record and interval counts, so a partly filled buffer is passed as a copy
+    private static double[] trimmed(double[] values, int length) {
+        if (length == values.length) {
+            return values;
+        }
+        double[] copy = new double[length];
+        System.arraycopy(values, 0, copy, 0, length);
+        return copy;
+    }
+}
@@ -1,14 +1,19 @@
 package missionmodel.gnc.blackbird.functions;
 
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.gnc.blackbird.ck.StreamingCKWriter;
 import missionmodel.gnc.blackbird.interfaces.Orientation;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.util.FastMath;
-import spice.basic.CSPICE;
+import missionmodel.spice.BodyRotation;
+import missionmodel.spice.BodyRotations;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.SpiceErrorException;
 
-import java.io.File;
 import java.util.Map;
 import java.util.SortedMap;
 
@@ -43,11 +48,36 @@ public class AttitudeFunctions {
     }
 
     public static Rotation getFixedFrameRotationWithSpice(String fromFrame, String toFrame) throws SpiceErrorException{
-        return new Rotation(CSPICE.pxform(fromFrame,toFrame,0),1E-3);
+        return getFixedFrameRotationWithSpice(fromFrame, toFrame, SerializedSpiceBackend.currentKernels());
+    }
+
+    public static Rotation getFixedFrameRotationWithSpice(String fromFrame, String toFrame, SpiceBackend spice) throws SpiceErrorException{
+        return new Rotation(spice.call(() -> SpiceCalls.pxform(fromFrame,toFrame,0)),1E-3);
+    }
+
+    /**
+     * Rotation from J2000 to a body-fixed frame at a time, evaluated in Java from the text PCK's rotation model when
+     * the frame has one (see BodyRotations), with pxform otherwise
+     * @param bodyFrame Body-fixed frame, e.g. IAU_MARS
+     * @param t Time of the rotation
+     * @return Rotation taking J2000 vectors to the body-fixed frame
+     */
+    public static Rotation getJ2000ToBodyFixedRotation(String bodyFrame, Time t) throws SpiceErrorException {
+        return getJ2000ToBodyFixedRotation(bodyFrame, t, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend pxform is called through when the frame has no rotation model
+     */
+    public static Rotation getJ2000ToBodyFixedRotation(String bodyFrame, Time t, SpiceBackend spice) throws SpiceErrorException {
+        double et = JPLTimeConvertUtility.toET(t);
+        BodyRotation model = BodyRotations.forFrame(bodyFrame);
+        return new Rotation(model != null ? model.rotation(et) : spice.call(() -> SpiceCalls.pxform("J2000", bodyFrame, et)), 1E-3);
     }
 
     /**
-     * Generates a CK file with a single type 3 segment (interpolating time-tagged quaternions). Deletes file with exact name if it exists before writing out new file.
+     * Generates a CK file of type 3 segments (interpolating time-tagged quaternions), all in one interpolation interval. Deletes file with exact name if it exists before writing out new file.
+     * Histories longer than StreamingCKWriter.DEFAULT_MAX_RECORDS_PER_SEGMENT are split over several segments; use StreamingCKWriter directly to write records as they are produced instead of collecting them first.
      * @param attitudesAtTimes maps of Times to the Rotation at that time
      * @param fileName Desired filename (including .bc extension)
      * @param scID NAIF integer ID for the spacecraft (just used for time conversion)
@@ -57,32 +87,11 @@ public class AttitudeFunctions {
      * @throws SpiceErrorException if any input quaternion has magnitude zero, if the reference frame cannot be found, or other reasons (see ckw03_c)
      */
     public static void writeCK(SortedMap<Time, Orientation> attitudesAtTimes, String fileName, int scID, int instrumentID, String referenceFrame, boolean shouldAngularVelocityBeWritten) throws SpiceErrorException{
-        new File(fileName).delete();
-        int handle = CSPICE.ckopn(fileName, "CK_file", 5000);
-        double[] q = new double[4*attitudesAtTimes.size()];
-        double[] av = new double[3*attitudesAtTimes.size()];
-        double[] sclkd = new double[attitudesAtTimes.size()];
-        int i = 0;
-        for(Map.Entry<Time, Orientation> entry : attitudesAtTimes.entrySet()){
-            sclkd[i] = CSPICE.sce2c(scID, entry.getKey().toET());
-            Rotation quat = entry.getValue().getRotation();
-            q[4 * i]   = quat.getQ0();
-            q[4 * i + 1] = quat.getQ1();
-            q[4 * i + 2] = quat.getQ2();
-            q[4 * i + 3] = quat.getQ3();
-            if (shouldAngularVelocityBeWritten){
-                if(!entry.getValue().isRotationRateDefined()){
-                    throw new RuntimeException("Flag to write angular velocities to CK is on, but angular velocities not available in attitudeAtTimes at time " + entry.getKey());
-                }
-                Vector3D rotationRate = entry.getValue().getRotationRate();
-                av[3 * i]   = rotationRate.getX();
-                av[3 * i + 1]   = rotationRate.getY();
-                av[3 * i + 2]   = rotationRate.getZ();
+        try (StreamingCKWriter writer = new StreamingCKWriter(fileName, scID, instrumentID, referenceFrame, shouldAngularVelocityBeWritten)) {
+            for (Map.Entry<Time, Orientation> entry : attitudesAtTimes.entrySet()) {
+                writer.add(entry.getKey(), entry.getValue());
             }
-            i++;
         }
-        CSPICE.ckw03(handle, sclkd[0], sclkd[sclkd.length-1], instrumentID, referenceFrame, shouldAngularVelocityBeWritten, "Blackbird Generated CKernel", sclkd.length, sclkd, q, av, 1, new double[] {sclkd[0]});
-        CSPICE.ckcls(handle);
     }
 
     /**
@@ -94,12 +103,22 @@ public class AttitudeFunctions {
      * @param observer String of SPICE recognized object for which the state is desired with respect to
      */
     public static double[] getState(String target, Time et, String frame, String correction, String observer){
+        return getState(target, et, frame, correction, observer, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the state is found through (ex. the mission's GeometryContext.getSpice)
+     */
+    public static double[] getState(String target, Time et, String frame, String correction, String observer, SpiceBackend spice){
         // Use SPICE call to find an array of the target's position and velocity
         // relative to the observing body
         double[] targetRelative = new double[6];
         double[] lightTimeDelay = new double[1];
         try {
-            CSPICE.spkezr(target, et.toET(), frame, correction, observer, targetRelative, lightTimeDelay);
+            spice.call(() -> {
+                SpiceCalls.spkezr(target, JPLTimeConvertUtility.toET(et), frame, correction, observer, targetRelative, lightTimeDelay);
+                return null;
+            });
         } catch (SpiceErrorException er) {
             er.printStackTrace();
         }
@@ -0,0 +1,23 @@
+package missionmodel.gnc.instruments;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.List;
+
+/**
+ * A spacecraft-fixed instrument with a circular field of view
+ *
+ * @param name Name used for the instrument's resources
+ * @param boresight Boresight in the device frame (same meaning as scDeviceVector in AttitudeFunctions.angleBetweenObjectAndVector)
+ * @param fixedFrameRotation Rotation between spacecraft fixed frame and the device frame, IDENTITY if the boresight is given in the spacecraft frame
+ * @param fovHalfAngleDegrees Field of view half angle in degrees
+ */
+public record Instrument(String name, Vector3D boresight, Rotation fixedFrameRotation, double fovHalfAngleDegrees) {
+
+  // TODO: Replace with real instrument definitions (or read them from the frames/IK kernels with getfov)
+  public static final List<Instrument> DEFAULT_INSTRUMENTS = List.of(
+    new Instrument("PLUS_Z_Instrument", Vector3D.PLUS_K, Rotation.IDENTITY, 1.0),
+    new Instrument("PLUS_X_Instrument", Vector3D.PLUS_I, Rotation.IDENTITY, 1.0)
+  );
+}
@@ -0,0 +1,91 @@
+package missionmodel.gnc.instruments;
+
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.BooleanValueMapper;
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.DoubleValueMapper;
+import gov.nasa.jpl.aerie.contrib.streamline.core.Resource;
+import gov.nasa.jpl.aerie.contrib.streamline.modeling.Registrar;
+import gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.Discrete;
+import missionmodel.geometry.resources.GenericGeometryResources;
+import missionmodel.gnc.GncDataModel;
+import missionmodel.gnc.blackbird.functions.AttitudeFunctions;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nasa.jpl.aerie.contrib.metadata.UnitRegistrar.withUnit;
+import static gov.nasa.jpl.aerie.contrib.streamline.modeling.discrete.monads.DiscreteResourceMonad.map;
+
+/**
+ * Geometry that depends on both the spacecraft attitude (GncDataModel.rotation) and the body vectors
+ * (GenericGeometryResources.BODY_POS_ICRF). Every resource here is derived from those two, so it is only re-evaluated
+ * when one of them changes: the cost follows the union of attitude and geometry change points rather than a fixed grid.
+ *
+ * For every instrument and body this publishes the boresight-to-body angle and whether the body center is in the
+ * field of view, and for every instrument the off-nadir angle measured from the direction to the nadir body.
+ */
+public class InstrumentGeometryResources {
+  public final List<Instrument> instruments;
+  // keyed by instrument name, then body name
+  public final Map<String, Map<String, Resource<Discrete<Double>>>> BoresightBodyAngle = new HashMap<>();
+  public final Map<String, Map<String, Resource<Discrete<Boolean>>>> BodyInFieldOfView = new HashMap<>();
+  // keyed by instrument name
+  public final Map<String, Resource<Discrete<Double>>> OffNadirAngle = new HashMap<>();
+
+  private static DoubleValueMapper dvm = new DoubleValueMapper();
+  private static BooleanValueMapper bvm = new BooleanValueMapper();
+
+  /**
+   * @param registrar Registrar to publish the resources with
+   * @param gncDataModel Source of the attitude resource
+   * @param geometryResources Source of the spacecraft to body vectors, all bodies in it get resources
+   * @param instruments Instruments to publish resources for
+   * @param nadirBody Body the off-nadir angle is measured from, no off-nadir resources if it isn't in geometryResources
+   */
+  public InstrumentGeometryResources(Registrar registrar, GncDataModel gncDataModel, GenericGeometryResources geometryResources,
+                                     List<Instrument> instruments, String nadirBody) {
+    this.instruments = List.copyOf(instruments);
+
+    for (Instrument instrument : instruments) {
+      Map<String, Resource<Discrete<Double>>> angles = new HashMap<>();
+      Map<String, Resource<Discrete<Boolean>>> inFov = new HashMap<>();
+
+      for (Map.Entry<String, ? extends Resource<Discrete<Vector3D>>> body : geometryResources.BODY_POS_ICRF.entrySet()) {
+        Resource<Discrete<Double>> angle = map(gncDataModel.rotation, body.getValue(), (rotation, position) -> boresightAngle(rotation, instrument, position));
+        registrar.discrete("BoresightBodyAngle_" + instrument.name() + "_" + body.getKey(), angle, withUnit("deg", dvm));
+        angles.put(body.getKey(), angle);
+
+        Resource<Discrete<Boolean>> visible = map(angle, a -> inFieldOfView(a, instrument));
+        registrar.discrete("BodyInFieldOfView_" + instrument.name() + "_" + body.getKey(), visible, bvm);
+        inFov.put(body.getKey(), visible);
+      }
+      BoresightBodyAngle.put(instrument.name(), angles);
+      BodyInFieldOfView.put(instrument.name(), inFov);
+
+      if (angles.containsKey(nadirBody)) {
+        // nadir is the direction to the body center, so off-nadir is the boresight angle to that body
+        OffNadirAngle.put(instrument.name(), angles.get(nadirBody));
+        registrar.discrete("OffNadirAngle_" + instrument.name(), angles.get(nadirBody), withUnit("deg", dvm));
+      }
+    }
+  }
+
+  /**
+   * @return angle between the instrument boresight and the body in degrees, or null before the body position is known
+   */
+  public static Double boresightAngle(Rotation scRotation, Instrument instrument, Vector3D bodyPosition) {
+    if (scRotation == null || bodyPosition == null || bodyPosition.getNorm() == 0.0) {
+      return null;
+    }
+    return AttitudeFunctions.angleBetweenObjectAndVector(scRotation, instrument.fixedFrameRotation(), bodyPosition, instrument.boresight());
+  }
+
+  /**
+   * @return whether a boresight-to-body angle is inside the instrument's field of view, or null if the angle is unknown
+   */
+  public static Boolean inFieldOfView(Double angle, Instrument instrument) {
+    return angle == null ? null : angle <= instrument.fovHalfAngleDegrees();
+  }
+}
@@ -0,0 +1,54 @@
+package missionmodel.gnc.keepout;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.List;
+
+/**
+ * An exclusion cone around a body that a spacecraft-fixed vector must stay out of
+ *
+ * @param name Name used for the zone's resources and violation windows
+ * @param bodyName SPICE name of the body the cone is centered on
+ * @param boresight Vector in the device frame (same meaning as scDeviceVector in AttitudeFunctions.angleBetweenObjectAndVector)
+ * @param fixedFrameRotation Rotation between spacecraft fixed frame and the device frame, IDENTITY if the boresight is given in the spacecraft frame
+ * @param halfAngleDegrees Cone half angle in degrees
+ * @param fromLimb If true the cone is measured from the body's limb instead of its center
+ */
+public record KeepOutZone(String name, String bodyName, Vector3D boresight, Rotation fixedFrameRotation, double halfAngleDegrees, boolean fromLimb) {
+
+  /**
+   * Made-up zones for tests and demonstrations, not flight rules: a +Z boresight kept off the Sun and the Earth's and
+   * Mars' limbs by arbitrary angles. A simulation only checks the zones listed in Configuration.keepOutZones.
+   */
+  public static final List<KeepOutZone> EXAMPLE_ZONES = List.of(
+    new KeepOutZone("SunExclusion_PLUS_Z", "SUN", Vector3D.PLUS_K, Rotation.IDENTITY, 30.0, false),
+    new KeepOutZone("EarthLimbExclusion_PLUS_Z", "EARTH", Vector3D.PLUS_K, Rotation.IDENTITY, 5.0, true),
+    new KeepOutZone("MarsLimbExclusion_PLUS_Z", "MARS", Vector3D.PLUS_K, Rotation.IDENTITY, 5.0, true)
+  );
+
+  /**
+   * @param spec Whitespace-separated name, body, boresight x, y and z in the spacecraft frame, and half angle in degrees,
+   *             followed by LIMB if the cone is measured from the body's limb, ex. "SunExclusion_PLUS_Z SUN 0 0 1 30"
+   * @return the zone the spec describes
+   */
+  public static KeepOutZone parse(String spec) {
+    String[] fields = spec.trim().split("\\s+");
+    if (fields.length != 6 && !(fields.length == 7 && fields[6].equalsIgnoreCase("LIMB"))) {
+      throw new IllegalArgumentException("Keep-out zone should be 'name body x y z halfAngle [LIMB]', got '" + spec + "'");
+    }
+    Vector3D boresight;
+    double halfAngle;
+    try {
+      boresight = new Vector3D(Double.parseDouble(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+      halfAngle = Double.parseDouble(fields[5]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Keep-out zone '" + spec + "' has a bad boresight or angle", e);
+    }
+    if (boresight.getNorm() == 0) {
+      throw new IllegalArgumentException("Keep-out zone '" + spec + "' has a zero boresight");
+    }
+    return new KeepOutZone(fields[0], fields[1].toUpperCase(), boresight.normalize(), Rotation.IDENTITY, halfAngle,
+      fields.length == 7);
+  }
+}
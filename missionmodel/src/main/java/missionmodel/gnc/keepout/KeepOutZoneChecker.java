@@ -0,0 +1,234 @@
+package missionmodel.gnc.keepout;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Window;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import spice.basic.SpiceErrorException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Checks an orientation timeline against a set of keep-out zones. The angle for each (boresight, body) pair is the same
+ * one AttitudeFunctions.angleBetweenObjectAndVector returns, but the timeline and zones are unpacked into primitive
+ * arrays first so every sample is evaluated in one loop without allocating Rotations or Vector3Ds. Body directions come
+ * from one TargetDirectionInterpolant per body, shared between all zones on that body.
+ */
+public class KeepOutZoneChecker {
+  public static final Duration DEFAULT_KNOT_SPACING = Duration.fromSeconds(60);
+
+  private final List<KeepOutZone> zones;
+  private final String observer;
+  private final String frame;
+  private final Duration knotSpacing;
+  private final String abcorr;
+  private final SpiceBackend spice;
+
+  /**
+   * @param zones Zones to check
+   * @param observer SPICE name of the spacecraft
+   * @param frame Frame the orientations are relative to (ex. J2000)
+   * @param knotSpacing Spacing of the SPICE samples the body directions are interpolated from
+   * @param abcorr Aberration correction the body directions are found with (ex. the simulation's FidelityTier.abcorr)
+   * @param spice Backend the body directions are sampled through (ex. the mission's GeometryContext.getSpice)
+   */
+  public KeepOutZoneChecker(List<KeepOutZone> zones, String observer, String frame, Duration knotSpacing, String abcorr,
+                            SpiceBackend spice) {
+    this.zones = List.copyOf(zones);
+    this.observer = observer;
+    this.frame = frame;
+    this.knotSpacing = knotSpacing;
+    this.abcorr = abcorr;
+    this.spice = spice;
+  }
+
+  public KeepOutZoneChecker(List<KeepOutZone> zones, String observer, String frame, Duration knotSpacing, String abcorr) {
+    this(zones, observer, frame, knotSpacing, abcorr, SerializedSpiceBackend.currentKernels());
+  }
+
+  public KeepOutZoneChecker(List<KeepOutZone> zones, String observer, String frame, Duration knotSpacing) {
+    this(zones, observer, frame, knotSpacing, "LT+S");
+  }
+
+  public KeepOutZoneChecker(List<KeepOutZone> zones, String observer, String frame) {
+    this(zones, observer, frame, DEFAULT_KNOT_SPACING);
+  }
+
+  public List<KeepOutZone> getZones() {
+    return zones;
+  }
+
+  /**
+   * @param orientations Orientation timeline, rotations between spacecraft fixed frame and the reference frame
+   * @return margins for every zone at every sample, and the windows where each zone is violated
+   * @throws SpiceErrorException if a body's direction cannot be found over the span of the timeline
+   */
+  public Result check(SortedMap<Time, Orientation> orientations) throws SpiceErrorException {
+    int samples = orientations.size();
+    int zoneCount = zones.size();
+    Time[] times = new Time[samples];
+    double[] seconds = new double[samples];
+    double[] q = new double[4 * samples];
+
+    Time start = orientations.firstKey();
+    int i = 0;
+    for (Map.Entry<Time, Orientation> entry : orientations.entrySet()) {
+      times[i] = entry.getKey();
+      seconds[i] = entry.getKey().subtract(start).totalSeconds();
+      Rotation r = entry.getValue().getRotation();
+      q[4 * i] = r.getQ0();
+      q[4 * i + 1] = r.getQ1();
+      q[4 * i + 2] = r.getQ2();
+      q[4 * i + 3] = r.getQ3();
+      i++;
+    }
+
+    // one interpolant per distinct body, and the boresights already carried through their fixed frame rotations
+    Map<String, Integer> bodyIndex = new LinkedHashMap<>();
+    List<TargetDirectionInterpolant> bodies = new ArrayList<>();
+    int[] zoneBody = new int[zoneCount];
+    double[] boresights = new double[3 * zoneCount];
+    double[] halfAngles = new double[zoneCount];
+    boolean[] fromLimb = new boolean[zoneCount];
+    for (int z = 0; z < zoneCount; z++) {
+      KeepOutZone zone = zones.get(z);
+      Integer index = bodyIndex.get(zone.bodyName());
+      if (index == null) {
+        index = bodies.size();
+        bodyIndex.put(zone.bodyName(), index);
+        bodies.add(new TargetDirectionInterpolant(zone.bodyName(), observer, frame, start, orientations.lastKey(), knotSpacing, abcorr, spice));
+      }
+      zoneBody[z] = index;
+      Vector3D boresight = zone.fixedFrameRotation().applyTo(zone.boresight()).normalize();
+      boresights[3 * z] = boresight.getX();
+      boresights[3 * z + 1] = boresight.getY();
+      boresights[3 * z + 2] = boresight.getZ();
+      halfAngles[z] = Math.toRadians(zone.halfAngleDegrees());
+      fromLimb[z] = zone.fromLimb();
+    }
+
+    int bodyCount = bodies.size();
+    double[] directions = new double[4 * bodyCount];
+    double[] scratch = new double[4];
+    double[] margins = new double[samples * zoneCount];
+
+    for (int s = 0; s < samples; s++) {
+      for (int b = 0; b < bodyCount; b++) {
+        bodies.get(b).evaluate(seconds[s], scratch);
+        System.arraycopy(scratch, 0, directions, 4 * b, 4);
+      }
+      double q0 = q[4 * s];
+      double q1 = q[4 * s + 1];
+      double q2 = q[4 * s + 2];
+      double q3 = q[4 * s + 3];
+      for (int z = 0; z < zoneCount; z++) {
+        // Rotation.applyTo on the boresight, written out
+        double bx = boresights[3 * z];
+        double by = boresights[3 * z + 1];
+        double bz = boresights[3 * z + 2];
+        double dot = q1 * bx + q2 * by + q3 * bz;
+        double rx = 2 * (q0 * (bx * q0 - (q2 * bz - q3 * by)) + dot * q1) - bx;
+        double ry = 2 * (q0 * (by * q0 - (q3 * bx - q1 * bz)) + dot * q2) - by;
+        double rz = 2 * (q0 * (bz * q0 - (q1 * by - q2 * bx)) + dot * q3) - bz;
+
+        int d = 4 * zoneBody[z];
+        double cos = rx * directions[d] + ry * directions[d + 1] + rz * directions[d + 2];
+        double norm = Math.sqrt(rx * rx + ry * ry + rz * rz);
+        double angle = Math.acos(Math.max(-1.0, Math.min(1.0, cos / norm)));
+        double cone = halfAngles[z] + (fromLimb[z] ? directions[d + 3] : 0.0);
+        margins[s * zoneCount + z] = Math.toDegrees(angle - cone);
+      }
+    }
+
+    return new Result(zones, times, margins);
+  }
+
+  /**
+   * Margins in degrees (angle from the boresight to the cone edge, negative inside the cone) for every zone at every
+   * sample of the checked timeline
+   */
+  public static class Result {
+    private final List<KeepOutZone> zones;
+    private final Time[] times;
+    private final double[] margins;
+
+    private Result(List<KeepOutZone> zones, Time[] times, double[] margins) {
+      this.zones = zones;
+      this.times = times;
+      this.margins = margins;
+    }
+
+    public List<KeepOutZone> getZones() {
+      return zones;
+    }
+
+    public int getSampleCount() {
+      return times.length;
+    }
+
+    public Time getTime(int sample) {
+      return times[sample];
+    }
+
+    public double getMargin(int sample, int zone) {
+      return margins[sample * zones.size() + zone];
+    }
+
+    public boolean isViolated(int sample, int zone) {
+      return getMargin(sample, zone) < 0;
+    }
+
+    /**
+     * @return smallest margin over the whole timeline for the zone
+     */
+    public double getMinimumMargin(int zone) {
+      double min = Double.POSITIVE_INFINITY;
+      for (int s = 0; s < times.length; s++) {
+        min = Math.min(min, getMargin(s, zone));
+      }
+      return min;
+    }
+
+    /**
+     * @return windows, typed with the zone name, from the first to the last violating sample of each run of violating samples
+     */
+    public List<Window> getViolations(int zone) {
+      List<Window> windows = new ArrayList<>();
+      String name = zones.get(zone).name();
+      int runStart = -1;
+      for (int s = 0; s < times.length; s++) {
+        if (isViolated(s, zone)) {
+          if (runStart < 0) {
+            runStart = s;
+          }
+        } else if (runStart >= 0) {
+          windows.add(new Window(times[runStart], times[s - 1], name));
+          runStart = -1;
+        }
+      }
+      if (runStart >= 0) {
+        windows.add(new Window(times[runStart], times[times.length - 1], name));
+      }
+      return windows;
+    }
+
+    /**
+     * @return violation windows of every zone, keyed by zone name
+     */
+    public Map<String, List<Window>> getAllViolations() {
+      Map<String, List<Window>> all = new LinkedHashMap<>();
+      for (int z = 0; z < zones.size(); z++) {
+        all.put(zones.get(z).name(), getViolations(z));
+      }
+      return all;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package missionmodel.gnc.keepout;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
+import missionmodel.spice.SpiceCalls;
+import spice.basic.IDCodeNotFoundException;
+import spice.basic.SpiceErrorException;
+
+/**
+ * Direction from the spacecraft to a body, sampled with SPICE at fixed knots over a span of time and linearly
+ * interpolated (then renormalized) in between. Also carries the body's apparent angular radius so cones can be
+ * measured from the limb. Knots are evenly spaced, so a lookup is a direct index with no search.
+ */
+public class TargetDirectionInterpolant {
+  private final String bodyName;
+  private final double stepSeconds;
+  private final double[] unitVectors; // x, y, z for each knot
+  private final double[] angularRadii; // radians, 0 if the body has no radii loaded
+  private final int knots;
+
+  /**
+   * @param bodyName SPICE name of the body
+   * @param observer SPICE name of the spacecraft
+   * @param frame Frame the directions are expressed in, must match the frame of the orientations they are compared to
+   * @param start First knot
+   * @param end Last knot is at or after this time
+   * @param step Spacing between knots
+   * @throws SpiceErrorException if the position of the body cannot be found at any knot
+   */
+  public TargetDirectionInterpolant(String bodyName, String observer, String frame, Time start, Time end, Duration step) throws SpiceErrorException {
+    this(bodyName, observer, frame, start, end, step, "LT+S");
+  }
+
+  /**
+   * @param abcorr Aberration correction the body's position is found with (ex. the simulation's FidelityTier.abcorr)
+   */
+  public TargetDirectionInterpolant(String bodyName, String observer, String frame, Time start, Time end, Duration step,
+                                    String abcorr) throws SpiceErrorException {
+    this(bodyName, observer, frame, start, end, step, abcorr, SerializedSpiceBackend.currentKernels());
+  }
+
+  /**
+   * @param spice Backend the knots are sampled through, in one call so they all see the same kernels (ex. the
+   *              mission's GeometryContext.getSpice)
+   */
+  public TargetDirectionInterpolant(String bodyName, String observer, String frame, Time start, Time end, Duration step,
+                                    String abcorr, SpiceBackend spice) throws SpiceErrorException {
+    this.bodyName = bodyName;
+    this.stepSeconds = step.totalSeconds();
+    int intervals = (int) Math.ceil(end.subtract(start).totalSeconds() / stepSeconds);
+    this.knots = Math.max(intervals, 1) + 1;
+    this.unitVectors = new double[3 * knots];
+    this.angularRadii = new double[knots];
+
+    double startEt = JPLTimeConvertUtility.toET(start);
+    spice.call(() -> {
+      sample(bodyName, observer, frame, startEt, abcorr);
+      return null;
+    });
+  }
+
+  private void sample(String bodyName, String observer, String frame, double startEt, String abcorr) throws SpiceErrorException {
+    double radius = largestRadius(bodyName);
+    double[] position = new double[3];
+    double[] lightTime = new double[1];
+    for (int k = 0; k < knots; k++) {
+      SpiceCalls.spkpos(bodyName, startEt + k * stepSeconds, frame, abcorr, observer, position, lightTime);
+      double range = Math.sqrt(position[0] * position[0] + position[1] * position[1] + position[2] * position[2]);
+      unitVectors[3 * k] = position[0] / range;
+      unitVectors[3 * k + 1] = position[1] / range;
+      unitVectors[3 * k + 2] = position[2] / range;
+      angularRadii[k] = radius >= range ? Math.PI / 2 : Math.asin(radius / range);
+    }
+  }
+
+  public String getBodyName() {
+    return bodyName;
+  }
+
+  /**
+   * @param secondsFromStart seconds after the first knot (clamped to the sampled span)
+   * @param out receives the unit direction to the body in [0..2] and its angular radius in radians in [3]
+   */
+  public void evaluate(double secondsFromStart, double[] out) {
+    double position = secondsFromStart / stepSeconds;
+    if (position <= 0) {
+      copyKnot(0, out);
+      return;
+    }
+    if (position >= knots - 1) {
+      copyKnot(knots - 1, out);
+      return;
+    }
+    int cursor = (int) position;
+    double fraction = position - cursor;
+    int a = 3 * cursor;
+    int b = a + 3;
+    double x = unitVectors[a] + fraction * (unitVectors[b] - unitVectors[a]);
+    double y = unitVectors[a + 1] + fraction * (unitVectors[b + 1] - unitVectors[a + 1]);
+    double z = unitVectors[a + 2] + fraction * (unitVectors[b + 2] - unitVectors[a + 2]);
+    double norm = Math.sqrt(x * x + y * y + z * z);
+    out[0] = x / norm;
+    out[1] = y / norm;
+    out[2] = z / norm;
+    out[3] = angularRadii[cursor] + fraction * (angularRadii[cursor + 1] - angularRadii[cursor]);
+  }
+
+  private void copyKnot(int k, double[] out) {
+    out[0] = unitVectors[3 * k];
+    out[1] = unitVectors[3 * k + 1];
+    out[2] = unitVectors[3 * k + 2];
+    out[3] = angularRadii[k];
+  }
+
+  private static double largestRadius(String bodyName) {
+    try {
+      double[] radii = SpiceCalls.bodvcd(SpiceCalls.bods2c(bodyName), "RADII");
+      return Math.max(radii[0], Math.max(radii[1], radii[2]));
+    } catch (SpiceErrorException | IDCodeNotFoundException e) {
+      // no radii for this body, so its limb and center are the same
+      return 0.0;
+    }
+  }
+}
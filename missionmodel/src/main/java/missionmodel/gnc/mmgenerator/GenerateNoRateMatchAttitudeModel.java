@@ -4,6 +4,7 @@ import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
 import missionmodel.gnc.blackbird.interfaces.Observer;
 import missionmodel.gnc.blackbird.interfaces.Orientation;
 import missionmodel.gnc.blackbird.interfaces.Target;
+import missionmodel.jfr.SlewGenerationEvent;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
 import gov.nasa.jpl.time.Duration;
@@ -55,6 +56,8 @@ public class GenerateNoRateMatchAttitudeModel extends GenerateAttitudeModel{
 
     @Override
     public SortedMap<Time, Orientation> getOrientations(Time turnStart, Orientation fromOrientation, Observer primaryObserver, Target primaryTarget, Observer secondaryObserver, Target secondaryTarget, Duration override) throws AttitudeNotAvailableException {
+        SlewGenerationEvent event = new SlewGenerationEvent();
+        event.begin();
 
         Rotation spacecraftToRelativeTurnStart = fromOrientation.getRotation();
 
@@ -62,8 +65,10 @@ public class GenerateNoRateMatchAttitudeModel extends GenerateAttitudeModel{
         Duration interval = new Duration("00:00:01");
         double[] times = new double[0];
         Vector3D angularAcceleration = null;
+        int turnEndsTried = 0;
 
         for (Duration offset = new Duration("00:00:00"); offset.lessThanOrEqualTo(override); offset = offset.add(interval)) {
+            turnEndsTried++;
 
             // Get the spacecraft orientation at the end of the turn
             Rotation spacecraftToRelativeTurnEnd = getOrientation(turnStart.add(offset), primaryObserver, primaryTarget, secondaryObserver, secondaryTarget).getRotation();
@@ -156,7 +161,9 @@ public class GenerateNoRateMatchAttitudeModel extends GenerateAttitudeModel{
             currentTime += sampleRateForTurns.totalSeconds();
         }
 
-        return makeQuaternionScalarComponentPositive(orientations);
+        SortedMap<Time, Orientation> positiveOrientations = makeQuaternionScalarComponentPositive(orientations);
+        event.commit("NoRateMatch", turnStart, primaryTarget.getName(), secondaryTarget.getName(), turnEndsTried, times[2], positiveOrientations.size());
+        return positiveOrientations;
     }
 
 
@@ -4,6 +4,7 @@ import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
 import missionmodel.gnc.blackbird.interfaces.Observer;
 import missionmodel.gnc.blackbird.interfaces.Orientation;
 import missionmodel.gnc.blackbird.interfaces.Target;
+import missionmodel.jfr.SlewGenerationEvent;
 import gov.nasa.jpl.time.Duration;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
@@ -77,6 +78,8 @@ public class GenerateRateMatchAttitudeModel extends GenerateAttitudeModel {
      * spacecraft axes!
      */
     public SortedMap<Time, Orientation> getOrientations(Time turnStart, Orientation fromOrientation, Observer primaryObserver, Target primaryTarget, Observer secondaryObserver, Target secondaryTarget, Duration override) throws AttitudeNotAvailableException {
+        SlewGenerationEvent event = new SlewGenerationEvent();
+        event.begin();
 
         // ****** Currently assumes both to and from frames are rotating at a constant rate*********
         // (This is an okay assumption because the difference in rates are very small, with a rate
@@ -193,7 +196,7 @@ public class GenerateRateMatchAttitudeModel extends GenerateAttitudeModel {
             }else{
                 if(truncateMapWhenTurnPhaseFinishes) {
                     orientations.put(turnStart.add(Duration.fromSeconds(t)), new Orientation(rotationBCurrToRel));
-                    return makeQuaternionScalarComponentPositive(orientations);
+                    return committed(event, turnStart, primaryTarget, secondaryTarget, timeEnd, makeQuaternionScalarComponentPositive(orientations));
                 }
                 else{
                     rotationSCToRel = rotationBCurrToRel;
@@ -202,6 +205,12 @@ public class GenerateRateMatchAttitudeModel extends GenerateAttitudeModel {
             orientations.put(turnStart.add(Duration.fromSeconds(t)), new Orientation(rotationSCToRel));
         }
 
-        return makeQuaternionScalarComponentPositive(orientations);
+        return committed(event, turnStart, primaryTarget, secondaryTarget, timeEnd, makeQuaternionScalarComponentPositive(orientations));
+    }
+
+    // the turn time is solved in closed form, so the solver always takes one iteration
+    private static SortedMap<Time, Orientation> committed(SlewGenerationEvent event, Time turnStart, Target primaryTarget, Target secondaryTarget, double turnSeconds, SortedMap<Time, Orientation> orientations) {
+        event.commit("RateMatch", turnStart, primaryTarget.getName(), secondaryTarget.getName(), 1, turnSeconds, orientations.size());
+        return orientations;
     }
 }
@@ -3,7 +3,7 @@ package missionmodel.gnc.blackbird.observers;
 import missionmodel.gnc.blackbird.functions.AttitudeFunctions;
 import missionmodel.gnc.blackbird.interfaces.Observer;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
+import missionmodel.spice.SpiceCalls;
 import spice.basic.IDCodeNotFoundException;
 import spice.basic.NameNotFoundException;
 import spice.basic.SpiceErrorException;
@@ -48,8 +48,8 @@ public class SpacecraftInstrumentObserver implements Observer {
         int spacecraftID;
         String spacecraftFrame = null;
         try {
-            spacecraftID = CSPICE.bods2c(obsBody);
-            spacecraftFrame = CSPICE.bodc2n(spacecraftID * 1000);
+            spacecraftID = SpiceCalls.bods2c(obsBody);
+            spacecraftFrame = SpiceCalls.bodc2n(spacecraftID * 1000);
         } catch (SpiceErrorException | IDCodeNotFoundException | NameNotFoundException spiceErrorException) {
             spiceErrorException.printStackTrace();
         }
@@ -57,7 +57,7 @@ public class SpacecraftInstrumentObserver implements Observer {
         // Get the observer in the spacecraft frame
         double[] observerVector = new double[3];
         try {
-            CSPICE.getfov(CSPICE.bods2c(instrumentSpiceName), new String[1], new String[1], observerVector, new int[1], new double[12]);
+            SpiceCalls.getfov(SpiceCalls.bods2c(instrumentSpiceName), new String[1], new String[1], observerVector, new int[1], new double[12]);
         } catch (SpiceErrorException | IDCodeNotFoundException err) {
             err.printStackTrace();
         }
@@ -4,8 +4,8 @@ import missionmodel.gnc.blackbird.interfaces.Target;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import spice.basic.CSPICE;
-import spice.basic.SpiceErrorException;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 
 import static missionmodel.gnc.blackbird.functions.AttitudeFunctions.getState;
 
@@ -15,6 +15,8 @@ public class AheadCrossNadirPrimaryTarget implements Target {
     private final String relativeFrame;
     private final double aheadOffsetAngle;
     private final double crossOffsetAngle;
+    private final String abcorr;
+    private final SpiceBackend spice;
 
     /**
      * ************POINTS OFFSET FROM THE SPICE DEFINED CENTER BODY************
@@ -56,11 +58,29 @@ public class AheadCrossNadirPrimaryTarget implements Target {
 
 
     public AheadCrossNadirPrimaryTarget(String centerBody, String obsBody, String relativeFrame, double aheadOffsetAngle, double crossOffsetAngle){
+        this(centerBody, obsBody, relativeFrame, aheadOffsetAngle, crossOffsetAngle, "LT+S");
+    }
+
+    /**
+     * @param abcorr Aberration correction the target's direction is found with, ex. the simulation's
+     *               FidelityTier.abcorr
+     */
+    public AheadCrossNadirPrimaryTarget(String centerBody, String obsBody, String relativeFrame, double aheadOffsetAngle, double crossOffsetAngle, String abcorr){
+        this(centerBody, obsBody, relativeFrame, aheadOffsetAngle, crossOffsetAngle, abcorr, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the target's states are found through, ex. the mission's
+     *              GeometryContext.getSpice
+     */
+    public AheadCrossNadirPrimaryTarget(String centerBody, String obsBody, String relativeFrame, double aheadOffsetAngle, double crossOffsetAngle, String abcorr, SpiceBackend spice){
         this.centerBody = centerBody;
         this.obsBody = obsBody;
         this.relativeFrame = relativeFrame;
         this.aheadOffsetAngle = aheadOffsetAngle;
         this.crossOffsetAngle = crossOffsetAngle;
+        this.abcorr = abcorr;
+        this.spice = spice;
 
     }
 
@@ -83,12 +103,7 @@ public class AheadCrossNadirPrimaryTarget implements Target {
         // representation of these axes is needed in the relative frame
         // and this uses the observing body's position and velocity
         // relative to the body it is orbiting
-        double[] state = new double[6];
-        try {
-            CSPICE.spkezr(obsBody, et.toET(), relativeFrame, "LT+S", centerBody, state, new double[1]);
-        } catch (SpiceErrorException e) {
-            e.printStackTrace();
-        }
+        double[] state = getState(obsBody, et, relativeFrame, abcorr, centerBody, spice);
         Vector3D nadir = new Vector3D(state[0],state[1],state[2]).normalize().scalarMultiply(-1);
         Vector3D oppositeOrbitMomentum = new Vector3D(state[0], state[1], state[2]).crossProduct(new Vector3D(state[3], state[4], state[5])).normalize().scalarMultiply(-1);
         double[] yLVLHAxisInRelativeFrame = oppositeOrbitMomentum.toArray();
@@ -106,12 +121,12 @@ public class AheadCrossNadirPrimaryTarget implements Target {
     }
 
     public Vector3D getPosition(Time et){
-        double[] state = getState(centerBody, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(centerBody, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[0], state[1], state[2]);
     }
 
     public Vector3D getVelocity(Time et){
-        double[] state = getState(centerBody, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(centerBody, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[3], state[4], state[5]);
     }
 
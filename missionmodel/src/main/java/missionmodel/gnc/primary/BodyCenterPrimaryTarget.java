@@ -3,6 +3,8 @@ package missionmodel.gnc.blackbird.targets.primary;
 import missionmodel.gnc.blackbird.interfaces.Target;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 
 import static missionmodel.gnc.blackbird.functions.AttitudeFunctions.getState;
 
@@ -10,6 +12,8 @@ public class BodyCenterPrimaryTarget implements Target {
     private final String bodyName;
     private final String obsBody;
     private final String relativeFrame;
+    private final String abcorr;
+    private final SpiceBackend spice;
 
     /**
      * **********************POINTS AT SPICE DEFINED BODY**********************
@@ -36,9 +40,27 @@ public class BodyCenterPrimaryTarget implements Target {
      */
 
     public BodyCenterPrimaryTarget(String bodyName, String obsBody, String relativeFrame){
+        this(bodyName, obsBody, relativeFrame, "LT+S");
+    }
+
+    /**
+     * @param abcorr Aberration correction the target's direction is found with, ex. the simulation's
+     *               FidelityTier.abcorr
+     */
+    public BodyCenterPrimaryTarget(String bodyName, String obsBody, String relativeFrame, String abcorr){
+        this(bodyName, obsBody, relativeFrame, abcorr, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the target's states are found through, ex. the mission's
+     *              GeometryContext.getSpice
+     */
+    public BodyCenterPrimaryTarget(String bodyName, String obsBody, String relativeFrame, String abcorr, SpiceBackend spice){
         this.bodyName = bodyName;
         this.obsBody = obsBody;
         this.relativeFrame = relativeFrame;
+        this.abcorr = abcorr;
+        this.spice = spice;
 
     }
 
@@ -49,12 +71,12 @@ public class BodyCenterPrimaryTarget implements Target {
     }
 
     public Vector3D getPosition(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[0], state[1], state[2]);
     }
 
     public Vector3D getVelocity(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[3], state[4], state[5]);
     }
 
@@ -5,6 +5,8 @@ import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 
 import java.util.Objects;
 
@@ -16,6 +18,8 @@ public class BodyCenterSecondaryTarget implements Target {
     private final String relativeFrame;
     private final Target primaryTarget;
     private final double offset;
+    private final String abcorr;
+    private final SpiceBackend spice;
 
     /**
      * ***********************POINTS AT SPICE DEFINED BODY***********************
@@ -54,11 +58,29 @@ public class BodyCenterSecondaryTarget implements Target {
      */
 
     public BodyCenterSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset){
+        this(bodyName, obsBody, relativeFrame, primaryTarget, offset, "LT+S");
+    }
+
+    /**
+     * @param abcorr Aberration correction the target's direction is found with, ex. the simulation's
+     *               FidelityTier.abcorr
+     */
+    public BodyCenterSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset, String abcorr){
+        this(bodyName, obsBody, relativeFrame, primaryTarget, offset, abcorr, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the target's states are found through, ex. the mission's
+     *              GeometryContext.getSpice
+     */
+    public BodyCenterSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset, String abcorr, SpiceBackend spice){
         this.bodyName = bodyName;
         this.obsBody = obsBody;
         this.relativeFrame = relativeFrame;
         this.primaryTarget = primaryTarget;
         this.offset = offset;
+        this.abcorr = abcorr;
+        this.spice = spice;
     }
 
     /**
@@ -87,12 +109,12 @@ public class BodyCenterSecondaryTarget implements Target {
     }
 
     public Vector3D getPosition(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[0], state[1], state[2]);
     }
 
     public Vector3D getVelocity(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[3], state[4], state[5]);
     }
 
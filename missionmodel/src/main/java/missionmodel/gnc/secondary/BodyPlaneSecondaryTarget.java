@@ -5,6 +5,8 @@ import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 
 import static missionmodel.gnc.blackbird.functions.AttitudeFunctions.getState;
 
@@ -15,6 +17,8 @@ public class BodyPlaneSecondaryTarget implements Target {
     private final Target primaryTarget;
     private final double offset;
     private final boolean observersNormal;
+    private final String abcorr;
+    private final SpiceBackend spice;
 
     /**
      * ***********POINTS IN THE PLANE NORMAL TO A SPICE DEFINED BODY***********
@@ -54,12 +58,30 @@ public class BodyPlaneSecondaryTarget implements Target {
      *
      */
     public BodyPlaneSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset, boolean observersNormal){
+        this(bodyName, obsBody, relativeFrame, primaryTarget, offset, observersNormal, "LT+S");
+    }
+
+    /**
+     * @param abcorr Aberration correction the target's direction is found with, ex. the simulation's
+     *               FidelityTier.abcorr
+     */
+    public BodyPlaneSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset, boolean observersNormal, String abcorr){
+        this(bodyName, obsBody, relativeFrame, primaryTarget, offset, observersNormal, abcorr, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the target's states are found through, ex. the mission's
+     *              GeometryContext.getSpice
+     */
+    public BodyPlaneSecondaryTarget(String bodyName, String obsBody, String relativeFrame, Target primaryTarget, double offset, boolean observersNormal, String abcorr, SpiceBackend spice){
         this.bodyName = bodyName;
         this.obsBody = obsBody;
         this.relativeFrame = relativeFrame;
         this.primaryTarget = primaryTarget;
         this.offset = offset;
         this.observersNormal = observersNormal;
+        this.abcorr = abcorr;
+        this.spice = spice;
     }
 
     /**
@@ -92,12 +114,12 @@ public class BodyPlaneSecondaryTarget implements Target {
     }
 
     public Vector3D getPosition(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[0], state[1], state[2]);
     }
 
     public Vector3D getVelocity(Time et){
-        double[] state = getState(bodyName, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(bodyName, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[3], state[4], state[5]);
     }
 
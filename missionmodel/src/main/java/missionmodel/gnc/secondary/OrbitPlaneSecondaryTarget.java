@@ -3,6 +3,8 @@ package missionmodel.gnc.blackbird.targets.secondary;
 import missionmodel.gnc.blackbird.interfaces.Target;
 import gov.nasa.jpl.time.Time;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.SpiceBackend;
 
 import static missionmodel.gnc.blackbird.functions.AttitudeFunctions.getState;
 
@@ -10,6 +12,8 @@ public class OrbitPlaneSecondaryTarget implements Target {
     private final String centerBody;
     private final String obsBody;
     private final String relativeFrame;
+    private final String abcorr;
+    private final SpiceBackend spice;
 
     /**
      * ***********************POINTS IN THE ORBIT PLANE************************
@@ -37,9 +41,27 @@ public class OrbitPlaneSecondaryTarget implements Target {
      */
 
     public OrbitPlaneSecondaryTarget(String centerBody, String obsBody, String relativeFrame){
+        this(centerBody, obsBody, relativeFrame, "LT+S");
+    }
+
+    /**
+     * @param abcorr Aberration correction the target's direction is found with, ex. the simulation's
+     *               FidelityTier.abcorr
+     */
+    public OrbitPlaneSecondaryTarget(String centerBody, String obsBody, String relativeFrame, String abcorr){
+        this(centerBody, obsBody, relativeFrame, abcorr, SerializedSpiceBackend.currentKernels());
+    }
+
+    /**
+     * @param spice Backend the target's states are found through, ex. the mission's
+     *              GeometryContext.getSpice
+     */
+    public OrbitPlaneSecondaryTarget(String centerBody, String obsBody, String relativeFrame, String abcorr, SpiceBackend spice){
         this.centerBody = centerBody;
         this.obsBody = obsBody;
         this.relativeFrame = relativeFrame;
+        this.abcorr = abcorr;
+        this.spice = spice;
 
     }
 
@@ -51,12 +73,12 @@ public class OrbitPlaneSecondaryTarget implements Target {
     }
 
     public Vector3D getPosition(Time et){
-        double[] state = getState(centerBody, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(centerBody, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[0], state[1], state[2]);
     }
 
     public Vector3D getVelocity(Time et){
-        double[] state = getState(centerBody, et, relativeFrame, "LT+S", obsBody);
+        double[] state = getState(centerBody, et, relativeFrame, abcorr, obsBody, spice);
         return new Vector3D(state[3], state[4], state[5]);
     }
 
@@ -0,0 +1,41 @@
+package missionmodel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One search of a GeometricEventGenerator for occultations, periapses, conjunctions and the like
+ */
+@Name("missionmodel.EventSearch")
+@Label("Event Search")
+@Category({"Mission Model", "Geometry"})
+@Description("A search for geometric events over a span of time")
+public class EventSearchEvent extends Event {
+  @Label("Method")
+  public String method;
+
+  @Label("Observer")
+  public String observer;
+
+  @Label("Target")
+  public String target;
+
+  @Label("Span Start")
+  public String spanStart;
+
+  @Label("Span")
+  @Timespan(Timespan.NANOSECONDS)
+  public long span;
+
+  @Label("Step")
+  @Timespan(Timespan.NANOSECONDS)
+  public long step;
+
+  @Label("Found")
+  @Description("Number of windows or times found")
+  public int found;
+}
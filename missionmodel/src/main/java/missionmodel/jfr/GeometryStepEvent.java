@@ -0,0 +1,43 @@
+package missionmodel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One step of a BodyGeometryGenerator: calculating a body's geometry for every spacecraft at an epoch, and choosing
+ * the next epoch. Emitted at every step, so it carries no stack trace.
+ */
+@Name("missionmodel.GeometryStep")
+@Label("Geometry Step")
+@Category({"Mission Model", "Geometry"})
+@Description("Geometry calculated for one body at one epoch, and the step to the next epoch")
+@StackTrace(false)
+public class GeometryStepEvent extends Event {
+  @Label("Body")
+  public String body;
+
+  @Label("Epoch")
+  public String epoch;
+
+  @Label("Quantities")
+  @Description("Quantities calculated for the body besides its state, as switched on in the geometry config")
+  public String quantities;
+
+  @Label("SPICE Calls")
+  @Description("Calls made through SPICE backends during the step, by any thread")
+  public long spiceCalls;
+
+  @Label("Next Step")
+  @Description("Step chosen by the VariableTimeStepGenerator")
+  @Timespan(Timespan.NANOSECONDS)
+  public long nextStep;
+
+  @Label("Failed")
+  @Description("Whether geometry wasn't available for some spacecraft")
+  public boolean failed;
+}
@@ -0,0 +1,60 @@
+package missionmodel.jfr;
+
+import gov.nasa.jpl.time.Time;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One slew generated by an attitude model's getOrientations
+ */
+@Name("missionmodel.SlewGeneration")
+@Label("Slew Generation")
+@Category({"Mission Model", "GNC"})
+@Description("A slew from one orientation to a pointing, sampled into orientations")
+public class SlewGenerationEvent extends Event {
+  @Label("Model")
+  public String model;
+
+  @Label("Turn Start")
+  public String turnStart;
+
+  @Label("Primary Target")
+  public String primaryTarget;
+
+  @Label("Secondary Target")
+  public String secondaryTarget;
+
+  @Label("Solver Iterations")
+  @Description("Candidate turn ends tried before one could be reached in time, 1 for the closed-form rate matching model")
+  public int solverIterations;
+
+  @Label("Turn Time")
+  @Timespan(Timespan.NANOSECONDS)
+  public long turnTime;
+
+  @Label("Samples")
+  @Description("Orientations returned")
+  public int samples;
+
+  /**
+   * Ends the event and commits it with these fields if it's being recorded, so they're only formatted then
+   */
+  public void commit(String model, Time turnStart, String primaryTarget, String secondaryTarget, int solverIterations, double turnSeconds, int samples) {
+    end();
+    if (!shouldCommit()) {
+      return;
+    }
+    this.model = model;
+    this.turnStart = turnStart.toString();
+    this.primaryTarget = primaryTarget;
+    this.secondaryTarget = secondaryTarget;
+    this.solverIterations = solverIterations;
+    this.turnTime = (long) (turnSeconds * 1e9);
+    this.samples = samples;
+    commit();
+  }
+}
@@ -0,0 +1,156 @@
+package missionmodel.spice;
+
+/**
+ * The IAU rotation model of one body from a text PCK, evaluated in Java the way SPICE's TISBOD does for PCK frames
+ * such as IAU_MARS. The pole's right ascension and declination are polynomials in Julian centuries past J2000, the
+ * prime meridian angle W one in days, each plus nutation and precession terms: sines (cosines for the declination) of
+ * angles that are themselves polynomials in centuries. The rotation from J2000 to the body-fixed frame is then
+ * [W]_3 [pi/2 - dec]_1 [pi/2 + ra]_3.
+ *
+ * Rotations come as row-major 3x3 matrices in flat arrays, nine elements per epoch, taking J2000 vectors to the
+ * body-fixed frame, so many epochs can be evaluated into one array without allocating; the derivatives are the time
+ * derivatives of those matrices, per second. Instances are immutable and may be shared between threads.
+ */
+public class BodyRotation {
+  private static final double SECONDS_PER_DAY = 86400.0;
+  private static final double SECONDS_PER_CENTURY = SECONDS_PER_DAY * 36525.0;
+
+  // polynomial coefficients, in degrees
+  private final double[] poleRa;
+  private final double[] poleDec;
+  private final double[] primeMeridian;
+  // coefficients of each nutation/precession angle, phaseDegree + 1 per angle, in degrees and centuries
+  private final double[] nutPrecAngles;
+  private final int phaseDegree;
+  private final double[] nutPrecRa;
+  private final double[] nutPrecDec;
+  private final double[] nutPrecPm;
+
+  /**
+   * @param poleRa BODYnnn_POLE_RA
+   * @param poleDec BODYnnn_POLE_DEC
+   * @param primeMeridian BODYnnn_PM
+   * @param nutPrecAngles BODYbbb_NUT_PREC_ANGLES, or empty
+   * @param phaseDegree BODYbbb_MAX_PHASE_DEGREE, 1 if the kernel doesn't set it
+   * @param nutPrecRa BODYnnn_NUT_PREC_RA, or empty
+   * @param nutPrecDec BODYnnn_NUT_PREC_DEC, or empty
+   * @param nutPrecPm BODYnnn_NUT_PREC_PM, or empty
+   */
+  public BodyRotation(double[] poleRa, double[] poleDec, double[] primeMeridian, double[] nutPrecAngles, int phaseDegree,
+                      double[] nutPrecRa, double[] nutPrecDec, double[] nutPrecPm) {
+    int angles = nutPrecAngles.length / (phaseDegree + 1);
+    if (nutPrecAngles.length % (phaseDegree + 1) != 0
+      || nutPrecRa.length > angles || nutPrecDec.length > angles || nutPrecPm.length > angles) {
+      throw new IllegalArgumentException("Nutation/precession coefficients don't match the " + angles + " angles given");
+    }
+    this.poleRa = poleRa.clone();
+    this.poleDec = poleDec.clone();
+    this.primeMeridian = primeMeridian.clone();
+    this.nutPrecAngles = nutPrecAngles.clone();
+    this.phaseDegree = phaseDegree;
+    this.nutPrecRa = nutPrecRa.clone();
+    this.nutPrecDec = nutPrecDec.clone();
+    this.nutPrecPm = nutPrecPm.clone();
+  }
+
+  /**
+   * @return rotation from J2000 to the body-fixed frame at et, as pxform returns it
+   */
+  public double[][] rotation(double et) {
+    double[] flat = new double[9];
+    rotation(et, flat, 0, null, 0);
+    return new double[][]{{flat[0], flat[1], flat[2]}, {flat[3], flat[4], flat[5]}, {flat[6], flat[7], flat[8]}};
+  }
+
+  /**
+   * Evaluates the rotation at every epoch
+   * @param rotations Nine elements per epoch, in order
+   * @param derivatives Nine elements per epoch, or null to skip them
+   */
+  public void rotations(double[] ets, double[] rotations, double[] derivatives) {
+    for (int i = 0; i < ets.length; i++) {
+      rotation(ets[i], rotations, 9 * i, derivatives, 9 * i);
+    }
+  }
+
+  /**
+   * Writes the rotation at et into rotation from offset, and its derivative into derivative from derivativeOffset
+   * unless derivative is null
+   */
+  public void rotation(double et, double[] rotation, int offset, double[] derivative, int derivativeOffset) {
+    double d = et / SECONDS_PER_DAY;
+    double t = et / SECONDS_PER_CENTURY;
+
+    double ra = poleRa[0] + t * (poleRa[1] + t * poleRa[2]);
+    double dec = poleDec[0] + t * (poleDec[1] + t * poleDec[2]);
+    double w = primeMeridian[0] + d * (primeMeridian[1] + d * primeMeridian[2]);
+    // degrees per second
+    double raRate = (poleRa[1] + 2 * t * poleRa[2]) / SECONDS_PER_CENTURY;
+    double decRate = (poleDec[1] + 2 * t * poleDec[2]) / SECONDS_PER_CENTURY;
+    double wRate = (primeMeridian[1] + 2 * d * primeMeridian[2]) / SECONDS_PER_DAY;
+
+    int angles = nutPrecAngles.length / (phaseDegree + 1);
+    for (int i = 0; i < angles; i++) {
+      double raTerm = i < nutPrecRa.length ? nutPrecRa[i] : 0;
+      double decTerm = i < nutPrecDec.length ? nutPrecDec[i] : 0;
+      double pmTerm = i < nutPrecPm.length ? nutPrecPm[i] : 0;
+      if (raTerm == 0 && decTerm == 0 && pmTerm == 0) {
+        continue;
+      }
+      // the angle and its rate, by Horner's rule
+      int first = i * (phaseDegree + 1);
+      double theta = 0;
+      double thetaRate = 0;
+      for (int k = phaseDegree; k >= 0; k--) {
+        thetaRate = thetaRate * t + theta;
+        theta = theta * t + nutPrecAngles[first + k];
+      }
+      theta = Math.toRadians(theta);
+      thetaRate = Math.toRadians(thetaRate) / SECONDS_PER_CENTURY;
+      double sin = Math.sin(theta);
+      double cos = Math.cos(theta);
+      ra += raTerm * sin;
+      dec += decTerm * cos;
+      w += pmTerm * sin;
+      raRate += raTerm * cos * thetaRate;
+      decRate -= decTerm * sin * thetaRate;
+      wRate += pmTerm * cos * thetaRate;
+    }
+
+    // [W]_3 [pi/2 - dec]_1 [pi/2 + ra]_3
+    double phi = Math.toRadians(ra) + Math.PI / 2;
+    double delta = Math.PI / 2 - Math.toRadians(dec);
+    double omega = Math.toRadians(w % 360.0);
+    double sp = Math.sin(phi), cp = Math.cos(phi);
+    double sd = Math.sin(delta), cd = Math.cos(delta);
+    double sw = Math.sin(omega), cw = Math.cos(omega);
+
+    // the product of the three frame rotations, written out
+    rotation[offset] = cw * cp - sw * cd * sp;
+    rotation[offset + 1] = cw * sp + sw * cd * cp;
+    rotation[offset + 2] = sw * sd;
+    rotation[offset + 3] = -sw * cp - cw * cd * sp;
+    rotation[offset + 4] = -sw * sp + cw * cd * cp;
+    rotation[offset + 5] = cw * sd;
+    rotation[offset + 6] = sd * sp;
+    rotation[offset + 7] = -sd * cp;
+    rotation[offset + 8] = cd;
+
+    if (derivative == null) {
+      return;
+    }
+    double phiRate = Math.toRadians(raRate);
+    double deltaRate = -Math.toRadians(decRate);
+    double omegaRate = Math.toRadians(wRate);
+    // partial derivatives of each element by omega, delta and phi, times their rates
+    derivative[derivativeOffset] = omegaRate * (-sw * cp - cw * cd * sp) + deltaRate * (sw * sd * sp) + phiRate * (-cw * sp - sw * cd * cp);
+    derivative[derivativeOffset + 1] = omegaRate * (-sw * sp + cw * cd * cp) + deltaRate * (-sw * sd * cp) + phiRate * (cw * cp - sw * cd * sp);
+    derivative[derivativeOffset + 2] = omegaRate * (cw * sd) + deltaRate * (sw * cd);
+    derivative[derivativeOffset + 3] = omegaRate * (-cw * cp + sw * cd * sp) + deltaRate * (cw * sd * sp) + phiRate * (sw * sp - cw * cd * cp);
+    derivative[derivativeOffset + 4] = omegaRate * (-cw * sp - sw * cd * cp) + deltaRate * (-cw * sd * cp) + phiRate * (-sw * cp - cw * cd * sp);
+    derivative[derivativeOffset + 5] = omegaRate * (-sw * sd) + deltaRate * (cw * cd);
+    derivative[derivativeOffset + 6] = deltaRate * (cd * sp) + phiRate * (sd * cp);
+    derivative[derivativeOffset + 7] = deltaRate * (-cd * cp) + phiRate * (sd * sp);
+    derivative[derivativeOffset + 8] = deltaRate * (-sd);
+  }
+}
@@ -0,0 +1,107 @@
+package missionmodel.spice;
+
+import spice.basic.KernelVarNotFoundException;
+import spice.basic.SpiceErrorException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The IAU rotation models of the loaded text PCK, by body-fixed frame name, copied out of the kernel pool the first
+ * time each frame is asked for so rotations into it can be evaluated in Java (see BodyRotation) instead of with pxform.
+ * The copies are dropped when KernelSession reloads the pool, as LeapSeconds' are.
+ *
+ * Only frames whose orientation SPICE would take from text PCK constants referred to J2000 at the J2000 epoch get a
+ * model; for anything else (frames of other classes, bodies with constants in another frame or epoch, or any frame
+ * while a binary PCK is loaded, since its segments take precedence) forFrame returns null and pxform should be used.
+ */
+public class BodyRotations {
+  // SPICE's frame class for PCK frames
+  private static final int PCK_FRAME_CLASS = 2;
+  private static final Map<String, Optional<BodyRotation>> loaded = new HashMap<>();
+
+  /**
+   * @return the rotation model of a body-fixed frame, read from the kernel pool unless it already has been, or null if
+   * SPICE wouldn't evaluate the frame from text PCK constants
+   */
+  public static synchronized BodyRotation forFrame(String frame) throws SpiceErrorException {
+    String name = frame.trim().toUpperCase();
+    Optional<BodyRotation> model = loaded.get(name);
+    if (model == null) {
+      model = Optional.ofNullable(fromPool(name));
+      loaded.put(name, model);
+    }
+    return model.orElse(null);
+  }
+
+  /**
+   * @return whether forFrame can answer for the frame without reading the kernel pool, so without calling SPICE
+   */
+  public static synchronized boolean isLoaded(String frame) {
+    return loaded.containsKey(frame.trim().toUpperCase());
+  }
+
+  /**
+   * Drop the copied models, so forFrame reads the pool again. KernelSession calls this whenever the pool changes.
+   */
+  public static synchronized void reset() {
+    loaded.clear();
+  }
+
+  private static BodyRotation fromPool(String frame) throws SpiceErrorException {
+    int frameCode = SpiceCalls.namfrm(frame);
+    if (frameCode == 0 || SpiceCalls.ktotal("PCK") > 0) {
+      return null;
+    }
+    int[] center = new int[1];
+    int[] frameClass = new int[1];
+    int[] body = new int[1];
+    boolean[] found = new boolean[1];
+    SpiceCalls.frinfo(frameCode, center, frameClass, body, found);
+    if (!found[0] || frameClass[0] != PCK_FRAME_CLASS) {
+      return null;
+    }
+
+    String prefix = "BODY" + body[0] + "_";
+    // nutation and precession angles belong to the system's barycenter, e.g. BODY4 for Mars and its moons
+    String anglesPrefix = size(prefix + "NUT_PREC_ANGLES") > 0 ? prefix : "BODY" + (body[0] / 100) + "_";
+    if (size(prefix + "POLE_RA") == 0 || size(prefix + "POLE_DEC") == 0 || size(prefix + "PM") == 0
+      || size(prefix + "CONSTANTS_REF_FRAME") > 0 || size(anglesPrefix + "CONSTANTS_REF_FRAME") > 0
+      || size(prefix + "CONSTANTS_JED_EPOCH") > 0 || size(anglesPrefix + "CONSTANTS_JED_EPOCH") > 0) {
+      return null;
+    }
+    double[] phaseDegree = doubles(anglesPrefix + "MAX_PHASE_DEGREE");
+    return new BodyRotation(polynomial(prefix + "POLE_RA"), polynomial(prefix + "POLE_DEC"), polynomial(prefix + "PM"),
+      doubles(anglesPrefix + "NUT_PREC_ANGLES"), phaseDegree.length > 0 ? (int) phaseDegree[0] : 1,
+      doubles(prefix + "NUT_PREC_RA"), doubles(prefix + "NUT_PREC_DEC"), doubles(prefix + "NUT_PREC_PM"));
+  }
+
+  // kernels may leave off the quadratic coefficient
+  private static double[] polynomial(String name) throws SpiceErrorException {
+    double[] coefficients = new double[3];
+    double[] given = doubles(name);
+    System.arraycopy(given, 0, coefficients, 0, Math.min(given.length, 3));
+    return coefficients;
+  }
+
+  private static double[] doubles(String name) throws SpiceErrorException {
+    int n = size(name);
+    if (n == 0) {
+      return new double[0];
+    }
+    try {
+      return SpiceCalls.gdpool(name, 0, n);
+    } catch (KernelVarNotFoundException e) {
+      return new double[0];
+    }
+  }
+
+  private static int size(String name) throws SpiceErrorException {
+    boolean[] found = new boolean[1];
+    int[] n = new int[1];
+    String[] type = new String[1];
+    SpiceCalls.dtpool(name, found, n, type);
+    return found[0] ? n[0] : 0;
+  }
+}
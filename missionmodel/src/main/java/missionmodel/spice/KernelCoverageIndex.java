@@ -0,0 +1,182 @@
+package missionmodel.spice;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of what each kernel file in a directory covers: its kind, and for binary kernels the ID, center and time span
+ * of every segment, read straight out of the DAF summary records. The index for a directory is built once and kept in
+ * memory, and is saved next to the kernels as INDEX_FILE_NAME (when the directory is writable) so later processes can
+ * start from it. An entry is rebuilt only if its file's size or modification time changed.
+ *
+ * Segment times are ET seconds for SPK and binary PCK files, and encoded SCLK ticks for CK files.
+ */
+public class KernelCoverageIndex {
+  public static final String INDEX_FILE_NAME = "kernel_coverage_index.json";
+
+  public enum Kind { TEXT, SPK, CK, PCK, OTHER }
+
+  /**
+   * @param id SPK target, CK instrument or PCK frame class ID
+   * @param center SPK center of motion, CK reference frame, PCK inertial frame
+   */
+  public record Segment(int id, int center, double start, double end) {}
+
+  public record Entry(String path, long size, long lastModified, Kind kind, List<Segment> segments) {}
+
+  private static final Map<Path, KernelCoverageIndex> indices = new HashMap<>();
+  private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+  private final Path directory;
+  private final Map<String, Entry> entries;
+  private boolean dirty = false;
+
+  private KernelCoverageIndex(Path directory, Map<String, Entry> entries) {
+    this.directory = directory;
+    this.entries = entries;
+  }
+
+  /**
+   * @return the index for a kernel directory, read from its index file the first time it is asked for
+   */
+  public static synchronized KernelCoverageIndex forDirectory(Path directory) {
+    Path key = directory.toAbsolutePath().normalize();
+    KernelCoverageIndex index = indices.get(key);
+    if (index == null) {
+      Map<String, Entry> entries = new HashMap<>();
+      Path indexFile = key.resolve(INDEX_FILE_NAME);
+      if (Files.exists(indexFile)) {
+        try (Reader reader = Files.newBufferedReader(indexFile)) {
+          List<Entry> saved = gson.fromJson(reader, new TypeToken<List<Entry>>(){}.getType());
+          if (saved != null) {
+            for (Entry entry : saved) {
+              entries.put(entry.path(), entry);
+            }
+          }
+        } catch (IOException | RuntimeException e) {
+          System.out.println("Ignoring unreadable kernel coverage index " + indexFile + ": " + e.getMessage());
+        }
+      }
+      index = new KernelCoverageIndex(key, entries);
+      indices.put(key, index);
+    }
+    return index;
+  }
+
+  /**
+   * @return coverage of one kernel file, from the index if the file hasn't changed since it was indexed
+   */
+  public synchronized Entry entryFor(String file) throws IOException {
+    File f = new File(file);
+    String key = f.getAbsolutePath();
+    Entry entry = entries.get(key);
+    if (entry != null && entry.size() == f.length() && entry.lastModified() == f.lastModified()) {
+      return entry;
+    }
+    entry = read(f);
+    entries.put(key, entry);
+    dirty = true;
+    return entry;
+  }
+
+  /**
+   * Writes the index file if anything was added since it was read. Failing to write it only costs a rebuild next time.
+   */
+  public synchronized void save() {
+    if (!dirty) {
+      return;
+    }
+    try (Writer writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE_NAME))) {
+      gson.toJson(new ArrayList<>(entries.values()), writer);
+      dirty = false;
+    } catch (IOException e) {
+      System.out.println("Could not save kernel coverage index to " + directory + ": " + e.getMessage());
+    }
+  }
+
+  private static Entry read(File file) throws IOException {
+    long size = file.length();
+    long lastModified = file.lastModified();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer fileRecord = readRecord(channel, 1);
+      if (fileRecord == null) {
+        return new Entry(file.getAbsolutePath(), size, lastModified, Kind.TEXT, List.of());
+      }
+      String idWord = ascii(fileRecord, 0, 8);
+      if (!idWord.startsWith("DAF/")) {
+        // text kernels, and DAS based kernels (DSK) which have no DAF summaries to index
+        Kind kind = idWord.startsWith("DAS/") || idWord.startsWith("DSK/") ? Kind.OTHER : Kind.TEXT;
+        return new Entry(file.getAbsolutePath(), size, lastModified, kind, List.of());
+      }
+      Kind kind = switch (idWord.substring(4).trim()) {
+        case "SPK" -> Kind.SPK;
+        case "CK" -> Kind.CK;
+        case "PCK" -> Kind.PCK;
+        default -> Kind.OTHER;
+      };
+
+      ByteOrder order = ascii(fileRecord, 88, 8).equals("BIG-IEEE") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+      fileRecord.order(order);
+      int nd = fileRecord.getInt(8);
+      int ni = fileRecord.getInt(12);
+      int summarySize = nd + (ni + 1) / 2;
+      int record = fileRecord.getInt(76);
+
+      List<Segment> segments = new ArrayList<>();
+      while (record > 0) {
+        ByteBuffer summaries = readRecord(channel, record);
+        if (summaries == null) {
+          break;
+        }
+        summaries.order(order);
+        int next = (int) summaries.getDouble(0);
+        int count = (int) summaries.getDouble(16);
+        for (int i = 0; i < count; i++) {
+          int offset = 24 + i * summarySize * 8;
+          int ints = offset + nd * 8;
+          segments.add(new Segment(summaries.getInt(ints), summaries.getInt(ints + 4), summaries.getDouble(offset), summaries.getDouble(offset + 8)));
+        }
+        record = next;
+      }
+      return new Entry(file.getAbsolutePath(), size, lastModified, kind, List.copyOf(segments));
+    }
+  }
+
+  private static ByteBuffer readRecord(FileChannel channel, int record) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    long position = (long) (record - 1) * 1024;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        break;
+      }
+    }
+    // a short first record is only possible for a text kernel
+    return buffer.position() < (record == 1 ? 8 : 1024) ? null : buffer;
+  }
+
+  private static String ascii(ByteBuffer buffer, int offset, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = offset + i < buffer.position() ? buffer.get(offset + i) : (byte) ' ';
+    }
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,316 @@
+package missionmodel.spice;
+
+import missionmodel.JPLTimeConvertUtility;
+import spice.basic.CSPICE;
+import spice.basic.IDCodeNotFoundException;
+import spice.basic.SpiceErrorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps track of which meta-kernel is furnished, so that the Mission constructor and every scheduling procedure can ask
+ * for the same kernels without SPICE re-reading them each time. A load is identified by a fingerprint of the
+ * meta-kernel and every file it lists, including through nested meta-kernels (path, size and modification time);
+ * asking for a meta-kernel whose fingerprint matches the one already loaded is a no-op. If anything changed, or something else has touched the kernel pool since
+ * (see {@link #invalidate()}), the pool is cleared and the meta-kernel is furnished again.
+ *
+ * {@link #ensureLoadedForWindow} loads a subset of the meta-kernel instead: every text kernel, but only the binary
+ * kernels whose coverage (from the directory's {@link KernelCoverageIndex}) overlaps the requested time window and
+ * bodies. A later request is served from what is loaded as long as it asks for no more time or bodies than that.
+ */
+public class KernelSession {
+  private static String loadedFingerprint = null;
+  // what the loaded kernels cover, null when everything in the meta-kernel is loaded
+  private static Instant loadedStart = null;
+  private static Instant loadedEnd = null;
+  private static Set<String> loadedBodies = null;
+
+  private static long loads = 0;
+  private static long reuses = 0;
+  private static long totalLoadNanos = 0;
+  private static long lastLoadNanos = 0;
+  private static long totalFingerprintNanos = 0;
+  // bumped whenever the pool changes or is declared unknown, so holders of a load can tell it is no longer theirs
+  private static long generation = 0;
+
+  /**
+   * Makes sure the meta-kernel is the one loaded, reloading only if it or any of its files changed
+   * @return true if the kernels were (re)loaded, false if the loaded ones were reused
+   */
+  public static synchronized boolean ensureLoaded(String metaKernelPath) throws SpiceErrorException {
+    long start = System.nanoTime();
+    String fingerprint = fingerprint(metaKernelPath);
+    totalFingerprintNanos += System.nanoTime() - start;
+
+    if (fingerprint != null && fingerprint.equals(loadedFingerprint) && loadedBodies == null && loadedStart == null && loadedEnd == null) {
+      reuses++;
+      return false;
+    }
+
+    long loadStart = System.nanoTime();
+    loadedFingerprint = null;
+    CSPICE.kclear();
+    LeapSeconds.reset();
+    BodyRotations.reset();
+    CSPICE.furnsh(metaKernelPath);
+    recordLoad(loadStart);
+    // an unreadable meta-kernel can't be fingerprinted, so it is loaded every time
+    loadedFingerprint = fingerprint;
+    loadedStart = null;
+    loadedEnd = null;
+    loadedBodies = null;
+    return true;
+  }
+
+  /**
+   * Makes sure the kernels needed for a time window and set of bodies are loaded. Text kernels are always loaded;
+   * SPK files are loaded if they have a segment in the window for one of the bodies or for a center those segments
+   * are relative to (so the whole chain down to the solar system barycenter is available), and binary PCK and CK
+   * files are loaded if they have any segment in the window.
+   * @param metaKernelPath Meta-kernel to take the kernels from
+   * @param start Start of the time window
+   * @param end End of the time window
+   * @param bodies SPICE names or IDs of the bodies (including spacecraft and stations) that geometry will be asked for
+   * @return true if the kernels were (re)loaded, false if the loaded ones were reused
+   */
+  public static synchronized boolean ensureLoadedForWindow(String metaKernelPath, Instant start, Instant end, Collection<String> bodies) throws SpiceErrorException {
+    long fingerprintStart = System.nanoTime();
+    String fingerprint = fingerprint(metaKernelPath);
+    totalFingerprintNanos += System.nanoTime() - fingerprintStart;
+
+    if (fingerprint != null && fingerprint.equals(loadedFingerprint)
+      && (loadedStart == null || !loadedStart.isAfter(start))
+      && (loadedEnd == null || !loadedEnd.isBefore(end))
+      && (loadedBodies == null || loadedBodies.containsAll(bodies))) {
+      reuses++;
+      return false;
+    }
+
+    MetaKernel metaKernel;
+    try {
+      metaKernel = MetaKernel.parse(Path.of(metaKernelPath));
+    } catch (IOException e) {
+      return ensureLoaded(metaKernelPath);
+    }
+    Path parent = Path.of(metaKernelPath).toAbsolutePath().getParent();
+    KernelCoverageIndex index = KernelCoverageIndex.forDirectory(parent);
+
+    long loadStart = System.nanoTime();
+    loadedFingerprint = null;
+    CSPICE.kclear();
+    LeapSeconds.reset();
+    BodyRotations.reset();
+
+    // text kernels first: the time conversions and body names below need the leapseconds and any name definitions
+    List<String> binaryFiles = new ArrayList<>();
+    List<KernelCoverageIndex.Entry> binaryEntries = new ArrayList<>();
+    for (String file : metaKernel.getKernelsToLoad()) {
+      KernelCoverageIndex.Entry entry;
+      try {
+        entry = index.entryFor(file);
+      } catch (IOException e) {
+        // let furnsh report the problem with the file
+        CSPICE.furnsh(file);
+        continue;
+      }
+      if (entry.kind() == KernelCoverageIndex.Kind.TEXT) {
+        CSPICE.furnsh(file);
+      } else {
+        binaryFiles.add(file);
+        binaryEntries.add(entry);
+      }
+    }
+    index.save();
+
+    double startEt = JPLTimeConvertUtility.etFromUTCInstant(start);
+    double endEt = JPLTimeConvertUtility.etFromUTCInstant(end);
+    Set<Integer> needed = neededSpkIds(bodies, binaryEntries, startEt, endEt);
+
+    for (int i = 0; i < binaryFiles.size(); i++) {
+      if (needed == null || isNeeded(binaryEntries.get(i), needed, startEt, endEt)) {
+        CSPICE.furnsh(binaryFiles.get(i));
+      }
+    }
+    recordLoad(loadStart);
+
+    loadedFingerprint = fingerprint;
+    loadedStart = start;
+    loadedEnd = end;
+    loadedBodies = new HashSet<>(bodies);
+    return true;
+  }
+
+  /**
+   * @return NAIF IDs of the bodies and every center they chain to within the window, or null if a body name can't be
+   * resolved (then every binary kernel is loaded)
+   */
+  private static Set<Integer> neededSpkIds(Collection<String> bodies, List<KernelCoverageIndex.Entry> entries, double startEt, double endEt) throws SpiceErrorException {
+    Set<Integer> needed = new HashSet<>();
+    for (String body : bodies) {
+      try {
+        needed.add(CSPICE.bods2c(body));
+      } catch (IDCodeNotFoundException e) {
+        return null;
+      }
+    }
+    addCenters(needed, entries, startEt, endEt);
+    return needed;
+  }
+
+  /**
+   * Adds to the IDs the center of every SPK segment for one of them that overlaps the window, until nothing more is
+   * added, so the IDs cover the whole chain down to the solar system barycenter
+   */
+  public static void addCenters(Set<Integer> ids, List<KernelCoverageIndex.Entry> entries, double startEt, double endEt) {
+    boolean grew = true;
+    while (grew) {
+      grew = false;
+      for (KernelCoverageIndex.Entry entry : entries) {
+        if (entry.kind() != KernelCoverageIndex.Kind.SPK) {
+          continue;
+        }
+        for (KernelCoverageIndex.Segment segment : entry.segments()) {
+          if (ids.contains(segment.id()) && overlaps(segment.start(), segment.end(), startEt, endEt)) {
+            grew |= ids.add(segment.center());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return whether a binary kernel has to be loaded for the window: an SPK with a segment for one of the needed IDs
+   * in it, or a PCK or CK with any segment in it. CKs that can't be placed in time without an SCLK kernel are needed.
+   */
+  public static boolean isNeeded(KernelCoverageIndex.Entry entry, Set<Integer> needed, double startEt, double endEt) {
+    switch (entry.kind()) {
+      case SPK:
+        for (KernelCoverageIndex.Segment segment : entry.segments()) {
+          if (needed.contains(segment.id()) && overlaps(segment.start(), segment.end(), startEt, endEt)) {
+            return true;
+          }
+        }
+        return false;
+      case PCK:
+        for (KernelCoverageIndex.Segment segment : entry.segments()) {
+          if (overlaps(segment.start(), segment.end(), startEt, endEt)) {
+            return true;
+          }
+        }
+        return false;
+      case CK:
+        for (KernelCoverageIndex.Segment segment : entry.segments()) {
+          try {
+            // CK segment bounds are encoded SCLK of the instrument's spacecraft clock
+            int clock = segment.id() / 1000;
+            if (overlaps(CSPICE.sct2e(clock, segment.start()), CSPICE.sct2e(clock, segment.end()), startEt, endEt)) {
+              return true;
+            }
+          } catch (SpiceErrorException e) {
+            // no SCLK kernel to place the segment in time, so keep it
+            return true;
+          }
+        }
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private static boolean overlaps(double segmentStart, double segmentEnd, double startEt, double endEt) {
+    return segmentStart <= endEt && segmentEnd >= startEt;
+  }
+
+  private static void recordLoad(long loadStart) {
+    lastLoadNanos = System.nanoTime() - loadStart;
+    totalLoadNanos += lastLoadNanos;
+    loads++;
+    generation++;
+  }
+
+  /**
+   * Forget what is loaded, so the next ensureLoaded reloads. Call this after furnishing or unloading kernels directly.
+   */
+  public static synchronized void invalidate() {
+    loadedFingerprint = null;
+    generation++;
+    LeapSeconds.reset();
+    BodyRotations.reset();
+  }
+
+  /**
+   * @return a counter that changes every time the kernel pool is reloaded or invalidated
+   */
+  public static synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * @return fingerprint of the meta-kernel and the files it lists, or null if the meta-kernel can't be read. Nested
+   * meta-kernels are expanded, since furnsh loads the files they list too.
+   */
+  public static String fingerprint(String metaKernelPath) {
+    StringBuilder fingerprint = new StringBuilder();
+    try {
+      appendFingerprint(metaKernelPath, fingerprint, new HashSet<>());
+    } catch (IOException e) {
+      return null;
+    }
+    return fingerprint.toString();
+  }
+
+  private static void appendFingerprint(String metaKernelPath, StringBuilder fingerprint, Set<String> expanded) throws IOException {
+    appendFile(new File(metaKernelPath), fingerprint);
+    // a meta-kernel that lists itself (directly or not) is only expanded once
+    if (!expanded.add(new File(metaKernelPath).getAbsolutePath())) {
+      return;
+    }
+    for (String file : MetaKernel.parse(Path.of(metaKernelPath)).getKernelsToLoad()) {
+      if (MetaKernel.isMetaKernel(Path.of(file))) {
+        appendFingerprint(file, fingerprint, expanded);
+      } else {
+        appendFile(new File(file), fingerprint);
+      }
+    }
+  }
+
+  private static void appendFile(File f, StringBuilder fingerprint) {
+    fingerprint.append(f.getAbsolutePath()).append('|').append(f.length()).append('|').append(f.lastModified()).append('\n');
+  }
+
+  public static synchronized long getLoads() {
+    return loads;
+  }
+
+  public static synchronized long getReuses() {
+    return reuses;
+  }
+
+  public static synchronized double getTotalLoadSeconds() {
+    return totalLoadNanos / 1e9;
+  }
+
+  public static synchronized double getLastLoadSeconds() {
+    return lastLoadNanos / 1e9;
+  }
+
+  /**
+   * @return time spent checking fingerprints, which is the whole cost of a reuse
+   */
+  public static synchronized double getTotalFingerprintSeconds() {
+    return totalFingerprintNanos / 1e9;
+  }
+
+  public static synchronized String summary() {
+    return "Kernel loads: " + loads + " (" + getTotalLoadSeconds() + " s, last " + getLastLoadSeconds() + " s), reuses: "
+      + reuses + ", fingerprinting: " + getTotalFingerprintSeconds() + " s";
+  }
+}
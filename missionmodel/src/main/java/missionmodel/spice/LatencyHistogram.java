@@ -0,0 +1,99 @@
+package missionmodel.spice;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with buckets laid out as in HdrHistogram: exact below 128 ns, then 64 buckets
+ * per power of two, so any percentile is reported within about 1.6% of the true value whatever the range. Recording is
+ * a few atomic increments and never allocates, so threads may record concurrently.
+ */
+public class LatencyHistogram {
+  private static final int EXACT = 128;
+  private static final int SUB_BUCKETS = 64;
+  private static final int SUB_BUCKET_BITS = 6;
+  // powers of two from 2^7 to 2^62, 64 buckets each
+  private static final int BUCKETS = EXACT + (63 - 7) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts.incrementAndGet(bucket(nanos));
+    count.increment();
+    total.add(nanos);
+    max.accumulateAndGet(nanos, Math::max);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return total.sum();
+  }
+
+  public long getMaxNanos() {
+    return max.get();
+  }
+
+  public double getMeanNanos() {
+    long n = getCount();
+    return n == 0 ? 0 : (double) getTotalNanos() / n;
+  }
+
+  /**
+   * @param percentile Between 0 and 100
+   * @return the highest latency its bucket holds, so the true percentile is at most this, and 0 if nothing was recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long n = getCount();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestInBucket(i), getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    total.reset();
+    max.set(0);
+  }
+
+  static int bucket(long nanos) {
+    if (nanos < EXACT) {
+      return (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+    return EXACT + (exponent - 7) * SUB_BUCKETS + sub;
+  }
+
+  static long highestInBucket(int bucket) {
+    if (bucket < EXACT) {
+      return bucket;
+    }
+    int exponent = (bucket - EXACT) / SUB_BUCKETS + 7;
+    long sub = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+    int shift = exponent - SUB_BUCKET_BITS;
+    long highest = ((sub + 1) << shift) - 1;
+    return highest < 0 ? Long.MAX_VALUE : highest;
+  }
+}
@@ -0,0 +1,181 @@
+package missionmodel.spice;
+
+import spice.basic.CSPICE;
+import spice.basic.SpiceException;
+
+import java.time.LocalDate;
+
+/**
+ * Leap second table and TDB-TT constants of the loaded leapseconds kernel, copied out of the kernel pool once so UTC
+ * and ET can be converted with arithmetic instead of a SPICE string round trip. The conversion is the one SPICE's
+ * DELTET does: ET - UTC = DELTA_T_A + DELTA_AT + K sin(E), where DELTA_AT is the leap second count in effect and
+ * E = M + EB sin(M), M = M0 + M1 ET.
+ *
+ * UTC here is seconds past J2000 counted without leap seconds (each day 86400 s), the scale the leap second epochs in
+ * the kernel use. The table is read when Spice loads kernels, or on first use, and again after KernelSession reloads
+ * the pool. CSPICE isn't reentrant, so the pool is only read under the monitor all SPICE work holds (Spice.class, see
+ * SerializedSpiceBackend); once read, the table is handed out without locking.
+ */
+public class LeapSeconds {
+  private static volatile LeapSeconds loaded = null;
+  // naif0012.tls, for running without kernels; its last leap second is still the latest
+  private static final LeapSeconds NAIF0012 = of(32.184, 1.657e-3, 1.671e-2, new double[]{6.239996, 1.99096871e-7},
+    epochs(10, "1972-01-01", "1972-07-01", "1973-01-01", "1974-01-01", "1975-01-01", "1976-01-01", "1977-01-01",
+      "1978-01-01", "1979-01-01", "1980-01-01", "1981-07-01", "1982-07-01", "1983-07-01", "1985-07-01", "1988-01-01",
+      "1990-01-01", "1991-01-01", "1992-07-01", "1993-07-01", "1994-07-01", "1996-01-01", "1997-07-01", "1999-01-01",
+      "2006-01-01", "2009-01-01", "2012-07-01", "2015-07-01", "2017-01-01"));
+
+  private final double deltaTA;
+  private final double k;
+  private final double eb;
+  private final double m0;
+  private final double m1;
+  // leap second counts and the UTC epochs they take effect at, oldest first
+  private final double[] deltaAt;
+  private final double[] utcEpochs;
+  // the same epochs on the ET scale, less the periodic term, for converting back
+  private final double[] etEpochs;
+
+  private LeapSeconds(double deltaTA, double k, double eb, double m0, double m1, double[] deltaAt, double[] utcEpochs) {
+    this.deltaTA = deltaTA;
+    this.k = k;
+    this.eb = eb;
+    this.m0 = m0;
+    this.m1 = m1;
+    this.deltaAt = deltaAt;
+    this.utcEpochs = utcEpochs;
+    etEpochs = new double[utcEpochs.length];
+    for (int i = 0; i < utcEpochs.length; i++) {
+      etEpochs[i] = utcEpochs[i] + deltaTA + deltaAt[i];
+    }
+  }
+
+  /**
+   * @return the table of the loaded leapseconds kernel
+   * @throws SpiceException if no leapseconds kernel is loaded
+   */
+  public static LeapSeconds get() throws SpiceException {
+    LeapSeconds table = loaded;
+    if (table != null && table != NAIF0012) {
+      return table;
+    }
+    synchronized (Spice.class) {
+      if (loaded == null || loaded == NAIF0012) {
+        loaded = fromPool();
+      }
+      return loaded;
+    }
+  }
+
+  /**
+   * @return the table of the loaded leapseconds kernel, or naif0012's if none is loaded or the SPICE library isn't, as
+   * when geometry is computed without kernels
+   */
+  public static LeapSeconds getOrBuiltIn() {
+    LeapSeconds table = loaded;
+    if (table != null) {
+      return table;
+    }
+    synchronized (Spice.class) {
+      if (loaded == null) {
+        // touching CSPICE before the library is loaded would leave the class unusable for the rest of the JVM
+        if (!Spice.isLibraryLoaded()) {
+          return NAIF0012;
+        }
+        try {
+          loaded = fromPool();
+        } catch (SpiceException | LinkageError e) {
+          loaded = NAIF0012;
+        }
+      }
+      return loaded;
+    }
+  }
+
+  /**
+   * Drop the copied table, so the next get reads the pool again. KernelSession calls this whenever the pool changes.
+   */
+  public static void reset() {
+    loaded = null;
+  }
+
+  public static LeapSeconds of(double deltaTA, double k, double eb, double[] m, double[] deltaAtPairs) {
+    double[] deltaAt = new double[deltaAtPairs.length / 2];
+    double[] epochs = new double[deltaAtPairs.length / 2];
+    for (int i = 0; i < deltaAt.length; i++) {
+      deltaAt[i] = deltaAtPairs[2 * i];
+      epochs[i] = deltaAtPairs[2 * i + 1];
+    }
+    return new LeapSeconds(deltaTA, k, eb, m[0], m[1], deltaAt, epochs);
+  }
+
+  // DELTET/DELTA_AT pairs for leap second counts from the first, one more at each date
+  private static double[] epochs(int first, String... dates) {
+    long j2000Day = LocalDate.of(2000, 1, 1).toEpochDay();
+    double[] pairs = new double[2 * dates.length];
+    for (int i = 0; i < dates.length; i++) {
+      pairs[2 * i] = first + i;
+      // midnight of the date, in seconds past noon of J2000's day
+      pairs[2 * i + 1] = (LocalDate.parse(dates[i]).toEpochDay() - j2000Day) * 86400.0 - 43200.0;
+    }
+    return pairs;
+  }
+
+  private static LeapSeconds fromPool() throws SpiceException {
+    return of(CSPICE.gdpool("DELTET/DELTA_T_A", 0, 1)[0],
+      CSPICE.gdpool("DELTET/K", 0, 1)[0],
+      CSPICE.gdpool("DELTET/EB", 0, 1)[0],
+      CSPICE.gdpool("DELTET/M", 0, 2),
+      CSPICE.gdpool("DELTET/DELTA_AT", 0, 400));
+  }
+
+  /**
+   * @return ET - UTC at the UTC epoch
+   */
+  public double etMinusUtc(double utc) {
+    double leaps = deltaAt[floorIndex(utcEpochs, utc)];
+    double approximateEt = utc + deltaTA + leaps;
+    return deltaTA + leaps + periodic(approximateEt);
+  }
+
+  /**
+   * @return ET - UTC at the ET epoch
+   */
+  public double etMinusUtcAtEt(double et) {
+    double periodic = periodic(et);
+    return deltaTA + deltaAt[floorIndex(etEpochs, et - periodic)] + periodic;
+  }
+
+  public double utcToEt(double utc) {
+    return utc + etMinusUtc(utc);
+  }
+
+  public double etToUtc(double et) {
+    return et - etMinusUtcAtEt(et);
+  }
+
+  private double periodic(double et) {
+    double m = m0 + m1 * et;
+    return k * Math.sin(m + eb * Math.sin(m));
+  }
+
+  /**
+   * @return index of the last epoch at or before t, or 0 if t is before them all
+   */
+  private static int floorIndex(double[] epochs, double t) {
+    int lo = 0;
+    int hi = epochs.length - 1;
+    if (t < epochs[0]) {
+      return 0;
+    }
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (epochs[mid] <= t) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
+}
@@ -0,0 +1,158 @@
+package missionmodel.spice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the variables of a SPICE meta-kernel (KERNELS_TO_LOAD, PATH_VALUES, PATH_SYMBOLS) without furnishing it, so
+ * the files it would load can be inspected first. Follows the text kernel rules furnsh uses: only text between
+ * \begindata and \begintext is data, strings are single quoted with '' for a literal quote, a string ending in '+' is
+ * continued by the next one, and $SYMBOL prefixes are replaced by the matching PATH_VALUES entry. Relative paths are
+ * left relative to the working directory, as they are for furnsh.
+ */
+public class MetaKernel {
+  private final Path path;
+  private final List<String> kernelsToLoad;
+
+  private MetaKernel(Path path, List<String> kernelsToLoad) {
+    this.path = path;
+    this.kernelsToLoad = kernelsToLoad;
+  }
+
+  public static MetaKernel parse(Path path) throws IOException {
+    Map<String, List<String>> variables = readVariables(Files.readAllLines(path));
+
+    List<String> symbols = variables.getOrDefault("PATH_SYMBOLS", List.of());
+    List<String> values = variables.getOrDefault("PATH_VALUES", List.of());
+    List<String> kernels = new ArrayList<>();
+    for (String kernel : variables.getOrDefault("KERNELS_TO_LOAD", List.of())) {
+      for (int i = 0; i < symbols.size() && i < values.size(); i++) {
+        kernel = kernel.replace("$" + symbols.get(i), values.get(i));
+      }
+      kernels.add(kernel);
+    }
+    return new MetaKernel(path, List.copyOf(kernels));
+  }
+
+  /**
+   * @return whether the file starts with the KPL/MK ID word meta-kernels carry (leading blanks allowed), false if it
+   * can't be read
+   */
+  public static boolean isMetaKernel(Path path) {
+    try (InputStream in = Files.newInputStream(path)) {
+      String start = new String(in.readNBytes(80), StandardCharsets.US_ASCII).stripLeading();
+      return start.startsWith("KPL/MK");
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * @return files the meta-kernel loads, in load order, with path symbols substituted
+   */
+  public List<String> getKernelsToLoad() {
+    return kernelsToLoad;
+  }
+
+  private static Map<String, List<String>> readVariables(List<String> lines) {
+    StringBuilder data = new StringBuilder();
+    boolean inData = false;
+    for (String line : lines) {
+      String trimmed = line.trim();
+      if (trimmed.equals("\\begindata")) {
+        inData = true;
+      } else if (trimmed.equals("\\begintext")) {
+        inData = false;
+      } else if (inData) {
+        data.append(line).append('\n');
+      }
+    }
+
+    Map<String, List<String>> variables = new LinkedHashMap<>();
+    String text = data.toString();
+    int i = 0;
+    while (i < text.length()) {
+      int equals = text.indexOf('=', i);
+      if (equals < 0) {
+        break;
+      }
+      boolean append = equals > 0 && text.charAt(equals - 1) == '+';
+      String name = text.substring(i, append ? equals - 1 : equals).trim();
+
+      // values are either a parenthesized list or a single value
+      int start = equals + 1;
+      while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+        start++;
+      }
+      int end;
+      List<String> strings = new ArrayList<>();
+      if (start < text.length() && text.charAt(start) == '(') {
+        end = readStrings(text, start + 1, ')', strings);
+      } else {
+        end = readStrings(text, start, '\n', strings);
+      }
+
+      List<String> existing = append ? variables.getOrDefault(name, new ArrayList<>()) : new ArrayList<>();
+      existing = new ArrayList<>(existing);
+      existing.addAll(strings);
+      variables.put(name, existing);
+      i = end + 1;
+    }
+    return variables;
+  }
+
+  /**
+   * Collects quoted strings up to the terminator (outside of quotes), joining continued strings
+   * @return index of the terminator
+   */
+  private static int readStrings(String text, int from, char terminator, List<String> out) {
+    StringBuilder pending = null;
+    int i = from;
+    while (i < text.length() && text.charAt(i) != terminator) {
+      if (text.charAt(i) == '\'') {
+        StringBuilder value = new StringBuilder();
+        i++;
+        while (i < text.length()) {
+          if (text.charAt(i) == '\'') {
+            if (i + 1 < text.length() && text.charAt(i + 1) == '\'') {
+              value.append('\'');
+              i += 2;
+              continue;
+            }
+            break;
+          }
+          value.append(text.charAt(i));
+          i++;
+        }
+        String s = value.toString();
+        if (pending != null) {
+          pending.append(s);
+        } else {
+          pending = new StringBuilder(s);
+        }
+        if (s.endsWith("+")) {
+          pending.setLength(pending.length() - 1);
+        } else {
+          out.add(pending.toString());
+          pending = null;
+        }
+      }
+      i++;
+    }
+    if (pending != null) {
+      out.add(pending.toString());
+    }
+    return i;
+  }
+}
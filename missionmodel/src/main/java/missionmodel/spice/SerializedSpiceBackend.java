@@ -0,0 +1,76 @@
+package missionmodel.spice;
+
+import spice.basic.SpiceErrorException;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend that runs every call on the caller's thread, one at a time across the whole process, under the same monitor
+ * Spice and its initialize methods hold. A backend made with a meta-kernel owns that kernel set: if the pool was
+ * reloaded for someone else since its last call (see KernelSession.generation), its meta-kernel is loaded again first,
+ * so simulations with different kernels can share the JVM, at the cost of a reload each time they alternate. A backend
+ * made without one runs against whatever is loaded, as scheduling procedures that load their own window do.
+ */
+public class SerializedSpiceBackend implements SpiceBackend {
+  // calls made through any backend in the process, for sizing runs (see totalCalls)
+  private static final LongAdder calls = new LongAdder();
+
+  private final String metaKernelPath;
+  // KernelSession generation the pool was at after this backend last loaded it, -1 before the first load
+  private long loadedGeneration = -1;
+
+  public SerializedSpiceBackend(String metaKernelPath) {
+    this.metaKernelPath = metaKernelPath;
+  }
+
+  /**
+   * @return a backend that serializes calls but leaves loading kernels to the caller
+   */
+  public static SerializedSpiceBackend currentKernels() {
+    return new SerializedSpiceBackend(null);
+  }
+
+  /**
+   * @return number of calls made through every SerializedSpiceBackend since the process started
+   */
+  public static long totalCalls() {
+    return calls.sum();
+  }
+
+  public String getMetaKernelPath() {
+    return metaKernelPath;
+  }
+
+  @Override
+  public void initialize() throws SpiceErrorException {
+    synchronized (Spice.class) {
+      ensureLoaded();
+    }
+  }
+
+  @Override
+  public <T> T call(SpiceCall<T> work) throws SpiceErrorException {
+    synchronized (Spice.class) {
+      ensureLoaded();
+      calls.increment();
+      return work.call();
+    }
+  }
+
+  @Override
+  public String kernelSetIdentity() throws SpiceErrorException {
+    synchronized (Spice.class) {
+      ensureLoaded();
+      return Spice.kernelSetIdentity();
+    }
+  }
+
+  private void ensureLoaded() throws SpiceErrorException {
+    if (metaKernelPath == null || loadedGeneration == KernelSession.generation()) {
+      return;
+    }
+    loadedGeneration = -1;
+    Spice.initialize(metaKernelPath);
+    loadedGeneration = KernelSession.generation();
+  }
+}
@@ -5,18 +5,97 @@ import spice.basic.CSPICE;
 import spice.basic.SpiceErrorException;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
 
 public class Spice {
   private static boolean spiceImported = false;
+  private static String kernelSetIdentity = null;
 
-  public static void initialize(String metaKernelPath) throws SpiceErrorException {
+  public static synchronized void initialize(String metaKernelPath) throws SpiceErrorException {
     if (!spiceImported) {
       SpiceLoader.loadSpice();
       spiceImported = true;
     }
-    CSPICE.kclear();
-    CSPICE.furnsh(metaKernelPath);
+    // only clears and furnishes again if the meta-kernel or one of its files changed since the last load
+    if (KernelSession.ensureLoaded(metaKernelPath)) {
+      kernelSetIdentity = null;
+      // read while we hold the SPICE monitor, so time conversions elsewhere never have to call CSPICE
+      LeapSeconds.getOrBuiltIn();
+    }
+  }
+
+  /**
+   * Like initialize, but only furnishes the binary kernels from the meta-kernel that cover the time window and bodies
+   * (see KernelSession.ensureLoadedForWindow). Use when the window is known up front, as it is for scheduling goals.
+   */
+  public static synchronized void initializeForWindow(String metaKernelPath, Instant start, Instant end, Collection<String> bodies) throws SpiceErrorException {
+    if (!spiceImported) {
+      SpiceLoader.loadSpice();
+      spiceImported = true;
+    }
+    if (KernelSession.ensureLoadedForWindow(metaKernelPath, start, end, bodies)) {
+      kernelSetIdentity = null;
+      LeapSeconds.getOrBuiltIn();
+    }
+  }
+
+  /**
+   * @return whether the SPICE library has been loaded into this JVM by initialize, so CSPICE can be called
+   */
+  public static synchronized boolean isLibraryLoaded() {
+    return spiceImported;
+  }
+
+  /**
+   * Identifies the set of kernels currently loaded, so results computed from them can be cached and reused only while
+   * the same kernels are loaded. Covers the name, size and modification time of every loaded file, in load order.
+   * @return hex digest of the loaded kernel set, recomputed after every initialize
+   */
+  public static synchronized String kernelSetIdentity() throws SpiceErrorException {
+    if (kernelSetIdentity == null) {
+      StringBuilder description = new StringBuilder();
+      int count = CSPICE.ktotal("ALL");
+      for (int i = 0; i < count; i++) {
+        String[] file = new String[1];
+        String[] type = new String[1];
+        String[] source = new String[1];
+        int[] handle = new int[1];
+        boolean[] found = new boolean[1];
+        CSPICE.kdata(i, "ALL", file, type, source, handle, found);
+        if (found[0]) {
+          File f = new File(file[0]);
+          description.append(file[0]).append('|').append(f.length()).append('|').append(f.lastModified()).append('\n');
+        }
+      }
+      kernelSetIdentity = digest(description.toString());
+    }
+    return kernelSetIdentity;
+  }
+
+  /**
+   * Identifies a meta-kernel and every file it lists (see KernelSession.fingerprint), whichever of them are loaded. Unlike
+   * kernelSetIdentity it doesn't change when initializeForWindow loads a different subset for another window, so
+   * results keyed on it carry over as a plan grows into the coverage of other files.
+   * @return hex digest of the meta-kernel's fingerprint, or null if the meta-kernel can't be read
+   */
+  public static String metaKernelIdentity(String metaKernelPath) {
+    String fingerprint = KernelSession.fingerprint(metaKernelPath);
+    return fingerprint == null ? null : digest(fingerprint);
+  }
+
+  private static String digest(String description) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(description.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      return Integer.toHexString(description.hashCode());
+    }
   }
 
 }
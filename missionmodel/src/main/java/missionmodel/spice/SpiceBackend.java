@@ -0,0 +1,33 @@
+package missionmodel.spice;
+
+import spice.basic.SpiceErrorException;
+
+/**
+ * The path geometry code takes to CSPICE. CSPICE keeps one kernel pool and error state per process and is not
+ * reentrant, so an implementation decides how calls from concurrent simulations share it: which kernels must be
+ * loaded for the call and how calls are kept from interleaving. Each call should be a short, self-contained piece of
+ * SPICE work; anything that must see one kernel set throughout belongs in a single call.
+ */
+public interface SpiceBackend {
+
+  @FunctionalInterface
+  interface SpiceCall<T> {
+    T call() throws SpiceErrorException;
+  }
+
+  /**
+   * Loads whatever the backend needs before its first call
+   */
+  void initialize() throws SpiceErrorException;
+
+  /**
+   * Runs the work with the backend's kernels loaded and no other SPICE work in progress
+   * @return what the work returned
+   */
+  <T> T call(SpiceCall<T> work) throws SpiceErrorException;
+
+  /**
+   * @return identity of the kernel set the backend's calls run against (see Spice.kernelSetIdentity)
+   */
+  String kernelSetIdentity() throws SpiceErrorException;
+}
@@ -0,0 +1,281 @@
+package missionmodel.spice;
+
+import spice.basic.CSPICE;
+import spice.basic.IDCodeNotFoundException;
+import spice.basic.KernelVarNotFoundException;
+import spice.basic.NameNotFoundException;
+import spice.basic.SpiceErrorException;
+
+/**
+ * The CSPICE functions the geometry and GNC code calls, with the same signatures, each timed into SpiceInstrumentation
+ * when it's on. Model code calls these rather than CSPICE directly so every call shows up there; kernel loading in this
+ * package still calls CSPICE itself.
+ */
+public class SpiceCalls {
+  // Ephemeris and frames
+  public static void spkezr(String targ, double et, String ref, String abcorr, String obs, double[] starg, double[] lt) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.spkezr(targ, et, ref, abcorr, obs, starg, lt);
+    } finally {
+      SpiceInstrumentation.end("spkezr", began);
+    }
+  }
+
+  public static void spkpos(String targ, double et, String ref, String abcorr, String obs, double[] ptarg, double[] lt) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.spkpos(targ, et, ref, abcorr, obs, ptarg, lt);
+    } finally {
+      SpiceInstrumentation.end("spkpos", began);
+    }
+  }
+
+  public static double[][] pxform(String from, String to, double et) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.pxform(from, to, et);
+    } finally {
+      SpiceInstrumentation.end("pxform", began);
+    }
+  }
+
+  // Surface geometry
+  public static void sincpt(String method, String target, double et, String fixref, String abcorr, String obsrvr, String dref, double[] dvec, double[] spoint, double[] trgepc, double[] srfvec, boolean[] found) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.sincpt(method, target, et, fixref, abcorr, obsrvr, dref, dvec, spoint, trgepc, srfvec, found);
+    } finally {
+      SpiceInstrumentation.end("sincpt", began);
+    }
+  }
+
+  public static void ilumin(String method, String target, double et, String fixref, String abcorr, String obsrvr, double[] spoint, double[] trgepc, double[] srfvec, double[] angles) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.ilumin(method, target, et, fixref, abcorr, obsrvr, spoint, trgepc, srfvec, angles);
+    } finally {
+      SpiceInstrumentation.end("ilumin", began);
+    }
+  }
+
+  public static void et2lst(double et, int body, double lon, String type, int[] hr, int[] mn, int[] sc, String[] time, String[] ampm) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.et2lst(et, body, lon, type, hr, mn, sc, time, ampm);
+    } finally {
+      SpiceInstrumentation.end("et2lst", began);
+    }
+  }
+
+  public static double[] oscelt(double[] state, double et, double mu) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.oscelt(state, et, mu);
+    } finally {
+      SpiceInstrumentation.end("oscelt", began);
+    }
+  }
+
+  // Geometry finder searches
+  public static double[] gfoclt(String occtyp, String front, String fshape, String fframe, String back, String bshape, String bframe, String abcorr, String obsrvr, double step, int nintvls, double[] cnfine) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.gfoclt(occtyp, front, fshape, fframe, back, bshape, bframe, abcorr, obsrvr, step, nintvls, cnfine);
+    } finally {
+      SpiceInstrumentation.end("gfoclt", began);
+    }
+  }
+
+  public static double[] gfdist(String target, String abcorr, String obsrvr, String relate, double refval, double adjust, double step, int nintvls, double[] cnfine) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.gfdist(target, abcorr, obsrvr, relate, refval, adjust, step, nintvls, cnfine);
+    } finally {
+      SpiceInstrumentation.end("gfdist", began);
+    }
+  }
+
+  public static double[] gfsep(String targ1, String shape1, String frame1, String targ2, String shape2, String frame2, String abcorr, String obsrvr, String relate, double refval, double adjust, double step, int nintvls, double[] cnfine) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.gfsep(targ1, shape1, frame1, targ2, shape2, frame2, abcorr, obsrvr, relate, refval, adjust, step, nintvls, cnfine);
+    } finally {
+      SpiceInstrumentation.end("gfsep", began);
+    }
+  }
+
+  public static double[] gfposc(String target, String frame, String abcorr, String obsrvr, String crdsys, String coord, String relate, double refval, double adjust, double step, int nintvls, double[] cnfine) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.gfposc(target, frame, abcorr, obsrvr, crdsys, coord, relate, refval, adjust, step, nintvls, cnfine);
+    } finally {
+      SpiceInstrumentation.end("gfposc", began);
+    }
+  }
+
+  // Bodies, frames and instruments
+  public static double[] bodvcd(int body, String item) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.bodvcd(body, item);
+    } finally {
+      SpiceInstrumentation.end("bodvcd", began);
+    }
+  }
+
+  public static int bods2c(String name) throws SpiceErrorException, IDCodeNotFoundException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.bods2c(name);
+    } finally {
+      SpiceInstrumentation.end("bods2c", began);
+    }
+  }
+
+  public static String bodc2n(int code) throws SpiceErrorException, NameNotFoundException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.bodc2n(code);
+    } finally {
+      SpiceInstrumentation.end("bodc2n", began);
+    }
+  }
+
+  public static int namfrm(String frname) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.namfrm(frname);
+    } finally {
+      SpiceInstrumentation.end("namfrm", began);
+    }
+  }
+
+  public static void frinfo(int frcode, int[] cent, int[] frclss, int[] clssid, boolean[] found) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.frinfo(frcode, cent, frclss, clssid, found);
+    } finally {
+      SpiceInstrumentation.end("frinfo", began);
+    }
+  }
+
+  public static void getfov(int instid, String[] shape, String[] frame, double[] bsight, int[] n, double[] bounds) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.getfov(instid, shape, frame, bsight, n, bounds);
+    } finally {
+      SpiceInstrumentation.end("getfov", began);
+    }
+  }
+
+  // Clocks and attitude
+  public static void ckgp(int inst, double sclkdp, double tol, String ref, double[][] cmat, double[] clkout, boolean[] found) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.ckgp(inst, sclkdp, tol, ref, cmat, clkout, found);
+    } finally {
+      SpiceInstrumentation.end("ckgp", began);
+    }
+  }
+
+  public static void ckgpav(int inst, double sclkdp, double tol, String ref, double[][] cmat, double[] av, double[] clkout, boolean[] found) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.ckgpav(inst, sclkdp, tol, ref, cmat, av, clkout, found);
+    } finally {
+      SpiceInstrumentation.end("ckgpav", began);
+    }
+  }
+
+  public static double scencd(int sc, String sclkch) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.scencd(sc, sclkch);
+    } finally {
+      SpiceInstrumentation.end("scencd", began);
+    }
+  }
+
+  public static String sce2s(int sc, double et) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.sce2s(sc, et);
+    } finally {
+      SpiceInstrumentation.end("sce2s", began);
+    }
+  }
+
+  public static double sce2c(int sc, double et) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.sce2c(sc, et);
+    } finally {
+      SpiceInstrumentation.end("sce2c", began);
+    }
+  }
+
+  // Kernel pool and CK files
+  public static void dtpool(String name, boolean[] found, int[] n, String[] type) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.dtpool(name, found, n, type);
+    } finally {
+      SpiceInstrumentation.end("dtpool", began);
+    }
+  }
+
+  public static double[] gdpool(String name, int start, int room) throws SpiceErrorException, KernelVarNotFoundException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.gdpool(name, start, room);
+    } finally {
+      SpiceInstrumentation.end("gdpool", began);
+    }
+  }
+
+  public static int ktotal(String kind) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.ktotal(kind);
+    } finally {
+      SpiceInstrumentation.end("ktotal", began);
+    }
+  }
+
+  public static void kdata(int which, String kind, String[] file, String[] filtyp, String[] source, int[] handle, boolean[] found) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.kdata(which, kind, file, filtyp, source, handle, found);
+    } finally {
+      SpiceInstrumentation.end("kdata", began);
+    }
+  }
+
+  public static int ckopn(String fname, String ifname, int ncomch) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      return CSPICE.ckopn(fname, ifname, ncomch);
+    } finally {
+      SpiceInstrumentation.end("ckopn", began);
+    }
+  }
+
+  public static void ckw03(int handle, double begtim, double endtim, int inst, String ref, boolean avflag, String segid, int nrec, double[] sclkdp, double[] quats, double[] avvs, int nints, double[] starts) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.ckw03(handle, begtim, endtim, inst, ref, avflag, segid, nrec, sclkdp, quats, avvs, nints, starts);
+    } finally {
+      SpiceInstrumentation.end("ckw03", began);
+    }
+  }
+
+  public static void ckcls(int handle) throws SpiceErrorException {
+    long began = SpiceInstrumentation.begin();
+    try {
+      CSPICE.ckcls(handle);
+    } finally {
+      SpiceInstrumentation.end("ckcls", began);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package missionmodel.spice;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Where SpiceCalls records what the model asks of CSPICE: per function, the number of calls and a latency histogram,
+ * and which model code made them; and per cache in front of SPICE (see cacheLookup), hits and misses. Callers are the
+ * first few distinct methods outside this package on the stack, e.g.
+ * "SubPointInformation.&lt;init&gt; &lt; SpiceDirectTimeDependentStateCalculator.getSubPointInformation", which names
+ * the quantity being computed.
+ *
+ * Off by default, and then each call costs one volatile read. Turn it on with setEnabled, or by setting the
+ * SPICE_INSTRUMENTATION environment variable to "true", to print a summary when the process exits, or to a file path,
+ * to write the summary there as JSON.
+ */
+public class SpiceInstrumentation {
+  public static final String ENVIRONMENT_VARIABLE = "SPICE_INSTRUMENTATION";
+  // methods of the caller recorded per call
+  private static final int CALLER_DEPTH = 3;
+  private static final long DISABLED = Long.MIN_VALUE;
+
+  private static volatile boolean enabled = false;
+
+  private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+  // keyed by function, then caller
+  private static final Map<String, Map<String, LongAdder>> callers = new ConcurrentHashMap<>();
+  // hits, then misses
+  private static final Map<String, LongAdder[]> caches = new ConcurrentHashMap<>();
+
+  private static final StackWalker walker = StackWalker.getInstance();
+  private static final String SPICE_PACKAGE = SpiceInstrumentation.class.getPackageName();
+
+  static {
+    String setting = System.getenv(ENVIRONMENT_VARIABLE);
+    if (setting != null && !setting.isBlank() && !setting.equalsIgnoreCase("false")) {
+      enabled = true;
+      Path out = setting.equalsIgnoreCase("true") ? null : Path.of(setting);
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(out)));
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    SpiceInstrumentation.enabled = enabled;
+  }
+
+  /**
+   * @return start of a call to time, to hand to end
+   */
+  static long begin() {
+    return enabled ? System.nanoTime() : DISABLED;
+  }
+
+  /**
+   * Records a call to the CSPICE function that began at start, if instrumentation was on when it began
+   */
+  static void end(String function, long start) {
+    if (start == DISABLED) {
+      return;
+    }
+    long elapsed = System.nanoTime() - start;
+    latencies.computeIfAbsent(function, f -> new LatencyHistogram()).record(elapsed);
+    callers.computeIfAbsent(function, f -> new ConcurrentHashMap<>())
+      .computeIfAbsent(caller(), c -> new LongAdder()).increment();
+  }
+
+  /**
+   * Records a lookup in a cache that saves SPICE calls, e.g. the state calculator's per-epoch cache
+   */
+  public static void cacheLookup(String cache, boolean hit) {
+    if (!enabled) {
+      return;
+    }
+    caches.computeIfAbsent(cache, c -> new LongAdder[]{new LongAdder(), new LongAdder()})[hit ? 0 : 1].increment();
+  }
+
+  public static void reset() {
+    latencies.clear();
+    callers.clear();
+    caches.clear();
+  }
+
+  public static Map<String, LatencyHistogram> getLatencies() {
+    return new TreeMap<>(latencies);
+  }
+
+  /**
+   * @return number of calls to the function from each caller
+   */
+  public static Map<String, Long> getCallers(String function) {
+    Map<String, Long> counts = new TreeMap<>();
+    callers.getOrDefault(function, Map.of()).forEach((caller, count) -> counts.put(caller, count.sum()));
+    return counts;
+  }
+
+  /**
+   * @return fraction of lookups in the cache that hit, or NaN if there were none
+   */
+  public static double getHitRatio(String cache) {
+    LongAdder[] counts = caches.get(cache);
+    if (counts == null) {
+      return Double.NaN;
+    }
+    long hits = counts[0].sum();
+    long lookups = hits + counts[1].sum();
+    return lookups == 0 ? Double.NaN : (double) hits / lookups;
+  }
+
+  /**
+   * @return table of calls and latencies per function, slowest in total first, each with its top callers, then the
+   * hit ratio of each cache
+   */
+  public static String summary() {
+    StringBuilder out = new StringBuilder();
+    out.append(String.format("%-8s %10s %12s %10s %10s %10s %10s %10s%n", "function", "calls", "total ms",
+      "mean us", "p50 us", "p90 us", "p99 us", "max us"));
+    latencies.entrySet().stream()
+      .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> e) -> e.getValue().getTotalNanos()).reversed())
+      .forEach(e -> {
+        LatencyHistogram h = e.getValue();
+        out.append(String.format("%-8s %10d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", e.getKey(), h.getCount(),
+          h.getTotalNanos() / 1e6, h.getMeanNanos() / 1e3, h.getPercentileNanos(50) / 1e3,
+          h.getPercentileNanos(90) / 1e3, h.getPercentileNanos(99) / 1e3, h.getMaxNanos() / 1e3));
+        getCallers(e.getKey()).entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+          .limit(5)
+          .forEach(c -> out.append(String.format("    %10d  %s%n", c.getValue(), c.getKey())));
+      });
+    for (String cache : new TreeMap<>(caches).keySet()) {
+      LongAdder[] counts = caches.get(cache);
+      out.append(String.format("cache %s: %d hits, %d misses, %.1f%% hit%n", cache, counts[0].sum(), counts[1].sum(),
+        100 * getHitRatio(cache)));
+    }
+    return out.toString();
+  }
+
+  public static JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    JsonObject functions = new JsonObject();
+    for (Map.Entry<String, LatencyHistogram> e : getLatencies().entrySet()) {
+      LatencyHistogram h = e.getValue();
+      JsonObject function = new JsonObject();
+      function.addProperty("calls", h.getCount());
+      function.addProperty("totalNanos", h.getTotalNanos());
+      function.addProperty("meanNanos", h.getMeanNanos());
+      function.addProperty("p50Nanos", h.getPercentileNanos(50));
+      function.addProperty("p90Nanos", h.getPercentileNanos(90));
+      function.addProperty("p99Nanos", h.getPercentileNanos(99));
+      function.addProperty("p999Nanos", h.getPercentileNanos(99.9));
+      function.addProperty("maxNanos", h.getMaxNanos());
+      JsonObject callerObject = new JsonObject();
+      getCallers(e.getKey()).forEach(callerObject::addProperty);
+      function.add("callers", callerObject);
+      functions.add(e.getKey(), function);
+    }
+    json.add("functions", functions);
+    JsonObject cacheObject = new JsonObject();
+    for (Map.Entry<String, LongAdder[]> e : new TreeMap<>(caches).entrySet()) {
+      JsonObject cache = new JsonObject();
+      cache.addProperty("hits", e.getValue()[0].sum());
+      cache.addProperty("misses", e.getValue()[1].sum());
+      cacheObject.add(e.getKey(), cache);
+    }
+    json.add("caches", cacheObject);
+    return json;
+  }
+
+  /**
+   * Prints the summary, or writes it to out as JSON if out isn't null
+   */
+  public static void dump(Path out) {
+    if (out == null) {
+      System.out.println("SPICE calls:");
+      System.out.print(summary());
+      return;
+    }
+    try {
+      Files.writeString(out, new GsonBuilder().setPrettyPrinting().create().toJson(toJson()));
+    } catch (IOException e) {
+      System.out.println("Could not write SPICE instrumentation to " + out + ": " + e.getMessage());
+    }
+  }
+
+  private static String caller() {
+    return walker.walk(frames -> frames
+      .filter(f -> !packageOf(f.getClassName()).equals(SPICE_PACKAGE))
+      .map(f -> simpleName(f.getClassName()) + "." + methodName(f.getMethodName()))
+      .distinct()
+      .limit(CALLER_DEPTH)
+      .collect(Collectors.joining(" < ")));
+  }
+
+  private static String packageOf(String className) {
+    int dot = className.lastIndexOf('.');
+    return dot < 0 ? "" : className.substring(0, dot);
+  }
+
+  private static String simpleName(String className) {
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  // lambda$getState$3 is the lambda in getState
+  private static String methodName(String method) {
+    if (method.startsWith("lambda$")) {
+      int end = method.indexOf('$', 7);
+      return end < 0 ? method : method.substring(7, end);
+    }
+    return method;
+  }
+}
@@ -0,0 +1,26 @@
+package missionmodel.spice;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs SPICE work off the caller's thread. CSPICE keeps global state (the kernel pool, the error subsystem) and is not
+ * reentrant, so every task runs on one worker thread, in submission order. Callers get concurrency by submitting all
+ * their searches up front and consuming each result while the worker moves on to the next one.
+ */
+public class SpiceWorker {
+  private static ExecutorService executor = null;
+
+  public static synchronized <T> Future<T> submit(Callable<T> task) {
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spice-worker");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor.submit(task);
+  }
+}
@@ -0,0 +1,113 @@
+package missionmodel;
+
+import missionmodel.geometry.analytic.AnalyticBodies;
+import missionmodel.geometry.analytic.AnalyticEphemeris;
+import missionmodel.geometry.analytic.KeplerJ2Propagator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnalyticEphemerisTest {
+
+  // 2024-01-01T12:00 UTC, two days before the Earth's perihelion
+  private static final double ET_2024 = 757425669.184;
+  private static final double MARS_GM = 42828.375816;
+  private static final double MARS_RADIUS = 3396.19;
+
+  private static double distance(AnalyticEphemeris ephemeris, int from, int to, double et) {
+    double[] a = new double[6];
+    double[] b = new double[6];
+    assertTrue(ephemeris.state(from, et, a));
+    assertTrue(ephemeris.state(to, et, b));
+    return Math.sqrt((b[0] - a[0]) * (b[0] - a[0]) + (b[1] - a[1]) * (b[1] - a[1]) + (b[2] - a[2]) * (b[2] - a[2]));
+  }
+
+  @Test
+  public void testPlanetDistances() {
+    AnalyticEphemeris ephemeris = new AnalyticEphemeris();
+    assertEquals(0.98333, distance(ephemeris, 10, 399, ET_2024) / AnalyticEphemeris.AU, 1e-3);
+    double mars = distance(ephemeris, 10, 499, ET_2024) / AnalyticEphemeris.AU;
+    assertTrue(mars > 1.38 && mars < 1.67, "Mars at " + mars + " AU");
+    for (int day = 0; day < 30; day++) {
+      double moon = distance(ephemeris, 399, 301, ET_2024 + day * 86400.0);
+      assertTrue(moon > 356000 && moon < 407000, "Moon at " + moon + " km");
+    }
+  }
+
+  @Test
+  public void testVelocityMatchesPositions() {
+    AnalyticEphemeris ephemeris = new AnalyticEphemeris();
+    double[] before = new double[6];
+    double[] now = new double[6];
+    double[] after = new double[6];
+    ephemeris.state(499, ET_2024 - 3600, before);
+    ephemeris.state(499, ET_2024, now);
+    ephemeris.state(499, ET_2024 + 3600, after);
+    for (int i = 0; i < 3; i++) {
+      assertEquals((after[i] - before[i]) / 7200, now[3 + i], 1e-4);
+    }
+    assertFalse(ephemeris.state(-74, ET_2024, now));
+  }
+
+  @Test
+  public void testElementsRoundTrip() {
+    double[] elements = new double[]{3651.0, 0.0088, 1.6162, 0.3, 4.7124, 1.0, ET_2024, MARS_GM};
+    KeplerJ2Propagator orbit = new KeplerJ2Propagator(499, elements, 0, MARS_RADIUS, null, null);
+    double[] state = new double[6];
+    assertTrue(orbit.state(ET_2024, state));
+    double[] computed = new double[8];
+    KeplerJ2Propagator.elements(state, ET_2024, MARS_GM, computed);
+    for (int i = 0; i < 8; i++) {
+      assertEquals(elements[i], computed[i], Math.abs(elements[i]) * 1e-9 + 1e-9);
+    }
+  }
+
+  @Test
+  public void testTwoBodyOrbitCloses() {
+    double[] elements = new double[]{3651.0, 0.05, 0.8, 1.2, 0.4, 2.0, ET_2024, MARS_GM};
+    KeplerJ2Propagator orbit = new KeplerJ2Propagator(499, elements, 0, MARS_RADIUS, null, null);
+    double a = elements[0] / (1 - elements[1]);
+    double period = 2 * Math.PI * Math.sqrt(a * a * a / MARS_GM);
+    double[] start = new double[6];
+    double[] end = new double[6];
+    orbit.state(ET_2024, start);
+    orbit.state(ET_2024 + 3 * period, end);
+    for (int i = 0; i < 6; i++) {
+      assertEquals(start[i], end[i], 1e-5);
+    }
+  }
+
+  @Test
+  public void testJ2RegressesNodeOfProgradeOrbit() {
+    double j2 = AnalyticBodies.forId(499).j2();
+    double[] elements = new double[]{3651.0, 0.0088, Math.toRadians(45), 1.0, 0.5, 0.0, ET_2024, MARS_GM};
+    KeplerJ2Propagator orbit = new KeplerJ2Propagator(499, elements, j2, MARS_RADIUS, null, null);
+    double[] state = new double[6];
+    double[] computed = new double[8];
+    orbit.state(ET_2024 + 86400, state);
+    KeplerJ2Propagator.elements(state, ET_2024 + 86400, MARS_GM, computed);
+
+    // dOmega/dt = -3/2 n J2 (R/p)^2 cos i
+    double a = elements[0] / (1 - elements[1]);
+    double p = a * (1 - elements[1] * elements[1]);
+    double rate = -1.5 * Math.sqrt(MARS_GM / (a * a * a)) * j2 * Math.pow(MARS_RADIUS / p, 2) * Math.cos(elements[2]);
+    assertTrue(computed[3] < elements[3]);
+    assertEquals(elements[3] + rate * 86400, computed[3], 1e-9);
+    assertEquals(elements[2], computed[2], 1e-9);
+  }
+
+  @Test
+  public void testDragDecaysOrbit() {
+    double[] elements = new double[]{3651.0, 0.0, 1.6, 0.0, 0.0, 0.0, ET_2024, MARS_GM};
+    KeplerJ2Propagator.Drag drag = new KeplerJ2Propagator.Drag(0.01, 1e-10, 255, 10);
+    KeplerJ2Propagator orbit = new KeplerJ2Propagator(499, elements, 0, MARS_RADIUS, null, drag);
+    double[] state = new double[6];
+    double[] computed = new double[8];
+    assertTrue(orbit.state(ET_2024 + 30 * 86400, state));
+    KeplerJ2Propagator.elements(state, ET_2024 + 30 * 86400, MARS_GM, computed);
+    assertTrue(computed[0] < elements[0]);
+    assertFalse(orbit.state(ET_2024 + 1e11, state));
+  }
+}
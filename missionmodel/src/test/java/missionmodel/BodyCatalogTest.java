@@ -0,0 +1,64 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.spiceinterpolation.Bodies;
+import missionmodel.geometry.spiceinterpolation.BodyCatalog;
+import missionmodel.geometry.spiceinterpolation.CalculationPeriod;
+import missionmodel.spice.Spice;
+import org.junit.jupiter.api.Test;
+import spice.basic.SpiceErrorException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BodyCatalogTest {
+
+  // runs without the SPICE native library, which is what scheduling goals rely on before furnishing kernels
+  @Test
+  public void testWithoutKernelsReadsConfigOnly() {
+    BodyCatalog catalog = BodyCatalog.withoutKernels();
+    assertEquals("none", catalog.getKernelSetIdentity());
+    assertEquals(499, catalog.getBody("MARS").getNAIFID());
+    assertNull(catalog.getBody("MARS").getRadii());
+    assertFalse(catalog.getBody("MARS").hasMu());
+    assertTrue(catalog.getPeriods("MARS", "Periapsis").isEmpty());
+    assertNotSame(catalog, BodyCatalog.withoutKernels());
+
+    Bodies bodies = new Bodies(catalog);
+    assertEquals(catalog.getBodies().keySet(), bodies.getBodiesMap().keySet());
+    List<CalculationPeriod> trajectory = bodies.getCalculationPeriods("MARS", "Trajectory", 0.0);
+    assertEquals(1, trajectory.size());
+    assertEquals(new Time("2024-01-02T00:00:00.000"), trajectory.get(0).getStart());
+    assertEquals(Duration.fromSeconds(30), trajectory.get(0).getMaxTimeStep());
+  }
+
+  @Test
+  public void testSharedUntilCleared() throws SpiceErrorException {
+    Spice.initialize(CKReaderTest.NAIF_META_KERNEL_PATH);
+    BodyCatalog.clear();
+    BodyCatalog catalog = BodyCatalog.get();
+    assertEquals(Spice.kernelSetIdentity(), catalog.getKernelSetIdentity());
+    assertNotNull(catalog.getBody("MARS").getRadii());
+    assertTrue(catalog.getBody("MARS").hasMu());
+
+    // as the Mission constructor and a scheduling procedure would each ask for it
+    assertSame(catalog, BodyCatalog.get());
+    assertSame(catalog.getBody("MARS"), new Bodies().getBodiesMap().get("MARS"));
+
+    BodyCatalog.clear();
+    BodyCatalog recompiled = BodyCatalog.get();
+    assertNotSame(catalog, recompiled);
+    assertEquals(catalog.getConfigDigest(), recompiled.getConfigDigest());
+    assertArrayEquals(catalog.getBody("MARS").getRadii(), recompiled.getBody("MARS").getRadii());
+    assertEquals(catalog.getPeriods("MARS", "Trajectory"), recompiled.getPeriods("MARS", "Trajectory"));
+  }
+}
@@ -0,0 +1,34 @@
+package missionmodel;
+
+import missionmodel.geometry.resources.BodyEvents;
+import missionmodel.geometry.resources.EclipseTypes;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BodyEventsTest {
+
+  @Test
+  public void testFlagsChangeIndependently() {
+    BodyEvents events = BodyEvents.NONE.withPeriapsis(true).withOccultation("DSS-24", true).withEclipse(EclipseTypes.FULL);
+    assertTrue(events.periapsis());
+    assertFalse(events.apoapsis());
+    assertEquals(EclipseTypes.FULL, events.eclipse());
+    assertTrue(events.occultedStations().contains("DSS-24"));
+
+    events = events.withOccultation("DSS-24", false).withPeriapsis(false);
+    assertEquals(BodyEvents.NONE.withEclipse(EclipseTypes.FULL), events);
+  }
+
+  @Test
+  public void testDifferentFlagsCommute() {
+    // concurrent activities on one body's cell are only allowed if their effects commute
+    BodyEvents start = BodyEvents.NONE.withOccultation("DSS-54", true);
+    assertEquals(start.withApoapsis(true).withEclipse(EclipseTypes.PARTIAL),
+      start.withEclipse(EclipseTypes.PARTIAL).withApoapsis(true));
+    assertEquals(start.withOccultation("DSS-24", true).withOccultation("DSS-36", true),
+      start.withOccultation("DSS-36", true).withOccultation("DSS-24", true));
+  }
+}
@@ -0,0 +1,109 @@
+package missionmodel;
+
+import missionmodel.spice.BodyRotation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BodyRotationTest {
+
+  // Mars from pck00011.tpc
+  private static final BodyRotation MARS = new BodyRotation(new double[]{317.269202, -0.10927547, 0},
+    new double[]{54.432516, -0.05827105, 0}, new double[]{176.049863, 350.891982443297, 0},
+    new double[]{
+      190.72646643, 15917.10818695, 0, 21.46892470, 31834.27934054, 0, 332.86082793, 19139.89694742, 0,
+      394.93256437, 38280.79631835, 0, 189.63271560, 41215158.18420050, 12.711923222, 121.46893664, 660.22803474, 0,
+      231.05028581, 660.99123540, 0, 251.37314025, 1320.50145245, 0, 217.98635955, 38279.96125550, 0,
+      196.19729402, 19139.83628608, 0, 198.991226, 19139.4819985, 0, 226.292679, 38280.8511281, 0,
+      249.663391, 57420.7251593, 0, 266.183510, 76560.6367950, 0, 79.398797, 0.5042615, 0,
+      122.433576, 19139.9407476, 0, 43.058401, 38280.8753272, 0, 57.663379, 57420.7517205, 0,
+      79.476401, 76560.6495004, 0, 166.325722, 0.5042615, 0, 129.071773, 19140.0328244, 0,
+      36.352167, 38281.0473591, 0, 56.668646, 57420.9295360, 0, 67.364003, 76560.2552215, 0,
+      104.792680, 95700.4387578, 0, 95.391654, 0.5042615, 0},
+    2,
+    new double[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.000068, 0.000238, 0.000052, 0.000009, 0.419057},
+    new double[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.000051, 0.000141, 0.000031, 0.000005, 1.591274},
+    new double[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.000145, 0.000157, 0.000040,
+      0.000001, 0.000001, 0.584542});
+  // 2024-01-02T00:00:00 TDB
+  private static final double ET = 757425600.0;
+
+  @Test
+  public void testPoleAlongZ() {
+    // with the pole on J2000's z axis, the frame turns about z to W + 90 degrees
+    BodyRotation spinner = new BodyRotation(new double[]{0, 0, 0}, new double[]{90, 0, 0}, new double[]{30, 360, 0},
+      new double[0], 1, new double[0], new double[0], new double[0]);
+    double[][] rotation = spinner.rotation(0);
+    assertEquals(Math.cos(Math.toRadians(120)), rotation[0][0], 1e-15);
+    assertEquals(Math.sin(Math.toRadians(120)), rotation[0][1], 1e-15);
+    assertEquals(1, rotation[2][2], 1e-15);
+    rotation = spinner.rotation(86400.0 / 4);
+    assertEquals(Math.cos(Math.toRadians(210)), rotation[0][0], 1e-12);
+    assertEquals(Math.sin(Math.toRadians(210)), rotation[0][1], 1e-12);
+  }
+
+  @Test
+  public void testPoleDirection() {
+    // the body-fixed z axis is the pole, at its right ascension and declination
+    BodyRotation withoutNutation = new BodyRotation(new double[]{317.269202, 0, 0}, new double[]{54.432516, 0, 0},
+      new double[]{176.049863, 350.891982443297, 0}, new double[0], 1, new double[0], new double[0], new double[0]);
+    double[][] rotation = withoutNutation.rotation(ET);
+    double ra = Math.toRadians(317.269202);
+    double dec = Math.toRadians(54.432516);
+    assertEquals(Math.cos(dec) * Math.cos(ra), rotation[2][0], 1e-15);
+    assertEquals(Math.cos(dec) * Math.sin(ra), rotation[2][1], 1e-15);
+    assertEquals(Math.sin(dec), rotation[2][2], 1e-15);
+  }
+
+  @Test
+  public void testOrthonormal() {
+    double[] r = new double[9];
+    MARS.rotation(ET, r, 0, null, 0);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        double dot = r[3 * i] * r[3 * j] + r[3 * i + 1] * r[3 * j + 1] + r[3 * i + 2] * r[3 * j + 2];
+        assertEquals(i == j ? 1 : 0, dot, 1e-15);
+      }
+    }
+    double determinant = r[0] * (r[4] * r[8] - r[5] * r[7]) - r[1] * (r[3] * r[8] - r[5] * r[6]) + r[2] * (r[3] * r[7] - r[4] * r[6]);
+    assertEquals(1, determinant, 1e-15);
+  }
+
+  @Test
+  public void testDerivative() {
+    double[] rotation = new double[9];
+    double[] derivative = new double[9];
+    double[] before = new double[9];
+    double[] after = new double[9];
+    MARS.rotation(ET, rotation, 0, derivative, 0);
+    // W is a few million degrees by now, so the angles carry about 1e-11 radians of rounding
+    MARS.rotation(ET - 10, before, 0, null, 0);
+    MARS.rotation(ET + 10, after, 0, null, 0);
+    for (int i = 0; i < 9; i++) {
+      assertEquals((after[i] - before[i]) / 20, derivative[i], 1e-11);
+    }
+  }
+
+  @Test
+  public void testManyEpochs() {
+    double[] ets = new double[]{ET, ET + 3600, ET + 86400, ET - 1.0e8};
+    double[] rotations = new double[9 * ets.length];
+    double[] derivatives = new double[9 * ets.length];
+    MARS.rotations(ets, rotations, derivatives);
+    for (int k = 0; k < ets.length; k++) {
+      double[][] single = MARS.rotation(ets[k]);
+      for (int i = 0; i < 3; i++) {
+        for (int j = 0; j < 3; j++) {
+          assertEquals(single[i][j], rotations[9 * k + 3 * i + j], 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMismatchedNutation() {
+    assertThrows(IllegalArgumentException.class, () -> new BodyRotation(new double[3], new double[3], new double[3],
+      new double[]{1, 2, 3}, 1, new double[0], new double[0], new double[0]));
+  }
+}
@@ -0,0 +1,253 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.gnc.blackbird.ck.CKAttitudeModel;
+import missionmodel.gnc.blackbird.ck.CKReader;
+import missionmodel.gnc.blackbird.ck.SclkConverter;
+import missionmodel.gnc.blackbird.functions.AttitudeNotAvailableException;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.spice.Spice;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import spice.basic.CSPICE;
+import spice.basic.SpiceErrorException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class CKReaderTest {
+
+  public static final Path VERSIONED_KERNELS_ROOT_DIRECTORY = Path.of(System.getenv().getOrDefault("SPICE_DIRECTORY", "spice/kernels"));
+
+  public static final String NAIF_META_KERNEL_PATH = VERSIONED_KERNELS_ROOT_DIRECTORY.toString() + "/latest_meta_kernel.tm";
+
+  // a made-up clock with 65536 ticks a second and a rate change every 1000 seconds, so conversions cross rows
+  static final int CLOCK = -999;
+  static final int INSTRUMENT = -999000;
+  static final String[] SCLK_KERNEL = new String[]{
+    "SCLK_KERNEL_ID           = ( @2024-01-01 )",
+    "SCLK_DATA_TYPE_999       = ( 1 )",
+    "SCLK01_TIME_SYSTEM_999   = ( 1 )",
+    "SCLK01_N_FIELDS_999      = ( 2 )",
+    "SCLK01_MODULI_999        = ( 4294967296 65536 )",
+    "SCLK01_OFFSETS_999       = ( 0 0 )",
+    "SCLK01_OUTPUT_DELIM_999  = ( 1 )",
+    "SCLK_PARTITION_START_999 = ( 0.0 )",
+    "SCLK_PARTITION_END_999   = ( 1.0E+14 )",
+    "SCLK01_COEFFICIENTS_999  = ( 0.0 757425000.0 1.0",
+    "                             65536000.0 757426000.0 1.00001",
+    "                             131071344.65 757427000.0 0.99998 )"};
+  // 2024-01-02T00:00:00 TDB
+  private static final double ET = 757425600.0;
+  private static final double[] AXIS = new double[]{1 / Math.sqrt(14), 2 / Math.sqrt(14), 3 / Math.sqrt(14)};
+  // rad/s about AXIS
+  private static final double RATE = 1.0e-3;
+
+  private Path directory;
+
+  @BeforeAll
+  void beforeAll() throws SpiceErrorException, IOException {
+    try {
+      Spice.initialize(NAIF_META_KERNEL_PATH);
+    }
+    catch (SpiceErrorException e) {
+      System.out.println(e.getMessage());
+    }
+    CSPICE.lmpool(SCLK_KERNEL);
+    directory = Files.createTempDirectory("ckreader");
+  }
+
+  @AfterAll
+  void afterAll() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        CSPICE.unload(file.toString());
+        Files.delete(file);
+      }
+    } catch (SpiceErrorException e) {
+      System.out.println(e.getMessage());
+    }
+    Files.delete(directory);
+  }
+
+  // scalar-first quaternion of the turn about AXIS by RATE over seconds
+  private static void quaternion(double seconds, double[] out, int offset) {
+    double half = RATE * seconds / 2;
+    out[offset] = Math.cos(half);
+    out[offset + 1] = Math.sin(half) * AXIS[0];
+    out[offset + 2] = Math.sin(half) * AXIS[1];
+    out[offset + 3] = Math.sin(half) * AXIS[2];
+  }
+
+  @Test
+  public void testSclkMatchesSce2c() throws SpiceErrorException {
+    SclkConverter converter = new SclkConverter(CLOCK);
+    for (double et = ET - 500; et < ET + 3000; et += 37.25) {
+      assertEquals(CSPICE.sce2c(CLOCK, et), converter.etToTicks(et), 1e-6);
+    }
+  }
+
+  @Test
+  public void testType2MatchesCkgpav() throws SpiceErrorException, IOException {
+    // records 50 seconds long, a minute apart, so lookups between them fall in gaps
+    int records = 20;
+    double[] starts = new double[records];
+    double[] stops = new double[records];
+    double[] quats = new double[4 * records];
+    double[] avvs = new double[3 * records];
+    double[] rates = new double[records];
+    for (int i = 0; i < records; i++) {
+      starts[i] = CSPICE.sce2c(CLOCK, ET + 60 * i);
+      stops[i] = CSPICE.sce2c(CLOCK, ET + 60 * i + 50);
+      quaternion(60 * i, quats, 4 * i);
+      for (int j = 0; j < 3; j++) {
+        avvs[3 * i + j] = RATE * AXIS[j];
+      }
+      rates[i] = 1.0 / 65536;
+    }
+    Path ck = directory.resolve("type2.bc");
+    int handle = CSPICE.ckopn(ck.toString(), "CK_file", 0);
+    CSPICE.ckw02(handle, starts[0], stops[records - 1], INSTRUMENT, "J2000", "type 2", records, starts, stops, quats, avvs, rates);
+    CSPICE.ckcls(handle);
+    compare(ck, ET - 30, ET + 60 * records + 30, 7.5);
+  }
+
+  @Test
+  public void testType3MatchesCkgpav() throws SpiceErrorException, IOException {
+    // two interpolation intervals with a gap between them
+    int records = 30;
+    double[] sclkdp = new double[records];
+    double[] quats = new double[4 * records];
+    double[] avvs = new double[3 * records];
+    for (int i = 0; i < records; i++) {
+      double seconds = 45 * i + (i >= 20 ? 600 : 0);
+      sclkdp[i] = CSPICE.sce2c(CLOCK, ET + seconds);
+      quaternion(seconds, quats, 4 * i);
+      for (int j = 0; j < 3; j++) {
+        avvs[3 * i + j] = RATE * AXIS[j] * (1 + 0.01 * i);
+      }
+    }
+    double[] intervalStarts = new double[]{sclkdp[0], sclkdp[20]};
+    Path ck = directory.resolve("type3.bc");
+    int handle = CSPICE.ckopn(ck.toString(), "CK_file", 0);
+    CSPICE.ckw03(handle, sclkdp[0], sclkdp[records - 1], INSTRUMENT, "J2000", true, "type 3", records, sclkdp, quats, avvs, 2, intervalStarts);
+    CSPICE.ckcls(handle);
+    compare(ck, ET - 30, ET + 45 * records + 630, 6.25);
+  }
+
+  // evaluates the CK forward, then backward, with the reader and with ckgpav
+  private void compare(Path ck, double start, double end, double step) throws SpiceErrorException, IOException {
+    CSPICE.furnsh(ck.toString());
+    List<CKReader.Segment> segments = CKReader.open(ck).getSegments();
+    CKReader.SegmentCursor[] cursors = new CKReader.SegmentCursor[segments.size()];
+    for (int s = 0; s < cursors.length; s++) {
+      assertTrue(segments.get(s).isSupported());
+      cursors[s] = segments.get(s).cursor();
+    }
+    double[] quaternion = new double[4];
+    double[] angularVelocity = new double[3];
+    double[][] cmat = new double[3][3];
+    double[] av = new double[3];
+    double[] clkout = new double[1];
+    boolean[] found = new boolean[1];
+    int covered = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      for (double t = pass == 0 ? start : end; pass == 0 ? t <= end : t >= start; t += pass == 0 ? step : -step) {
+        double ticks = CSPICE.sce2c(CLOCK, t);
+        CSPICE.ckgpav(INSTRUMENT, ticks, 0, "J2000", cmat, av, clkout, found);
+        boolean readerFound = false;
+        // later segments take priority
+        for (int s = cursors.length - 1; s >= 0 && !readerFound; s--) {
+          readerFound = cursors[s].evaluate(ticks, 0, quaternion, angularVelocity);
+        }
+        assertEquals(found[0], readerFound);
+        if (!found[0]) {
+          continue;
+        }
+        covered++;
+        double[][] readerCmat = CSPICE.q2m(quaternion);
+        for (int i = 0; i < 3; i++) {
+          assertEquals(av[i], angularVelocity[i], 1e-15);
+          for (int j = 0; j < 3; j++) {
+            assertEquals(cmat[i][j], readerCmat[i][j], 1e-12);
+          }
+        }
+      }
+    }
+    assertTrue(covered > 0);
+  }
+
+  @Test
+  public void testAttitudeModelBatchMatchesPerSample() throws SpiceErrorException, IOException, AttitudeNotAvailableException {
+    // an older CK over the whole span, and a newer one turning twice as fast over part of it, which SPICE prefers
+    Path older = writeType3(directory.resolve("older.bc"), 0, 40, 1.0);
+    Path newer = writeType3(directory.resolve("newer.bc"), 600, 20, 2.0);
+    CSPICE.furnsh(older.toString());
+    CSPICE.furnsh(newer.toString());
+    try {
+      Time start = JPLTimeConvertUtility.fromET(ET + 30);
+      Duration override = Duration.fromSeconds(1500);
+      // read from the files directly, the newer segment first
+      compareAttitudeModel("J2000", start, override);
+      // segments relative to J2000 can't answer for another frame, so every sample falls back to getOrientation
+      compareAttitudeModel("ECLIPJ2000", start, override);
+    } finally {
+      CSPICE.unload(newer.toString());
+      CSPICE.unload(older.toString());
+    }
+  }
+
+  // one type 3 interval with a record every 45 seconds from offset seconds after ET, turning at scale times RATE
+  private Path writeType3(Path ck, double offset, int records, double scale) throws SpiceErrorException {
+    double[] sclkdp = new double[records];
+    double[] quats = new double[4 * records];
+    double[] avvs = new double[3 * records];
+    for (int i = 0; i < records; i++) {
+      double seconds = offset + 45 * i;
+      sclkdp[i] = CSPICE.sce2c(CLOCK, ET + seconds);
+      quaternion(scale * seconds, quats, 4 * i);
+      for (int j = 0; j < 3; j++) {
+        avvs[3 * i + j] = scale * RATE * AXIS[j];
+      }
+    }
+    int handle = CSPICE.ckopn(ck.toString(), "CK_file", 0);
+    CSPICE.ckw03(handle, sclkdp[0], sclkdp[records - 1], INSTRUMENT, "J2000", true, "type 3", records, sclkdp, quats, avvs,
+      1, new double[]{sclkdp[0]});
+    CSPICE.ckcls(handle);
+    return ck;
+  }
+
+  // getOrientations against getOrientation and ckgpav at every sample
+  private void compareAttitudeModel(String frame, Time start, Duration override) throws SpiceErrorException, AttitudeNotAvailableException {
+    CKAttitudeModel model = new CKAttitudeModel(Integer.toString(INSTRUMENT), frame, Duration.fromSeconds(7.5), true);
+    SortedMap<Time, Orientation> batch = model.getOrientations(start, null, null, null, null, null, override);
+    assertEquals(201, batch.size());
+    double[][] cmat = new double[3][3];
+    double[] av = new double[3];
+    double[] clkout = new double[1];
+    boolean[] found = new boolean[1];
+    for (Map.Entry<Time, Orientation> sample : batch.entrySet()) {
+      Orientation single = model.getOrientation(sample.getKey(), null, null, null, null);
+      assertEquals(0, Rotation.distance(single.getRotation(), sample.getValue().getRotation()), 1e-10);
+      assertEquals(0, Vector3D.distance(single.getRotationRate(), sample.getValue().getRotationRate()), 1e-15);
+
+      CSPICE.ckgpav(INSTRUMENT, CSPICE.sce2c(CLOCK, JPLTimeConvertUtility.toET(sample.getKey())), 0, frame, cmat, av, clkout, found);
+      assertTrue(found[0]);
+      assertEquals(0, Rotation.distance(new Rotation(cmat, 1e-3).revert(), sample.getValue().getRotation()), 1e-10);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package missionmodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConfigurationTest {
+
+  private static Configuration withDrag(List<Double> drag) {
+    Configuration d = Configuration.defaultConfiguration();
+    return new Configuration(d.spacecraftId(), d.spacecraftIdString(), d.geometryPath(), d.gncAngularVelocityLimit(),
+      d.gncAngularAccelerationLimit(), d.gncRateMatching(), d.additionalSpacecraftIds(), d.geometryBodies(),
+      true, d.analyticCentralBody(), d.analyticOrbitElements(), drag, d.fidelity(), d.keepOutZones());
+  }
+
+  @Test
+  public void testAnalyticDragIsFourValuesOrNone() {
+    assertEquals(List.of(), withDrag(List.of()).analyticDrag());
+    assertEquals(4, withDrag(List.of(0.01, 3e-11, 300.0, 25.0)).analyticDrag().size());
+    assertThrows(IllegalArgumentException.class, () -> withDrag(List.of(0.01, 3e-11, 300.0)));
+    assertThrows(IllegalArgumentException.class, () -> withDrag(List.of(0.01, 3e-11, 300.0, 25.0, 1.0)));
+  }
+}
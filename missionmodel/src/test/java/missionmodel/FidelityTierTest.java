@@ -0,0 +1,43 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FidelityTierTest {
+
+  @Test
+  public void testStandardIsUnchanged() {
+    FidelityTier standard = FidelityTier.STANDARD;
+    assertSame(standard, Configuration.defaultConfiguration().fidelity());
+    assertEquals("LT+S", standard.abcorr());
+    assertEquals("CN", standard.eventAbcorr());
+    Duration step = Duration.fromSeconds(300);
+    assertSame(step, standard.step(step));
+    assertSame(step, standard.eventStep(step));
+    assertEquals(Duration.fromSeconds(10), standard.slewSampleRate());
+    assertTrue(standard.surfaceQuantities());
+    assertFalse(standard.javaBodyRotations());
+    assertFalse(standard.ellipsoidKernel());
+  }
+
+  @Test
+  public void testTiersOrderedByCoarseness() {
+    Duration step = Duration.fromSeconds(300);
+    assertEquals(Duration.fromSeconds(3000), FidelityTier.QUICK_LOOK.step(step));
+    assertEquals(Duration.fromSeconds(150), FidelityTier.FINAL.step(step));
+    assertTrue(FidelityTier.QUICK_LOOK.eventStep(step).greaterThan(step));
+    assertTrue(FidelityTier.FINAL.eventStep(step).lessThan(step));
+    assertTrue(FidelityTier.QUICK_LOOK.slewSampleRate().greaterThan(FidelityTier.STANDARD.slewSampleRate()));
+    assertTrue(FidelityTier.FINAL.slewSampleRate().lessThan(FidelityTier.STANDARD.slewSampleRate()));
+    assertEquals("NONE", FidelityTier.QUICK_LOOK.abcorr());
+    assertFalse(FidelityTier.QUICK_LOOK.surfaceQuantities());
+    assertEquals("CN+S", FidelityTier.FINAL.abcorr());
+    assertFalse(FidelityTier.FINAL.ellipsoidKernel());
+    assertTrue(FidelityTier.QUICK_LOOK.ellipsoidKernel());
+  }
+}
@@ -45,7 +45,7 @@ public class GenericGeometryCalculatorTest {
     // Model configuration can be provided directly, just as for a normal Java class constructor.
     this.model = new Mission(registrar, planStart, Configuration.defaultConfiguration());
     // For performing SPICE calls directly in tests
-    this.stateCalculator = new SpiceDirectTimeDependentStateCalculator(true);
+    this.stateCalculator = model.geometryContext.newStateCalculator(true);
   }
 
   @Test
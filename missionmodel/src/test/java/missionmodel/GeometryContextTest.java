@@ -0,0 +1,167 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.analytic.AnalyticTimeDependentStateCalculator;
+import missionmodel.geometry.analytic.KeplerJ2Propagator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.geometry.spiceinterpolation.Bodies;
+import missionmodel.geometry.spiceinterpolation.Body;
+import missionmodel.geometry.spiceinterpolation.BodyCatalog;
+import missionmodel.geometry.spiceinterpolation.GeometryContext;
+import missionmodel.spice.KernelSession;
+import missionmodel.spice.SerializedSpiceBackend;
+import missionmodel.spice.Spice;
+import org.junit.jupiter.api.Test;
+import spice.basic.SpiceErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeometryContextTest {
+
+  @Test
+  public void testContextsKeepTheirOwnBodiesAndBackend() {
+    Bodies marsOnly = new Bodies(BodyCatalog.withoutKernels());
+    marsOnly.getBodiesMap().keySet().retainAll(List.of("MARS"));
+    SerializedSpiceBackend firstBackend = SerializedSpiceBackend.currentKernels();
+    GeometryContext first = new GeometryContext(marsOnly, firstBackend);
+
+    Bodies all = new Bodies(BodyCatalog.withoutKernels());
+    SerializedSpiceBackend secondBackend = SerializedSpiceBackend.currentKernels();
+    GeometryContext second = new GeometryContext(all, secondBackend);
+
+    assertEquals(List.of("MARS"), List.copyOf(first.getBodies().keySet()));
+    assertTrue(second.getBodies().containsKey("EARTH"));
+    assertSame(firstBackend, first.getSpice());
+    assertSame(secondBackend, second.getSpice());
+
+    // changing the Bodies a context was made from doesn't reach the context
+    all.getBodiesMap().remove("EARTH");
+    assertTrue(second.getBodies().containsKey("EARTH"));
+  }
+
+  @Test
+  public void testCalculatorsFollowTheTier() {
+    GeometryContext standard = new GeometryContext(new Bodies(BodyCatalog.withoutKernels()), SerializedSpiceBackend.currentKernels());
+    assertFalse(standard.newStateCalculator(true).isEllipsoidKernel());
+    assertFalse(standard.newStateCalculator(true).isJavaBodyRotations());
+
+    GeometryContext finalTier = standard.withFidelity(FidelityTier.FINAL);
+    assertFalse(finalTier.newStateCalculator(true).isEllipsoidKernel());
+    GeometryContext quickLook = standard.withFidelity(FidelityTier.QUICK_LOOK);
+    assertTrue(quickLook.newStateCalculator(true).isEllipsoidKernel());
+    assertTrue(quickLook.newStateCalculator(false).isJavaBodyRotations());
+  }
+
+  @Test
+  public void testTierWithoutSurfaceQuantities() {
+    GeometryContext standard = new GeometryContext(new Bodies(BodyCatalog.withoutKernels()), SerializedSpiceBackend.currentKernels());
+    Body mars = standard.getBodies().get("MARS");
+    assertTrue(mars.doCalculateSubSCPoint());
+    assertTrue(mars.doCalculateLST());
+
+    GeometryContext quickLook = standard.withFidelity(FidelityTier.QUICK_LOOK);
+    Body quickMars = quickLook.getBodies().get("MARS");
+    assertFalse(quickMars.doCalculateSubSCPoint());
+    assertFalse(quickMars.doCalculateAltitude());
+    assertFalse(quickMars.doCalculateIlluminationAngles());
+    assertFalse(quickMars.doCalculateSubSolarInformation());
+    assertFalse(quickMars.doCalculateLST());
+    // quantities that don't need the surface are kept
+    assertEquals(mars.doCalculateBetaAngle(), quickMars.doCalculateBetaAngle());
+    assertEquals(mars.doCalculateOrbitParameters(), quickMars.doCalculateOrbitParameters());
+
+    // the STANDARD context's bodies are unchanged, and FINAL keeps the surface quantities
+    assertTrue(standard.getBodies().get("MARS").doCalculateSubSCPoint());
+    assertTrue(standard.withFidelity(FidelityTier.FINAL).getBodies().get("MARS").doCalculateLST());
+    assertSame(standard, standard.withFidelity(FidelityTier.STANDARD));
+
+    // going back up a tier restores the quantities a lower tier left out
+    GeometryContext restored = quickLook.withFidelity(FidelityTier.STANDARD);
+    assertEquals(FidelityTier.STANDARD, restored.getFidelity());
+    assertSame(mars, restored.getBodies().get("MARS"));
+    assertTrue(quickLook.withFidelity(FidelityTier.FINAL).getBodies().get("MARS").doCalculateSubSCPoint());
+  }
+
+  // as Mission builds it with analyticGeometry, which must work without the SPICE native library
+  @Test
+  public void testAnalyticWithoutKernels() throws GeometryInformationNotAvailableException {
+    double[] elements = Configuration.ANALYTIC_ORBIT_ELEMENTS.stream().mapToDouble(Double::doubleValue).toArray();
+    KeplerJ2Propagator orbit = new KeplerJ2Propagator(499, elements, 0, 3396.19, null, null);
+    GeometryContext context = GeometryContext.analytic(new Bodies(BodyCatalog.withoutKernels()),
+      SerializedSpiceBackend.currentKernels(), -74, orbit);
+    assertTrue(context.isAnalytic());
+    assertNotNull(context.getBodies().get("MARS").getRadii());
+    assertTrue(context.getBodies().get("MARS").hasMu());
+
+    TimeDependentStateCalculator calc = context.newCalculator(true);
+    assertInstanceOf(AnalyticTimeDependentStateCalculator.class, calc);
+    double range = calc.getRange(new Time("2024-01-02T00:00:00"), "-74", "MARS", "NONE");
+    assertTrue(range > 3600 && range < 3700, "range " + range);
+  }
+
+  @Test
+  public void testBackendCallsDoNotInterleave() throws InterruptedException {
+    SerializedSpiceBackend backend = SerializedSpiceBackend.currentKernels();
+    AtomicInteger inside = new AtomicInteger();
+    AtomicInteger mostInside = new AtomicInteger();
+    AtomicInteger withoutMonitor = new AtomicInteger();
+    long callsBefore = SerializedSpiceBackend.totalCalls();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 200; i++) {
+          try {
+            backend.call(() -> {
+              mostInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+              if (!Thread.holdsLock(Spice.class)) {
+                withoutMonitor.incrementAndGet();
+              }
+              Thread.yield();
+              return inside.decrementAndGet();
+            });
+          } catch (SpiceErrorException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(1, mostInside.get());
+    assertEquals(0, withoutMonitor.get());
+    assertEquals(800, SerializedSpiceBackend.totalCalls() - callsBefore);
+  }
+
+  @Test
+  public void testBackendReloadsItsKernelsAfterAnotherLoad() throws SpiceErrorException {
+    SerializedSpiceBackend backend = new SerializedSpiceBackend(CKReaderTest.NAIF_META_KERNEL_PATH);
+    long firstGeneration = backend.call(KernelSession::generation);
+    long unchanged = backend.call(KernelSession::generation);
+    assertEquals(firstGeneration, unchanged);
+
+    // as if another mission had loaded its own kernels in between
+    KernelSession.invalidate();
+    long loads = KernelSession.getLoads();
+    long secondGeneration = backend.call(KernelSession::generation);
+    assertNotEquals(firstGeneration, secondGeneration);
+    assertEquals(loads + 1, KernelSession.getLoads());
+    assertFalse(Spice.kernelSetIdentity().isEmpty());
+  }
+}
@@ -0,0 +1,59 @@
+package missionmodel;
+
+import missionmodel.geometry.returnedobjects.GeometryScratch;
+import missionmodel.geometry.returnedobjects.LatLonCoord;
+import missionmodel.geometry.returnedobjects.RADec;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GeometryScratchTest {
+
+  private static final double[][] VECTORS = new double[][]{
+    {1.5e8, -2.0e7, 3.0e6}, {-3396.2, 12.5, -0.25}, {0, 0, 7}, {1, 1e-9, 0}, {1, -1e-9, 0}, {-1, 0, 1e-9}};
+
+  @Test
+  public void testAngleMatchesVector3D() {
+    for (double[] u : VECTORS) {
+      for (double[] v : VECTORS) {
+        assertEquals(Vector3D.angle(new Vector3D(u), new Vector3D(v)), GeometryScratch.angle(u, 0, v, 0), 1e-15);
+      }
+    }
+    // and from offsets into a state
+    double[] state = new double[]{0, 0, 0, 1, 2, 3};
+    assertEquals(Vector3D.angle(new Vector3D(1, 2, 3), new Vector3D(VECTORS[0])), GeometryScratch.angle(state, 3, VECTORS[0], 0), 1e-15);
+    assertEquals(Math.sqrt(14), GeometryScratch.norm(state, 3), 0);
+  }
+
+  @Test
+  public void testReturnedObjectVariants() {
+    double[] raDec = new double[2];
+    double[] radiusLonLat = new double[3];
+    for (double[] v : VECTORS) {
+      RADec expected = new RADec(new Vector3D(v), Vector3D.ZERO);
+      RADec.raDec(v, 0, raDec);
+      assertEquals(expected.getRA(), raDec[0], 0);
+      assertEquals(expected.getDec(), raDec[1], 0);
+
+      LatLonCoord coordinate = new LatLonCoord(v);
+      LatLonCoord.latitudinal(v, radiusLonLat);
+      assertEquals(coordinate.getRadius(), radiusLonLat[0], 0);
+      assertEquals(coordinate.getLongitude(), radiusLonLat[1], 0);
+      assertEquals(coordinate.getLatitude(), radiusLonLat[2], 0);
+    }
+  }
+
+  @Test
+  public void testOnePerThread() throws InterruptedException {
+    GeometryScratch mine = GeometryScratch.forCurrentThread();
+    assertSame(mine, GeometryScratch.forCurrentThread());
+    GeometryScratch[] other = new GeometryScratch[1];
+    Thread thread = new Thread(() -> other[0] = GeometryScratch.forCurrentThread());
+    thread.start();
+    thread.join();
+    assertNotSame(mine, other[0]);
+  }
+}
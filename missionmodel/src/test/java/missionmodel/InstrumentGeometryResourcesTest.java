@@ -0,0 +1,50 @@
+package missionmodel;
+
+import missionmodel.gnc.instruments.Instrument;
+import missionmodel.gnc.instruments.InstrumentGeometryResources;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.RotationConvention;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentGeometryResourcesTest {
+
+  private final Instrument plusZ = new Instrument("Z", Vector3D.PLUS_K, Rotation.IDENTITY, 1.0);
+  private final Instrument plusX = new Instrument("X", Vector3D.PLUS_I, Rotation.IDENTITY, 1.0);
+  private final Vector3D body = new Vector3D(3000, 0, 0);
+
+  @Test
+  public void testAngleFollowsAttitude() {
+    assertEquals(90.0, InstrumentGeometryResources.boresightAngle(Rotation.IDENTITY, plusZ, body), 1e-9);
+    assertEquals(0.0, InstrumentGeometryResources.boresightAngle(Rotation.IDENTITY, plusX, body), 1e-9);
+
+    // turning the spacecraft 90 degrees about +Y swings +Z onto the body and +X away from it
+    Rotation turned = new Rotation(Vector3D.PLUS_J, Math.PI / 2, RotationConvention.VECTOR_OPERATOR);
+    assertEquals(0.0, InstrumentGeometryResources.boresightAngle(turned, plusZ, body), 1e-9);
+    assertEquals(90.0, InstrumentGeometryResources.boresightAngle(turned, plusX, body), 1e-9);
+
+    // the device frame rotation is applied before the attitude
+    Instrument mounted = new Instrument("M", Vector3D.PLUS_K, turned, 1.0);
+    assertEquals(0.0, InstrumentGeometryResources.boresightAngle(Rotation.IDENTITY, mounted, body), 1e-9);
+  }
+
+  @Test
+  public void testFieldOfView() {
+    assertTrue(InstrumentGeometryResources.inFieldOfView(0.5, plusZ));
+    assertTrue(InstrumentGeometryResources.inFieldOfView(1.0, plusZ));
+    assertFalse(InstrumentGeometryResources.inFieldOfView(1.01, plusZ));
+    assertNull(InstrumentGeometryResources.inFieldOfView(null, plusZ));
+  }
+
+  @Test
+  public void testUnknownBeforeGeometry() {
+    assertNull(InstrumentGeometryResources.boresightAngle(null, plusZ, body));
+    assertNull(InstrumentGeometryResources.boresightAngle(Rotation.IDENTITY, plusZ, null));
+    assertNull(InstrumentGeometryResources.boresightAngle(Rotation.IDENTITY, plusZ, Vector3D.ZERO));
+  }
+}
@@ -0,0 +1,113 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntervalSetTest {
+
+  private static IntervalSet set(long... bounds) {
+    return IntervalSet.fromBounds(bounds);
+  }
+
+  @Test
+  public void testFromBoundsSortsAndMerges() {
+    assertArrayEquals(new long[]{0, 10, 20, 30}, set(20, 25, 0, 5, 5, 10, 22, 30).toBounds());
+    // instants are kept
+    assertArrayEquals(new long[]{0, 0, 5, 6}, set(5, 6, 0, 0).toBounds());
+  }
+
+  @Test
+  public void testAnd() {
+    assertArrayEquals(new long[]{5, 10, 20, 22}, set(0, 10, 20, 30).and(set(5, 22)).toBounds());
+    // touching intervals don't intersect, but an instant inside an interval does
+    assertTrue(set(0, 5).and(set(5, 10)).isEmpty());
+    assertArrayEquals(new long[]{5, 5}, set(0, 10).and(set(5, 5)).toBounds());
+  }
+
+  @Test
+  public void testOr() {
+    assertArrayEquals(new long[]{0, 12, 20, 30}, set(0, 10, 20, 30).or(set(5, 12)).toBounds());
+    assertArrayEquals(new long[]{0, 10}, set(0, 5).or(set(5, 10)).toBounds());
+  }
+
+  @Test
+  public void testXorAndNot() {
+    assertArrayEquals(new long[]{0, 5, 10, 15}, set(0, 10).xor(set(5, 15)).toBounds());
+    assertTrue(set(0, 10).xor(set(0, 10)).isEmpty());
+    assertArrayEquals(new long[]{0, 2, 5, 8, 12, 20}, set(2, 5, 8, 12).not(0, 20).toBounds());
+    assertArrayEquals(new long[]{3, 4}, set(0, 3, 4, 10).not(1, 8).toBounds());
+    assertArrayEquals(new long[]{0, 20}, new IntervalSet().not(0, 20).toBounds());
+  }
+
+  @Test
+  public void testMinus() {
+    assertArrayEquals(new long[]{0, 2, 4, 6, 8, 10}, set(0, 10).minus(set(2, 4, 6, 8)).toBounds());
+    assertTrue(set(3, 5).minus(set(0, 10)).isEmpty());
+  }
+
+  @Test
+  public void testMergeAndPad() {
+    assertArrayEquals(new long[]{0, 12, 20, 25}, set(0, 5, 7, 12, 20, 25).merge(2).toBounds());
+    assertArrayEquals(new long[]{0, 13, 18, 26}, set(2, 5, 7, 12, 20, 25).pad(2, 1).merge(2).toBounds());
+    // shrinking drops intervals that vanish
+    assertArrayEquals(new long[]{3, 9}, set(0, 4, 2, 12).pad(-3, -3).or(set(0, 1).pad(-1, -1)).toBounds());
+  }
+
+  @Test
+  public void testInPlaceMatchesCopies() {
+    IntervalSet a = set(0, 10, 20, 30, 40, 50);
+    IntervalSet b = set(5, 25, 45, 60);
+    IntervalSet inPlace = set(a.toBounds());
+    inPlace.andInPlace(b);
+    assertEquals(a.and(b), inPlace);
+    inPlace = set(a.toBounds());
+    inPlace.orInPlace(b);
+    assertEquals(a.or(b), inPlace);
+    inPlace = set(a.toBounds());
+    inPlace.minusInPlace(b);
+    assertEquals(a.minus(b), inPlace);
+    inPlace = set(a.toBounds());
+    inPlace.notInPlace(0, 100);
+    assertEquals(a.not(0, 100), inPlace);
+  }
+
+  @Test
+  public void testAddOutOfOrder() {
+    IntervalSet s = new IntervalSet();
+    s.add(20, 30);
+    s.add(0, 5);
+    s.add(4, 21);
+    s.add(40, 40);
+    assertArrayEquals(new long[]{0, 30, 40, 40}, s.toBounds());
+    assertTrue(s.contains(40));
+    assertFalse(s.contains(35));
+    assertEquals(-1, s.indexOf(31));
+    assertEquals(1, s.indexOf(40));
+  }
+
+  @Test
+  public void testWindowConversion() {
+    Time t0 = Time.fromTics(0);
+    Time t1 = t0.add(Duration.fromSeconds(60));
+    Time t2 = t0.add(Duration.fromSeconds(120));
+    Time t3 = t0.add(Duration.fromSeconds(180));
+    IntervalSet s = IntervalSet.fromWindows(List.of(new Window(t2, t3), new Window(t0, t1)));
+    List<Window> windows = s.asWindows("FULL");
+    assertEquals(2, windows.size());
+    assertEquals(new Window(t0, t1), windows.get(0));
+    assertEquals(new Window(t2, t3), windows.get(1));
+    assertEquals("FULL", windows.get(1).getType());
+    assertEquals(Duration.fromSeconds(120), s.getDuration());
+
+    // the Window operations give the same result
+    assertArrayEquals(new Window[]{new Window(t1, t2)}, Window.not(new Window[]{new Window(t0, t1), new Window(t2, t3)}, t0, t3));
+  }
+}
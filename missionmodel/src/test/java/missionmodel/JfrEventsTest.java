@@ -0,0 +1,86 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.jfr.SlewGenerationEvent;
+import missionmodel.spice.SerializedSpiceBackend;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JfrEventsTest {
+
+  // records the events with the given names while the work runs, and reads them back from the recording
+  private static List<RecordedEvent> record(Runnable work, String... names) throws IOException {
+    Path file = Files.createTempFile("events", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (String name : names) {
+        recording.enable(name).withThreshold(java.time.Duration.ZERO);
+      }
+      recording.start();
+      work.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testSlewGenerationFields() throws IOException {
+    Time turnStart = new Time("2024-01-02T00:00:00");
+    List<RecordedEvent> events = record(() -> {
+      SlewGenerationEvent event = new SlewGenerationEvent();
+      event.begin();
+      event.commit("NoRateMatch", turnStart, "MARS", "SUN", 3, 12.5, 14);
+    }, "missionmodel.SlewGeneration");
+
+    assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    assertEquals("NoRateMatch", event.getString("model"));
+    assertEquals(turnStart.toString(), event.getString("turnStart"));
+    assertEquals("MARS", event.getString("primaryTarget"));
+    assertEquals("SUN", event.getString("secondaryTarget"));
+    assertEquals(3, event.getInt("solverIterations"));
+    assertEquals(java.time.Duration.ofMillis(12500), event.getDuration("turnTime"));
+    assertEquals(14, event.getInt("samples"));
+  }
+
+  @Test
+  public void testEventSearchRecordedPerSearch() throws IOException {
+    SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator(Map.of(), SerializedSpiceBackend.currentKernels());
+    Time start = new Time("2024-01-02T00:00:00");
+    // bodies the generator doesn't know are answered without searching, but the search is still recorded
+    List<RecordedEvent> events = record(() -> {
+      try {
+        generator.getPeriapses(start, start.add(Duration.fromHours(2)), Duration.fromMinutes(1), "-74", "MARS", 1e6, "LT+S");
+        generator.getApoapses(start, start.add(Duration.fromHours(1)), Duration.fromMinutes(1), "-74", "MARS", 0, "LT+S");
+      } catch (GeometryInformationNotAvailableException e) {
+        throw new RuntimeException(e);
+      }
+    }, "missionmodel.EventSearch");
+
+    assertEquals(2, events.size());
+    RecordedEvent periapses = events.stream().filter(e -> e.getString("method").equals("getPeriapses")).findFirst().orElseThrow();
+    assertEquals("-74", periapses.getString("observer"));
+    assertEquals("MARS", periapses.getString("target"));
+    assertEquals(start.toString(), periapses.getString("spanStart"));
+    assertEquals(java.time.Duration.ofHours(2), periapses.getDuration("span"));
+    assertEquals(java.time.Duration.ofMinutes(1), periapses.getDuration("step"));
+    assertEquals(0, periapses.getInt("found"));
+    assertTrue(events.stream().anyMatch(e -> e.getString("method").equals("getApoapses")));
+  }
+}
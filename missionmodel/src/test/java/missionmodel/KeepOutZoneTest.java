@@ -0,0 +1,88 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.gnc.blackbird.targets.primary.BodyCenterPrimaryTarget;
+import missionmodel.gnc.keepout.KeepOutZone;
+import missionmodel.gnc.keepout.KeepOutZoneChecker;
+import missionmodel.spice.SpiceBackend;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.junit.jupiter.api.Test;
+import spice.basic.SpiceErrorException;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeepOutZoneTest {
+
+  // counts the calls it's asked to make without making them
+  private static class CountingBackend implements SpiceBackend {
+    int calls = 0;
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public <T> T call(SpiceCall<T> work) {
+      calls++;
+      return null;
+    }
+
+    @Override
+    public String kernelSetIdentity() {
+      return "counting";
+    }
+  }
+
+  @Test
+  public void testParse() {
+    KeepOutZone sun = KeepOutZone.parse("SunExclusion_PLUS_Z sun 0 0 2 30");
+    assertEquals("SunExclusion_PLUS_Z", sun.name());
+    assertEquals("SUN", sun.bodyName());
+    assertEquals(1.0, sun.boresight().getZ(), 1e-15);
+    assertEquals(30.0, sun.halfAngleDegrees(), 0);
+    assertFalse(sun.fromLimb());
+
+    KeepOutZone mars = KeepOutZone.parse("  MarsLimb  MARS 1 0 0 5.5 limb ");
+    assertEquals(1.0, mars.boresight().getX(), 1e-15);
+    assertEquals(5.5, mars.halfAngleDegrees(), 0);
+    assertTrue(mars.fromLimb());
+  }
+
+  @Test
+  public void testParseRejectsBadSpecs() {
+    assertThrows(IllegalArgumentException.class, () -> KeepOutZone.parse("Sun SUN 0 0 1"));
+    assertThrows(IllegalArgumentException.class, () -> KeepOutZone.parse("Sun SUN 0 0 1 30 CENTER"));
+    assertThrows(IllegalArgumentException.class, () -> KeepOutZone.parse("Sun SUN 0 0 z 30"));
+    assertThrows(IllegalArgumentException.class, () -> KeepOutZone.parse("Sun SUN 0 0 0 30"));
+  }
+
+  @Test
+  public void testBodyDirectionsQueriedThroughBackend() throws SpiceErrorException {
+    CountingBackend spice = new CountingBackend();
+    List<KeepOutZone> zones = List.of(
+      KeepOutZone.parse("SunPlusZ SUN 0 0 1 30"),
+      KeepOutZone.parse("SunPlusX SUN 1 0 0 30"),
+      KeepOutZone.parse("MarsLimb MARS 0 1 0 5 limb"));
+    SortedMap<Time, Orientation> slew = new TreeMap<>();
+    Time start = new Time("2024-01-02T00:00:00");
+    for (int i = 0; i <= 10; i++) {
+      slew.put(start.add(Duration.fromSeconds(30 * i)), new Orientation(Rotation.IDENTITY));
+    }
+
+    // one call per body, sampling all its knots
+    new KeepOutZoneChecker(zones, "-74", "J2000", KeepOutZoneChecker.DEFAULT_KNOT_SPACING, "LT+S", spice).check(slew);
+    assertEquals(2, spice.calls);
+
+    new BodyCenterPrimaryTarget("MARS", "-74", "J2000", "LT+S", spice).getPosition(start);
+    assertEquals(3, spice.calls);
+  }
+}
@@ -0,0 +1,106 @@
+package missionmodel;
+
+import missionmodel.spice.KernelCoverageIndex;
+import missionmodel.spice.KernelCoverageIndex.Entry;
+import missionmodel.spice.KernelCoverageIndex.Kind;
+import missionmodel.spice.KernelCoverageIndex.Segment;
+import missionmodel.spice.KernelSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KernelCoverageIndexTest {
+
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("coverage");
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  // a DAF with one summary record holding the given SPK segments (start, end, target, center)
+  private Path writeSpk(String name, ByteOrder order, double[][] segments) throws IOException {
+    ByteBuffer daf = ByteBuffer.allocate(2 * 1024).order(order);
+    daf.put(0, "DAF/SPK ".getBytes(StandardCharsets.US_ASCII));
+    daf.putInt(8, 2);
+    daf.putInt(12, 6);
+    daf.putInt(76, 2);
+    daf.putInt(80, 2);
+    daf.put(88, (order == ByteOrder.BIG_ENDIAN ? "BIG-IEEE" : "LTL-IEEE").getBytes(StandardCharsets.US_ASCII));
+    daf.putDouble(1024 + 16, segments.length);
+    for (int i = 0; i < segments.length; i++) {
+      int offset = 1024 + 24 + i * 40;
+      daf.putDouble(offset, segments[i][0]);
+      daf.putDouble(offset + 8, segments[i][1]);
+      daf.putInt(offset + 16, (int) segments[i][2]);
+      daf.putInt(offset + 20, (int) segments[i][3]);
+    }
+    return Files.write(directory.resolve(name), daf.array());
+  }
+
+  @Test
+  public void testReadsSegmentsFromSummaries() throws IOException {
+    KernelCoverageIndex index = KernelCoverageIndex.forDirectory(directory);
+    for (ByteOrder order : List.of(ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN)) {
+      Path spk = writeSpk("sc_" + order + ".bsp", order, new double[][]{{-100.5, 200.25, -74, 4}, {0, 1e9, 4, 0}});
+      Entry entry = index.entryFor(spk.toString());
+      assertEquals(Kind.SPK, entry.kind());
+      assertEquals(List.of(new Segment(-74, 4, -100.5, 200.25), new Segment(4, 0, 0, 1e9)), entry.segments());
+      // unchanged files come from the index
+      assertSame(entry, index.entryFor(spk.toString()));
+    }
+    Path text = Files.writeString(directory.resolve("naif.tls"), "KPL/LSK\n\\begindata\n");
+    assertEquals(Kind.TEXT, index.entryFor(text.toString()).kind());
+
+    index.save();
+    assertTrue(Files.exists(directory.resolve(KernelCoverageIndex.INDEX_FILE_NAME)));
+  }
+
+  @Test
+  public void testSelectsKernelsForWindow() {
+    Entry spacecraft = new Entry("sc.bsp", 0, 0, Kind.SPK, List.of(new Segment(-74, 499, 100, 200)));
+    Entry spacecraftLater = new Entry("sc_later.bsp", 0, 0, Kind.SPK, List.of(new Segment(-74, 499, 500, 600)));
+    Entry mars = new Entry("mar.bsp", 0, 0, Kind.SPK, List.of(new Segment(499, 4, 0, 1000)));
+    Entry planets = new Entry("de.bsp", 0, 0, Kind.SPK, List.of(new Segment(4, 0, 0, 1000), new Segment(3, 0, 0, 1000)));
+    Entry stations = new Entry("stations.bsp", 0, 0, Kind.SPK, List.of(new Segment(399065, 399, 0, 1000)));
+    Entry orientation = new Entry("earth.bpc", 0, 0, Kind.PCK, List.of(new Segment(3000, 1, 300, 400)));
+    List<Entry> entries = List.of(spacecraft, spacecraftLater, mars, planets, stations, orientation);
+
+    // the spacecraft only, over a window before its later segment
+    Set<Integer> needed = new HashSet<>(Set.of(-74));
+    KernelSession.addCenters(needed, entries, 150, 250);
+    assertEquals(Set.of(-74, 499, 4, 0), needed);
+    assertTrue(KernelSession.isNeeded(spacecraft, needed, 150, 250));
+    assertFalse(KernelSession.isNeeded(spacecraftLater, needed, 150, 250));
+    assertTrue(KernelSession.isNeeded(mars, needed, 150, 250));
+    assertTrue(KernelSession.isNeeded(planets, needed, 150, 250));
+    assertFalse(KernelSession.isNeeded(stations, needed, 150, 250));
+    assertFalse(KernelSession.isNeeded(orientation, needed, 150, 250));
+    assertTrue(KernelSession.isNeeded(orientation, needed, 350, 360));
+  }
+}
@@ -0,0 +1,94 @@
+package missionmodel;
+
+import missionmodel.spice.KernelSession;
+import missionmodel.spice.MetaKernel;
+import missionmodel.spice.Spice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KernelSessionTest {
+
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("kernels");
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  private Path metaKernel(String name, Path... kernels) throws IOException {
+    StringBuilder text = new StringBuilder(" KPL/MK\n\\begindata\nKERNELS_TO_LOAD = (\n");
+    for (Path kernel : kernels) {
+      text.append("  '").append(kernel).append("'\n");
+    }
+    text.append(")\n\\begintext\n");
+    return Files.writeString(directory.resolve(name), text);
+  }
+
+  @Test
+  public void testNestedMetaKernelChangesFingerprint() throws IOException {
+    Path lsk = Files.writeString(directory.resolve("naif.tls"), "KPL/LSK\n");
+    Path spk = Files.writeString(directory.resolve("de.bsp"), "DAF/SPK ");
+    Path inner = metaKernel("inner.tm", spk);
+    Path outer = metaKernel("outer.tm", lsk, inner);
+    assertTrue(MetaKernel.isMetaKernel(inner));
+    assertFalse(MetaKernel.isMetaKernel(spk));
+
+    String before = KernelSession.fingerprint(outer.toString());
+    assertNotNull(before);
+    assertTrue(before.contains(spk.toAbsolutePath().toString()));
+
+    // only the inner meta-kernel lists this file
+    Files.writeString(spk, "DAF/SPK and more segments");
+    assertNotEquals(before, KernelSession.fingerprint(outer.toString()));
+  }
+
+  @Test
+  public void testSelfReferenceTerminates() throws IOException {
+    Path loop = directory.resolve("loop.tm");
+    metaKernel("loop.tm", loop);
+    assertNotNull(KernelSession.fingerprint(loop.toString()));
+    assertNull(KernelSession.fingerprint(directory.resolve("missing.tm").toString()));
+    // the meta-kernel itself, then its own entry once more
+    assertEquals(2, KernelSession.fingerprint(loop.toString()).split("\n").length);
+  }
+
+  @Test
+  public void testMetaKernelIdentityCoversEveryListedFile() throws IOException {
+    Path lsk = Files.writeString(directory.resolve("naif.tls"), "KPL/LSK\n");
+    Path early = Files.writeString(directory.resolve("early.bsp"), "DAF/SPK ");
+    Path late = Files.writeString(directory.resolve("late.bsp"), "DAF/SPK ");
+    Path meta = metaKernel("meta.tm", lsk, early, late);
+
+    // the same whatever window is loaded, since it's read from the meta-kernel rather than the kernel pool
+    String identity = Spice.metaKernelIdentity(meta.toString());
+    assertNotNull(identity);
+    assertEquals(identity, Spice.metaKernelIdentity(meta.toString()));
+
+    // but a change to a file outside any one window's subset is still noticed
+    Files.writeString(late, "DAF/SPK and more segments");
+    assertNotEquals(identity, Spice.metaKernelIdentity(meta.toString()));
+    assertNull(Spice.metaKernelIdentity(directory.resolve("missing.tm").toString()));
+  }
+}
@@ -0,0 +1,43 @@
+package missionmodel;
+
+import missionmodel.spice.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testPercentilesWithinPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    // 1 to 100000 ns, so the p-th percentile is p * 1000 ns
+    for (long nanos = 1; nanos <= 100000; nanos++) {
+      histogram.record(nanos);
+    }
+    assertEquals(100000, histogram.getCount());
+    assertEquals(100000, histogram.getMaxNanos());
+    assertEquals(50000.5, histogram.getMeanNanos(), 1e-9);
+    for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+      long expected = (long) (percentile * 1000);
+      long reported = histogram.getPercentileNanos(percentile);
+      assertTrue(reported >= expected && reported <= expected * 1.02, percentile + ": " + reported);
+    }
+    assertEquals(100000, histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testExactBelow128Nanoseconds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(5);
+    histogram.record(7);
+    histogram.record(100);
+    assertEquals(5, histogram.getPercentileNanos(33));
+    assertEquals(7, histogram.getPercentileNanos(50));
+    assertEquals(100, histogram.getPercentileNanos(100));
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentileNanos(50));
+  }
+}
@@ -0,0 +1,71 @@
+package missionmodel;
+
+import missionmodel.spice.LeapSeconds;
+import missionmodel.spice.Spice;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class LeapSecondsTest {
+
+  // naif0012.tls, from 1999 on
+  private static final LeapSeconds NAIF0012 = LeapSeconds.of(32.184, 1.657e-3, 1.671e-2, new double[]{6.239996, 1.99096871e-7},
+    new double[]{32, utc("1999-01-01T00:00:00Z"), 33, utc("2006-01-01T00:00:00Z"), 34, utc("2009-01-01T00:00:00Z"),
+      35, utc("2012-07-01T00:00:00Z"), 36, utc("2015-07-01T00:00:00Z"), 37, utc("2017-01-01T00:00:00Z")});
+
+  private static double utc(String instant) {
+    return Instant.parse(instant).getEpochSecond() - Instant.parse("2000-01-01T12:00:00Z").getEpochSecond();
+  }
+
+  @Test
+  public void testJ2000() {
+    // str2et("2000-01-01T12:00:00")
+    assertEquals(64.183927284731, NAIF0012.utcToEt(0), 1e-6);
+  }
+
+  @Test
+  public void testLeapSecond() {
+    double before = utc("2016-12-31T23:59:59Z");
+    double after = utc("2017-01-01T00:00:00Z");
+    assertEquals(1.0, NAIF0012.etMinusUtc(after) - NAIF0012.etMinusUtc(before), 1e-6);
+    assertEquals(69.184, NAIF0012.etMinusUtc(after), 2e-3);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    for (double utc : new double[]{utc("1999-06-01T00:00:00Z"), utc("2016-12-31T23:59:59Z"), utc("2017-01-01T00:00:00Z"), utc("2030-03-15T06:30:00.25Z")}) {
+      assertEquals(utc, NAIF0012.etToUtc(NAIF0012.utcToEt(utc)), 1e-6);
+    }
+  }
+
+  @Test
+  public void testBuiltInWithoutKernels() {
+    // without a leapseconds kernel in the pool, or without the SPICE library in this JVM, naif0012's table is used
+    LeapSeconds.reset();
+    LeapSeconds table = LeapSeconds.getOrBuiltIn();
+    assertEquals(69.184, table.etMinusUtc(utc("2024-01-01T00:00:00Z")), 2e-3);
+  }
+
+  @Test
+  public void testPoolReadUnderSpiceMonitor() throws InterruptedException {
+    LeapSeconds.reset();
+    LeapSeconds[] read = new LeapSeconds[1];
+    Thread reader = new Thread(() -> read[0] = LeapSeconds.getOrBuiltIn());
+    // while another thread is in SPICE, reading the pool has to wait for it
+    synchronized (Spice.class) {
+      reader.start();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (reader.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(Thread.State.BLOCKED, reader.getState());
+    }
+    reader.join(5000);
+    assertFalse(reader.isAlive());
+    assertNotNull(read[0]);
+  }
+}
@@ -0,0 +1,57 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.interfaces.TimeDependentStateCalculator;
+import missionmodel.geometry.spiceinterpolation.SharedBodyEphemeris;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SharedBodyEphemerisTest {
+
+  // answers getState with the time in tics as x, counting the calls
+  private static TimeDependentStateCalculator countingCalculator(AtomicInteger calls) {
+    return (TimeDependentStateCalculator) Proxy.newProxyInstance(TimeDependentStateCalculator.class.getClassLoader(),
+      new Class<?>[]{TimeDependentStateCalculator.class}, (proxy, method, args) -> {
+        if (method.getName().equals("getState")) {
+          calls.incrementAndGet();
+          return new Vector3D[]{new Vector3D(((Time) args[0]).getTics(), 0, 0), Vector3D.ZERO};
+        }
+        throw new UnsupportedOperationException(method.getName());
+      });
+  }
+
+  @Test
+  public void testReusedWithinEpoch() throws GeometryInformationNotAvailableException {
+    AtomicInteger calls = new AtomicInteger();
+    SharedBodyEphemeris ephemeris = new SharedBodyEphemeris(countingCalculator(calls));
+    Time t = Time.fromTics(100);
+
+    // as for three spacecraft stepping the same body
+    Vector3D[] first = ephemeris.getState(t, "MARS", "SUN", "LT+S");
+    assertSame(first, ephemeris.getState(t, "MARS", "SUN", "LT+S"));
+    assertSame(first, ephemeris.getState(Time.fromTics(100), "MARS", "SUN", "LT+S"));
+    ephemeris.getState(t, "EARTH", "MARS", "LT+S");
+
+    assertEquals(2, calls.get());
+    assertEquals(2, ephemeris.getEvaluations());
+    assertEquals(2, ephemeris.getReuses());
+  }
+
+  @Test
+  public void testRecomputedAtNewEpoch() throws GeometryInformationNotAvailableException {
+    AtomicInteger calls = new AtomicInteger();
+    SharedBodyEphemeris ephemeris = new SharedBodyEphemeris(countingCalculator(calls));
+
+    assertEquals(100, ephemeris.getState(Time.fromTics(100), "MARS", "SUN", "LT+S")[0].getX());
+    assertEquals(200, ephemeris.getState(Time.fromTics(200), "MARS", "SUN", "LT+S")[0].getX());
+    assertEquals(100, ephemeris.getState(Time.fromTics(100), "MARS", "SUN", "LT+S")[0].getX());
+    assertEquals(3, calls.get());
+  }
+}
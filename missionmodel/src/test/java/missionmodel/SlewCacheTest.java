@@ -0,0 +1,87 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.gnc.SlewCache;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SlewCacheTest {
+
+  private Path file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = Files.createTempFile("slews", ".bin");
+    Files.delete(file);
+    SlewCache.clear();
+    SlewCache.setPersistenceFile(file);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    SlewCache.setPersistenceFile(null);
+    SlewCache.clear();
+    Files.deleteIfExists(file);
+  }
+
+  private static SortedMap<Time, Orientation> slew(int i) {
+    SortedMap<Time, Orientation> slew = new TreeMap<>();
+    slew.put(Time.fromTics(1000L * i), new Orientation(new Rotation(1, 0, 0, 0, false)));
+    return slew;
+  }
+
+  // forgets what's in memory and reads the file again
+  private void reload() {
+    SlewCache.clear();
+    SlewCache.setPersistenceFile(file);
+  }
+
+  @Test
+  public void testPersistsAcrossLoads() {
+    SlewCache.put("a", slew(1));
+    reload();
+    SortedMap<Time, Orientation> read = SlewCache.get("a");
+    assertNotNull(read);
+    assertEquals(Time.fromTics(1000L), read.firstKey());
+    assertNull(SlewCache.get("b"));
+    assertEquals(1, SlewCache.getPersistedEntries());
+  }
+
+  @Test
+  public void testPersistenceFileBounded() {
+    int puts = 2 * SlewCache.MAX_ENTRIES + 1;
+    for (int i = 0; i < puts; i++) {
+      SlewCache.put("k" + i, slew(i));
+    }
+    // rewritten with what memory holds once it passed twice the limit
+    assertEquals(SlewCache.MAX_ENTRIES, SlewCache.getPersistedEntries());
+    reload();
+    assertNotNull(SlewCache.get("k" + (puts - 1)));
+    assertNull(SlewCache.get("k0"));
+    assertEquals(SlewCache.MAX_ENTRIES, SlewCache.getPersistedEntries());
+  }
+
+  @Test
+  public void testRepeatedKeysCompactedOnLoad() {
+    for (int i = 0; i < 3; i++) {
+      SlewCache.put("same", slew(i));
+    }
+    assertEquals(3, SlewCache.getPersistedEntries());
+    reload();
+    assertEquals(Time.fromTics(2000L), SlewCache.get("same").firstKey());
+    assertEquals(1, SlewCache.getPersistedEntries());
+  }
+}
@@ -5,9 +5,12 @@ import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalcu
 import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.returnedobjects.IlluminationAngles;
 import missionmodel.geometry.returnedobjects.LatLonCoord;
+import missionmodel.geometry.returnedobjects.OrbitConicElements;
 import missionmodel.geometry.returnedobjects.RADec;
 import missionmodel.geometry.returnedobjects.SubPointInformation;
 import missionmodel.geometry.spiceinterpolation.Body;
+import missionmodel.spice.BodyRotation;
+import missionmodel.spice.BodyRotations;
 import missionmodel.spice.Spice;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.junit.jupiter.api.AfterAll;
@@ -21,6 +24,7 @@ import spice.basic.SpiceErrorException;
 import java.nio.file.Path;
 import java.util.HashMap;
 
+import static gov.nasa.jpl.time.Duration.HOUR_DURATION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -32,6 +36,7 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
   public static final String NAIF_META_KERNEL_PATH = VERSIONED_KERNELS_ROOT_DIRECTORY.toString() + "/latest_meta_kernel.tm";
   static SpiceDirectTimeDependentStateCalculator stateCalculatorNoCaching;
   static SpiceDirectTimeDependentStateCalculator stateCalculatorCaching;
+  static SpiceDirectTimeDependentStateCalculator stateCalculatorEllipsoid;
 
   private final Time t = new Time("2024-01-02T00:00:00");
   private final String sc_id = "-74"; // MRO
@@ -64,6 +69,8 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
 
     stateCalculatorCaching = new SpiceDirectTimeDependentStateCalculator(listOfBodies, true);
     stateCalculatorNoCaching = new SpiceDirectTimeDependentStateCalculator(listOfBodies, false);
+    stateCalculatorEllipsoid = new SpiceDirectTimeDependentStateCalculator(listOfBodies, true);
+    stateCalculatorEllipsoid.setEllipsoidKernel(true);
   }
 
   @Test
@@ -251,6 +258,7 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
         stateCalculatorCaching.getSubPointInformation(t, sc_id, target, abcorr, false),
         stateCalculatorCaching.getSubPointInformation(t, sc_id, target, abcorr, false),
         stateCalculatorNoCaching.getSubPointInformation(t, sc_id, target, abcorr, false),
+        stateCalculatorEllipsoid.getSubPointInformation(t, sc_id, target, abcorr, false),
       };
 
       for(int i = 0; i<calcs.length; i++) {
@@ -278,6 +286,7 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
         stateCalculatorCaching.getIlluminationAngles(t, sc_id, target, abcorr, false),
         stateCalculatorCaching.getIlluminationAngles(t, sc_id, target, abcorr, false),
         stateCalculatorNoCaching.getIlluminationAngles(t, sc_id, target, abcorr, false),
+        stateCalculatorEllipsoid.getIlluminationAngles(t, sc_id, target, abcorr, false),
       };
 
       for(int i = 0; i<calcs.length; i++) {
@@ -388,7 +397,8 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
       double[] calcs = new double[]{
         stateCalculatorCaching.getLST(t, sc_id, target, abcorr, false),
         stateCalculatorCaching.getLST(t, sc_id, target, abcorr, false),
-        stateCalculatorNoCaching.getLST(t, sc_id, target, abcorr, false)
+        stateCalculatorNoCaching.getLST(t, sc_id, target, abcorr, false),
+        stateCalculatorEllipsoid.getLST(t, sc_id, target, abcorr, false)
       };
       for(int i = 0; i<calcs.length; i++) {
         assertEquals(3.37972, calcs[i], 0.001);
@@ -399,4 +409,84 @@ public class SpiceDirectTimeDependentStateCalculatorTest {
     }
 
   }
+
+  @Test
+  public void testEllipsoidKernelMatchesSpice() throws GeometryInformationNotAvailableException {
+    // every 5 hours for 10 days, so the sub-spacecraft point crosses the whole planet and both terminators
+    for (int step = 0; step < 48; step++) {
+      Time et = t.add(HOUR_DURATION.multiply(5 * step));
+      for (String correction : new String[]{"NONE", "LT+S"}) {
+        LatLonCoord spice = new LatLonCoord(stateCalculatorNoCaching.getSubPointInformation(et, sc_id, target, correction, false).getSpoint());
+        LatLonCoord java = new LatLonCoord(stateCalculatorEllipsoid.getSubPointInformation(et, sc_id, target, correction, false).getSpoint());
+        assertEquals(spice.getLatitude() * (180 / Math.PI), java.getLatitude() * (180 / Math.PI), 0.001);
+        assertEquals(0, Math.IEEEremainder(spice.getLongitude() - java.getLongitude(), 2 * Math.PI) * (180 / Math.PI), 0.001);
+        assertEquals(spice.getRadius(), java.getRadius(), 0.001);
+
+        IlluminationAngles spiceAngles = stateCalculatorNoCaching.getIlluminationAngles(et, sc_id, target, correction, false);
+        IlluminationAngles javaAngles = stateCalculatorEllipsoid.getIlluminationAngles(et, sc_id, target, correction, false);
+        assertEquals(spiceAngles.getPhaseAngle(), javaAngles.getPhaseAngle(), 0.001);
+        assertEquals(spiceAngles.getIncidenceAngle(), javaAngles.getIncidenceAngle(), 0.001);
+        assertEquals(spiceAngles.getEmissionAngle(), javaAngles.getEmissionAngle(), 0.001);
+
+        // et2lst reports whole seconds
+        double lstDifference = stateCalculatorNoCaching.getLST(et, sc_id, target, correction, false)
+          - stateCalculatorEllipsoid.getLST(et, sc_id, target, correction, false);
+        assertEquals(0, Math.IEEEremainder(lstDifference, 24), 0.001);
+      }
+    }
+  }
+
+  @Test
+  public void testBodyRotationsMatchSpice() throws SpiceErrorException {
+    double[] rotation = new double[9];
+    double[] derivative = new double[9];
+    for (String frame : new String[]{"IAU_MARS", "IAU_EARTH", "IAU_SUN"}) {
+      BodyRotation model = BodyRotations.forFrame(frame);
+      for (int step = 0; step < 48; step++) {
+        double et = JPLTimeConvertUtility.toET(t.add(HOUR_DURATION.multiply(5 * step)));
+        model.rotation(et, rotation, 0, derivative, 0);
+        // six by six, row-major, with the rotation's derivative in the lower left
+        double[] spice = CSPICE.sxform("J2000", frame, et);
+        for (int i = 0; i < 3; i++) {
+          for (int j = 0; j < 3; j++) {
+            assertEquals(spice[6 * i + j], rotation[3 * i + j], 1e-10);
+            assertEquals(spice[6 * (i + 3) + j], derivative[3 * i + j], 1e-14);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBufferVariantsMatch() throws GeometryInformationNotAvailableException {
+    double[] state = new double[6];
+    double[] spoint = new double[3];
+    double[] srfvec = new double[3];
+    double[] angles = new double[3];
+    double[] elements = new double[8];
+    for (SpiceDirectTimeDependentStateCalculator calculator : new SpiceDirectTimeDependentStateCalculator[]{stateCalculatorNoCaching, stateCalculatorCaching}) {
+      Vector3D[] expectedState = stateCalculatorNoCaching.getState(t, sc_id, target, abcorr);
+      calculator.getState(t, sc_id, target, abcorr, state);
+      assertEquals(expectedState[0].getX(), state[0], 1e-9);
+      assertEquals(expectedState[0].getZ(), state[2], 1e-9);
+      assertEquals(expectedState[1].getY(), state[4], 1e-12);
+
+      SubPointInformation expectedSubPoint = stateCalculatorNoCaching.getSubPointInformation(t, sc_id, target, abcorr, false);
+      assertEquals(expectedSubPoint.isFound(), calculator.getSubPointInformation(t, sc_id, target, abcorr, false, spoint, srfvec));
+      assertEquals(expectedSubPoint.getSpoint().getX(), spoint[0], 1e-9);
+      assertEquals(expectedSubPoint.getSrfvec().getZ(), srfvec[2], 1e-9);
+
+      IlluminationAngles expectedAngles = stateCalculatorNoCaching.getIlluminationAngles(t, sc_id, target, abcorr, false);
+      calculator.getIlluminationAngles(t, sc_id, target, abcorr, false, angles);
+      assertEquals(expectedAngles.getPhaseAngle(), angles[0], 1e-9);
+      assertEquals(expectedAngles.getIncidenceAngle(), angles[1], 1e-9);
+      assertEquals(expectedAngles.getEmissionAngle(), angles[2], 1e-9);
+
+      OrbitConicElements expectedOrbit = stateCalculatorNoCaching.getOrbitConicElements(t, sc_id, target, abcorr);
+      calculator.getOrbitConicElements(t, sc_id, target, abcorr, elements);
+      assertEquals(expectedOrbit.getPerifocalDistance(), elements[0], 1e-6);
+      assertEquals(expectedOrbit.getEccentricity(), elements[1], 1e-9);
+      assertEquals(expectedOrbit.getInclination(), elements[2], 1e-9);
+    }
+  }
 }
@@ -119,4 +119,26 @@ public class SpiceResourcePopulaterTest {
     assertEquals(0, calPeriods.size());
 
   }
+
+  @Test
+  public void testStepBoundsScaledForTier() {
+    List<CalculationPeriod> configured = List.of(new CalculationPeriod(new Time("2024-01-02T00:00:00.000"),
+      new Time("2024-05-06T00:00:00.000"), new Duration("00:00:30"), new Duration("00:01:00"), 0.1));
+
+    List<CalculationPeriod> quickLook = SpiceResourcePopulater.scale(configured, FidelityTier.QUICK_LOOK);
+    assertEquals(1, quickLook.size());
+    assertEquals(configured.get(0).getStart(), quickLook.get(0).getStart());
+    assertEquals(configured.get(0).getEnd(), quickLook.get(0).getEnd());
+    assertEquals(new Duration("00:05:00"), quickLook.get(0).getMinTimeStep());
+    assertEquals(new Duration("00:10:00"), quickLook.get(0).getMaxTimeStep());
+    assertEquals(1.0, quickLook.get(0).getThreshold(), 1e-12);
+
+    CalculationPeriod standard = SpiceResourcePopulater.scale(configured, FidelityTier.STANDARD).get(0);
+    assertEquals(new Duration("00:00:30"), standard.getMinTimeStep());
+    assertEquals(0.1, standard.getThreshold(), 1e-12);
+    assertEquals(new Duration("00:00:30"), SpiceResourcePopulater.scale(configured, FidelityTier.FINAL).get(0).getMaxTimeStep());
+
+    // the model runs at STANDARD, so its populater keeps the config's steps
+    assertEquals(new Duration("00:00:30"), this.model.spiceResPop.getScaledCalculationPeriods("MARS", "Trajectory").get(0).getMaxTimeStep());
+  }
 }
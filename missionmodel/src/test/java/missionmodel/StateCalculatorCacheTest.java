@@ -0,0 +1,131 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.geometry.directspicecalls.SpiceDirectTimeDependentStateCalculator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.spice.SpiceBackend;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StateCalculatorCacheTest {
+
+  // counts the calls it's asked to make without making them, so states come back as zeros
+  private static class CountingBackend implements SpiceBackend {
+    int calls = 0;
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public <T> T call(SpiceCall<T> work) {
+      calls++;
+      return null;
+    }
+
+    @Override
+    public String kernelSetIdentity() {
+      return "counting";
+    }
+  }
+
+  private final Time t = new Time("2024-01-02T00:00:00");
+
+  @Test
+  public void testArrayStatesCachedWithoutObjectCache() throws GeometryInformationNotAvailableException {
+    CountingBackend spice = new CountingBackend();
+    SpiceDirectTimeDependentStateCalculator calc = new SpiceDirectTimeDependentStateCalculator(Map.of(), true, spice);
+    double[] state = new double[6];
+
+    calc.getState(t, "-74", "MARS", "LT+S", state);
+    calc.getState(t, "-74", "MARS", "LT+S", state);
+    calc.getState(Time.fromTics(t.getTics()), "-74", "MARS", "LT+S", state);
+    assertEquals(1, spice.calls);
+
+    calc.getState(t, "-74", "MARS", "NONE", state);
+    calc.getState(t, "-74", "EARTH", "LT+S", state);
+    calc.getState(t.add(Duration.fromSeconds(1)), "-74", "MARS", "LT+S", state);
+    assertEquals(4, spice.calls);
+    assertTrue(calc.getSpiceInfoMap().isEmpty());
+  }
+
+  @Test
+  public void testArrayStatesReplacedOldestFirst() throws GeometryInformationNotAvailableException {
+    CountingBackend spice = new CountingBackend();
+    SpiceDirectTimeDependentStateCalculator calc = new SpiceDirectTimeDependentStateCalculator(Map.of(), true, spice);
+    double[] state = new double[6];
+    for (int i = 0; i <= SpiceDirectTimeDependentStateCalculator.CACHED_STATES; i++) {
+      calc.getState(t.add(Duration.fromSeconds(i)), "-74", "MARS", "LT+S", state);
+    }
+    int calls = spice.calls;
+    calc.getState(t.add(Duration.fromSeconds(SpiceDirectTimeDependentStateCalculator.CACHED_STATES)), "-74", "MARS", "LT+S", state);
+    assertEquals(calls, spice.calls);
+    calc.getState(t, "-74", "MARS", "LT+S", state);
+    assertEquals(calls + 1, spice.calls);
+  }
+
+  @Test
+  public void testObjectCacheKeepsInterleavedBodyEpochs() throws GeometryInformationNotAvailableException {
+    CountingBackend spice = new CountingBackend();
+    SpiceDirectTimeDependentStateCalculator calc = new SpiceDirectTimeDependentStateCalculator(Map.of(), true, spice);
+    String[] bodies = {"SUN", "EARTH", "MARS"};
+
+    // each body's generator steps at its own epochs, and asks again for its previous epoch's states
+    for (int step = 0; step < 5; step++) {
+      for (int b = 0; b < bodies.length; b++) {
+        Time epoch = t.add(Duration.fromSeconds(100 * step + b));
+        calc.getState(epoch, "-74", bodies[b], "LT+S");
+        if (step > 0) {
+          calc.getState(epoch.subtract(Duration.fromSeconds(100)), "-74", bodies[b], "LT+S");
+        }
+      }
+    }
+    assertEquals(15, spice.calls);
+    assertEquals(15, calc.getSpiceInfoMap().size());
+
+    // past the bound, the earliest epoch goes
+    calc.getState(t.add(Duration.fromSeconds(500)), "-74", "MARS", "LT+S");
+    calc.getState(t.add(Duration.fromSeconds(501)), "-74", "MARS", "LT+S");
+    assertEquals(SpiceDirectTimeDependentStateCalculator.MAX_CACHED_EPOCHS, calc.getSpiceInfoMap().size());
+    calc.getState(t, "-74", "SUN", "LT+S");
+    assertEquals(18, spice.calls);
+  }
+
+  @Test
+  public void testCachedArrayLookupsDoNotAllocate() throws GeometryInformationNotAvailableException {
+    SpiceDirectTimeDependentStateCalculator calc = new SpiceDirectTimeDependentStateCalculator(Map.of(), true, new CountingBackend());
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    double[] state = new double[6];
+    int lookups = 100_000;
+
+    calc.getState(t, "-74", "MARS", "LT+S", state);
+    calc.getState(t, "-74", "MARS", "LT+S");
+    for (int i = 0; i < lookups; i++) {
+      calc.getState(t, "-74", "MARS", "LT+S", state);
+      calc.getState(t, "-74", "MARS", "LT+S");
+    }
+
+    long before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < lookups; i++) {
+      calc.getState(t, "-74", "MARS", "LT+S", state);
+    }
+    long arrayBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+    before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < lookups; i++) {
+      calc.getState(t, "-74", "MARS", "LT+S");
+    }
+    long objectBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+    System.out.println("Bytes allocated per cached state lookup: " + (double) arrayBytes / lookups + " into an array, "
+      + (double) objectBytes / lookups + " as Vector3Ds");
+    assertTrue(arrayBytes < lookups, arrayBytes + " bytes allocated");
+    assertTrue(arrayBytes < objectBytes);
+  }
+}
@@ -0,0 +1,121 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.gnc.blackbird.ck.CKReader;
+import missionmodel.gnc.blackbird.ck.StreamingCKWriter;
+import missionmodel.gnc.blackbird.interfaces.Orientation;
+import missionmodel.spice.Spice;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import spice.basic.CSPICE;
+import spice.basic.SpiceErrorException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class StreamingCKWriterTest {
+
+  private final Time t = new Time("2024-01-02T00:00:00");
+  private Path directory;
+
+  @BeforeAll
+  void beforeAll() throws SpiceErrorException, IOException {
+    try {
+      Spice.initialize(CKReaderTest.NAIF_META_KERNEL_PATH);
+    }
+    catch (SpiceErrorException e) {
+      System.out.println(e.getMessage());
+    }
+    CSPICE.lmpool(CKReaderTest.SCLK_KERNEL);
+    directory = Files.createTempDirectory("ckwriter");
+  }
+
+  @AfterAll
+  void afterAll() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        CSPICE.unload(file.toString());
+        Files.delete(file);
+      }
+    } catch (SpiceErrorException e) {
+      System.out.println(e.getMessage());
+    }
+    Files.delete(directory);
+  }
+
+  private static Orientation orientation(int i) {
+    double half = 0.005 * i;
+    return new Orientation(new Rotation(Math.cos(half), Math.sin(half), 0, 0, false), new Vector3D(0.01 / 60, 0, 0));
+  }
+
+  private Path write(String name, int maxRecordsPerSegment, Duration maxGap, int[] minutes) throws SpiceErrorException {
+    Path ck = directory.resolve(name);
+    try (StreamingCKWriter writer = new StreamingCKWriter(ck.toString(), CKReaderTest.CLOCK, CKReaderTest.INSTRUMENT,
+      "J2000", true, maxRecordsPerSegment, maxGap)) {
+      for (int i = 0; i < minutes.length; i++) {
+        writer.add(t.add(Duration.fromMinutes(minutes[i])), orientation(i));
+      }
+    }
+    CSPICE.furnsh(ck.toString());
+    return ck;
+  }
+
+  private boolean covered(double minutes) throws SpiceErrorException {
+    double ticks = CSPICE.sce2c(CKReaderTest.CLOCK, JPLTimeConvertUtility.toET(t) + 60 * minutes);
+    double[][] cmat = new double[3][3];
+    double[] clkout = new double[1];
+    boolean[] found = new boolean[1];
+    CSPICE.ckgp(CKReaderTest.INSTRUMENT, ticks, 0, "J2000", cmat, clkout, found);
+    return found[0];
+  }
+
+  @Test
+  public void testSegmentsCoverWithoutHoles() throws SpiceErrorException, IOException {
+    // 4 records a segment, with the last record of each carried into the next: 0-3, 3-6, 6-9
+    Path ck = write("segments.bc", 4, null, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+    List<CKReader.Segment> segments = CKReader.open(ck).getSegments();
+    assertEquals(3, segments.size());
+    for (int s = 1; s < segments.size(); s++) {
+      assertEquals(segments.get(s - 1).getEndTicks(), segments.get(s).getStartTicks());
+    }
+    for (double minutes = 0; minutes <= 9; minutes += 0.25) {
+      assertTrue(covered(minutes), "No attitude at " + minutes + " minutes");
+    }
+  }
+
+  @Test
+  public void testMaxGapBreaksInterpolation() throws SpiceErrorException {
+    write("gap.bc", 100, Duration.fromMinutes(2), new int[]{20, 21, 22, 30, 31});
+    assertTrue(covered(21.5));
+    assertFalse(covered(26));
+    assertTrue(covered(30.5));
+  }
+
+  @Test
+  public void testFullLastSegmentWrittenOnce() throws SpiceErrorException {
+    Path ck = directory.resolve("full.bc");
+    StreamingCKWriter writer = new StreamingCKWriter(ck.toString(), CKReaderTest.CLOCK, CKReaderTest.INSTRUMENT,
+      "J2000", true, 4, null);
+    for (int i = 0; i < 4; i++) {
+      writer.add(t.add(Duration.fromMinutes(40 + i)), orientation(i));
+    }
+    assertEquals(0, writer.getSegmentsWritten());
+    writer.close();
+    assertEquals(1, writer.getSegmentsWritten());
+    writer.close();
+    assertEquals(1, writer.getSegmentsWritten());
+  }
+}
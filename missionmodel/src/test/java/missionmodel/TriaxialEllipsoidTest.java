@@ -0,0 +1,136 @@
+package missionmodel;
+
+import missionmodel.geometry.ellipsoid.EllipsoidSurfaceGeometry;
+import missionmodel.geometry.ellipsoid.TriaxialEllipsoid;
+import missionmodel.geometry.returnedobjects.LatLonCoord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TriaxialEllipsoidTest {
+
+  // Mars' radii from pck00011.tpc
+  private static final double[] MARS = new double[]{3396.19, 3396.19, 3376.20};
+  private static final double[] TRIAXIAL = new double[]{3000, 2000, 1000};
+  private static final double[][] IDENTITY = new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+
+  @Test
+  public void testIntercept() {
+    TriaxialEllipsoid ellipsoid = new TriaxialEllipsoid(TRIAXIAL);
+    double[] point = new double[3];
+
+    assertTrue(ellipsoid.intercept(new double[]{0, 0, 5000}, new double[]{0, 0, -1}, point));
+    assertEquals(1000, point[2], 1e-9);
+    assertTrue(ellipsoid.intercept(new double[]{10000, 0, 0}, new double[]{-3, 0, 0}, point));
+    assertEquals(3000, point[0], 1e-9);
+
+    // from inside, where the ray leaves
+    assertTrue(ellipsoid.intercept(new double[]{0, 0, 0}, new double[]{0, 1, 0}, point));
+    assertEquals(2000, point[1], 1e-9);
+
+    // pointing away, and passing by
+    assertFalse(ellipsoid.intercept(new double[]{0, 0, 5000}, new double[]{0, 0, 1}, point));
+    assertFalse(ellipsoid.intercept(new double[]{0, 0, 5000}, new double[]{1, 0, 0}, point));
+
+    // a slanted ray lands on the surface
+    assertTrue(ellipsoid.intercept(new double[]{4000, 3000, 2000}, new double[]{-1, -0.8, -0.7}, point));
+    assertEquals(1, surfaceLevel(TRIAXIAL, point), 1e-12);
+  }
+
+  @Test
+  public void testNearPoint() {
+    TriaxialEllipsoid ellipsoid = new TriaxialEllipsoid(TRIAXIAL);
+    double[] point = new double[3];
+
+    assertEquals(10, ellipsoid.nearPoint(new double[]{3010, 0, 0}, point), 1e-9);
+    assertEquals(3000, point[0], 1e-9);
+    assertEquals(-100, ellipsoid.nearPoint(new double[]{0, 0, 900}, point), 1e-9);
+
+    // the near point is on the surface, along the normal from the position
+    double[] position = new double[]{2500, 1800, 1200};
+    double altitude = ellipsoid.nearPoint(position, point);
+    assertEquals(1, surfaceLevel(TRIAXIAL, point), 1e-12);
+    double[] normal = new double[3];
+    ellipsoid.normal(point, normal);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(position[i], point[i] + altitude * normal[i], 1e-6);
+    }
+  }
+
+  @Test
+  public void testLatitudinal() {
+    double[] point = new double[]{-1000.5, 2000.25, -3000.125};
+    double[] radiusLonLat = new double[3];
+    TriaxialEllipsoid.latitudinal(point, radiusLonLat);
+    LatLonCoord expected = new LatLonCoord(point);
+    assertEquals(expected.getRadius(), radiusLonLat[0], 1e-9);
+    assertEquals(expected.getLongitude(), radiusLonLat[1], 1e-12);
+    assertEquals(expected.getLatitude(), radiusLonLat[2], 1e-12);
+  }
+
+  @Test
+  public void testSubPointAndIlluminationWithoutCorrections() {
+    EllipsoidSurfaceGeometry geometry = new EllipsoidSurfaceGeometry(MARS);
+    // an observer 10000 km out along +x, with the Sun behind it
+    double[] targetState = new double[]{-10000, 0, 0, 0, 1, 0};
+    double[] targetVelocity = new double[]{0, 0, 0};
+    double[] spoint = new double[3];
+    double[] srfvec = new double[3];
+
+    assertEquals(100, geometry.subPoint(100, targetState, targetVelocity, IDENTITY, "NONE", spoint, srfvec), 0);
+    assertEquals(MARS[0], spoint[0], 1e-9);
+    assertEquals(10000 - MARS[0], -srfvec[0], 1e-9);
+
+    double[] angles = new double[3];
+    geometry.illuminationAngles(targetState, targetVelocity, IDENTITY, new double[]{2.0e8, 0, 0}, "NONE", spoint, srfvec, angles);
+    assertEquals(0, angles[0], 1e-9);
+    assertEquals(0, angles[1], 1e-9);
+    assertEquals(0, angles[2], 1e-9);
+
+    // with the Sun over the pole instead
+    geometry.illuminationAngles(targetState, targetVelocity, IDENTITY, new double[]{0, 0, 2.0e8}, "NONE", spoint, srfvec, angles);
+    assertEquals(90, Math.toDegrees(angles[0]), 1e-3);
+    assertEquals(90, Math.toDegrees(angles[1]), 1e-3);
+  }
+
+  @Test
+  public void testLightTimeAndRotation() {
+    EllipsoidSurfaceGeometry geometry = new EllipsoidSurfaceGeometry(MARS);
+    double[] spoint = new double[3];
+    double[] srfvec = new double[3];
+
+    double[] targetState = new double[]{-10000, 0, 0, 0, 0, 0};
+    double trgepc = geometry.subPoint(0, targetState, new double[]{0, 0, 0}, IDENTITY, "LT+S", spoint, srfvec);
+    assertEquals(-(10000 - MARS[0]) / EllipsoidSurfaceGeometry.SPEED_OF_LIGHT, trgepc, 1e-12);
+
+    // a body-fixed frame turned a quarter about z sees the observer along -y
+    geometry.subPoint(0, targetState, new double[]{0, 0, 0}, new double[][]{{0, 1, 0}, {-1, 0, 0}, {0, 0, 1}}, "NONE", spoint, srfvec);
+    assertEquals(0, spoint[0], 1e-9);
+    assertEquals(-MARS[1], spoint[1], 1e-9);
+  }
+
+  @Test
+  public void testStellarAberration() {
+    // perpendicular motion turns the apparent position by v/c towards the velocity
+    double[] apparent = new double[3];
+    EllipsoidSurfaceGeometry.stellarAberration(new double[]{1000, 0, 0}, new double[]{0, 30, 0}, apparent);
+    assertEquals(Math.asin(30 / EllipsoidSurfaceGeometry.SPEED_OF_LIGHT), Math.atan2(apparent[1], apparent[0]), 1e-15);
+    assertEquals(1000, Math.hypot(apparent[0], apparent[1]), 1e-9);
+  }
+
+  @Test
+  public void testLocalSolarTime() {
+    double[] sun = new double[]{1.0e8, 0, 0};
+    assertEquals(12, EllipsoidSurfaceGeometry.localSolarTimeHours(0, sun), 1e-12);
+    assertEquals(18, EllipsoidSurfaceGeometry.localSolarTimeHours(Math.PI / 2, sun), 1e-12);
+    assertEquals(6, EllipsoidSurfaceGeometry.localSolarTimeHours(-Math.PI / 2, sun), 1e-12);
+    assertEquals(0, EllipsoidSurfaceGeometry.localSolarTimeHours(Math.PI, sun), 1e-12);
+  }
+
+  private static double surfaceLevel(double[] radii, double[] point) {
+    return point[0] * point[0] / (radii[0] * radii[0]) + point[1] * point[1] / (radii[1] * radii[1])
+      + point[2] * point[2] / (radii[2] * radii[2]);
+  }
+}
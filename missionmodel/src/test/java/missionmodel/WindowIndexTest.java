@@ -0,0 +1,81 @@
+package missionmodel;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WindowIndexTest {
+
+  private static Time t(long seconds) {
+    return Time.fromTics(0).add(Duration.fromSeconds(seconds));
+  }
+
+  private static Window w(long start, long end, String type) {
+    return new Window(t(start), t(end), type);
+  }
+
+  @Test
+  public void testOverlappingWindows() {
+    // a long window hiding behind short ones is what the floor/ceiling lookup misses
+    Window longOne = w(0, 100, "LONG");
+    Window a = w(10, 20, "A");
+    Window b = w(30, 40, "B");
+    WindowIndex index = WindowIndex.of(List.of(b, longOne, a));
+
+    assertEquals(List.of(longOne, b), index.intersecting(t(35), t(50)));
+    assertEquals(List.of(longOne), index.containing(t(25)));
+    assertEquals(List.of(longOne, a), index.containing(t(20)));
+    assertEquals(longOne, index.firstIntersecting(t(50), t(60)));
+    assertEquals("LONG", index.firstIntersecting(t(50), t(60)).getType());
+    assertTrue(index.intersecting(t(101), t(200)).isEmpty());
+  }
+
+  @Test
+  public void testNearest() {
+    Window a = w(10, 20, "A");
+    Window b = w(40, 50, "B");
+    WindowIndex index = WindowIndex.of(List.of(a, b));
+
+    assertEquals(a, index.nearest(t(15)));
+    assertEquals(a, index.nearest(t(25)));
+    assertEquals(b, index.nearest(t(36)));
+    assertEquals(a, index.nearest(t(30)));
+    assertEquals(a, index.nearest(t(0)));
+    assertEquals(b, index.nearest(t(90)));
+    assertNull(WindowIndex.of(new ArrayList<>()).nearest(t(0)));
+  }
+
+  @Test
+  public void testMatchesLinearScan() {
+    Random random = new Random(7);
+    List<Window> windows = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      long start = random.nextInt(10000);
+      windows.add(w(start, start + random.nextInt(300), "W" + i));
+    }
+    WindowIndex index = WindowIndex.of(windows);
+
+    for (int q = 0; q < 500; q++) {
+      long start = random.nextInt(10500) - 250;
+      Time qStart = t(start);
+      Time qEnd = t(start + random.nextInt(100));
+      List<Window> expected = new ArrayList<>();
+      for (Window window : windows) {
+        if (!window.getEnd().lessThan(qStart) && !qEnd.lessThan(window.getStart())) {
+          expected.add(window);
+        }
+      }
+      List<Window> found = index.intersecting(qStart, qEnd);
+      assertEquals(expected.size(), found.size());
+      assertTrue(found.containsAll(expected));
+    }
+  }
+}
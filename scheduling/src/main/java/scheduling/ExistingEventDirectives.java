@@ -0,0 +1,71 @@
+package scheduling;
+
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.AnyDirective;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.Directive;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.JPLTimeConvertUtility;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Start times of the geometry event directives already in a plan, by activity type, body and station, so a goal can
+ * skip events that a previous run (or another goal) already added. Events within TOLERANCE of an existing directive of
+ * the same kind count as the same event, since a search over a different interval can refine a time slightly
+ * differently.
+ */
+public class ExistingEventDirectives {
+  public static final Duration TOLERANCE = Duration.fromSeconds(1);
+
+  public static final String[] EVENT_TYPES = {
+    "Apoapsis", "Periapsis", "SpacecraftEnterEclipse", "SpacecraftExitEclipse", "EnterOccultation", "ExitOccultation"
+  };
+
+  private final Map<String, NavigableSet<Time>> starts = new HashMap<>();
+
+  /**
+   * No directives, for a plan without any events yet
+   */
+  public ExistingEventDirectives() {
+  }
+
+  public ExistingEventDirectives(EditablePlan plan) {
+    for (String type : EVENT_TYPES) {
+      for (Directive<AnyDirective> directive : plan.directives(type).collect()) {
+        Map<String, SerializedValue> args = directive.inner.arguments;
+        Time start = JPLTimeConvertUtility.jplTimeFromUTCInstant(plan.toAbsolute(directive.getStartTime()));
+        add(type, argument(args, "body"), argument(args, "station"), start);
+      }
+    }
+  }
+
+  /**
+   * @return true if there is a directive of the type for the body and station (null if none) within TOLERANCE of the time
+   */
+  public boolean contains(String type, String body, String station, Time time) {
+    NavigableSet<Time> times = starts.get(key(type, body, station));
+    if (times == null) {
+      return false;
+    }
+    Time nearest = times.ceiling(time.minus(TOLERANCE));
+    return nearest != null && nearest.lessThanOrEqualTo(time.plus(TOLERANCE));
+  }
+
+  public void add(String type, String body, String station, Time time) {
+    starts.computeIfAbsent(key(type, body, station), k -> new TreeSet<>()).add(time);
+  }
+
+  private static String argument(Map<String, SerializedValue> args, String name) {
+    SerializedValue value = args.get(name);
+    return value == null ? null : value.asString().orElse(null);
+  }
+
+  private static String key(String type, String body, String station) {
+    return type + "|" + body + "|" + station;
+  }
+}
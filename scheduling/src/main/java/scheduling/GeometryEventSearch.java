@@ -0,0 +1,234 @@
+package scheduling;
+
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.NewDirective;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.AnyDirective;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.DirectiveStart;
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.DurationValueMapper;
+import gov.nasa.jpl.aerie.contrib.serialization.mappers.EnumValueMapper;
+import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.FidelityTier;
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.Window;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
+import missionmodel.geometry.resources.EclipseTypes;
+import missionmodel.geometry.spiceinterpolation.Bodies;
+import missionmodel.geometry.spiceinterpolation.Body;
+import missionmodel.geometry.spiceinterpolation.CalculationPeriod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One geometry event search taken from a calculation period in the geometry config, and the directives it produces.
+ * The single-purpose goals (AddApoapses, AddPeriapses, AddSpacecraftEclipses, AddOccultations) make their searches and
+ * directives through here too, so a plan built from the config matches one built goal by goal.
+ * @param abcorr Aberration correction of eclipse and occultation searches; apsides are searched without one
+ */
+public record GeometryEventSearch(Type type, String body, String observer, String target, Time start, Time end,
+                                  Duration stepSize, double threshold, boolean useDSK, String abcorr) {
+
+  /**
+   * Search with the STANDARD tier's correction
+   */
+  public GeometryEventSearch(Type type, String body, String observer, String target, Time start, Time end,
+                             Duration stepSize, double threshold, boolean useDSK) {
+    this(type, body, observer, target, start, end, stepSize, threshold, useDSK, FidelityTier.STANDARD.eventAbcorr());
+  }
+
+  /** Geometry types in the config that produce events, by their key in each body's config */
+  public enum Type {
+    Apoapsis, Periapsis, SolarEclipses, Occultations
+  }
+
+  /** Events found by a search, times for apsides and windows for eclipses and occultations */
+  public record Result(GeometryEventSearch search, List<Time> times, List<Window> windows) {}
+
+  /**
+   * Makes a search for every calculation period of every event type of every body in the config, clipped to a time
+   * range. Occultations are searched from every station, eclipses are of the Sun by the body.
+   * @param bodies Parsed geometry config
+   * @param spacecraft SPICE name of the spacecraft
+   * @param stations SPICE names of the stations to search occultations from
+   * @param start Start of the range to search, usually the plan start
+   * @param end End of the range to search, usually the plan end
+   */
+  public static List<GeometryEventSearch> fromConfig(Bodies bodies, String spacecraft, Collection<String> stations,
+                                                     Time start, Time end) {
+    return fromConfig(bodies, spacecraft, stations, start, end, FidelityTier.STANDARD);
+  }
+
+  /**
+   * As above, with the step sizes and correction of a fidelity tier
+   */
+  public static List<GeometryEventSearch> fromConfig(Bodies bodies, String spacecraft, Collection<String> stations,
+                                                     Time start, Time end, FidelityTier fidelity) {
+    String abcorr = fidelity.eventAbcorr();
+    List<GeometryEventSearch> searches = new ArrayList<>();
+    for (Body body : bodies.getBodiesMap().values()) {
+      for (Type type : Type.values()) {
+        // the threshold is a distance filter for apsides, so a periapsis period without one keeps every periapsis
+        double defaultThreshold = type == Type.Periapsis ? Double.POSITIVE_INFINITY : 0.0;
+        for (CalculationPeriod period : bodies.getCalculationPeriods(body.getName(), type.name(), defaultThreshold)) {
+          Time periodStart = Time.max(start, period.getStart());
+          Time periodEnd = Time.min(end, period.getEnd());
+          if (!periodStart.lessThan(periodEnd)) {
+            continue;
+          }
+          // event searches step at the coarsest allowed step
+          Duration stepSize = fidelity.eventStep(period.getMaxTimeStep());
+          double threshold = period.getThreshold();
+
+          switch (type) {
+            case Apoapsis, Periapsis ->
+              searches.add(new GeometryEventSearch(type, body.getName(), spacecraft, body.getName(), periodStart, periodEnd, stepSize, threshold, false, abcorr));
+            case SolarEclipses ->
+              searches.add(new GeometryEventSearch(type, body.getName(), spacecraft, "SUN", periodStart, periodEnd, stepSize, threshold, body.useDSK(), abcorr));
+            case Occultations -> {
+              for (String station : stations) {
+                searches.add(new GeometryEventSearch(type, body.getName(), station, spacecraft, periodStart, periodEnd, stepSize, threshold, body.useDSK(), abcorr));
+              }
+            }
+          }
+        }
+      }
+    }
+    return searches;
+  }
+
+  /**
+   * @return everything that determines the events found except the time searched, and the kernels searched with, so
+   * intervals searched with the same key never need searching again
+   */
+  public String key(String kernelSetIdentity) {
+    return type + "|" + body + "|" + observer + "|" + target + "|" + stepSize.getTics() + "|"
+      + Long.toHexString(Double.doubleToLongBits(threshold)) + "|" + useDSK + "|" + abcorr + "|" + kernelSetIdentity;
+  }
+
+  /**
+   * @return the same search over a different time range
+   */
+  public GeometryEventSearch over(Time start, Time end) {
+    return new GeometryEventSearch(type, body, observer, target, start, end, stepSize, threshold, useDSK, abcorr);
+  }
+
+  /**
+   * Runs the search. Must be called from the thread that owns SPICE.
+   */
+  public Result run(SpiceDirectEventGenerator generator) {
+    try {
+      return switch (type) {
+        case Apoapsis -> new Result(this, generator.getApoapses(start, end, stepSize, observer, target, threshold, "NONE"), List.of());
+        case Periapsis -> new Result(this, generator.getPeriapses(start, end, stepSize, observer, target, threshold, "NONE"), List.of());
+        // an ellipsoid rather than a point as the eclipsing body, and partials kept separate
+        case SolarEclipses -> new Result(this, List.of(), generator.getOccultations(start, end, stepSize, observer, target, body, abcorr, false, false, useDSK));
+        // the spacecraft is a point source seen from the station, so partials are merged
+        case Occultations -> new Result(this, List.of(), generator.getOccultations(start, end, stepSize, observer, target, body, abcorr, true, true, useDSK));
+      };
+    } catch (GeometryInformationNotAvailableException e) {
+      return new Result(this, List.of(), List.of());
+    }
+  }
+
+  /**
+   * Creates the directives for the events of a search in the plan, without committing them. Events that already have a
+   * directive are skipped, and so is the entry of an eclipse or occultation already in progress at the start of the
+   * search if an earlier search ended there, as that search added the entry.
+   * @param existing Event directives already in the plan, the created ones are added to it
+   * @param continuesEarlierSearch Whether an earlier search with the same signature ended at the start of this one
+   * @param found Every event of the search that the plan now has a directive for, created or not, is added to it
+   * @return number of directives created
+   */
+  public static int createDirectives(EditablePlan plan, Result result, ExistingEventDirectives existing, boolean continuesEarlierSearch,
+                                     List<SearchedIntervals.Event> found) {
+    GeometryEventSearch search = result.search();
+    int created = 0;
+    switch (search.type()) {
+      case Apoapsis, Periapsis -> {
+        Map<String, SerializedValue> actArgs = Map.of("body", SerializedValue.of(search.body()));
+        for (Time time : result.times()) {
+          created += create(plan, existing, found, search.type().name() + "_" + search.body(), search.type().name(), actArgs, time, search.body(), null);
+        }
+      }
+      case SolarEclipses -> {
+        List<Window> eclipses = clip(result.windows(), search.start());
+        for (int i = 0; i < eclipses.size(); i++) {
+          Window eclipse = eclipses.get(i);
+          if (!eclipse.getStart().lessThan(search.end())) {
+            continue;
+          }
+          if (!continuesEarlierSearch || eclipse.getStart().greaterThan(search.start())) {
+            created += create(plan, existing, found, "SpacecraftEnterEclipse_" + search.body(), "SpacecraftEnterEclipse", Map.of(
+                "body", SerializedValue.of(search.body()),
+                "type", new EnumValueMapper<>(EclipseTypes.class).serializeValue(EclipseTypes.valueOf(eclipse.getType())),
+                "duration", new DurationValueMapper().serializeValue(JPLTimeConvertUtility.getDuration(eclipse.getDuration()))),
+              eclipse.getStart(), search.body(), null);
+          }
+
+          // while we always enter an eclipse, we don't always exit - we could transition from full to partial eclipse
+          boolean exits = i == eclipses.size() - 1 || eclipse.getEnd().absoluteDifference(eclipses.get(i + 1).getStart()).greaterThan(Duration.SECOND_DURATION);
+          if (exits && eclipse.getEnd().lessThan(search.end())) {
+            created += create(plan, existing, found, "SpacecraftExitEclipse_" + search.body(), "SpacecraftExitEclipse",
+              Map.of("body", SerializedValue.of(search.body())), eclipse.getEnd(), search.body(), null);
+          }
+        }
+      }
+      case Occultations -> {
+        Map<String, SerializedValue> actArgs = Map.of(
+          "body", SerializedValue.of(search.body()),
+          "station", SerializedValue.of(search.observer()));
+        for (Window occultation : clip(result.windows(), search.start())) {
+          if (!occultation.getStart().lessThan(search.end())) {
+            continue;
+          }
+          if (!continuesEarlierSearch || occultation.getStart().greaterThan(search.start())) {
+            created += create(plan, existing, found, "EnterOccultation_" + search.body(), "EnterOccultation", actArgs,
+              occultation.getStart(), search.body(), search.observer());
+          }
+          if (occultation.getEnd().lessThan(search.end())) {
+            created += create(plan, existing, found, "ExitOccultation_" + search.body(), "ExitOccultation", actArgs,
+              occultation.getEnd(), search.body(), search.observer());
+          }
+        }
+      }
+    }
+    return created;
+  }
+
+  /**
+   * @return windows with those ending before start removed and one straddling it cut to begin there
+   */
+  private static List<Window> clip(List<Window> windows, Time start) {
+    List<Window> clipped = new ArrayList<>();
+    for (Window w : windows) {
+      if (w.getEnd().lessThanOrEqualTo(start)) {
+        continue;
+      }
+      clipped.add(w.getStart().lessThan(start) ? new Window(start, w.getEnd(), w.getType()) : w);
+    }
+    return clipped;
+  }
+
+  /**
+   * @return 1 if the directive was created, 0 if the plan already had it
+   */
+  private static int create(EditablePlan plan, ExistingEventDirectives existing, List<SearchedIntervals.Event> found,
+                            String name, String type, Map<String, SerializedValue> actArgs, Time time, String body, String station) {
+    found.add(new SearchedIntervals.Event(type, body, station, time));
+    if (existing.contains(type, body, station, time)) {
+      return 0;
+    }
+    plan.create(new NewDirective(
+      new AnyDirective(actArgs),
+      name,
+      type,
+      new DirectiveStart.Absolute(plan.toRelative(time.toTimezone("UTC").toInstant()))));
+    existing.add(type, body, station, time);
+    return 1;
+  }
+}
@@ -0,0 +1,109 @@
+package scheduling;
+
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
+import missionmodel.Window;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.spice.Spice;
+import missionmodel.spice.SpiceWorker;
+import spice.basic.SpiceErrorException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs geometry event searches over only the time not already searched with the same signature (see SearchedIntervals),
+ * and adds only the directives the plan doesn't already have (see ExistingEventDirectives). Re-running a goal costs
+ * nothing but the check, and growing the plan costs a search of the new time only.
+ */
+public class IncrementalEventScheduler {
+
+  /**
+   * Part of a search over time not yet searched with the same signature
+   * @param key Signature the part is recorded under once searched
+   * @param continuesEarlierSearch Whether an earlier search with the same signature ended at the start of the part
+   */
+  public record Part(String key, GeometryEventSearch search, boolean continuesEarlierSearch) {}
+
+  private record Pending(Part part, Future<GeometryEventSearch.Result> result) {}
+
+  /**
+   * Searches the uncovered part of every search on the SPICE worker, creates the missing directives, commits them, and
+   * then records the searched time. SPICE must be initialized before calling this.
+   * @param metaKernelPath Meta-kernel SPICE was initialized from. Searched time is recorded under its identity rather
+   *                       than that of the loaded kernels, which are only the subset covering this plan's window.
+   * @return number of directives created
+   */
+  public static int schedule(EditablePlan plan, List<GeometryEventSearch> searches, SpiceDirectEventGenerator generator,
+                             String metaKernelPath) {
+    String kernelSetIdentity = Spice.metaKernelIdentity(metaKernelPath);
+    if (kernelSetIdentity == null) {
+      // kernels not from a readable meta-kernel can still be searched, keyed on exactly what is loaded
+      try {
+        kernelSetIdentity = Spice.kernelSetIdentity();
+      } catch (SpiceErrorException e) {
+        kernelSetIdentity = "unknown";
+      }
+    }
+
+    // queue a search for every uncovered interval
+    ExistingEventDirectives existing = new ExistingEventDirectives(plan);
+    List<Pending> pending = new ArrayList<>();
+    for (Part part : uncoveredParts(searches, kernelSetIdentity, existing)) {
+      pending.add(new Pending(part, SpiceWorker.submit(() -> part.search().run(generator))));
+    }
+    if (pending.isEmpty()) {
+      return 0;
+    }
+
+    // turn each result into directives as it arrives
+    Map<String, List<Window>> searched = new LinkedHashMap<>();
+    Map<String, List<SearchedIntervals.Event>> found = new LinkedHashMap<>();
+    int created = 0;
+    for (Pending p : pending) {
+      String key = p.part().key();
+      try {
+        created += GeometryEventSearch.createDirectives(plan, p.result().get(), existing, p.part().continuesEarlierSearch(),
+          found.computeIfAbsent(key, k -> new ArrayList<>()));
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RuntimeException(e);
+      }
+      searched.computeIfAbsent(key, k -> new ArrayList<>()).add(new Window(p.part().search().start(), p.part().search().end()));
+    }
+
+    // Actually add activities to the plan, and only then remember the time as searched
+    plan.commit();
+    for (Map.Entry<String, List<Window>> entry : searched.entrySet()) {
+      SearchedIntervals.record(entry.getKey(), entry.getValue(), found.get(entry.getKey()));
+    }
+    System.out.println("Added " + created + " directives");
+    return created;
+  }
+
+  /**
+   * @param existing Event directives in the plan, which must have every event recorded in the time skipped
+   * @return the parts of the searches over time not yet searched with their signature under this kernel set
+   */
+  public static List<Part> uncoveredParts(List<GeometryEventSearch> searches, String kernelSetIdentity, ExistingEventDirectives existing) {
+    List<Part> parts = new ArrayList<>();
+    double requestedSeconds = 0.0;
+    double searchedSeconds = 0.0;
+    for (GeometryEventSearch search : searches) {
+      String key = search.key(kernelSetIdentity);
+      requestedSeconds += search.end().subtract(search.start()).totalSeconds();
+      for (Window uncovered : SearchedIntervals.uncovered(key, search.start(), search.end(), existing)) {
+        if (uncovered.hasLengthZero()) {
+          continue;
+        }
+        parts.add(new Part(key, search.over(uncovered.getStart(), uncovered.getEnd()),
+          SearchedIntervals.continuesSearch(key, uncovered.getStart())));
+        searchedSeconds += uncovered.getDuration().totalSeconds();
+      }
+    }
+    System.out.println("Searching " + searchedSeconds + " of " + requestedSeconds + " s of geometry");
+    return parts;
+  }
+}
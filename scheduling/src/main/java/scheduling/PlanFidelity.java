@@ -0,0 +1,50 @@
+package scheduling;
+
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
+import gov.nasa.ammos.aerie.procedural.scheduling.simulation.SimulateOptions;
+import gov.nasa.ammos.aerie.procedural.timeline.collections.profiles.Strings;
+import gov.nasa.ammos.aerie.procedural.timeline.payloads.Segment;
+import gov.nasa.ammos.aerie.procedural.timeline.plan.SimulationResults;
+import missionmodel.FidelityTier;
+import missionmodel.Mission;
+
+import java.util.List;
+
+/**
+ * Fidelity tier of a plan's simulation configuration, read from the Fidelity resource the mission model registers (see
+ * Mission.FIDELITY_RESOURCE), so geometry events are searched with the step sizes and corrections the plan is
+ * simulated with.
+ */
+public class PlanFidelity {
+
+  /**
+   * @param plan Plan whose latest simulation results are read, simulated first if it has none
+   * @param requested Tier a goal was given, or null to take the plan's
+   * @return the plan's tier, the requested one if the plan doesn't say, or STANDARD if neither does
+   * @throws IllegalArgumentException if the requested tier is not the one the plan is simulated at
+   */
+  public static FidelityTier of(EditablePlan plan, FidelityTier requested) {
+    SimulationResults results = plan.latestResults();
+    if (results == null) {
+      results = plan.simulate(new SimulateOptions());
+    }
+    List<Segment<String>> segments = results.resource(Mission.FIDELITY_RESOURCE, Strings.deserializer()).collect();
+    return resolve(segments.isEmpty() ? null : FidelityTier.valueOf(segments.get(0).getValue()), requested);
+  }
+
+  /**
+   * @param simulated Tier the plan is simulated at, null if its results don't have the Fidelity resource
+   * @param requested Tier a goal was given, or null to take the plan's
+   * @throws IllegalArgumentException if both are given and differ
+   */
+  public static FidelityTier resolve(FidelityTier simulated, FidelityTier requested) {
+    if (simulated == null) {
+      return requested != null ? requested : FidelityTier.STANDARD;
+    }
+    if (requested != null && requested != simulated) {
+      throw new IllegalArgumentException("Fidelity " + requested + " does not match the plan's simulation configuration, "
+        + "which is " + simulated + ". Leave the goal's fidelity empty to use the plan's.");
+    }
+    return simulated;
+  }
+}
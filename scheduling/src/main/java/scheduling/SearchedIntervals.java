@@ -0,0 +1,193 @@
+package scheduling;
+
+import gov.nasa.jpl.time.Time;
+import missionmodel.IntervalSet;
+import missionmodel.Window;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record of the time already searched for geometry events, per search signature (see GeometryEventSearch.key), so a
+ * goal that is re-run or whose plan has grown only searches time it hasn't searched before. Intervals are kept in memory
+ * and appended to the record file as they are recorded, and the file is read back the first time the record is used, so
+ * it carries over between scheduling runs.
+ *
+ * The record is not tied to a plan, so along with the intervals it keeps the events each search found. Before time is
+ * skipped as searched, the plan is checked for those events (see uncovered): if any is missing, as it is in a new plan
+ * or one whose event directives were deleted, the recorded interval holding it is forgotten and searched again.
+ *
+ * Set the SEARCHED_INTERVALS_FILE environment variable to choose the record file. Deleting it only costs a full search.
+ */
+public class SearchedIntervals {
+  /**
+   * An event directive a search found, in the terms of ExistingEventDirectives
+   * @param station Station of an occultation, null for other events
+   */
+  public record Event(String type, String body, String station, Time time) {}
+
+  private static final Map<String, IntervalSet> searched = new HashMap<>();
+  private static final Map<String, List<Event>> found = new HashMap<>();
+  private static Path file = Path.of(System.getenv().getOrDefault("SEARCHED_INTERVALS_FILE", "scheduling_searched_intervals.txt"));
+  private static boolean loaded = false;
+
+  /**
+   * Uses a different record file from now on, read the next time the record is used. Null keeps the record in memory only.
+   */
+  public static synchronized void setFile(Path path) {
+    file = path;
+    loaded = false;
+  }
+
+  /**
+   * @return intervals already searched with this signature
+   */
+  public static synchronized IntervalSet get(String key) {
+    loadPersisted();
+    return searched.computeIfAbsent(key, k -> new IntervalSet());
+  }
+
+  /**
+   * @return the parts of [start, end] not yet searched with this signature, after forgetting every recorded interval
+   * in the range with an event the plan doesn't have
+   */
+  public static synchronized List<Window> uncovered(String key, Time start, Time end, ExistingEventDirectives existing) {
+    IntervalSet covered = get(key);
+    List<Event> events = found.getOrDefault(key, List.of());
+    IntervalSet stale = new IntervalSet();
+    int missing = 0;
+    for (Event event : events) {
+      int i = covered.indexOf(event.time().getTics());
+      if (i < 0 || event.time().lessThan(start) || event.time().greaterThan(end)) {
+        continue;
+      }
+      if (!existing.contains(event.type(), event.body(), event.station(), event.time())) {
+        stale.add(covered.startTics(i), covered.endTics(i));
+        missing++;
+      }
+    }
+    if (missing > 0) {
+      System.out.println("Warning: the plan is missing " + missing + " events found by earlier searches for " + key
+        + ", searching " + stale.getDuration() + " again");
+      covered.minusInPlace(stale);
+      events.removeIf(event -> stale.contains(event.time()));
+      rewrite();
+    }
+    return covered.not(start, end).asWindows();
+  }
+
+  /**
+   * @return true if a searched interval ends at the time, meaning a search starting there continues an earlier one
+   */
+  public static synchronized boolean continuesSearch(String key, Time start) {
+    IntervalSet covered = get(key);
+    int i = covered.indexOf(start.getTics());
+    return i >= 0 && covered.endTics(i) == start.getTics();
+  }
+
+  /**
+   * Records intervals as searched, with the events found in them. Call only once the directives are committed.
+   */
+  public static synchronized void record(String key, List<Window> intervals, List<Event> events) {
+    if (intervals.isEmpty()) {
+      return;
+    }
+    IntervalSet covered = get(key);
+    for (Window w : intervals) {
+      covered.add(w.getStart(), w.getEnd());
+    }
+    found.computeIfAbsent(key, k -> new ArrayList<>()).addAll(events);
+
+    if (file == null) {
+      return;
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      write(writer, key, intervals, events);
+    } catch (IOException e) {
+      System.out.println("Could not record searched intervals to " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return events recorded as found with this signature
+   */
+  public static synchronized List<Event> events(String key) {
+    loadPersisted();
+    return List.copyOf(found.getOrDefault(key, List.of()));
+  }
+
+  /**
+   * Forgets what is in memory, so the next use reads the record file again
+   */
+  public static synchronized void clear() {
+    searched.clear();
+    found.clear();
+    loaded = false;
+  }
+
+  // one "I, key, start tics, end tics" line per interval and one "E, key, type, body, station, tics" line per event,
+  // tab separated, with an empty station for events without one
+  private static void write(BufferedWriter writer, String key, List<Window> intervals, List<Event> events) throws IOException {
+    for (Window w : intervals) {
+      writer.write("I\t" + key + "\t" + w.getStart().getTics() + "\t" + w.getEnd().getTics());
+      writer.newLine();
+    }
+    for (Event event : events) {
+      writer.write("E\t" + key + "\t" + event.type() + "\t" + event.body() + "\t" + (event.station() == null ? "" : event.station())
+        + "\t" + event.time().getTics());
+      writer.newLine();
+    }
+  }
+
+  /**
+   * Replaces the record file with what is in memory, after intervals were forgotten
+   */
+  private static void rewrite() {
+    if (file == null) {
+      return;
+    }
+    try {
+      Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "searched", ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+        for (Map.Entry<String, IntervalSet> entry : searched.entrySet()) {
+          write(writer, entry.getKey(), entry.getValue().asWindows(), found.getOrDefault(entry.getKey(), List.of()));
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.out.println("Could not rewrite searched intervals in " + file + ": " + e.getMessage());
+    }
+  }
+
+  private static void loadPersisted() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    if (file == null || !Files.exists(file)) {
+      return;
+    }
+    try {
+      for (String line : Files.readAllLines(file)) {
+        // lines in any other format, including the older ones without events, are ignored and their time searched again
+        String[] fields = line.split("\t", -1);
+        if (fields.length == 4 && fields[0].equals("I")) {
+          searched.computeIfAbsent(fields[1], k -> new IntervalSet()).add(Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+        } else if (fields.length == 6 && fields[0].equals("E")) {
+          found.computeIfAbsent(fields[1], k -> new ArrayList<>()).add(new Event(fields[2], fields[3],
+            fields[4].isEmpty() ? null : fields[4], Time.fromTics(Long.parseLong(fields[5]))));
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      System.out.println("Stopped reading searched intervals from " + file + ": " + e.getMessage());
+    }
+  }
+}
@@ -3,29 +3,21 @@ package scheduling.procedures;
 import gov.nasa.ammos.aerie.procedural.scheduling.Goal;
 import gov.nasa.ammos.aerie.procedural.scheduling.annotations.SchedulingProcedure;
 import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
-import gov.nasa.ammos.aerie.procedural.scheduling.plan.NewDirective;
-import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.AnyDirective;
-import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.DirectiveStart;
-import gov.nasa.jpl.aerie.merlin.framework.annotations.Export;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
-import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.time.Time;
+import missionmodel.FidelityTier;
 import missionmodel.JPLTimeConvertUtility;
-import missionmodel.geometry.activities.atomic.Apoapsis;
 import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
-import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
 import missionmodel.geometry.spiceinterpolation.Bodies;
 import missionmodel.spice.Spice;
+import scheduling.GeometryEventSearch;
+import scheduling.IncrementalEventScheduler;
+import scheduling.PlanFidelity;
 import spice.basic.SpiceErrorException;
 
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
-import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
-import static missionmodel.generated.ActivityActions.spawn;
 
 @SchedulingProcedure
 public record AddApoapses(
@@ -41,43 +33,35 @@ public record AddApoapses(
     @Override
     public void run(EditablePlan plan) {
 
-      // Instantiate Spice
+      // Instantiate Spice, furnishing only the kernels that cover the plan and the bodies this goal searches
       try {
-        Spice.initialize(NAIF_META_KERNEL_PATH);
+        Spice.initializeForWindow(NAIF_META_KERNEL_PATH, plan.toAbsolute(plan.totalBounds().start),
+          plan.toAbsolute(plan.totalBounds().end), List.of(body, target));
       } catch (SpiceErrorException e) {
         System.out.println(e.getMessage());
       }
 
-      // Initialize Geometry Bodies
+      // Initialize Geometry Bodies and Generator
       Bodies bodiesObj = new Bodies();
       SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator(bodiesObj.getBodiesMap());
+
+      // Get useful plan bounds information
       Instant planStart = plan.toAbsolute(plan.totalBounds().start);
+      Time planStartJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(planStart);
       Instant planEnd = plan.toAbsolute(plan.totalBounds().end);
+      Time planEndJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(planEnd);
 
-      List<Time> apoapsisTimes;
-
-      Map<String, SerializedValue> actArgs = Map.of("body", SerializedValue.of(target));
+      // Step and correction of the fidelity tier the plan is simulated at
+      FidelityTier fidelity = PlanFidelity.of(plan, null);
 
-      try {
-        apoapsisTimes = generator.getApoapses( JPLTimeConvertUtility.jplTimeFromUTCInstant(planStart),
-          JPLTimeConvertUtility.jplTimeFromUTCInstant(planEnd),
-          JPLTimeConvertUtility.getJplTimeDur(stepSize), body, target, minDistanceFilter, "NONE");
-      } catch (GeometryInformationNotAvailableException e) {
-        apoapsisTimes = new ArrayList<>();
-      }
-      for(Time apoapsisTime : apoapsisTimes){
-
-        // Create new activity
-        var newDirective = new NewDirective(
-          new AnyDirective(actArgs),
-          "Apoapsis_" + target,
-          "Apoapsis",
-          new DirectiveStart.Absolute(plan.toRelative( apoapsisTime.toTimezone("UTC").toInstant())));
-        plan.create(newDirective);
-
-      }
-      // Actually add activities to the plan
-      plan.commit();
+      // Apoapses of the target as seen from the body, farther than the filter distance
+      GeometryEventSearch search = new GeometryEventSearch(GeometryEventSearch.Type.Apoapsis, target, body, target,
+        planStartJplTime, planEndJplTime, fidelity.eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), minDistanceFilter, false,
+        fidelity.eventAbcorr());
 
+      // Search only plan time not already searched with these parameters, and add only the directives the plan doesn't
+      // already have
+      IncrementalEventScheduler.schedule(plan, List.of(search), generator, NAIF_META_KERNEL_PATH);
     }
+
 }
@@ -0,0 +1,80 @@
+package scheduling.procedures;
+
+import gov.nasa.ammos.aerie.procedural.scheduling.Goal;
+import gov.nasa.ammos.aerie.procedural.scheduling.annotations.SchedulingProcedure;
+import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
+import gov.nasa.jpl.time.Time;
+import missionmodel.FidelityTier;
+import missionmodel.JPLTimeConvertUtility;
+import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
+import missionmodel.geometry.resources.GenericGeometryResources;
+import missionmodel.geometry.spiceinterpolation.Bodies;
+import missionmodel.geometry.spiceinterpolation.BodyCatalog;
+import missionmodel.spice.Spice;
+import scheduling.GeometryEventSearch;
+import scheduling.IncrementalEventScheduler;
+import scheduling.PlanFidelity;
+import spice.basic.SpiceErrorException;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Adds every apoapsis, periapsis, solar eclipse and occultation event asked for by the calculation periods in
+ * default_geometry_config.json, for all bodies and stations, in one pass. The config and kernels are read once, all
+ * searches are queued on the SPICE worker together, and the directives from each search are created while the worker
+ * runs the next one. Everything is added in a single commit. Only time not searched by an earlier run is searched, and
+ * only events the plan doesn't already have are added (see IncrementalEventScheduler). Step sizes and corrections follow
+ * the fidelity tier of the plan's simulation configuration (see PlanFidelity). The fidelity parameter may be left empty;
+ * if given, the goal fails unless it matches the plan's.
+ */
+@SchedulingProcedure
+public record AddGeometryEvents(
+        String spacecraft,
+        FidelityTier fidelity ) implements Goal {
+
+    public static final Path VERSIONED_KERNELS_ROOT_DIRECTORY = Path.of(System.getenv().getOrDefault("SPICE_DIRECTORY", "spice/kernels"));
+
+    public static final String NAIF_META_KERNEL_PATH = VERSIONED_KERNELS_ROOT_DIRECTORY.toString() + "/latest_meta_kernel.tm";
+
+    @Override
+    public void run(EditablePlan plan) {
+
+      // Get useful plan bounds information
+      Instant planStart = plan.toAbsolute(plan.totalBounds().start);
+      Time planStartJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(planStart);
+      Instant planEnd = plan.toAbsolute(plan.totalBounds().end);
+      Time planEndJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(planEnd);
+
+      // Plan every search from the config up front. No kernels are loaded yet, so the config is read without SPICE.
+      List<String> stations = new ArrayList<>(GenericGeometryResources.ComplexRepresentativeStation.values());
+      List<GeometryEventSearch> searches = GeometryEventSearch.fromConfig(new Bodies(BodyCatalog.withoutKernels()), spacecraft, stations, planStartJplTime,
+        planEndJplTime, PlanFidelity.of(plan, fidelity));
+      if (searches.isEmpty()) {
+        return;
+      }
+
+      // Instantiate Spice once, with the kernels covering the plan for every body the searches involve
+      Set<String> involved = new TreeSet<>();
+      for (GeometryEventSearch search : searches) {
+        involved.add(search.body());
+        involved.add(search.observer());
+        involved.add(search.target());
+      }
+      try {
+        Spice.initializeForWindow(NAIF_META_KERNEL_PATH, planStart, planEnd, involved);
+      } catch (SpiceErrorException e) {
+        System.out.println(e.getMessage());
+      }
+
+      // Search whatever time hasn't been searched yet on the SPICE worker, sharing one generator and its parsed bodies,
+      // and add the directives the plan is missing in a single commit. The bodies are taken now the kernels are loaded.
+      Bodies bodiesObj = new Bodies();
+      SpiceDirectEventGenerator generator = new SpiceDirectEventGenerator(bodiesObj.getBodiesMap());
+      IncrementalEventScheduler.schedule(plan, searches, generator, NAIF_META_KERNEL_PATH);
+    }
+}
@@ -3,34 +3,21 @@ package scheduling.procedures;
 import gov.nasa.ammos.aerie.procedural.scheduling.Goal;
 import gov.nasa.ammos.aerie.procedural.scheduling.annotations.SchedulingProcedure;
 import gov.nasa.ammos.aerie.procedural.scheduling.plan.EditablePlan;
-import gov.nasa.ammos.aerie.procedural.scheduling.plan.NewDirective;
-import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.AnyDirective;
-import gov.nasa.ammos.aerie.procedural.timeline.payloads.activities.DirectiveStart;
-import gov.nasa.jpl.aerie.contrib.serialization.mappers.DurationValueMapper;
-import gov.nasa.jpl.aerie.contrib.serialization.mappers.EnumValueMapper;
-import gov.nasa.jpl.aerie.merlin.framework.annotations.Export;
 import gov.nasa.jpl.aerie.merlin.protocol.types.Duration;
-import gov.nasa.jpl.aerie.merlin.protocol.types.SerializedValue;
 import gov.nasa.jpl.time.Time;
+import missionmodel.FidelityTier;
 import missionmodel.JPLTimeConvertUtility;
-import missionmodel.Window;
-import missionmodel.geometry.activities.atomic.EnterOccultation;
-import missionmodel.geometry.activities.atomic.ExitOccultation;
 import missionmodel.geometry.directspicecalls.SpiceDirectEventGenerator;
-import missionmodel.geometry.interfaces.GeometryInformationNotAvailableException;
-import missionmodel.geometry.resources.EclipseTypes;
 import missionmodel.geometry.spiceinterpolation.Bodies;
 import missionmodel.spice.Spice;
+import scheduling.GeometryEventSearch;
+import scheduling.IncrementalEventScheduler;
+import scheduling.PlanFidelity;
 import spice.basic.SpiceErrorException;
 
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
-import static gov.nasa.jpl.aerie.merlin.framework.ModelActions.delay;
-import static missionmodel.generated.ActivityActions.spawn;
 
 @SchedulingProcedure
 public record AddOccultations(
@@ -47,9 +34,10 @@ public record AddOccultations(
     @Override
     public void run(EditablePlan plan) {
 
-      // Instantiate Spice
+      // Instantiate Spice, furnishing only the kernels that cover the plan and the bodies this goal searches
       try {
-        Spice.initialize(NAIF_META_KERNEL_PATH);
+        Spice.initializeForWindow(NAIF_META_KERNEL_PATH, plan.toAbsolute(plan.totalBounds().start),
+          plan.toAbsolute(plan.totalBounds().end), List.of(observer, target, occultingBody, "SUN"));
       } catch (SpiceErrorException e) {
         System.out.println(e.getMessage());
       }
@@ -64,73 +52,18 @@ public record AddOccultations(
       Instant planEnd = plan.toAbsolute(plan.totalBounds().end);
       Time planEndJplTime = JPLTimeConvertUtility.jplTimeFromUTCInstant(planEnd);
 
-      // Compute occultations
-      List<Window> occultationTimes;
-      try {
-        // we are looking from the observer (e.g. a DSN station) and treating the target spacecraft as a point source,
-        // and so a 'partial' is not meaningful
-        occultationTimes = generator.getOccultations( planStartJplTime, planEndJplTime,
-          JPLTimeConvertUtility.getJplTimeDur(stepSize), observer, target, occultingBody,"CN", true, true, useDSK);
-      } catch (GeometryInformationNotAvailableException e) {
-        occultationTimes = new ArrayList<>();
-      }
-
-      // There may be some occultations that are before the start of this plan. Remove them or alter the start time to start
-      // at the start time of the plan
-      while (!occultationTimes.isEmpty() && occultationTimes.getFirst().getStart().lessThan(planStartJplTime)) {
-        if (occultationTimes.getFirst().getEnd().lessThanOrEqualTo(planStartJplTime)) {
-          occultationTimes.removeFirst();
-        } else if (occultationTimes.getFirst().getStart().lessThan(planStartJplTime)) {
-          occultationTimes.set(0, new Window(planStartJplTime, occultationTimes.getFirst().getEnd(), occultationTimes.getFirst().getType()) );
-        }
-      }
-
-      // Assume 'target' is always the spacecraft
-      Map<String, SerializedValue> actArgs = Map.of(
-        "body", SerializedValue.of(occultingBody),
-        "station", SerializedValue.of(observer));
-
-      // Loop through occultations and add start/end activities when appropriate
-      Duration durToSearchEnd = plan.totalBounds().duration();
-      Time now = planStartJplTime;
-      for(Window w : occultationTimes){
-        // Don't spawn any occultations at or after the end of the search duration
-        if (w.getStart().lessThan(planEndJplTime)) {
-          // Wait until start time of occultation and spawn EnterOccultation
-          gov.nasa.jpl.time.Duration delayTime = w.getStart().minus(now);
-          now = now.plus(delayTime);
-
-          // Create new activity
-          var newDirective = new NewDirective(
-            new AnyDirective(actArgs),
-            "EnterOccultation_" + occultingBody,
-            "EnterOccultation",
-            new DirectiveStart.Absolute(plan.toRelative( now.toTimezone("UTC").toInstant()) ));
-          plan.create(newDirective);
+      // Step and correction of the fidelity tier the plan is simulated at
+      FidelityTier fidelity = PlanFidelity.of(plan, null);
 
-          // Wait until end time of occultation and spawn ExitOccultation
-          durToSearchEnd = durToSearchEnd.minus(JPLTimeConvertUtility.getDuration(delayTime));
-          delayTime = w.getEnd().minus(now);
+      // We are looking from the observer (e.g. a DSN station) and treating the target spacecraft as a point source,
+      // and so a 'partial' is not meaningful
+      GeometryEventSearch search = new GeometryEventSearch(GeometryEventSearch.Type.Occultations, occultingBody, observer, target,
+        planStartJplTime, planEndJplTime, fidelity.eventStep(JPLTimeConvertUtility.getJplTimeDur(stepSize)), 0.0, useDSK,
+        fidelity.eventAbcorr());
 
-          // Check to make sure the end of the occultation is not past the end of the search window. If it is, we are done
-          // and do not need to add an exit occultation activity
-          if (durToSearchEnd.minus(JPLTimeConvertUtility.getDuration(delayTime)).isPositive()) {
-            now = now.plus(delayTime);
-            // Assume 'target' is always the spacecraft
-            // Create new activity
-            newDirective = new NewDirective(
-              new AnyDirective(actArgs),
-              "ExitOccultation_" + occultingBody,
-              "ExitOccultation",
-              new DirectiveStart.Absolute(plan.toRelative( now.toTimezone("UTC").toInstant()) ));
-            plan.create(newDirective);
-
-            durToSearchEnd = durToSearchEnd.minus(JPLTimeConvertUtility.getDuration(delayTime));
-          }
-        }
-      }
-      // Actually add activities to the plan
-      plan.commit();
+      // Search only plan time not already searched with these parameters, and add only the directives the plan doesn't
+      // already have
+      IncrementalEventScheduler.schedule(plan, List.of(search), generator, NAIF_META_KERNEL_PATH);
     }
 
 }
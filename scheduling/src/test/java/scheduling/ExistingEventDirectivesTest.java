@@ -0,0 +1,38 @@
+package scheduling;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExistingEventDirectivesTest {
+
+  private final Time t = new Time("2024-01-02T00:00:00");
+
+  @Test
+  public void testMatchesWithinTolerance() {
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    assertFalse(existing.contains("Periapsis", "MARS", null, t));
+    existing.add("Periapsis", "MARS", null, t);
+
+    assertTrue(existing.contains("Periapsis", "MARS", null, t));
+    assertTrue(existing.contains("Periapsis", "MARS", null, t.plus(ExistingEventDirectives.TOLERANCE)));
+    assertTrue(existing.contains("Periapsis", "MARS", null, t.minus(ExistingEventDirectives.TOLERANCE)));
+    assertFalse(existing.contains("Periapsis", "MARS", null, t.plus(Duration.fromSeconds(2))));
+    assertFalse(existing.contains("Periapsis", "MARS", null, t.minus(Duration.fromSeconds(2))));
+  }
+
+  @Test
+  public void testKindsKeptApart() {
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    existing.add("EnterOccultation", "MARS", "DSS-14", t);
+
+    assertTrue(existing.contains("EnterOccultation", "MARS", "DSS-14", t));
+    assertFalse(existing.contains("EnterOccultation", "MARS", "DSS-43", t));
+    assertFalse(existing.contains("EnterOccultation", "MARS", null, t));
+    assertFalse(existing.contains("ExitOccultation", "MARS", "DSS-14", t));
+    assertFalse(existing.contains("EnterOccultation", "EARTH", "DSS-14", t));
+  }
+}
@@ -0,0 +1,90 @@
+package scheduling;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Window;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalEventSchedulerTest {
+
+  private final Time start = new Time("2024-01-02T00:00:00");
+
+  @BeforeEach
+  public void setUp() {
+    SearchedIntervals.clear();
+    SearchedIntervals.setFile(null);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SearchedIntervals.clear();
+  }
+
+  private Time hours(int h) {
+    return start.plus(Duration.fromHours(h));
+  }
+
+  private GeometryEventSearch periapses(int fromHours, int toHours) {
+    return new GeometryEventSearch(GeometryEventSearch.Type.Periapsis, "MARS", "-74", "MARS", hours(fromHours),
+      hours(toHours), Duration.fromMinutes(5), Double.POSITIVE_INFINITY, false);
+  }
+
+  @Test
+  public void testOnlyNewTimeSearched() {
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    List<IncrementalEventScheduler.Part> first = IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 10)), "kernels", existing);
+    assertEquals(1, first.size());
+    assertEquals(hours(0), first.get(0).search().start());
+    assertFalse(first.get(0).continuesEarlierSearch());
+
+    SearchedIntervals.Event found = new SearchedIntervals.Event("Periapsis", "MARS", null, hours(5));
+    SearchedIntervals.record(first.get(0).key(), List.of(new Window(hours(0), hours(10))), List.of(found));
+    existing.add(found.type(), found.body(), found.station(), found.time());
+
+    // the plan grew by five hours
+    List<IncrementalEventScheduler.Part> grown = IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 15)), "kernels", existing);
+    assertEquals(1, grown.size());
+    assertEquals(hours(10), grown.get(0).search().start());
+    assertEquals(hours(15), grown.get(0).search().end());
+    assertTrue(grown.get(0).continuesEarlierSearch());
+
+    // nothing left to do for the same range
+    assertTrue(IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 10)), "kernels", existing).isEmpty());
+  }
+
+  @Test
+  public void testSignatureChangesSearchAgain() {
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    String key = periapses(0, 10).key("kernels");
+    SearchedIntervals.record(key, List.of(new Window(hours(0), hours(10))), List.of());
+
+    assertTrue(IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 10)), "kernels", existing).isEmpty());
+    assertEquals(1, IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 10)), "other kernels", existing).size());
+    GeometryEventSearch finer = new GeometryEventSearch(GeometryEventSearch.Type.Periapsis, "MARS", "-74", "MARS", hours(0),
+      hours(10), Duration.fromMinutes(1), Double.POSITIVE_INFINITY, false);
+    assertNotEquals(key, finer.key("kernels"));
+    assertEquals(1, IncrementalEventScheduler.uncoveredParts(List.of(finer), "kernels", existing).size());
+  }
+
+  @Test
+  public void testDeletedDirectiveSearchedAgain() {
+    SearchedIntervals.Event found = new SearchedIntervals.Event("Periapsis", "MARS", null, hours(5));
+    SearchedIntervals.record(periapses(0, 10).key("kernels"), List.of(new Window(hours(0), hours(10))), List.of(found));
+
+    // the plan doesn't have the periapsis the record says was found
+    List<IncrementalEventScheduler.Part> parts = IncrementalEventScheduler.uncoveredParts(List.of(periapses(0, 10)), "kernels",
+      new ExistingEventDirectives());
+    assertEquals(1, parts.size());
+    assertEquals(hours(0), parts.get(0).search().start());
+    assertEquals(hours(10), parts.get(0).search().end());
+  }
+}
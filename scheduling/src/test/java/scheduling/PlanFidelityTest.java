@@ -0,0 +1,27 @@
+package scheduling;
+
+import missionmodel.FidelityTier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PlanFidelityTest {
+
+  @Test
+  public void testPlanTierWins() {
+    assertEquals(FidelityTier.QUICK_LOOK, PlanFidelity.resolve(FidelityTier.QUICK_LOOK, null));
+    assertEquals(FidelityTier.FINAL, PlanFidelity.resolve(FidelityTier.FINAL, FidelityTier.FINAL));
+  }
+
+  @Test
+  public void testMismatchFails() {
+    assertThrows(IllegalArgumentException.class, () -> PlanFidelity.resolve(FidelityTier.QUICK_LOOK, FidelityTier.FINAL));
+  }
+
+  @Test
+  public void testWithoutPlanTier() {
+    assertEquals(FidelityTier.FINAL, PlanFidelity.resolve(null, FidelityTier.FINAL));
+    assertEquals(FidelityTier.STANDARD, PlanFidelity.resolve(null, null));
+  }
+}
@@ -0,0 +1,98 @@
+package scheduling;
+
+import gov.nasa.jpl.time.Duration;
+import gov.nasa.jpl.time.Time;
+import missionmodel.Window;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchedIntervalsTest {
+
+  private Path file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = Files.createTempFile("searched", ".txt");
+    Files.delete(file);
+    SearchedIntervals.clear();
+    SearchedIntervals.setFile(file);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    SearchedIntervals.setFile(null);
+    SearchedIntervals.clear();
+    Files.deleteIfExists(file);
+  }
+
+  private static Time t(long seconds) {
+    return Time.fromTics(seconds * Duration.ONE_SECOND);
+  }
+
+  private static Window w(long start, long end) {
+    return new Window(t(start), t(end));
+  }
+
+  private static SearchedIntervals.Event periapsis(long seconds) {
+    return new SearchedIntervals.Event("Periapsis", "MARS", null, t(seconds));
+  }
+
+  // forgets what's in memory and reads the file again
+  private void reload() {
+    SearchedIntervals.clear();
+    SearchedIntervals.setFile(file);
+  }
+
+  @Test
+  public void testSkipsSearchedTimeWhilePlanHasEvents() {
+    SearchedIntervals.record("k", List.of(w(0, 100), w(200, 300)), List.of(periapsis(50), periapsis(250)));
+    reload();
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    existing.add("Periapsis", "MARS", null, t(50));
+    existing.add("Periapsis", "MARS", null, t(250));
+
+    assertEquals(List.of(w(100, 200), w(300, 400)), SearchedIntervals.uncovered("k", t(0), t(400), existing));
+    assertTrue(SearchedIntervals.continuesSearch("k", t(100)));
+    assertFalse(SearchedIntervals.continuesSearch("k", t(150)));
+    // other signatures share nothing
+    assertEquals(List.of(w(0, 400)), SearchedIntervals.uncovered("other", t(0), t(400), existing));
+  }
+
+  @Test
+  public void testMissingEventsSearchedAgain() {
+    SearchedIntervals.record("k", List.of(w(0, 100), w(200, 300)), List.of(periapsis(50), periapsis(250)));
+    // a plan that lost the first periapsis, e.g. a new plan over the same time with only the second
+    ExistingEventDirectives existing = new ExistingEventDirectives();
+    existing.add("Periapsis", "MARS", null, t(250));
+
+    assertEquals(List.of(w(0, 200)), SearchedIntervals.uncovered("k", t(0), t(300), existing));
+    assertEquals(List.of(periapsis(250)), SearchedIntervals.events("k"));
+
+    // the file no longer claims the forgotten time
+    reload();
+    assertEquals(List.of(w(0, 200)), SearchedIntervals.uncovered("k", t(0), t(300), existing));
+  }
+
+  @Test
+  public void testEventsOutsideRangeNotChecked() {
+    SearchedIntervals.record("k", List.of(w(0, 100)), List.of(periapsis(90)));
+    assertEquals(List.of(), SearchedIntervals.uncovered("k", t(0), t(50), new ExistingEventDirectives()));
+  }
+
+  @Test
+  public void testOldRecordsIgnored() throws IOException {
+    Files.writeString(file, "k\t0\t" + t(100).getTics() + "\n");
+    reload();
+    assertEquals(List.of(w(0, 100)), SearchedIntervals.uncovered("k", t(0), t(100), new ExistingEventDirectives()));
+  }
+}